@@ -47,5 +47,7 @@ public class MavenProjectType extends ProjectTypeDef {
         setValueProviderFactory(OUTPUT_FOLDER, mavenValueProviderFactory);
 
         addParent(JAVA_ID);
+        // only pom.xml of project is declared as dependency of values, changes of other files model may be read from are not tracked
+        setValueCacheLimits(60, DEFAULT_VALUE_CACHE_SIZE);
     }
 }
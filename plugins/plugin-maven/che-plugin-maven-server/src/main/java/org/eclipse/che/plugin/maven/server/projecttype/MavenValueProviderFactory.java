@@ -66,6 +66,11 @@ public class MavenValueProviderFactory implements ValueProviderFactory {
         return new MavenValueProvider(projectFolder);
     }
 
+    @Override
+    public List<String> getDependencies() {
+        return Collections.singletonList("pom.xml");
+    }
+
     protected class MavenValueProvider extends ReadonlyValueProvider {
 
         protected FolderEntry projectFolder;
@@ -0,0 +1,258 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.git;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Reads state of git repository directly from files of its git directory without running git. Git directory is either {@code .git}
+ * directory of work tree or directory that {@code .git} file points to with {@code gitdir:} line, e.g. for submodules and linked work
+ * trees. Configuration of linked work tree is read from common directory that is pointed with {@code commondir} file.
+ * <p/>
+ * Values are the same as git shows them. Configuration that changes them in ways reader does not follow, e.g. includes of other files
+ * or rewriting of URLs with {@code insteadOf}, is not read, callers should run git in this case.
+ */
+class GitDirectoryReader {
+    private static final String GIT_DIR       = ".git";
+    private static final String GITDIR_PREFIX = "gitdir:";
+    private static final String REF_PREFIX    = "ref:";
+    private static final String HEADS_PREFIX  = "refs/heads/";
+
+    private final Path       gitDir;
+    private final Path       commonDir;
+    private final List<Path> globalConfigs;
+
+    private GitDirectoryReader(Path gitDir, Path commonDir, List<Path> globalConfigs) {
+        this.gitDir = gitDir;
+        this.commonDir = commonDir;
+        this.globalConfigs = globalConfigs;
+    }
+
+    /**
+     * Finds git repository that folder belongs to. Folder itself and its ancestors are checked, the same as git does it.
+     *
+     * @param folder
+     *         folder on local file system
+     * @return reader of repository or {@code null} if folder is not inside of work tree of any repository
+     * @throws IOException
+     *         if any error occurs while reading files of git directory
+     */
+    static GitDirectoryReader find(Path folder) throws IOException {
+        return find(folder, defaultGlobalConfigs());
+    }
+
+    /** The same as {@link #find(Path)} but with specified system and user configuration files that are checked for remotes. */
+    static GitDirectoryReader find(Path folder, List<Path> globalConfigs) throws IOException {
+        final Path absolute = folder.toAbsolutePath().normalize();
+        for (Path current = absolute; current != null; current = current.getParent()) {
+            if (current.getFileName() != null && GIT_DIR.equals(current.getFileName().toString())) {
+                // folder is inside of git directory, not inside of work tree
+                return null;
+            }
+        }
+        for (Path current = absolute; current != null; current = current.getParent()) {
+            final Path dotGit = current.resolve(GIT_DIR);
+            if (Files.isDirectory(dotGit)) {
+                if (Files.isRegularFile(dotGit.resolve("HEAD"))) {
+                    return new GitDirectoryReader(dotGit, commonDirOf(dotGit), globalConfigs);
+                }
+            } else if (Files.isRegularFile(dotGit)) {
+                final String content = readFirstLine(dotGit);
+                if (content != null && content.startsWith(GITDIR_PREFIX)) {
+                    final Path gitDir = current.resolve(content.substring(GITDIR_PREFIX.length()).trim()).normalize();
+                    if (Files.isRegularFile(gitDir.resolve("HEAD"))) {
+                        return new GitDirectoryReader(gitDir, commonDirOf(gitDir), globalConfigs);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets name of current branch in the same form as {@code git branch} shows it.
+     *
+     * @return name of branch, e.g. {@code master}, {@code (HEAD detached at 1a2b3c4)} if HEAD points to commit or {@code null} if current
+     * branch has no commits yet, {@code git branch} shows no branch then
+     */
+    String getCurrentBranch() throws IOException {
+        final String head = readFirstLine(gitDir.resolve("HEAD"));
+        if (head == null) {
+            throw new IOException("HEAD of repository " + gitDir + " is empty");
+        }
+        if (head.startsWith(REF_PREFIX)) {
+            final String ref = head.substring(REF_PREFIX.length()).trim();
+            if (!refExists(ref)) {
+                return null;
+            }
+            return ref.startsWith(HEADS_PREFIX) ? ref.substring(HEADS_PREFIX.length()) : ref;
+        }
+        return "(HEAD detached at " + head.substring(0, Math.min(7, head.length())) + ")";
+    }
+
+    /**
+     * Gets URLs of remotes in order they are declared in configuration of repository. For each remote the same URL is taken as git uses
+     * for the last line of {@code git remote -v}: the last push URL if remote has any, otherwise the last URL.
+     *
+     * @return URLs of remotes or {@code null} if configuration of repository, of user or of system includes other files, rewrites URLs or
+     * declares remotes outside of repository, URLs must be got from git then
+     */
+    List<String> getRemoteUrls() throws IOException {
+        for (Path globalConfig : globalConfigs) {
+            if (Files.isRegularFile(globalConfig) && readRemoteUrls(globalConfig, true) == null) {
+                return null;
+            }
+        }
+        final Path config = commonDir.resolve("config");
+        if (!Files.isRegularFile(config)) {
+            return new ArrayList<>();
+        }
+        return readRemoteUrls(config, false);
+    }
+
+    /** Reads URLs of remotes from configuration file, returns {@code null} if file uses configuration that is not supported by reader. */
+    private static List<String> readRemoteUrls(Path config, boolean global) throws IOException {
+        final Map<String, String> urls = new LinkedHashMap<>();
+        final Map<String, String> pushUrls = new LinkedHashMap<>();
+        String remote = null;
+        for (String line : Files.readAllLines(config, StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (line.isEmpty() || line.charAt(0) == '#' || line.charAt(0) == ';') {
+                continue;
+            }
+            if (line.charAt(0) == '[') {
+                final String section = parseSectionName(line);
+                if ("include".equals(section) || "includeif".equals(section) || "url".equals(section)
+                    || (global && "remote".equals(section))) {
+                    return null;
+                }
+                remote = parseRemoteSection(line);
+                if (remote != null) {
+                    urls.putIfAbsent(remote, null);
+                }
+                continue;
+            }
+            if (remote != null) {
+                final int eq = line.indexOf('=');
+                if (eq > 0) {
+                    final String name = line.substring(0, eq).trim();
+                    if ("url".equalsIgnoreCase(name)) {
+                        urls.put(remote, parseValue(line.substring(eq + 1)));
+                    } else if ("pushurl".equalsIgnoreCase(name)) {
+                        pushUrls.put(remote, parseValue(line.substring(eq + 1)));
+                    }
+                }
+            }
+        }
+        final List<String> result = new ArrayList<>(urls.size());
+        urls.forEach((name, url) -> {
+            final String pushUrl = pushUrls.get(name);
+            if (pushUrl != null || url != null) {
+                result.add(pushUrl != null ? pushUrl : url);
+            }
+        });
+        return result;
+    }
+
+    /** Returns lower case name of section without subsection, e.g. {@code remote} for {@code [remote "origin"]}. */
+    private static String parseSectionName(String line) {
+        int end = 1;
+        while (end < line.length() && (Character.isLetterOrDigit(line.charAt(end)) || line.charAt(end) == '-')) {
+            end++;
+        }
+        return line.substring(1, end).toLowerCase();
+    }
+
+    /** Returns name of remote if line is header of remote section, e.g. {@code [remote "origin"]}, otherwise returns {@code null}. */
+    private static String parseRemoteSection(String line) {
+        final int end = line.lastIndexOf(']');
+        if (end < 0) {
+            return null;
+        }
+        final String header = line.substring(1, end).trim();
+        final int quote = header.indexOf('"');
+        if (quote < 0 || !"remote".equalsIgnoreCase(header.substring(0, quote).trim())) {
+            return null;
+        }
+        final int closingQuote = header.lastIndexOf('"');
+        return closingQuote > quote ? header.substring(quote + 1, closingQuote) : null;
+    }
+
+    /** Checks whether ref is stored either as loose ref file or in packed refs of repository. */
+    private boolean refExists(String ref) throws IOException {
+        if (Files.isRegularFile(commonDir.resolve(ref)) || Files.isRegularFile(gitDir.resolve(ref))) {
+            return true;
+        }
+        final Path packedRefs = commonDir.resolve("packed-refs");
+        if (Files.isRegularFile(packedRefs)) {
+            for (String line : Files.readAllLines(packedRefs, StandardCharsets.UTF_8)) {
+                if (line.endsWith(' ' + ref) && line.charAt(0) != '#' && line.charAt(0) != '^') {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Strips inline comment and quotes of value of configuration variable. */
+    private static String parseValue(String raw) {
+        final StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < raw.length(); i++) {
+            final char c = raw.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == '\\' && i + 1 < raw.length()) {
+                final char next = raw.charAt(++i);
+                value.append(next == 't' ? '\t' : next == 'n' ? '\n' : next);
+            } else if ((c == '#' || c == ';') && !quoted) {
+                break;
+            } else {
+                value.append(c);
+            }
+        }
+        return value.toString().trim();
+    }
+
+    private static Path commonDirOf(Path gitDir) throws IOException {
+        final Path commonDirFile = gitDir.resolve("commondir");
+        if (Files.isRegularFile(commonDirFile)) {
+            final String commonDir = readFirstLine(commonDirFile);
+            if (commonDir != null) {
+                return gitDir.resolve(commonDir).normalize();
+            }
+        }
+        return gitDir;
+    }
+
+    /** Gets configuration files of system and of user that git reads before configuration of repository. */
+    private static List<Path> defaultGlobalConfigs() {
+        final String home = System.getProperty("user.home");
+        final String xdgConfigHome = System.getenv("XDG_CONFIG_HOME");
+        final Path xdgConfigDir = xdgConfigHome == null || xdgConfigHome.isEmpty() ? Paths.get(home, ".config") : Paths.get(xdgConfigHome);
+        return asList(Paths.get("/etc/gitconfig"), xdgConfigDir.resolve("git/config"), Paths.get(home, ".gitconfig"));
+    }
+
+    private static String readFirstLine(Path file) throws IOException {
+        final List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        return lines.isEmpty() ? null : lines.get(0).trim();
+    }
+}
@@ -36,5 +36,7 @@ public class GitProjectType extends TransientMixin {
                               gitRepositoryValueProviderFactory);
         addVariableDefinition(GIT_REPOSITORY_REMOTES, "List of git repository remote addresses", false,
                               gitRepositoryValueProviderFactory);
+        // folder may be inside of work tree of repository which root is above it, changes of such repository are not tracked
+        setValueCacheLimits(60, DEFAULT_VALUE_CACHE_SIZE);
     }
 }
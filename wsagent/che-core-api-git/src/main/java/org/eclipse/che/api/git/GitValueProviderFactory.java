@@ -21,8 +21,13 @@ import org.eclipse.che.api.project.server.type.ReadonlyValueProvider;
 import org.eclipse.che.api.project.server.type.ValueProvider;
 import org.eclipse.che.api.project.server.type.ValueProviderFactory;
 import org.eclipse.che.api.project.server.type.ValueStorageException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.inject.Singleton;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -33,10 +38,18 @@ import static org.eclipse.che.api.git.GitProjectType.VCS_PROVIDER_NAME;
 import static org.eclipse.che.dto.server.DtoFactory.newDto;
 
 /**
+ * Provides git attributes of project. Attributes are read directly from files of git directory, git is run only if these files may not
+ * be read or if configuration of repository uses features that reader doesn't follow, see {@link GitDirectoryReader}.
+ *
  * @author Roman Nikitenko
  */
 @Singleton
 public class GitValueProviderFactory implements ValueProviderFactory {
+    private static final Logger LOG = LoggerFactory.getLogger(GitValueProviderFactory.class);
+
+    /* Current branch is stored in HEAD and remotes are stored in config, branch is shown only once its first commit creates its ref. */
+    private static final List<String> DEPENDENCIES =
+            Collections.unmodifiableList(Arrays.asList(".git/HEAD", ".git/config", ".git/refs/heads"));
 
     @Inject
     private GitConnectionFactory gitConnectionFactory;
@@ -49,6 +62,14 @@ public class GitValueProviderFactory implements ValueProviderFactory {
                 if (folder == null) {
                     return Collections.emptyList();
                 }
+                try {
+                    final List<String> values = readValues(folder, attributeName);
+                    if (values != null) {
+                        return values;
+                    }
+                } catch (ApiException | IOException e) {
+                    LOG.warn("Unable to read git directory of {}, git is used instead. {}", folder.getPath(), e.getMessage());
+                }
                 try (GitConnection gitConnection = gitConnectionFactory.getConnection(resolveLocalPath(folder))) {
                     //check whether the folder belongs to git repository
                     if (!gitConnection.isInsideWorkTree()) {
@@ -75,6 +96,31 @@ public class GitValueProviderFactory implements ValueProviderFactory {
         };
     }
 
+    /** Reads values of attribute from files of git directory, returns {@code null} if values may be got only from git. */
+    private List<String> readValues(FolderEntry folder, String attributeName) throws ApiException, IOException {
+        final GitDirectoryReader repository = GitDirectoryReader.find(Paths.get(resolveLocalPath(folder)));
+        //check whether the folder belongs to git repository
+        if (repository == null) {
+            return Collections.emptyList();
+        }
+
+        switch (attributeName) {
+            case VCS_PROVIDER_NAME:
+                return Collections.singletonList("git");
+            case GIT_CURRENT_BRANCH_NAME:
+                return Collections.singletonList(repository.getCurrentBranch());
+            case GIT_REPOSITORY_REMOTES:
+                return repository.getRemoteUrls();
+            default:
+                return Collections.emptyList();
+        }
+    }
+
+    @Override
+    public List<String> getDependencies() {
+        return DEPENDENCIES;
+    }
+
     private String resolveLocalPath(FolderEntry folder) throws ApiException {
         return folder.getVirtualFile().toIoFile().getAbsolutePath();
     }
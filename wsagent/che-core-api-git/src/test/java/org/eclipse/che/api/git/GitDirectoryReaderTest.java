@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.git;
+
+import org.eclipse.che.commons.lang.IoUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class GitDirectoryReaderTest {
+    private Path root;
+    private Path project;
+
+    @Before
+    public void setUp() throws Exception {
+        root = Files.createTempDirectory("git-directory-reader");
+        project = Files.createDirectories(root.resolve("project"));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        IoUtil.deleteRecursive(root.toFile());
+    }
+
+    @Test
+    public void returnsNullWhenFolderIsNotInsideOfWorkTree() throws Exception {
+        assertNull(find(project));
+    }
+
+    @Test
+    public void findsRepositoryOfAncestorFolder() throws Exception {
+        initRepository(project, "ref: refs/heads/master");
+
+        assertNotNull(find(Files.createDirectories(project.resolve("src/main"))));
+    }
+
+    @Test
+    public void returnsNullWhenFolderIsInsideOfGitDirectory() throws Exception {
+        initRepository(project, "ref: refs/heads/master");
+
+        assertNull(find(Files.createDirectories(project.resolve(".git/refs"))));
+    }
+
+    @Test
+    public void readsCurrentBranch() throws Exception {
+        initRepository(project, "ref: refs/heads/feature/x");
+
+        assertEquals("feature/x", find(project).getCurrentBranch());
+    }
+
+    @Test
+    public void readsDetachedHead() throws Exception {
+        initRepository(project, "1a2b3c4d5e6f708192a3b4c5d6e7f8091a2b3c4d");
+
+        assertEquals("(HEAD detached at 1a2b3c4)", find(project).getCurrentBranch());
+    }
+
+    @Test
+    public void readsUrlsOfRemotesInOrderOfDeclaration() throws Exception {
+        Path gitDir = initRepository(project, "ref: refs/heads/master");
+        write(gitDir.resolve("config"), "[core]\n"
+                                        + "\tbare = false\n"
+                                        + "# comment\n"
+                                        + "[remote \"upstream\"]\n"
+                                        + "\turl = https://github.com/eclipse/che.git\n"
+                                        + "\tfetch = +refs/heads/*:refs/remotes/upstream/*\n"
+                                        + "[branch \"master\"]\n"
+                                        + "\tremote = upstream\n"
+                                        + "[remote \"origin\"]\n"
+                                        + "\tURL = \"git@github.com:user/che.git\" ; comment\n"
+                                        + "\turl = https://mirror/che.git\n"
+                                        + "[remote \"fork\"]\n"
+                                        + "\turl = https://github.com/user/che.git\n"
+                                        + "\tpushurl = git@github.com:user/che.git\n");
+
+        // the same URLs as the last line of each remote in output of 'git remote -v'
+        assertEquals(asList("https://github.com/eclipse/che.git", "https://mirror/che.git", "git@github.com:user/che.git"),
+                     find(project).getRemoteUrls());
+    }
+
+    @Test
+    public void doesNotReadUrlsWhenConfigIncludesOtherFiles() throws Exception {
+        Path gitDir = initRepository(project, "ref: refs/heads/master");
+        write(gitDir.resolve("config"), "[include]\n\tpath = ../remotes.config\n"
+                                        + "[remote \"origin\"]\n\turl = https://github.com/eclipse/che.git\n");
+
+        assertNull(find(project).getRemoteUrls());
+    }
+
+    @Test
+    public void doesNotReadUrlsWhenUserConfigRewritesUrls() throws Exception {
+        Path gitDir = initRepository(project, "ref: refs/heads/master");
+        write(gitDir.resolve("config"), "[remote \"origin\"]\n\turl = gh:eclipse/che.git\n");
+        Path userConfig = root.resolve(".gitconfig");
+        write(userConfig, "[url \"https://github.com/\"]\n\tinsteadOf = gh:\n");
+
+        assertNull(GitDirectoryReader.find(project, asList(root.resolve("missing"), userConfig)).getRemoteUrls());
+    }
+
+    @Test
+    public void returnsNoBranchWhenCurrentBranchHasNoCommits() throws Exception {
+        Path gitDir = Files.createDirectories(project.resolve(".git"));
+        write(gitDir.resolve("HEAD"), "ref: refs/heads/master\n");
+
+        assertNull(find(project).getCurrentBranch());
+    }
+
+    @Test
+    public void readsCurrentBranchFromPackedRefs() throws Exception {
+        Path gitDir = Files.createDirectories(project.resolve(".git"));
+        write(gitDir.resolve("HEAD"), "ref: refs/heads/master\n");
+        write(gitDir.resolve("packed-refs"), "# pack-refs with: peeled fully-peeled\n"
+                                             + "1a2b3c4d5e6f708192a3b4c5d6e7f8091a2b3c4d refs/heads/master\n");
+
+        assertEquals("master", find(project).getCurrentBranch());
+    }
+
+    @Test
+    public void returnsEmptyListWhenThereIsNoConfig() throws Exception {
+        initRepository(project, "ref: refs/heads/master");
+
+        assertEquals(emptyList(), find(project).getRemoteUrls());
+    }
+
+    @Test
+    public void readsLinkedWorkTree() throws Exception {
+        Path gitDir = initRepository(project, "ref: refs/heads/master");
+        write(gitDir.resolve("config"), "[remote \"origin\"]\n\turl = https://github.com/eclipse/che.git\n");
+        Path linkedGitDir = Files.createDirectories(gitDir.resolve("worktrees/linked"));
+        write(linkedGitDir.resolve("HEAD"), "ref: refs/heads/linked\n");
+        write(linkedGitDir.resolve("commondir"), "../..\n");
+        createRef(gitDir, "refs/heads/linked");
+        Path linked = Files.createDirectories(root.resolve("linked"));
+        write(linked.resolve(".git"), "gitdir: ../project/.git/worktrees/linked\n");
+
+        GitDirectoryReader reader = find(linked);
+
+        assertEquals("linked", reader.getCurrentBranch());
+        assertEquals(asList("https://github.com/eclipse/che.git"), reader.getRemoteUrls());
+    }
+
+    /** Global configuration of machine that runs tests is not read. */
+    private static GitDirectoryReader find(Path folder) throws Exception {
+        return GitDirectoryReader.find(folder, emptyList());
+    }
+
+    /** Creates git directory with HEAD and with commit on branch that HEAD points to. */
+    private Path initRepository(Path workTree, String head) throws Exception {
+        Path gitDir = Files.createDirectories(workTree.resolve(".git"));
+        write(gitDir.resolve("HEAD"), head + "\n");
+        if (head.startsWith("ref: ")) {
+            createRef(gitDir, head.substring("ref: ".length()));
+        }
+        return gitDir;
+    }
+
+    private void createRef(Path gitDir, String ref) throws Exception {
+        Path refFile = gitDir.resolve(ref);
+        Files.createDirectories(refFile.getParent());
+        write(refFile, "1a2b3c4d5e6f708192a3b4c5d6e7f8091a2b3c4d\n");
+    }
+
+    private void write(Path file, String content) throws Exception {
+        Files.write(file, content.getBytes());
+    }
+}
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.git;
+
+import org.eclipse.che.commons.lang.IoUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Measures number of started processes and latency of reading of git attributes of project, the same as
+ * {@link GitValueProviderFactory} reads them: with git commands that native git connection runs before and with
+ * {@link GitDirectoryReader} now. Git must be installed. This test is excluded from regular build, run it manually.
+ */
+public class GitValueProviderBenchmarkTest {
+    private static final Logger LOG = LoggerFactory.getLogger(GitValueProviderBenchmarkTest.class);
+
+    private static final int ITERATIONS = 100;
+
+    private Path project;
+    private int  processes;
+
+    @Before
+    public void setUp() throws Exception {
+        project = Files.createTempDirectory("git-value-provider");
+        git("init");
+        git("-c", "user.name=che", "-c", "user.email=che@eclipse.org", "commit", "--allow-empty", "-m", "init");
+        git("remote", "add", "origin", "https://github.com/eclipse/che.git");
+        git("remote", "add", "upstream", "git@github.com:eclipse/che.git");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        IoUtil.deleteRecursive(project.toFile());
+    }
+
+    @Test
+    public void measuresReadingOfAttributesWithGitAndFromGitDirectory() throws Exception {
+        processes = 0;
+        long start = System.nanoTime();
+        List<String> fromGit = null;
+        for (int i = 0; i < ITERATIONS; i++) {
+            fromGit = readWithGit();
+        }
+        LOG.info("With git: {} processes and {} ms per read of attributes",
+                 processes / ITERATIONS, (System.nanoTime() - start) / 1000000.0 / ITERATIONS);
+
+        processes = 0;
+        start = System.nanoTime();
+        List<String> fromGitDirectory = null;
+        for (int i = 0; i < ITERATIONS; i++) {
+            fromGitDirectory = readFromGitDirectory();
+        }
+        LOG.info("From git directory: {} processes and {} ms per read of attributes",
+                 processes / ITERATIONS, (System.nanoTime() - start) / 1000000.0 / ITERATIONS);
+
+        assertEquals(fromGit, fromGitDirectory);
+    }
+
+    /** Each attribute is read with own connection that checks work tree first, branch is got from status. */
+    private List<String> readWithGit() throws Exception {
+        final List<String> values = new ArrayList<>();
+        git("rev-parse", "--is-inside-work-tree");
+        values.add("git");
+        git("rev-parse", "--is-inside-work-tree");
+        final String branch = git("branch");
+        git("status", "--porcelain");
+        values.add(branch.substring(2));
+        git("rev-parse", "--is-inside-work-tree");
+        for (String remote : git("remote", "-v").split("\n")) {
+            if (remote.endsWith("(fetch)")) {
+                values.add(remote.split("\\s+")[1]);
+            }
+        }
+        return values;
+    }
+
+    private List<String> readFromGitDirectory() throws Exception {
+        final List<String> values = new ArrayList<>();
+        values.add("git");
+        final GitDirectoryReader reader = GitDirectoryReader.find(project, emptyList());
+        values.add(reader.getCurrentBranch());
+        values.addAll(reader.getRemoteUrls());
+        return values;
+    }
+
+    private String git(String... args) throws IOException, InterruptedException {
+        final List<String> command = new ArrayList<>();
+        command.add("git");
+        for (String arg : args) {
+            command.add(arg);
+        }
+        final Process process = new ProcessBuilder(command).directory(project.toFile()).redirectErrorStream(true).start();
+        processes++;
+        final String output;
+        try (InputStream in = process.getInputStream()) {
+            output = IoUtil.readStream(in).trim();
+        }
+        process.waitFor();
+        return output;
+    }
+}
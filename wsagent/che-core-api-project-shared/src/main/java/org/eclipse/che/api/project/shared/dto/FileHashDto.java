@@ -0,0 +1,31 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.shared.dto;
+
+import org.eclipse.che.dto.shared.DTO;
+
+/** Path and md5sum of file. List of such items describes content of folder on client side when it is synchronized with server. */
+@DTO
+public interface FileHashDto {
+    /** Get path of file relative to synchronized folder. */
+    String getPath();
+
+    void setPath(String path);
+
+    FileHashDto withPath(String path);
+
+    /** Get md5sum of file represented as HEX String. */
+    String getHash();
+
+    void setHash(String hash);
+
+    FileHashDto withHash(String hash);
+}
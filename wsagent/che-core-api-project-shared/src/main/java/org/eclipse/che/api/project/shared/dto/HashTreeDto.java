@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.shared.dto;
+
+import org.eclipse.che.dto.shared.DTO;
+
+import java.util.List;
+
+/**
+ * Node of tree of md5sums of project items. Md5sum of folder is counted from names, types and md5sums of its children, so folders that
+ * have the same md5sum have the same content and may be skipped when trees are compared.
+ */
+@DTO
+public interface HashTreeDto {
+    /** Get name of item. */
+    String getName();
+
+    void setName(String name);
+
+    HashTreeDto withName(String name);
+
+    /** Get path of item. */
+    String getPath();
+
+    void setPath(String path);
+
+    HashTreeDto withPath(String path);
+
+    /** Get type of item, "file" or "folder". */
+    String getType();
+
+    void setType(String type);
+
+    HashTreeDto withType(String type);
+
+    /** Get md5sum of item represented as HEX String. */
+    String getHash();
+
+    void setHash(String hash);
+
+    HashTreeDto withHash(String hash);
+
+    /** Get children of folder sorted by name. Children are not provided for folders that are deeper than requested depth. */
+    List<HashTreeDto> getChildren();
+
+    void setChildren(List<HashTreeDto> children);
+
+    HashTreeDto withChildren(List<HashTreeDto> children);
+}
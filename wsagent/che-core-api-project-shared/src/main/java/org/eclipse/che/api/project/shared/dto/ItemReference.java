@@ -80,6 +80,13 @@ public interface ItemReference extends Hyperlinks {
 
     ItemReference withContentLength(long length);
 
+    /** Occurrences of searched text in file. Provided only for items that are returned by full-text search. */
+    List<SearchOccurrenceDto> getSearchOccurrences();
+
+    void setSearchOccurrences(List<SearchOccurrenceDto> searchOccurrences);
+
+    ItemReference withSearchOccurrences(List<SearchOccurrenceDto> searchOccurrences);
+
     /** The method can return {@code null} value. {@link ProjectConfigDto} exist only for project and modules in other cases it is null. */
     @Nullable
     ProjectConfigDto getProjectConfig();
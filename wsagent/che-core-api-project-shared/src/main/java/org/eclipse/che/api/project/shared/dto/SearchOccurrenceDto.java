@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.shared.dto;
+
+import org.eclipse.che.dto.shared.DTO;
+
+/**
+ * Single occurrence of searched text in file.
+ */
+@DTO
+public interface SearchOccurrenceDto {
+    /** Number of line that contains occurrence, first line of file has number 1. */
+    int getLineNumber();
+
+    void setLineNumber(int lineNumber);
+
+    SearchOccurrenceDto withLineNumber(int lineNumber);
+
+    /** Column in line where occurrence starts, first column of line is 0. */
+    int getStartColumn();
+
+    void setStartColumn(int startColumn);
+
+    SearchOccurrenceDto withStartColumn(int startColumn);
+
+    /** Column in line where occurrence ends (exclusive). */
+    int getEndColumn();
+
+    void setEndColumn(int endColumn);
+
+    SearchOccurrenceDto withEndColumn(int endColumn);
+
+    /** Offset of first character of occurrence from the beginning of file. */
+    int getStartOffset();
+
+    void setStartOffset(int startOffset);
+
+    SearchOccurrenceDto withStartOffset(int startOffset);
+
+    /** Offset of character that follows the last character of occurrence from the beginning of file. */
+    int getEndOffset();
+
+    void setEndOffset(int endOffset);
+
+    SearchOccurrenceDto withEndOffset(int endOffset);
+
+    /** Part of line that contains occurrence. Long lines are cut around occurrence. */
+    String getSnippet();
+
+    void setSnippet(String snippet);
+
+    SearchOccurrenceDto withSnippet(String snippet);
+
+    /** Column in line where snippet starts. Occurrence in snippet starts at {@code startColumn - snippetStartColumn}. */
+    int getSnippetStartColumn();
+
+    void setSnippetStartColumn(int snippetStartColumn);
+
+    SearchOccurrenceDto withSnippetStartColumn(int snippetStartColumn);
+}
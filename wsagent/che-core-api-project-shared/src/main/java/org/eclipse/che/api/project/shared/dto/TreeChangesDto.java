@@ -0,0 +1,47 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.shared.dto;
+
+import org.eclipse.che.dto.shared.DTO;
+
+import java.util.List;
+
+/** Items of project tree that are added, updated or removed after tree was read at some version. */
+@DTO
+public interface TreeChangesDto {
+    /** Get version of tree after these changes. */
+    long getVersion();
+
+    void setVersion(long version);
+
+    TreeChangesDto withVersion(long version);
+
+    /** Get items that are created. */
+    List<ItemReference> getAdded();
+
+    void setAdded(List<ItemReference> added);
+
+    TreeChangesDto withAdded(List<ItemReference> added);
+
+    /** Get items that are modified. */
+    List<ItemReference> getUpdated();
+
+    void setUpdated(List<ItemReference> updated);
+
+    TreeChangesDto withUpdated(List<ItemReference> updated);
+
+    /** Get paths of items that are removed. Descendants of removed folder are not included. */
+    List<String> getRemoved();
+
+    void setRemoved(List<String> removed);
+
+    TreeChangesDto withRemoved(List<String> removed);
+}
@@ -30,4 +30,14 @@ public interface TreeElement {
     void setChildren(List<TreeElement> children);
 
     TreeElement withChildren(List<TreeElement> children);
+
+    /**
+     * Get version of tree. It is set only for root of tree and may be used to get changes of tree made after it was read, see
+     * {@link TreeChangesDto}.
+     */
+    long getVersion();
+
+    void setVersion(long version);
+
+    TreeElement withVersion(long version);
 }
@@ -20,13 +20,17 @@ import org.eclipse.che.api.project.shared.dto.AttributeDto;
 import org.eclipse.che.api.project.shared.dto.ItemReference;
 import org.eclipse.che.api.project.shared.dto.ProjectImporterDescriptor;
 import org.eclipse.che.api.project.shared.dto.ProjectTypeDto;
+import org.eclipse.che.api.project.shared.dto.SearchOccurrenceDto;
 import org.eclipse.che.api.project.shared.dto.ValueDto;
+import org.eclipse.che.api.vfs.VirtualFileTree;
+import org.eclipse.che.api.vfs.search.SearchOccurrence;
 import org.eclipse.che.api.workspace.shared.dto.ProjectConfigDto;
 import org.eclipse.che.api.workspace.shared.dto.ProjectProblemDto;
 import org.eclipse.che.api.workspace.shared.dto.SourceStorageDto;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import static org.eclipse.che.dto.server.DtoFactory.newDto;
@@ -95,6 +99,23 @@ public class DtoConverter {
                                           .withModified(folder.getModified());
     }
 
+    /**
+     * Converts item of {@link VirtualFileTree} to {@link ItemReference} without additional requests to filesystem.
+     *
+     * @param projects
+     *         paths of all projects, they are used to find out which folders are projects
+     */
+    public static ItemReference asDto(VirtualFileTree item, Set<String> projects) {
+        final String path = item.getPath().toString();
+        final ItemReference itemReference = newDto(ItemReference.class).withName(item.getName())
+                                                                       .withPath(path)
+                                                                       .withModified(item.getLastModificationDate());
+        if (item.isFile()) {
+            return itemReference.withType("file").withContentLength(item.getLength());
+        }
+        return itemReference.withType(projects.contains(path) ? "project" : "folder");
+    }
+
     /**
      * The method tries to provide as much as possible information about project. If get error then save information about error
      * with 'problems' field in ProjectConfigDto.
@@ -146,4 +167,15 @@ public class DtoConverter {
     public static ProjectProblemDto asDto(RegisteredProject.Problem problem) {
         return newDto(ProjectProblemDto.class).withCode(problem.code).withMessage(problem.message);
     }
+
+    /** Converts {@link SearchOccurrence} to {@link SearchOccurrenceDto}. */
+    public static SearchOccurrenceDto asDto(SearchOccurrence occurrence) {
+        return newDto(SearchOccurrenceDto.class).withLineNumber(occurrence.getLineNumber())
+                                                .withStartColumn(occurrence.getStartColumn())
+                                                .withEndColumn(occurrence.getEndColumn())
+                                                .withStartOffset(occurrence.getStartOffset())
+                                                .withEndOffset(occurrence.getEndOffset())
+                                                .withSnippet(occurrence.getSnippet())
+                                                .withSnippetStartColumn(occurrence.getSnippetStartColumn());
+    }
 }
@@ -0,0 +1,293 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import com.google.common.io.ByteStreams;
+
+import org.eclipse.che.api.core.ForbiddenException;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.PathLockFactory;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.VirtualFileSystem;
+import org.eclipse.che.api.vfs.impl.file.LocalVirtualFileSystem;
+
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static java.time.format.DateTimeFormatter.RFC_1123_DATE_TIME;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+/**
+ * Builds responses for download of file content.
+ * <ul>
+ * <li>Response has strong ETag and Last-Modified headers which are derived from size and modification time of file, so client gets
+ * response with status 304 if file was not changed since previous download.</li>
+ * <li>Single byte range which is set in header Range is supported. Range is ignored if header If-Range is set and does not match ETag
+ * or modification date of file. Multiple ranges are not supported, whole content is sent if more than one range is requested.</li>
+ * <li>Content of file of local file system is read from file channel with {@link FileChannel#transferTo(long, long, WritableByteChannel)}
+ * and written to output stream of response through small buffer. Files are not copied to temporary spool file as
+ * {@link VirtualFile#getContent()} does for big files. File is locked for reading only while channel is opened, so slow client does not
+ * block updates of file and of its parents. If file is changed while it is being sent then client gets response with broken content,
+ * ETag of the next response differs and client may detect the change and request content again with If-Range.</li>
+ * </ul>
+ */
+public class FileContentResponses {
+    public static final String RANGE         = "Range";
+    public static final String IF_RANGE      = "If-Range";
+    public static final String CONTENT_RANGE = "Content-Range";
+    public static final String ACCEPT_RANGES = "Accept-Ranges";
+
+    private static final String BYTES_UNIT = "bytes";
+
+    private FileContentResponses() {
+    }
+
+    /**
+     * Creates response builder with content of file. Content type and other headers that are not related to the content may be added
+     * by caller.
+     *
+     * @param file
+     *         file
+     * @param request
+     *         request, used for evaluation of conditional headers
+     * @param range
+     *         value of header Range, may be {@code null}
+     * @param ifRange
+     *         value of header If-Range, may be {@code null}
+     */
+    public static Response.ResponseBuilder create(VirtualFile file, Request request, String range, String ifRange)
+            throws ServerException {
+        final long length;
+        final long lastModified;
+        final EntityTag entityTag;
+        final File ioFile = file.toIoFile();
+        if (ioFile != null) {
+            final BasicFileAttributes attributes = readAttributes(ioFile);
+            length = attributes.size();
+            lastModified = attributes.lastModifiedTime().toMillis();
+            final Object fileKey = attributes.fileKey();
+            entityTag = createEntityTag(length, attributes.lastModifiedTime().to(MICROSECONDS), fileKey == null ? 0 : fileKey.hashCode());
+        } else {
+            length = file.getLength();
+            lastModified = file.getLastModificationDate();
+            entityTag = createEntityTag(length, lastModified, 0);
+        }
+        // HTTP dates have precision in seconds
+        final Date lastModifiedDate = new Date(lastModified / 1000 * 1000);
+
+        final Response.ResponseBuilder notModified = request.evaluatePreconditions(lastModifiedDate, entityTag);
+        if (notModified != null) {
+            return notModified.tag(entityTag).lastModified(lastModifiedDate);
+        }
+
+        long offset = 0;
+        long count = length;
+        Response.ResponseBuilder responseBuilder = Response.ok();
+        if (range != null && ifRangeMatches(ifRange, entityTag, lastModifiedDate)) {
+            final long[] byteRange = parseRange(range, length);
+            if (byteRange != null) {
+                if (byteRange.length == 0) {
+                    return Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+                                   .header(CONTENT_RANGE, BYTES_UNIT + " */" + length)
+                                   .tag(entityTag)
+                                   .lastModified(lastModifiedDate);
+                }
+                offset = byteRange[0];
+                count = byteRange[1] - byteRange[0] + 1;
+                final String contentRange = String.format("%s %d-%d/%d", BYTES_UNIT, byteRange[0], byteRange[1], length);
+                responseBuilder = Response.status(Response.Status.PARTIAL_CONTENT).header(CONTENT_RANGE, contentRange);
+            }
+        }
+
+        return responseBuilder.entity(new FileContent(file, offset, count))
+                              .header(HttpHeaders.CONTENT_LENGTH, Long.toString(count))
+                              .header(ACCEPT_RANGES, BYTES_UNIT)
+                              .tag(entityTag)
+                              .lastModified(lastModifiedDate);
+    }
+
+    /** Reads attributes of file, symbolic links are followed as well as when content of file is sent. */
+    private static BasicFileAttributes readAttributes(File ioFile) throws ServerException {
+        try {
+            return Files.readAttributes(ioFile.toPath(), BasicFileAttributes.class);
+        } catch (IOException e) {
+            throw new ServerException(String.format("Unable read attributes of file '%s'", ioFile), e);
+        }
+    }
+
+    private static EntityTag createEntityTag(long length, long lastModified, int fileKey) {
+        return new EntityTag(Long.toHexString(length) + '-' + Long.toHexString(lastModified) + '-' + Integer.toHexString(fileKey));
+    }
+
+    /** Range is applied if If-Range is not set, or it is the same as current ETag or modification date of file. */
+    private static boolean ifRangeMatches(String ifRange, EntityTag entityTag, Date lastModifiedDate) {
+        if (ifRange == null) {
+            return true;
+        }
+        final String value = ifRange.trim();
+        if (value.startsWith("\"")) {
+            return value.equals('"' + entityTag.getValue() + '"');
+        }
+        if (value.startsWith("W/")) {
+            // Weak tags must not be used for range requests.
+            return false;
+        }
+        final Date date = parseHttpDate(value);
+        return date != null && date.getTime() == lastModifiedDate.getTime();
+    }
+
+    private static Date parseHttpDate(String value) {
+        try {
+            return Date.from(ZonedDateTime.parse(value, RFC_1123_DATE_TIME).toInstant());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parses value of header Range.
+     *
+     * @return {@code null} if range is invalid or contains multiple ranges and must be ignored, empty array if range may not be
+     * satisfied or array of first and last positions of range in file
+     */
+    static long[] parseRange(String range, long length) {
+        final String value = range.trim();
+        if (!value.startsWith(BYTES_UNIT + '=')) {
+            return null;
+        }
+        final String spec = value.substring(BYTES_UNIT.length() + 1).trim();
+        final int dash = spec.indexOf('-');
+        if (dash < 0 || spec.indexOf(',') >= 0) {
+            return null;
+        }
+        final long first;
+        long last;
+        try {
+            if (dash == 0) {
+                final long suffixLength = Long.parseLong(spec.substring(1).trim());
+                if (suffixLength < 0) {
+                    return null;
+                }
+                if (suffixLength == 0) {
+                    return new long[0];
+                }
+                first = Math.max(0, length - suffixLength);
+                last = length - 1;
+            } else {
+                first = Long.parseLong(spec.substring(0, dash).trim());
+                final String lastValue = spec.substring(dash + 1).trim();
+                if (lastValue.isEmpty()) {
+                    last = Long.MAX_VALUE;
+                } else {
+                    last = Long.parseLong(lastValue);
+                    if (last < first) {
+                        return null;
+                    }
+                }
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (first < 0) {
+            return null;
+        }
+        if (first >= length) {
+            return new long[0];
+        }
+        last = Math.min(last, length - 1);
+        return new long[]{first, last};
+    }
+
+    /** Writes part of file content to output. */
+    static class FileContent implements StreamingOutput {
+        private final VirtualFile file;
+        private final long        offset;
+        private final long        count;
+
+        FileContent(VirtualFile file, long offset, long count) {
+            this.file = file;
+            this.offset = offset;
+            this.count = count;
+        }
+
+        @Override
+        public void write(OutputStream output) throws IOException {
+            final File ioFile = file.toIoFile();
+            if (ioFile != null) {
+                transfer(ioFile, output);
+            } else {
+                copy(output);
+            }
+        }
+
+        private void transfer(File ioFile, OutputStream output) throws IOException {
+            try (FileChannel channel = open(ioFile)) {
+                final WritableByteChannel target = Channels.newChannel(output);
+                long position = offset;
+                long remaining = count;
+                while (remaining > 0) {
+                    final long transferred = channel.transferTo(position, remaining, target);
+                    if (transferred <= 0) {
+                        throw new IOException(String.format("File '%s' was truncated while it was being sent", file.getPath()));
+                    }
+                    position += transferred;
+                    remaining -= transferred;
+                }
+            }
+        }
+
+        /** Opens file under the same lock as {@link VirtualFile#getContent()} does, lock is not held while content is sent. */
+        private FileChannel open(File ioFile) throws IOException {
+            final PathLockFactory.PathLock lock = lockForReading();
+            try {
+                return FileChannel.open(ioFile.toPath(), READ);
+            } finally {
+                if (lock != null) {
+                    lock.release();
+                }
+            }
+        }
+
+        /** Takes the same lock as {@link VirtualFile#getContent()} does, returns {@code null} if file system does not lock files. */
+        private PathLockFactory.PathLock lockForReading() {
+            final VirtualFileSystem fileSystem = file.getFileSystem();
+            if (fileSystem instanceof LocalVirtualFileSystem) {
+                return ((LocalVirtualFileSystem)fileSystem).lock(file.getPath(), false);
+            }
+            return null;
+        }
+
+        private void copy(OutputStream output) throws IOException {
+            try (InputStream content = file.getContent()) {
+                ByteStreams.skipFully(content, offset);
+                ByteStreams.copy(ByteStreams.limit(content, count), output);
+            } catch (ForbiddenException | ServerException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+    }
+}
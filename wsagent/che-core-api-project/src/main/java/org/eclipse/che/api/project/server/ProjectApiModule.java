@@ -18,6 +18,8 @@ import org.eclipse.che.api.project.server.handlers.CreateBaseProjectTypeHandler;
 import org.eclipse.che.api.project.server.handlers.ProjectHandler;
 import org.eclipse.che.api.project.server.importer.ProjectImporter;
 import org.eclipse.che.api.project.server.importer.ProjectImportersService;
+import org.eclipse.che.api.project.server.notification.VfsWatchChangeLog;
+import org.eclipse.che.api.project.server.notification.VfsWatchEventCoalescer;
 import org.eclipse.che.api.project.server.type.BaseProjectType;
 import org.eclipse.che.api.project.server.type.InitBaseProjectTypeHandler;
 import org.eclipse.che.api.project.server.type.ProjectTypeDef;
@@ -29,6 +31,7 @@ import org.eclipse.che.api.vfs.impl.file.LocalVirtualFileSystemProvider;
 import org.eclipse.che.api.vfs.search.MediaTypeFilter;
 import org.eclipse.che.api.vfs.search.SearcherProvider;
 import org.eclipse.che.api.vfs.search.impl.FSLuceneSearcherProvider;
+import org.eclipse.che.api.vfs.search.impl.FilePathIndex;
 
 import java.nio.file.PathMatcher;
 
@@ -69,8 +72,11 @@ public class ProjectApiModule extends AbstractModule {
                                                                                    Names.named("vfs.index_filter_matcher"));
 
         bind(SearcherProvider.class).to(FSLuceneSearcherProvider.class);
+        bind(FilePathIndex.class).asEagerSingleton();
         bind(VirtualFileSystemProvider.class).to(LocalVirtualFileSystemProvider.class);
 
         bind(FileWatcherNotificationHandler.class).to(DefaultFileWatcherNotificationHandler.class);
+        bind(VfsWatchEventCoalescer.class).asEagerSingleton();
+        bind(VfsWatchChangeLog.class).asEagerSingleton();
     }
 }
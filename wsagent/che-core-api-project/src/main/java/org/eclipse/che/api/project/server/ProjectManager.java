@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.eclipse.che.api.project.server;
 
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.eclipse.che.api.core.ConflictException;
@@ -25,6 +27,7 @@ import org.eclipse.che.api.core.util.LineConsumerFactory;
 import org.eclipse.che.api.project.server.handlers.CreateProjectHandler;
 import org.eclipse.che.api.project.server.handlers.ProjectHandlerRegistry;
 import org.eclipse.che.api.project.server.importer.ProjectImportOutputWSLineConsumer;
+import org.eclipse.che.api.project.server.importer.ProjectImportStagesWSPublisher;
 import org.eclipse.che.api.project.server.importer.ProjectImporter;
 import org.eclipse.che.api.project.server.importer.ProjectImporterRegistry;
 import org.eclipse.che.api.project.server.type.AttributeValue;
@@ -45,6 +48,8 @@ import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
 import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationListener;
 import org.eclipse.che.api.vfs.search.Searcher;
 import org.eclipse.che.api.vfs.search.SearcherProvider;
+import org.eclipse.che.api.vfs.search.impl.IndexingQueue;
+import org.eclipse.che.api.vfs.search.impl.LuceneSearcher;
 import org.eclipse.che.dto.server.DtoFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -56,9 +61,11 @@ import javax.inject.Singleton;
 import java.io.IOException;
 import java.nio.file.PathMatcher;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -71,6 +78,17 @@ import java.util.concurrent.Executors;
 public final class ProjectManager {
     private static final Logger LOG = LoggerFactory.getLogger(ProjectManager.class);
 
+    /** Max number of cached results of resolution of project types. */
+    private static final int RESOLUTION_CACHE_SIZE = 10000;
+
+    /** Max time to wait until changes of index made by import are applied. */
+    private static final long MAX_WAIT_FOR_INDEXING_MS = 60_000;
+
+    /* Stages of project import, time of each stage is sent to client. */
+    private static final String IMPORT_STAGE = "import";
+    private static final String DETECT_STAGE = "detect";
+    private static final String INDEX_STAGE  = "index";
+
     private final VirtualFileSystem              vfs;
     private final EventService                   eventService;
     private final ProjectTypeRegistry            projectTypeRegistry;
@@ -81,6 +99,7 @@ public final class ProjectManager {
     private final FileWatcherNotificationHandler fileWatchNotifier;
     private final ExecutorService                executor;
     private final WorkspaceProjectsSyncer        workspaceProjectsHolder;
+    private final ProjectTypeResolutionCache     resolutionCache;
 
     @Inject
     public ProjectManager(VirtualFileSystemProvider vfsProvider,
@@ -105,6 +124,7 @@ public final class ProjectManager {
         executor = Executors.newFixedThreadPool(1 + Runtime.getRuntime().availableProcessors(),
                                                 new ThreadFactoryBuilder().setNameFormat("ProjectService-IndexingThread-")
                                                                           .setDaemon(true).build());
+        resolutionCache = new ProjectTypeResolutionCache(RESOLUTION_CACHE_SIZE);
     }
 
     @PostConstruct
@@ -113,6 +133,8 @@ public final class ProjectManager {
             @Override
             public void onFileWatcherEvent(VirtualFile virtualFile, FileWatcherEventType eventType) {
                 LOG.debug("FS event detected: " + eventType + " " + virtualFile.getPath().toString() + " " + virtualFile.isFile());
+                resolutionCache.invalidate(virtualFile.getPath().toString());
+                projectRegistry.invalidateProvidedValues(virtualFile.getPath().toString());
                 eventService.publish(DtoFactory.newDto(VfsWatchEvent.class)
                                                .withPath(virtualFile.getPath().toString())
                                                .withFile(virtualFile.isFile())
@@ -302,6 +324,10 @@ public final class ProjectManager {
         return project;
     }
 
+    /**
+     * Imports sources of project. Import is performed in stages: sources are fetched and unpacked by importer, project is registered
+     * and project is indexed. Time of each stage is sent to client.
+     */
     public RegisteredProject importProject(String path, SourceStorage sourceStorage, boolean rewrite) throws ServerException,
                                                                                                              IOException,
                                                                                                              ForbiddenException,
@@ -318,6 +344,8 @@ public final class ProjectManager {
         String normalizePath = (path.startsWith("/")) ? path : "/".concat(path);
         final LineConsumerFactory outputOutputConsumerFactory =
                 () -> new ProjectImportOutputWSLineConsumer(normalizePath, workspaceProjectsHolder.getWorkspaceId(), 300);
+        final ProjectImportStagesWSPublisher stagesPublisher =
+                new ProjectImportStagesWSPublisher(normalizePath, workspaceProjectsHolder.getWorkspaceId());
 
         FolderEntry folder = asFolder(normalizePath);
         if (folder != null && !rewrite) {
@@ -328,13 +356,23 @@ public final class ProjectManager {
             folder = getProjectsRoot().createFolder(normalizePath);
         }
 
+        long stageStart = System.currentTimeMillis();
         try {
             importer.importSources(folder, sourceStorage, outputOutputConsumerFactory);
         } catch (final Exception e) {
             folder.remove();
             throw e;
         }
+        stageStart = completeImportStage(stagesPublisher, normalizePath, IMPORT_STAGE, stageStart);
 
+        final RegisteredProject rp = registerImportedProject(normalizePath, folder, sourceStorage);
+        final long indexStart = completeImportStage(stagesPublisher, normalizePath, DETECT_STAGE, stageStart);
+        awaitIndexed().thenRun(() -> completeImportStage(stagesPublisher, normalizePath, INDEX_STAGE, indexStart));
+        return rp;
+    }
+
+    private RegisteredProject registerImportedProject(String normalizePath, FolderEntry folder, SourceStorage sourceStorage)
+            throws ServerException, ConflictException, ForbiddenException, NotFoundException {
         final String name = folder.getPath().getName();
         for (ProjectConfig project : workspaceProjectsHolder.getProjects()) {
             if (normalizePath.equals(project.getPath())) {
@@ -355,6 +393,13 @@ public final class ProjectManager {
         return rp;
     }
 
+    private long completeImportStage(ProjectImportStagesWSPublisher stagesPublisher, String path, String stage, long stageStart) {
+        final long now = System.currentTimeMillis();
+        LOG.debug("Stage '{}' of import of project {} took {} ms", stage, path, now - stageStart);
+        stagesPublisher.stageCompleted(stage, now - stageStart);
+        return now;
+    }
+
     public ProjectTypeResolution estimateProject(String path, String projectTypeId) throws ServerException,
                                                                                            NotFoundException,
                                                                                            ValueStorageException {
@@ -369,20 +414,27 @@ public final class ProjectManager {
             throw new NotFoundException("Folder not found: " + path);
         }
 
-        return projectType.resolveSources(baseFolder);
+        return resolve(projectType, baseFolder, stampOf(baseFolder));
     }
 
     // ProjectSuggestion
     public List<ProjectTypeResolution> resolveSources(String path, boolean transientOnly) throws ServerException, NotFoundException {
-        final List<ProjectTypeResolution> resolutions = new ArrayList<>();
+        final FolderEntry baseFolder = asFolder(path);
+
+        if (baseFolder == null) {
+            throw new NotFoundException("Folder not found: " + path);
+        }
 
+        // Value providers are not required to be thread-safe, so project types are resolved one by one.
+        final long stamp = stampOf(baseFolder);
+        final List<ProjectTypeResolution> resolutions = new ArrayList<>();
         for (ProjectType type : projectTypeRegistry.getProjectTypes(ProjectTypeRegistry.CHILD_TO_PARENT_COMPARATOR)) {
             if (transientOnly && type.isPersisted()) {
                 continue;
             }
 
             try {
-                final ProjectTypeResolution resolution = estimateProject(path, type.getId());
+                final ProjectTypeResolution resolution = resolve(projectTypeRegistry.getProjectType(type.getId()), baseFolder, stamp);
                 if (resolution.matched()) {
                     resolutions.add(resolution);
                 }
@@ -394,6 +446,38 @@ public final class ProjectManager {
         return resolutions;
     }
 
+    /** Resolves project type of folder or gets cached result if folder is not changed since it was resolved last time. */
+    private ProjectTypeResolution resolve(ProjectTypeDef projectType, FolderEntry folder, long stamp) throws ValueStorageException {
+        final String folderPath = folder.getPath().toString();
+        ProjectTypeResolution resolution = resolutionCache.get(folderPath, projectType, stamp);
+        if (resolution == null) {
+            try (ProjectTypeResolutionCache.Resolving resolving = resolutionCache.startResolving(folderPath)) {
+                resolution = projectType.resolveSources(folder);
+                resolving.put(projectType, stamp, resolution);
+            }
+        }
+        return resolution;
+    }
+
+    /**
+     * Calculates stamp of folder from modification date of folder and names, modification dates and lengths of its direct children.
+     * Value providers mostly look at files in the root of project, e.g. pom.xml or package.json, so change of any of them changes stamp.
+     */
+    private long stampOf(FolderEntry folder) throws ServerException {
+        final VirtualFile virtualFile = folder.getVirtualFile();
+        final List<VirtualFile> children = new ArrayList<>(virtualFile.getChildren());
+        children.sort(Comparator.comparing(VirtualFile::getName));
+        final Hasher hasher = Hashing.murmur3_128().newHasher();
+        hasher.putLong(virtualFile.getLastModificationDate());
+        for (VirtualFile child : children) {
+            hasher.putInt(child.getName().length())
+                  .putUnencodedChars(child.getName())
+                  .putLong(child.getLastModificationDate())
+                  .putLong(child.isFile() ? child.getLength() : -1);
+        }
+        return hasher.hash().asLong();
+    }
+
     /**
      * deletes item including project
      *
@@ -528,6 +612,29 @@ public final class ProjectManager {
         return (FileEntry)entry;
     }
 
+    /**
+     * Waits until changes of index that are queued so far, e.g. files created by importer through virtual file system, are applied.
+     *
+     * @return future that is completed when queued changes are indexed or waiting time is elapsed
+     */
+    private CompletableFuture<Void> awaitIndexed() {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                final Searcher searcher = getSearcher();
+                final IndexingQueue indexingQueue = searcher instanceof LuceneSearcher
+                                                    ? ((LuceneSearcher)searcher).getIndexingQueue()
+                                                    : null;
+                if (indexingQueue != null && !indexingQueue.awaitIndexed(MAX_WAIT_FOR_INDEXING_MS)) {
+                    LOG.warn("Queued changes of index are not applied in {} ms", MAX_WAIT_FOR_INDEXING_MS);
+                }
+            } catch (NotFoundException | ServerException e) {
+                LOG.warn(e.getLocalizedMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, executor);
+    }
+
     /**
      * Some importers don't use virtual file system API and changes are not indexed.
      * Force searcher to reindex project to fix such issues.
@@ -10,6 +10,10 @@
  *******************************************************************************/
 package org.eclipse.che.api.project.server;
 
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.NotFoundException;
@@ -30,17 +34,29 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.PostConstruct;
-import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Stores internal representation of Projects registered in the Workspace Agent.
+ * <p>
+ * Projects from workspace configuration are initialized in parallel by bounded pool of threads, failure of one project does not prevent
+ * others from being initialized. While project is being initialized it is marked as resolving, request for such project waits until
+ * initialization of this project is completed but does not wait for other projects.
  *
  * @author gazarenkov
  */
@@ -48,15 +64,30 @@ import java.util.stream.Collectors;
 public class ProjectRegistry {
     private static final Logger LOG = LoggerFactory.getLogger(ProjectRegistry.class);
 
-    private final Map<String, RegisteredProject> projects;
-    private final WorkspaceProjectsSyncer        workspaceHolder;
-    private final VirtualFileSystem              vfs;
-    private final ProjectTypeRegistry            projectTypeRegistry;
-    private final ProjectHandlerRegistry         handlers;
-    private final FolderEntry                    root;
-    private final EventService eventService;
+    /** Default number of threads that initialize projects. */
+    public static final int DEFAULT_INIT_THREADS = Runtime.getRuntime().availableProcessors();
+
+    private final Map<String, RegisteredProject>                    projects;
+    /* Projects that are being initialized, project is put in #projects before it is removed from this map. */
+    private final Map<String, CompletableFuture<RegisteredProject>> resolving;
+    private final Map<String, Long>                                 initializationTimes;
+    private final ProvidedValuesCache                               providedValuesCache;
+    private final WorkspaceProjectsSyncer                           workspaceHolder;
+    private final VirtualFileSystem                                 vfs;
+    private final ProjectTypeRegistry                               projectTypeRegistry;
+    private final ProjectHandlerRegistry                            handlers;
+    private final FolderEntry                                       root;
+    private final EventService                                      eventService;
+
+    @Inject(optional = true)
+    @Named("project.registry.init_threads")
+    private int initThreads = DEFAULT_INIT_THREADS;
+
+    /* Set for threads that initialize projects. */
+    private final ThreadLocal<Boolean> initThread = ThreadLocal.withInitial(() -> false);
 
-    private boolean initialized;
+    private volatile boolean                 initialized;
+    private          CompletableFuture<Void> initialization;
 
     @Inject
     public ProjectRegistry(WorkspaceProjectsSyncer workspaceHolder,
@@ -66,6 +97,9 @@ public class ProjectRegistry {
                            EventService eventService) throws ServerException {
         this.eventService = eventService;
         this.projects = new ConcurrentHashMap<>();
+        this.resolving = new ConcurrentHashMap<>();
+        this.initializationTimes = new ConcurrentHashMap<>();
+        this.providedValuesCache = new ProvidedValuesCache();
         this.workspaceHolder = workspaceHolder;
         this.vfs = vfsProvider.getVirtualFileSystem();
         this.projectTypeRegistry = projectTypeRegistry;
@@ -74,31 +108,184 @@ public class ProjectRegistry {
     }
 
     @PostConstruct
-    public void initProjects() throws ConflictException, NotFoundException, ServerException, ForbiddenException {
-        //final Workspace workspace = workspaceHolder.getWorkspace();
+    public void initProjectsAsync() throws ServerException {
+        startProjectsInitialization();
+    }
 
-        List<? extends ProjectConfig> projectConfigs = workspaceHolder.getProjects();
+    /**
+     * Initializes all projects and waits until initialization is completed, init handlers of projects are fired as well.
+     *
+     * @see #startProjectsInitialization()
+     */
+    public void initProjects() throws ConflictException, NotFoundException, ServerException, ForbiddenException {
+        try {
+            startProjectsInitialization().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServerException("Interrupted while initializing projects");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof ServerException) {
+                throw (ServerException)cause;
+            }
+            throw new ServerException(cause.getMessage(), cause);
+        }
+    }
 
+    /**
+     * Starts initialization of projects from workspace configuration and returns without waiting for it. Projects are marked as
+     * resolving and are initialized in parallel, then projects are created for unconfigured folders on root and init handlers are fired.
+     * Registry may be used while initialization is in progress, methods that return project wait until this project is initialized.
+     *
+     * @return future that is completed when all projects are initialized and their init handlers are fired
+     */
+    public synchronized CompletableFuture<Void> startProjectsInitialization() throws ServerException {
+        if (initialization != null && !initialization.isDone()) {
+            // previous initialization must be completed before projects are put in registry once again
+            try {
+                initialization.join();
+            } catch (CompletionException e) {
+                LOG.warn(e.getCause().getMessage());
+            }
+        }
+        final long startTime = System.currentTimeMillis();
+        final List<? extends ProjectConfig> projectConfigs = workspaceHolder.getProjects();
+        final ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("ProjectRegistry-InitThread-%d")
+                                                                      .setDaemon(true)
+                                                                      .build();
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, initThreads), threadFactory);
+        final List<CompletableFuture<RegisteredProject>> futures = new ArrayList<>(projectConfigs.size());
         // take all the projects from ws's config
         for (ProjectConfig projectConfig : projectConfigs) {
-            final String path = projectConfig.getPath();
-            final VirtualFile vf = vfs.getRoot().getChild(Path.of(path));
-            final FolderEntry projectFolder = ((vf == null) ? null : new FolderEntry(vf, this));
-            putProject(projectConfig, projectFolder, false, false);
+            // project must be marked as resolving before its initialization is started
+            final CompletableFuture<RegisteredProject> future = new CompletableFuture<>();
+            resolving.put(absolutizePath(projectConfig.getPath()), future);
+            futures.add(future);
+        }
+        for (int i = 0; i < projectConfigs.size(); i++) {
+            final ProjectConfig projectConfig = projectConfigs.get(i);
+            final CompletableFuture<RegisteredProject> future = futures.get(i);
+            executor.execute(() -> {
+                initThread.set(true);
+                try {
+                    future.complete(initProject(projectConfig));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    initThread.remove();
+                }
+            });
         }
+        initialized = true;
 
-        initUnconfiguredFolders();
+        // failure of single project does not prevent others from being initialized and init handlers from being fired
+        initialization = CompletableFuture.allOf(futures.stream()
+                                                        .map(future -> future.handle((project, error) -> project))
+                                                        .toArray(CompletableFuture[]::new))
+                                          .thenRunAsync(() -> {
+                                              initUnconfiguredFolders();
+                                              LOG.info("Initialized {} projects in {} ms", futures.size(),
+                                                       System.currentTimeMillis() - startTime);
+                                              fireInitHandlers();
+                                          }, executor);
+        initialization.whenComplete((result, error) -> executor.shutdown());
+        return initialization;
+    }
 
-        initialized = true;
+    /**
+     * Initializes single project from workspace configuration. If project may not be initialized with its configuration, e.g. value
+     * provider fails, project is registered with base project type and problem that describes the error.
+     */
+    private RegisteredProject initProject(ProjectConfig projectConfig) {
+        final String path = absolutizePath(projectConfig.getPath());
+        final long startTime = System.currentTimeMillis();
+        try {
+            final VirtualFile vf = vfs.getRoot().getChild(Path.of(path));
+            final FolderEntry projectFolder = ((vf == null) ? null : new FolderEntry(vf, this));
+            try {
+                return putProject(projectConfig, projectFolder, false, false);
+            } catch (ServerException | ConflictException | NotFoundException | RuntimeException e) {
+                LOG.error(String.format("Unable to initialize project %s. %s", path, e.getMessage()), e);
+                final NewProjectConfig baseConfig = new NewProjectConfig(path,
+                                                                         BaseProjectType.ID,
+                                                                         new ArrayList<>(),
+                                                                         projectConfig.getName(),
+                                                                         projectConfig.getDescription(),
+                                                                         new HashMap<>(),
+                                                                         projectConfig.getSource());
+                final RegisteredProject project = putProject(baseConfig, projectFolder, false, false);
+                project.addProblem(12, "Unable to initialize project " + path + ". " + e.getMessage());
+                return project;
+            }
+        } catch (ServerException | ConflictException | NotFoundException e) {
+            LOG.error(String.format("Unable to register project %s. %s", path, e.getMessage()), e);
+            throw new CompletionException(e);
+        } finally {
+            resolving.remove(path);
+            final long time = System.currentTimeMillis() - startTime;
+            initializationTimes.put(path, time);
+            LOG.debug("Project {} is initialized in {} ms", path, time);
+        }
+    }
 
+    private void fireInitHandlers() {
         for (RegisteredProject project : projects.values()) {
             // only for projects with sources
-            if(project.getBaseFolder() != null) {
-                fireInitHandlers(project);
+            if (project.getBaseFolder() != null) {
+                try {
+                    fireInitHandlers(project);
+                } catch (ServerException | ConflictException | NotFoundException | ForbiddenException | RuntimeException e) {
+                    LOG.error(String.format("Init handler of project %s failed. %s", project.getPath(), e.getMessage()), e);
+                }
             }
         }
     }
 
+    /** Sets number of threads that initialize projects, takes effect with next initialization. */
+    void setInitThreads(int initThreads) {
+        this.initThreads = initThreads;
+    }
+
+    /** Returns time in milliseconds that initialization of each project from workspace configuration took last time. */
+    public Map<String, Long> getInitializationTimes() {
+        return new HashMap<>(initializationTimes);
+    }
+
+    /**
+     * Returns statistics of cache of values that are provided with value providers, key is name of class of {@code ValueProviderFactory}.
+     */
+    public Map<String, CacheStats> getProvidedValuesCacheStats() {
+        return providedValuesCache.getStats();
+    }
+
+    /** Invalidates cached provided values that may be affected by change of item with specified path. */
+    void invalidateProvidedValues(String path) {
+        providedValuesCache.invalidate(path);
+    }
+
+    /** Waits until project with the specified path is initialized if it is being initialized now. */
+    private void awaitResolved(String path) {
+        if (initThread.get()) {
+            // do not wait for other projects while initializing project, pool of init threads is bounded
+            return;
+        }
+        final CompletableFuture<RegisteredProject> future = resolving.get(path);
+        if (future != null) {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                LOG.warn(e.getCause().getMessage());
+            }
+        }
+    }
+
+    /** Waits until all projects that are being initialized now are initialized. */
+    private void awaitAllResolved() {
+        for (String path : new ArrayList<>(resolving.keySet())) {
+            awaitResolved(path);
+        }
+    }
+
 
     /**
      * @return all the registered projects
@@ -106,6 +293,8 @@ public class ProjectRegistry {
     public List<RegisteredProject> getProjects() {
         checkInitializationState();
 
+        awaitAllResolved();
+
         initUnconfiguredFolders();
 
         return new ArrayList<>(projects.values());
@@ -119,9 +308,12 @@ public class ProjectRegistry {
     public RegisteredProject getProject(String projectPath) {
         checkInitializationState();
 
+        final String path = absolutizePath(projectPath);
+        awaitResolved(path);
+
         initUnconfiguredFolders();
 
-        return projects.get(absolutizePath(projectPath));
+        return projects.get(path);
     }
 
     /**
@@ -136,10 +328,10 @@ public class ProjectRegistry {
 
         final Path root = Path.of(absolutizePath(parentPath));
 
-        return projects.keySet()
-                       .stream()
-                       .filter(key -> Path.of(key).isChild(root))
-                       .collect(Collectors.toList());
+        return Stream.concat(projects.keySet().stream(), resolving.keySet().stream())
+                     .distinct()
+                     .filter(key -> Path.of(key).isChild(root))
+                     .collect(Collectors.toList());
     }
 
     /**
@@ -158,6 +350,7 @@ public class ProjectRegistry {
         // otherwise try to find matched parent
         Path test;
         while ((test = Path.of(path).getParent()) != null) {
+            awaitResolved(test.toString());
             final RegisteredProject project = projects.get(test.toString());
             if (project != null) {
                 return project;
@@ -192,7 +385,8 @@ public class ProjectRegistry {
                                                           ConflictException,
                                                           NotFoundException {
 
-        final RegisteredProject project = new RegisteredProject(folder, config, updated, detected, this.projectTypeRegistry);
+        final RegisteredProject project =
+                new RegisteredProject(folder, config, updated, detected, projectTypeRegistry, providedValuesCache);
         projects.put(project.getPath(), project);
 
         return project;
@@ -364,7 +558,8 @@ public class ProjectRegistry {
     private void initUnconfiguredFolders() {
         try {
             for (FolderEntry folder : root.getChildFolders()) {
-                if (!projects.containsKey(folder.getVirtualFile().getPath().toString())) {
+                final String path = folder.getVirtualFile().getPath().toString();
+                if (!projects.containsKey(path) && !resolving.containsKey(path)) {
                     putProject(null, folder, true, false);
                 }
             }
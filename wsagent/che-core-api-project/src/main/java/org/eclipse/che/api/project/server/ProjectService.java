@@ -32,20 +32,31 @@ import org.eclipse.che.api.core.rest.annotations.Description;
 import org.eclipse.che.api.core.rest.annotations.GenerateLink;
 import org.eclipse.che.api.core.rest.shared.dto.Link;
 import org.eclipse.che.api.project.server.notification.ProjectItemModifiedEvent;
+import org.eclipse.che.api.project.server.notification.VfsWatchBatchEvent;
+import org.eclipse.che.api.project.server.notification.VfsWatchChangeLog;
 import org.eclipse.che.api.project.server.type.ProjectTypeResolution;
 import org.eclipse.che.api.project.shared.dto.CopyOptions;
+import org.eclipse.che.api.project.shared.dto.FileHashDto;
+import org.eclipse.che.api.project.shared.dto.HashTreeDto;
 import org.eclipse.che.api.project.shared.dto.ItemReference;
 import org.eclipse.che.api.project.shared.dto.MoveOptions;
+import org.eclipse.che.api.project.shared.dto.SearchOccurrenceDto;
 import org.eclipse.che.api.project.shared.dto.SourceEstimation;
+import org.eclipse.che.api.project.shared.dto.TreeChangesDto;
 import org.eclipse.che.api.project.shared.dto.TreeElement;
+import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
+import org.eclipse.che.api.vfs.HashTree;
 import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.VirtualFileTree;
 import org.eclipse.che.api.vfs.search.QueryExpression;
 import org.eclipse.che.api.vfs.search.SearchResult;
 import org.eclipse.che.api.vfs.search.SearchResultEntry;
 import org.eclipse.che.api.vfs.search.Searcher;
+import org.eclipse.che.api.vfs.search.impl.FilePathIndex;
 import org.eclipse.che.api.workspace.shared.dto.ProjectConfigDto;
 import org.eclipse.che.api.workspace.shared.dto.SourceStorageDto;
 import org.eclipse.che.commons.env.EnvironmentContext;
+import org.eclipse.che.commons.lang.Pair;
 import org.eclipse.che.commons.lang.ws.rs.ExtMediaType;
 import org.eclipse.che.dto.server.DtoFactory;
 import org.slf4j.Logger;
@@ -58,33 +69,42 @@ import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriBuilder;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
 
+import static com.google.common.base.Strings.isNullOrEmpty;
 import static javax.ws.rs.HttpMethod.DELETE;
 import static javax.ws.rs.HttpMethod.GET;
 import static javax.ws.rs.HttpMethod.PUT;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static org.eclipse.che.api.core.util.LinksHelper.createLink;
+import static org.eclipse.che.api.project.server.FileContentResponses.IF_RANGE;
+import static org.eclipse.che.api.project.server.FileContentResponses.RANGE;
 import static org.eclipse.che.api.project.server.DtoConverter.asDto;
 import static org.eclipse.che.api.project.shared.Constants.LINK_REL_CHILDREN;
 import static org.eclipse.che.api.project.shared.Constants.LINK_REL_CREATE_PROJECT;
@@ -112,14 +132,21 @@ public class ProjectService extends Service {
     private static final Logger LOG  = LoggerFactory.getLogger(ProjectService.class);
     private static final Tika   TIKA = new Tika();
 
-    private final ProjectManager projectManager;
-    private final EventService   eventService;
-    private final String         workspace;
+    private final ProjectManager    projectManager;
+    private final EventService      eventService;
+    private final FilePathIndex     filePathIndex;
+    private final VfsWatchChangeLog changeLog;
+    private final String            workspace;
 
     @Inject
-    public ProjectService(ProjectManager projectManager, EventService eventService) {
+    public ProjectService(ProjectManager projectManager,
+                          EventService eventService,
+                          FilePathIndex filePathIndex,
+                          VfsWatchChangeLog changeLog) {
         this.projectManager = projectManager;
         this.eventService = eventService;
+        this.filePathIndex = filePathIndex;
+        this.changeLog = changeLog;
         this.workspace = WorkspaceIdProvider.getWorkspaceId();
     }
 
@@ -448,12 +475,17 @@ public class ProjectService extends Service {
     @GET
     @Path("/file/{path:.*}")
     public Response getFile(@ApiParam(value = "Path to a file", required = true)
-                            @PathParam("path") String path) throws IOException, NotFoundException, ForbiddenException, ServerException {
+                            @PathParam("path") String path,
+                            @HeaderParam(RANGE) String range,
+                            @HeaderParam(IF_RANGE) String ifRange,
+                            @Context Request request) throws IOException, NotFoundException, ForbiddenException, ServerException {
         final FileEntry file = projectManager.asFile(path);
         if (file == null) {
             throw new NotFoundException("File not found for " + path);
         }
-        return Response.ok().entity(file.getInputStream()).type(TIKA.detect(file.getName())).build();
+        return FileContentResponses.create(file.getVirtualFile(), request, range, ifRange)
+                                   .type(TIKA.detect(file.getName()))
+                                   .build();
     }
 
     @PUT
@@ -690,8 +722,8 @@ public class ProjectService extends Service {
                    @ApiResponse(code = 403, message = "User not authorized to call this operation"),
                    @ApiResponse(code = 404, message = "Not found"),
                    @ApiResponse(code = 500, message = "Internal Server Error")})
-    public InputStream exportZip(@ApiParam(value = "Path to resource to be exported")
-                                 @PathParam("path") String path) throws NotFoundException, ForbiddenException, ServerException {
+    public Response exportZip(@ApiParam(value = "Path to resource to be exported")
+                              @PathParam("path") String path) throws NotFoundException, ForbiddenException, ServerException {
 
         final FolderEntry folder = projectManager.asFolder(path);
 
@@ -699,14 +731,26 @@ public class ProjectService extends Service {
             throw new NotFoundException("Folder not found " + path);
         }
 
-        return folder.getVirtualFile().zip();
+        final VirtualFile virtualFile = folder.getVirtualFile();
+        // Archive is written directly to the response while it is being created, without intermediate temporary file.
+        final StreamingOutput zip = output -> {
+            try {
+                virtualFile.zip(output);
+            } catch (ForbiddenException | ServerException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        };
+        return Response.ok(zip, ExtMediaType.APPLICATION_ZIP).build();
     }
 
     @GET
     @Path("/export/file/{path:.*}")
     @Produces(MediaType.APPLICATION_OCTET_STREAM)
     public Response exportFile(@ApiParam(value = "Path to resource to be imported")
-                               @PathParam("path") String path) throws NotFoundException, ForbiddenException, ServerException {
+                               @PathParam("path") String path,
+                               @HeaderParam(RANGE) String range,
+                               @HeaderParam(IF_RANGE) String ifRange,
+                               @Context Request request) throws NotFoundException, ForbiddenException, ServerException {
 
         final FileEntry file = projectManager.asFile(path);
 
@@ -716,11 +760,10 @@ public class ProjectService extends Service {
 
         final VirtualFile virtualFile = file.getVirtualFile();
 
-        return Response.ok(virtualFile.getContent(), TIKA.detect(virtualFile.getName()))
-                       .lastModified(new Date(virtualFile.getLastModificationDate()))
-                       .header(HttpHeaders.CONTENT_LENGTH, Long.toString(virtualFile.getLength()))
-                       .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + virtualFile.getName() + '"')
-                       .build();
+        return FileContentResponses.create(virtualFile, request, range, ifRange)
+                                   .type(TIKA.detect(virtualFile.getName()))
+                                   .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + virtualFile.getName() + '"')
+                                   .build();
     }
 
     @GET
@@ -777,9 +820,175 @@ public class ProjectService extends Service {
                                                                                                                ForbiddenException,
                                                                                                                ServerException {
         final FolderEntry folder = projectManager.asFolder(path);
+        // Version is taken before tree is read, so changes made while it is being read are returned by getTreeChanges later
+        final long version = changeLog.getVersion();
+        final Set<String> projects = projectManager.getProjects().stream().map(RegisteredProject::getPath).collect(Collectors.toSet());
 
         return newDto(TreeElement.class).withNode(injectFolderLinks(asDto(folder)))
-                                        .withChildren(getTree(folder, depth, includeFiles));
+                                        .withChildren(getTree(folder.getVirtualFile().getTree(depth), projects, includeFiles))
+                                        .withVersion(version);
+    }
+
+    @GET
+    @Path("/tree-changes/{parent:.*}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(value = "Get changes of project tree",
+                  notes = "Get items that are added, updated or removed in folder after tree was read at specified version. If changes " +
+                          "are not available anymore, e.g. too many changes were made since that version, whole tree should be read again",
+                  response = TreeChangesDto.class)
+    @ApiResponses({@ApiResponse(code = 200, message = "OK"),
+                   @ApiResponse(code = 403, message = "User not authorized to call this operation"),
+                   @ApiResponse(code = 404, message = "Not found"),
+                   @ApiResponse(code = 409, message = "Changes since specified version are not available"),
+                   @ApiResponse(code = 500, message = "Internal Server Error")})
+    public TreeChangesDto getTreeChanges(@ApiParam(value = "Path to resource. Can be project or its folders", required = true)
+                                         @PathParam("parent") String path,
+                                         @ApiParam(value = "Version of tree returned by previous request", required = true)
+                                         @QueryParam("since") long since,
+                                         @ApiParam(value = "include children files (in addition to children folders). This parameter can be " +
+                                                           "dropped. If not specified ?includeFiles=false is used by default")
+                                         @DefaultValue("false") @QueryParam("includeFiles") boolean includeFiles) throws NotFoundException,
+                                                                                                                         ConflictException,
+                                                                                                                         ServerException {
+        final long version = changeLog.getVersion();
+        final List<VfsWatchBatchEvent.Change> changes = changeLog.getChanges(since, version);
+        if (changes == null) {
+            throw new ConflictException(String.format("Changes since version %d are not available, tree should be read again", since));
+        }
+
+        final String parent = ProjectRegistry.absolutizePath(path);
+        final FolderEntry root = projectManager.getProjectsRoot();
+        final List<ItemReference> added = new ArrayList<>();
+        final List<ItemReference> updated = new ArrayList<>();
+        final List<String> removed = new ArrayList<>();
+        for (VfsWatchBatchEvent.Change change : changes) {
+            final String changedPath = change.getPath();
+            if (!(changedPath.equals(parent) || changedPath.startsWith(parent.endsWith("/") ? parent : parent + '/'))) {
+                continue;
+            }
+            if (change.getType() == FileWatcherEventType.DELETED) {
+                removed.add(changedPath);
+                continue;
+            }
+            // item may be already removed, then its removal is returned with the next changes
+            final VirtualFileEntry entry = root.getChild(changedPath);
+            if (entry == null || (entry.isFile() && !includeFiles)) {
+                continue;
+            }
+            final ItemReference item = entry.isFile() ? injectFileLinks(asDto((FileEntry)entry))
+                                                      : injectFolderLinks(asDto((FolderEntry)entry));
+            if (change.getType() == FileWatcherEventType.CREATED) {
+                added.add(item);
+            } else {
+                updated.add(item);
+            }
+        }
+
+        return newDto(TreeChangesDto.class).withVersion(version)
+                                           .withAdded(added)
+                                           .withUpdated(updated)
+                                           .withRemoved(removed);
+    }
+
+    @GET
+    @Path("/hashes/{path:.*}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(value = "Get tree of md5sums",
+                  notes = "Get tree of md5sums of folder content. Md5sum of folder is counted from names and md5sums of its children, " +
+                          "so subtrees with unchanged md5sum may be skipped by client when it synchronizes content",
+                  response = HashTreeDto.class)
+    @ApiResponses({@ApiResponse(code = 200, message = "OK"),
+                   @ApiResponse(code = 403, message = "User not authorized to call this operation"),
+                   @ApiResponse(code = 404, message = "Not found"),
+                   @ApiResponse(code = 500, message = "Internal Server Error")})
+    public HashTreeDto getHashTree(@ApiParam(value = "Path to folder. Can be project or its folders", required = true)
+                                   @PathParam("path") String path,
+                                   @ApiParam(value = "Depth of returned tree. This parameter can be dropped. If not specified ?depth=1 " +
+                                                     "is used by default")
+                                   @DefaultValue("1") @QueryParam("depth") int depth) throws NotFoundException,
+                                                                                             ForbiddenException,
+                                                                                             ServerException {
+        final FolderEntry folder = projectManager.asFolder(path);
+
+        if (folder == null) {
+            throw new NotFoundException("Folder " + path + " was not found");
+        }
+
+        return asDto(folder.getVirtualFile().countMd5Tree(), depth);
+    }
+
+    @POST
+    @Path("/sync/diff/{path:.*}")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(value = "Find files to synchronize",
+                  notes = "Compare list of files and md5sums on client side with content of folder. Returns paths of files that do not " +
+                          "exist in folder or have another md5sum. Such files should be sent with /sync/apply request",
+                  response = String.class,
+                  responseContainer = "List")
+    @ApiResponses({@ApiResponse(code = 200, message = "OK"),
+                   @ApiResponse(code = 400, message = "Path of file is invalid"),
+                   @ApiResponse(code = 403, message = "User not authorized to call this operation"),
+                   @ApiResponse(code = 404, message = "Not found"),
+                   @ApiResponse(code = 500, message = "Internal Server Error")})
+    public List<String> getSyncDiff(@ApiParam(value = "Path to folder to synchronize", required = true)
+                                    @PathParam("path") String path,
+                                    @Description("paths and md5sums of files on client side") List<FileHashDto> files)
+            throws NotFoundException, ForbiddenException, ServerException, BadRequestException {
+        final FolderEntry folder = projectManager.asFolder(path);
+
+        if (folder == null) {
+            throw new NotFoundException("Folder " + path + " was not found");
+        }
+
+        final List<org.eclipse.che.api.vfs.Path> clientPaths = new ArrayList<>(files.size());
+        for (FileHashDto file : files) {
+            try {
+                clientPaths.add(org.eclipse.che.api.vfs.Path.ROOT.newPath(file.getPath()));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException(String.format("Invalid path of file '%s'", file.getPath()));
+            }
+        }
+
+        final Map<org.eclipse.che.api.vfs.Path, String> md5Sums = new HashMap<>();
+        for (Pair<String, String> md5Sum : folder.getVirtualFile().countMd5Sums()) {
+            md5Sums.put(org.eclipse.che.api.vfs.Path.ROOT.newPath(md5Sum.second), md5Sum.first);
+        }
+
+        final List<String> diff = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            final FileHashDto file = files.get(i);
+            final String md5Sum = md5Sums.get(clientPaths.get(i));
+            if (md5Sum == null || !md5Sum.equalsIgnoreCase(file.getHash())) {
+                diff.add(file.getPath());
+            }
+        }
+        return diff;
+    }
+
+    @POST
+    @Path("/sync/apply/{path:.*}")
+    @Consumes(ExtMediaType.APPLICATION_X_TAR)
+    @ApiOperation(value = "Synchronize files",
+                  notes = "Write files from tar archive to folder, existing files are overwritten. Archive is extracted to temporary " +
+                          "folder first and then its files are moved to the folder, so nothing is changed in folder if archive is " +
+                          "broken or truncated or if any file may not be written")
+    @ApiResponses({@ApiResponse(code = 204, message = ""),
+                   @ApiResponse(code = 403, message = "User not authorized to call this operation"),
+                   @ApiResponse(code = 404, message = "Not found"),
+                   @ApiResponse(code = 500, message = "Internal Server Error")})
+    public Response applySync(@ApiParam(value = "Path to folder to synchronize", required = true)
+                              @PathParam("path") String path,
+                              InputStream tar) throws NotFoundException, ConflictException, ForbiddenException, ServerException {
+        final FolderEntry folder = projectManager.asFolder(path);
+
+        if (folder == null) {
+            throw new NotFoundException("Folder " + path + " was not found");
+        }
+
+        new SyncArchiveApplier(folder.getVirtualFile()).apply(tar);
+
+        return Response.noContent().build();
     }
 
     @GET
@@ -826,13 +1035,18 @@ public class ProjectService extends Service {
                                       @QueryParam("name") String name,
                                       @ApiParam(value = "Search keywords")
                                       @QueryParam("text") String text,
+                                      @ApiParam(value = "Regular expression for searching in file content. " +
+                                                        "Use quoted expression, e.g. \\Qfoo.bar()\\E, for searching substring")
+                                      @QueryParam("regex") String regex,
                                       @ApiParam(value = "Maximum items to display. If this parameter is dropped, there are no limits")
                                       @QueryParam("maxItems") @DefaultValue("-1") int maxItems,
                                       @ApiParam(value = "Skip count")
-                                      @QueryParam("skipCount") int skipCount) throws NotFoundException,
-                                                                                     ForbiddenException,
-                                                                                     ConflictException,
-                                                                                     ServerException {
+                                      @QueryParam("skipCount") int skipCount,
+                                      @ApiParam(value = "Maximum occurrences of searched text returned for each file. " +
+                                                        "Finding occurrences requires reading of found files, so occurrences are " +
+                                                        "returned only if this parameter is set to positive number")
+                                      @QueryParam("maxOccurrences") @DefaultValue("0") int maxOccurrences)
+            throws NotFoundException, ForbiddenException, ConflictException, ServerException {
         final Searcher searcher;
         try {
             searcher = projectManager.getSearcher();
@@ -844,13 +1058,22 @@ public class ProjectService extends Service {
         if (skipCount < 0) {
             throw new ConflictException(String.format("Invalid 'skipCount' parameter: %d.", skipCount));
         }
+        if (regex != null) {
+            try {
+                Pattern.compile(regex);
+            } catch (PatternSyntaxException e) {
+                throw new ConflictException(String.format("Invalid 'regex' parameter: %s", e.getMessage()));
+            }
+        }
 
         final QueryExpression expr = new QueryExpression()
                 .setPath(path.startsWith("/") ? path : ('/' + path))
                 .setName(name)
                 .setText(text)
+                .setRegex(regex)
                 .setMaxItems(maxItems)
-                .setSkipCount(skipCount);
+                .setSkipCount(skipCount)
+                .setMaxOccurrences(maxOccurrences);
 
         final SearchResult result = searcher.search(expr);
         final List<SearchResultEntry> searchResultEntries = result.getResults();
@@ -861,13 +1084,52 @@ public class ProjectService extends Service {
             final VirtualFileEntry child = root.getChild(searchResultEntry.getFilePath());
 
             if (child != null && child.isFile()) {
-                items.add(injectFileLinks(asDto((FileEntry)child)));
+                final List<SearchOccurrenceDto> occurrences = searchResultEntry.getOccurrences()
+                                                                               .stream()
+                                                                               .map(DtoConverter::asDto)
+                                                                               .collect(Collectors.toList());
+                items.add(injectFileLinks(asDto((FileEntry)child)).withSearchOccurrences(occurrences));
             }
         }
 
         return items;
     }
 
+    @GET
+    @Path("/find-files")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(value = "Find files by name",
+                  notes = "Fuzzy search of files by name, e.g. 'FSLS' or 'lucsearch' finds 'FSLuceneSearcher.java'. Part of query " +
+                          "before last '/' is matched with directory path. The best matches go first",
+                  response = ItemReference.class,
+                  responseContainer = "List")
+    @ApiResponses({@ApiResponse(code = 200, message = "OK"),
+                   @ApiResponse(code = 409, message = "Conflict error"),
+                   @ApiResponse(code = 500, message = "Internal Server Error")})
+    public List<ItemReference> findFiles(@ApiParam(value = "Query, e.g. 'FSLS' or 'search/impl/FSLS'", required = true)
+                                         @QueryParam("q") String query,
+                                         @ApiParam(value = "Maximum items to return")
+                                         @QueryParam("maxItems") @DefaultValue("50") int maxItems)
+            throws ServerException, ConflictException {
+        if (isNullOrEmpty(query)) {
+            throw new ConflictException("Query parameter 'q' is required");
+        }
+        if (maxItems < 1) {
+            throw new ConflictException(String.format("Invalid 'maxItems' parameter: %d.", maxItems));
+        }
+
+        final FolderEntry root = projectManager.getProjectsRoot();
+        final List<ItemReference> items = new ArrayList<>();
+        for (String filePath : filePathIndex.find(query, maxItems)) {
+            final VirtualFileEntry child = root.getChild(filePath);
+            // index is updated asynchronously, so file may be already removed
+            if (child != null && child.isFile()) {
+                items.add(injectFileLinks(asDto((FileEntry)child)));
+            }
+        }
+        return items;
+    }
+
     private void logProjectCreatedEvent(@NotNull String projectName, @NotNull String projectType) {
         LOG.info("EVENT#project-created# PROJECT#{}# TYPE#{}# WS#{}# USER#{}# PAAS#default#",
                  projectName,
@@ -896,35 +1158,35 @@ public class ProjectService extends Service {
         return virtualFile;
     }
 
-    private List<TreeElement> getTree(FolderEntry folder,
-                                      int depth,
-                                      boolean includeFiles) throws ServerException, NotFoundException {
-        if (depth == 0) {
-            return null;
-        }
-
-        final List<? extends VirtualFileEntry> children;
-
-        if (includeFiles) {
-            children = folder.getChildFoldersFiles();
-        } else {
-            children = folder.getChildFolders();
-        }
-
-        final List<TreeElement> nodes = new ArrayList<>(children.size());
-        for (VirtualFileEntry child : children) {
+    private List<TreeElement> getTree(VirtualFileTree tree, Set<String> projects, boolean includeFiles) {
+        final List<TreeElement> nodes = new ArrayList<>(tree.getChildren().size());
+        for (VirtualFileTree child : tree.getChildren()) {
             if (child.isFolder()) {
-                nodes.add(newDto(TreeElement.class)
-                                  .withNode(injectFolderLinks(asDto((FolderEntry)child)))
-                                  .withChildren(getTree((FolderEntry)child, depth - 1, includeFiles)));
-            } else {
-                nodes.add(newDto(TreeElement.class).withNode(injectFileLinks(asDto((FileEntry)child))));
+                nodes.add(newDto(TreeElement.class).withNode(injectFolderLinks(asDto(child, projects)))
+                                                   .withChildren(getTree(child, projects, includeFiles)));
+            } else if (includeFiles) {
+                nodes.add(newDto(TreeElement.class).withNode(injectFileLinks(asDto(child, projects))));
             }
         }
 
         return nodes;
     }
 
+    private HashTreeDto asDto(HashTree tree, int depth) {
+        final HashTreeDto dto = newDto(HashTreeDto.class).withName(tree.getName())
+                                                         .withPath(tree.getPath().toString())
+                                                         .withType(tree.isFolder() ? "folder" : "file")
+                                                         .withHash(tree.getHash());
+        if (tree.isFolder() && depth > 0) {
+            final List<HashTreeDto> children = new ArrayList<>(tree.getChildren().size());
+            for (HashTree child : tree.getChildren()) {
+                children.add(asDto(child, depth - 1));
+            }
+            dto.setChildren(children);
+        }
+        return dto;
+    }
+
     /* --------------------------------------------------------------------------- */
     /* TODO check "upload" methods below, they were copied from old VFS as is      */
     /* --------------------------------------------------------------------------- */
@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+
+import org.eclipse.che.api.project.server.type.ProjectTypeDef;
+import org.eclipse.che.api.project.server.type.ProjectTypeResolution;
+import org.eclipse.che.api.vfs.PathIndex;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache of results of {@link ProjectTypeDef#resolveSources(FolderEntry)}. Result is cached for folder and project type together
+ * with stamp of folder that is calculated from modification dates of folder and its direct children, so result is not used when any of
+ * them is changed. Events of file watcher invalidate results of changed item and of its parent folder, see {@link #invalidate(String)}.
+ * <p/>
+ * Resolutions of folders are kept in {@link PathIndex} while they are in progress and while their results are cached, so results of one
+ * folder for all project types are found without scanning whole cache.
+ */
+class ProjectTypeResolutionCache {
+    /* Resolving stays indexed until it is closed and all its results are removed from recentlyUsed. */
+    private final PathIndex<Resolving>            resolvings;
+    /* Keys are paths of folders followed by '\0' and id of project type. */
+    private final Cache<String, CachedResolution> recentlyUsed;
+
+    ProjectTypeResolutionCache(int maxSize) {
+        resolvings = new PathIndex<>();
+        recentlyUsed = CacheBuilder.newBuilder()
+                                   .maximumSize(maxSize)
+                                   .removalListener((RemovalNotification<String, CachedResolution> removed) ->
+                                                            removed.getValue().resolving.uncached(removed.getKey(), removed.getValue()))
+                                   .build();
+    }
+
+    /**
+     * Gets cached result of resolution.
+     *
+     * @param folderPath
+     *         path of folder
+     * @param projectType
+     *         project type
+     * @param stamp
+     *         current stamp of folder
+     * @return cached result or {@code null} if result is not cached or folder is changed since result was resolved
+     */
+    ProjectTypeResolution get(String folderPath, ProjectTypeDef projectType, long stamp) {
+        final CachedResolution cached = recentlyUsed.getIfPresent(key(folderPath, projectType));
+        if (cached != null && cached.projectType == projectType && cached.stamp == stamp) {
+            return cached.resolution;
+        }
+        return null;
+    }
+
+    /**
+     * Starts resolution of folder, it must be started before folder is read. Result may be cached with {@link Resolving#put} and
+     * resolving must be closed after that.
+     */
+    Resolving startResolving(String folderPath) {
+        return new Resolving(folderPath);
+    }
+
+    /** Invalidates results that may be affected by change of item with specified path: results of item itself and of its parent. */
+    void invalidate(String path) {
+        final int lastSlash = path.lastIndexOf('/');
+        resolvings.invalidate(path);
+        if (lastSlash > 0) {
+            resolvings.invalidate(path.substring(0, lastSlash));
+        } else if (!"/".equals(path)) {
+            resolvings.invalidate("/");
+        }
+    }
+
+    void invalidateAll() {
+        resolvings.invalidateAll();
+    }
+
+    long size() {
+        return recentlyUsed.size();
+    }
+
+    private static String key(String folderPath, ProjectTypeDef projectType) {
+        return folderPath + '\0' + projectType.getId();
+    }
+
+    /** Resolution of one folder, its results are cached only if folder is not invalidated while it is resolved. */
+    final class Resolving extends PathIndex.Entry implements AutoCloseable {
+        private final String                        folderPath;
+        private final String                        indexKey;
+        private final Map<String, CachedResolution> cached;
+
+        private volatile boolean closed;
+
+        private Resolving(String folderPath) {
+            this.folderPath = folderPath;
+            this.cached = new ConcurrentHashMap<>();
+            this.indexKey = resolvings.add(folderPath, this);
+        }
+
+        /** Caches result of resolution unless folder is invalidated after resolving was started. */
+        void put(ProjectTypeDef projectType, long stamp, ProjectTypeResolution resolution) {
+            final String key = key(folderPath, projectType);
+            final CachedResolution result = new CachedResolution(this, projectType, stamp, resolution);
+            cached.put(key, result);
+            if (!cache(() -> recentlyUsed.put(key, result))) {
+                cached.remove(key, result);
+            }
+        }
+
+        @Override
+        protected void onInvalidated() {
+            cached.forEach((key, result) -> recentlyUsed.asMap().remove(key, result));
+        }
+
+        /** Called when result is removed from cache. */
+        private void uncached(String key, CachedResolution result) {
+            cached.remove(key, result);
+            if (closed && cached.isEmpty()) {
+                resolvings.remove(indexKey, this);
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            if (cached.isEmpty()) {
+                resolvings.remove(indexKey, this);
+            }
+        }
+    }
+
+    private static class CachedResolution {
+        private final Resolving             resolving;
+        private final ProjectTypeDef        projectType;
+        private final long                  stamp;
+        private final ProjectTypeResolution resolution;
+
+        CachedResolution(Resolving resolving, ProjectTypeDef projectType, long stamp, ProjectTypeResolution resolution) {
+            this.resolving = resolving;
+            this.projectType = projectType;
+            this.stamp = stamp;
+            this.resolution = resolution;
+        }
+    }
+}
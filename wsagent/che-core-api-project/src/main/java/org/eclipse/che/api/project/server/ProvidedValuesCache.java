@@ -0,0 +1,256 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalNotification;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.project.server.type.ProjectTypeDef;
+import org.eclipse.che.api.project.server.type.ValueProvider;
+import org.eclipse.che.api.project.server.type.ValueProviderFactory;
+import org.eclipse.che.api.project.server.type.ValueStorageException;
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.PathIndex;
+import org.eclipse.che.api.vfs.VirtualFile;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Cache of values of project attributes that are provided with {@link ValueProvider}s. Values are cached only for factories that declare
+ * files values depend on, see {@link ValueProviderFactory#getDependencies()}. Cached values are kept together with stamp calculated from
+ * modification dates and lengths of these files, so they are not used when any of the files is changed, even if change is not caught by
+ * file watcher. Each project type has own cache with TTL and size limits declared by type. Hits and misses are counted for each factory.
+ * <p/>
+ * Values are indexed by path of project folder and by paths of files they depend on with {@link PathIndex}, so values affected by change
+ * of item are found without scanning caches. Values are indexed before they are provided and stay indexed while they are cached.
+ */
+class ProvidedValuesCache {
+    private final Map<String, Cache<Key, CachedValues>> caches;
+    private final Map<String, Counters>                 counters;
+    private final PathIndex<CachedValues>               folderIndex;
+    private final PathIndex<CachedValues>               dependencyIndex;
+
+    ProvidedValuesCache() {
+        caches = new ConcurrentHashMap<>();
+        counters = new ConcurrentHashMap<>();
+        folderIndex = new PathIndex<>();
+        dependencyIndex = new PathIndex<>();
+    }
+
+    /**
+     * Gets values of attribute from cache or from provider if values are not cached or any of files they depend on is changed.
+     *
+     * @param projectType
+     *         project type that declares attribute
+     * @param folder
+     *         project folder
+     * @param attributeName
+     *         name of attribute
+     * @param factory
+     *         factory of provider
+     * @param provider
+     *         provider created by factory for project folder
+     * @return values of attribute
+     */
+    List<String> getValues(ProjectTypeDef projectType,
+                           FolderEntry folder,
+                           String attributeName,
+                           ValueProviderFactory factory,
+                           ValueProvider provider) throws ValueStorageException {
+        final List<String> dependencies = factory.getDependencies();
+        if (projectType == null || dependencies.isEmpty() || projectType.getValueCacheSize() <= 0) {
+            return provider.getValues(attributeName);
+        }
+        final Cache<Key, CachedValues> cache = caches.computeIfAbsent(projectType.getId(), id -> newCache(projectType));
+        final Counters providerCounters = counters.computeIfAbsent(factory.getClass().getName(), name -> new Counters());
+        final Key key = new Key(folder.getPath().toString(), attributeName);
+        final long stamp = stampOf(folder, dependencies);
+
+        final CachedValues cached = cache.getIfPresent(key);
+        if (cached != null && cached.factory == factory && cached.stamp == stamp) {
+            providerCounters.hits.incrementAndGet();
+            return new ArrayList<>(cached.values);
+        }
+        providerCounters.misses.incrementAndGet();
+
+        final CachedValues providing = new CachedValues(cache, key, factory, stamp);
+        index(providing, dependencies);
+        boolean isCached = false;
+        try {
+            final List<String> values = provider.getValues(attributeName);
+            if (values != null) {
+                providing.values = new ArrayList<>(values);
+                isCached = providing.cache(() -> cache.put(key, providing));
+            }
+            return values;
+        } finally {
+            if (!isCached) {
+                unindex(providing);
+            }
+        }
+    }
+
+    /**
+     * Invalidates values that may be affected by change of item with specified path: values of projects under this path and values of
+     * projects that depend on this path, its ancestors or descendants.
+     */
+    void invalidate(String path) {
+        if ("/".equals(path)) {
+            invalidateAll();
+            return;
+        }
+        folderIndex.invalidate(path);
+        folderIndex.invalidateDescendants(path);
+        dependencyIndex.invalidate(path);
+        dependencyIndex.invalidateDescendants(path);
+        for (int slash = path.lastIndexOf('/'); slash > 0; slash = path.lastIndexOf('/', slash - 1)) {
+            dependencyIndex.invalidate(path.substring(0, slash));
+        }
+    }
+
+    /** Invalidates values of attribute of project with specified path, e.g. after values are set through provider. */
+    void invalidate(String folderPath, String attributeName) {
+        for (CachedValues values : folderIndex.get(folderPath)) {
+            if (attributeName.equals(values.key.attributeName)) {
+                values.invalidate();
+            }
+        }
+    }
+
+    void invalidateAll() {
+        folderIndex.invalidateAll();
+        caches.values().forEach(Cache::invalidateAll);
+    }
+
+    /** Returns statistics of cache for each factory of providers, key is name of class of factory. */
+    Map<String, CacheStats> getStats() {
+        final Map<String, CacheStats> stats = new HashMap<>();
+        counters.forEach((factory, factoryCounters) -> stats.put(factory, new CacheStats(factoryCounters.hits.get(),
+                                                                                         factoryCounters.misses.get(),
+                                                                                         0, 0, 0, 0)));
+        return Collections.unmodifiableMap(stats);
+    }
+
+    long size() {
+        return caches.values().stream().mapToLong(Cache::size).sum();
+    }
+
+    private Cache<Key, CachedValues> newCache(ProjectTypeDef projectType) {
+        return CacheBuilder.newBuilder()
+                           .maximumSize(projectType.getValueCacheSize())
+                           .expireAfterWrite(projectType.getValueCacheTtlSec(), SECONDS)
+                           .removalListener((RemovalNotification<Key, CachedValues> removed) -> unindex(removed.getValue()))
+                           .build();
+    }
+
+    private void index(CachedValues values, List<String> dependencies) {
+        values.folderIndexKey = folderIndex.add(values.key.folderPath, values);
+        final Path folderPath = Path.of(values.key.folderPath);
+        for (String dependency : dependencies) {
+            values.dependencyIndexKeys.add(dependencyIndex.add(folderPath.newPath(dependency).toString(), values));
+        }
+    }
+
+    private void unindex(CachedValues values) {
+        folderIndex.remove(values.folderIndexKey, values);
+        for (String dependencyIndexKey : values.dependencyIndexKeys) {
+            dependencyIndex.remove(dependencyIndexKey, values);
+        }
+    }
+
+    /** Calculates stamp of files that values depend on, files that do not exist are taken into account as well. */
+    private static long stampOf(FolderEntry folder, List<String> dependencies) throws ValueStorageException {
+        long stamp = 0;
+        try {
+            for (String dependency : dependencies) {
+                final VirtualFile file = folder.getVirtualFile().getChild(Path.of(dependency));
+                stamp = 31 * stamp + dependency.hashCode();
+                if (file != null) {
+                    stamp = 31 * stamp + file.getLastModificationDate();
+                    stamp = 31 * stamp + (file.isFile() ? file.getLength() : -1);
+                }
+            }
+        } catch (ServerException e) {
+            throw new ValueStorageException(e.getMessage());
+        }
+        return stamp;
+    }
+
+    private static class Key {
+        private final String folderPath;
+        private final String attributeName;
+
+        Key(String folderPath, String attributeName) {
+            this.folderPath = folderPath;
+            this.attributeName = attributeName;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key)o;
+            return folderPath.equals(other.folderPath) && attributeName.equals(other.attributeName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(folderPath, attributeName);
+        }
+    }
+
+    private static class CachedValues extends PathIndex.Entry {
+        private final Cache<Key, CachedValues> cache;
+        private final Key                      key;
+        private final ValueProviderFactory     factory;
+        private final long                     stamp;
+        private final List<String>             dependencyIndexKeys;
+
+        /* Set when values are indexed, before they are provided. */
+        private String                folderIndexKey;
+        /* Set once values are provided, before they are put in cache. */
+        private volatile List<String> values;
+
+        CachedValues(Cache<Key, CachedValues> cache, Key key, ValueProviderFactory factory, long stamp) {
+            this.cache = cache;
+            this.key = key;
+            this.factory = factory;
+            this.stamp = stamp;
+            this.dependencyIndexKeys = new ArrayList<>();
+        }
+
+        @Override
+        protected void onInvalidated() {
+            cache.asMap().remove(key, this);
+        }
+    }
+
+    private static class Counters {
+        private final AtomicLong hits   = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+    }
+}
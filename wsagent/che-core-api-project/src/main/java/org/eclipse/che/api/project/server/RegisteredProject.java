@@ -21,6 +21,7 @@ import org.eclipse.che.api.project.server.type.ProjectTypeConstraintException;
 import org.eclipse.che.api.project.server.type.ProjectTypeDef;
 import org.eclipse.che.api.project.server.type.ProjectTypeRegistry;
 import org.eclipse.che.api.project.server.type.ValueProvider;
+import org.eclipse.che.api.project.server.type.ValueProviderFactory;
 import org.eclipse.che.api.project.server.type.ValueStorageException;
 import org.eclipse.che.api.project.server.type.Variable;
 
@@ -47,6 +48,8 @@ public class RegisteredProject implements ProjectConfig {
     private       boolean       detected;
     private final ProjectTypes  types;
 
+    private final ProvidedValuesCache providedValuesCache;
+
     /**
      * Either root folder or config can be null, in this case Project is configured with problem.
      *
@@ -60,12 +63,15 @@ public class RegisteredProject implements ProjectConfig {
      *         if this project was detected, initialized when "parent" project initialized
      * @param projectTypeRegistry
      *         project type registry
+     * @param providedValuesCache
+     *         cache of values of attributes that are provided with value providers
      */
     RegisteredProject(FolderEntry folder,
                       ProjectConfig config,
                       boolean updated,
                       boolean detected,
-                      ProjectTypeRegistry projectTypeRegistry) throws NotFoundException,
+                      ProjectTypeRegistry projectTypeRegistry,
+                      ProvidedValuesCache providedValuesCache) throws NotFoundException,
                                                                       ProjectTypeConstraintException,
                                                                       ServerException,
                                                                       ValueStorageException {
@@ -76,6 +82,7 @@ public class RegisteredProject implements ProjectConfig {
         this.config = (config == null) ? new NewProjectConfig(folder.getPath()) : config;
         this.updated = updated;
         this.detected = detected;
+        this.providedValuesCache = providedValuesCache;
 
         if (folder == null || folder.isFile()) {
             problems.add(new Problem(10, "No project folder on file system " + this.config.getPath()));
@@ -120,16 +127,20 @@ public class RegisteredProject implements ProjectConfig {
                 // value provided
                 if (variable.isValueProvided()) {
 
-                    final ValueProvider valueProvider = variable.getValueProviderFactory().newInstance(folder);
+                    final ValueProviderFactory valueProviderFactory = variable.getValueProviderFactory();
+                    final ValueProvider valueProvider = valueProviderFactory.newInstance(folder);
 
                     if (folder != null) {
 
                         if (!valueProvider.isSettable() || value.isEmpty()) {
-                            // get provided value
-                            value = new AttributeValue(valueProvider.getValues(name));
+                            // get provided value, it may be cached if provider declares files it depends on
+                            final ProjectTypeDef projectType = types.getAll().get(variable.getProjectType());
+                            value = new AttributeValue(providedValuesCache.getValues(projectType, folder, name, valueProviderFactory,
+                                                                                     valueProvider));
                         } else {
                             // set provided (not empty) value
                             valueProvider.setValues(name, value.getList());
+                            providedValuesCache.invalidate(folder.getPath().toString(), name);
                         }
 
                     } else {
@@ -213,6 +224,11 @@ public class RegisteredProject implements ProjectConfig {
         return problems;
     }
 
+    /** Adds problem to this project, e.g. when project may not be initialized with its configuration. */
+    void addProblem(int code, String message) {
+        problems.add(new Problem(code, message));
+    }
+
     /**
      * @return non provided attributes, those attributes can be persisted to Workspace storage
      */
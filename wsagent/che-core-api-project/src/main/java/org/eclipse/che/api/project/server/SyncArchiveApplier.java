@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import org.eclipse.che.api.core.ConflictException;
+import org.eclipse.che.api.core.ForbiddenException;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.PathLockFactory;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.VirtualFileSystem;
+import org.eclipse.che.api.vfs.impl.file.LocalVirtualFileSystem;
+import org.eclipse.che.commons.lang.NameGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Writes files from tar archive to folder. Archive is extracted to temporary folder first, then its files are moved to the target folder
+ * and files they replace are moved aside. If extraction or any move fails, all moves that were done are reverted.
+ * <p/>
+ * On local file system temporary folders are created in service directory of file system, so they are not seen by watcher of files,
+ * searcher or listings of folders, and target folder is locked exclusively while files are moved, so other clients of virtual file
+ * system do not see folder partially updated. Processes that access files on disk directly may still see separate changes, and if
+ * server stops in the middle of moving, files that were moved already stay in folder.
+ */
+class SyncArchiveApplier {
+    private static final Logger LOG = LoggerFactory.getLogger(SyncArchiveApplier.class);
+
+    private final VirtualFile         folder;
+    /* Actions that revert changes of target folder, the last change is reverted first. */
+    private final Deque<RevertAction> revertActions;
+
+    private VirtualFile backup;
+
+    SyncArchiveApplier(VirtualFile folder) {
+        this.folder = folder;
+        this.revertActions = new ArrayDeque<>();
+    }
+
+    /** Applies content of tar archive to folder, existing files are overwritten. */
+    void apply(InputStream tar) throws ForbiddenException, ConflictException, ServerException {
+        final VirtualFile staging = createTempFolder("sync");
+        try {
+            staging.untar(tar, true, 0);
+            backup = createTempFolder("sync-backup");
+            final PathLockFactory.PathLock lock = lockFolder();
+            try {
+                moveChildren(staging, folder, Path.ROOT);
+            } catch (ForbiddenException | ConflictException | ServerException | RuntimeException e) {
+                revert();
+                throw e;
+            } finally {
+                if (lock != null) {
+                    lock.release();
+                }
+            }
+        } finally {
+            deleteQuietly(staging);
+            deleteQuietly(backup);
+        }
+    }
+
+    private void moveChildren(VirtualFile source, VirtualFile target, Path relativePath) throws ForbiddenException,
+                                                                                               ConflictException,
+                                                                                               ServerException {
+        for (VirtualFile child : source.getChildren()) {
+            final String name = child.getName();
+            final VirtualFile existing = target.getChild(Path.of(name));
+            if (child.isFolder()) {
+                VirtualFile targetFolder = existing;
+                if (targetFolder == null) {
+                    targetFolder = target.createFolder(name);
+                    final VirtualFile createdFolder = targetFolder;
+                    revertActions.push(() -> createdFolder.delete());
+                } else if (!existing.isFolder()) {
+                    throw new ConflictException(String.format("Item '%s' already exists and is not a folder", existing.getPath()));
+                }
+                moveChildren(child, targetFolder, relativePath.newPath(name));
+            } else {
+                if (existing != null) {
+                    if (!existing.isFile()) {
+                        throw new ConflictException(String.format("Item '%s' already exists and is not a file", existing.getPath()));
+                    }
+                    final VirtualFile backupParent = getOrCreateBackupFolder(relativePath);
+                    final VirtualFile backedUp = existing.moveTo(backupParent, name, false, null);
+                    revertActions.push(() -> backedUp.moveTo(target, name, true, null));
+                }
+                final VirtualFile moved = child.moveTo(target, name, false, null);
+                revertActions.push(() -> moved.delete());
+            }
+        }
+    }
+
+    private VirtualFile getOrCreateBackupFolder(Path relativePath) throws ForbiddenException, ConflictException, ServerException {
+        if (relativePath.isRoot()) {
+            return backup;
+        }
+        final String relative = relativePath.toString().substring(1);
+        final VirtualFile existing = backup.getChild(Path.of(relative));
+        return existing != null ? existing : backup.createFolder(relative);
+    }
+
+    private void revert() {
+        while (!revertActions.isEmpty()) {
+            try {
+                revertActions.pop().revert();
+            } catch (ForbiddenException | ConflictException | ServerException | RuntimeException e) {
+                LOG.error(String.format("Unable revert synchronization of folder %s. %s", folder.getPath(), e.getMessage()), e);
+            }
+        }
+    }
+
+    /** Creates temporary folder in service directory of local file system or next to target folder on other file systems. */
+    private VirtualFile createTempFolder(String prefix) throws ForbiddenException, ConflictException, ServerException {
+        final VirtualFileSystem fileSystem = folder.getFileSystem();
+        if (fileSystem instanceof LocalVirtualFileSystem) {
+            return ((LocalVirtualFileSystem)fileSystem).createTemporaryFolder(prefix);
+        }
+        final VirtualFile tempParent = folder.isRoot() ? folder : folder.getParent();
+        final String tempName = '.' + (folder.isRoot() ? "" : folder.getName() + '.') + prefix + '-' + NameGenerator.generate(null, 8);
+        return tempParent.createFolder(tempName);
+    }
+
+    private PathLockFactory.PathLock lockFolder() {
+        final VirtualFileSystem fileSystem = folder.getFileSystem();
+        if (fileSystem instanceof LocalVirtualFileSystem) {
+            return ((LocalVirtualFileSystem)fileSystem).lock(folder.getPath(), true);
+        }
+        return null;
+    }
+
+    private void deleteQuietly(VirtualFile file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            file.delete();
+        } catch (ForbiddenException | ServerException e) {
+            LOG.warn(String.format("Unable delete temporary folder %s. %s", file.getPath(), e.getMessage()));
+        }
+    }
+
+    private interface RevertAction {
+        void revert() throws ForbiddenException, ConflictException, ServerException;
+    }
+}
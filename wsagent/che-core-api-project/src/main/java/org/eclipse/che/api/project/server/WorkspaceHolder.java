@@ -10,18 +10,25 @@
  *******************************************************************************/
 package org.eclipse.che.api.project.server;
 
+import com.google.inject.Inject;
+
 import org.eclipse.che.api.core.ApiException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.model.project.ProjectConfig;
+import org.eclipse.che.api.core.rest.HttpJsonRequest;
 import org.eclipse.che.api.core.rest.HttpJsonRequestFactory;
 import org.eclipse.che.api.workspace.server.WorkspaceService;
+import org.eclipse.che.api.workspace.shared.dto.ProjectConfigDto;
 import org.eclipse.che.api.workspace.shared.dto.WorkspaceDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import javax.inject.Inject;
+import javax.annotation.PreDestroy;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import javax.ws.rs.core.UriBuilder;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.eclipse.che.api.project.server.DtoConverter.asDto;
@@ -33,6 +40,25 @@ import static org.eclipse.che.api.project.server.DtoConverter.asDto;
  */
 @Singleton
 public class WorkspaceHolder extends WorkspaceProjectsSyncer {
+    private static final Logger LOG = LoggerFactory.getLogger(WorkspaceHolder.class);
+
+    /**
+     * Default time in milliseconds that changes of projects are coalesced for before they are sent to master. Changes are sent
+     * immediately by default since callers wait until master has them, concurrent changes are coalesced anyway.
+     */
+    public static final  long DEFAULT_SYNC_WINDOW_MS = 0;
+    /** Default number of attempts to send changes of projects to master. */
+    public static final  int  DEFAULT_SYNC_ATTEMPTS  = 3;
+    /* Delay before second attempt, each next delay is doubled. */
+    private static final long RETRY_DELAY_MS         = 500;
+
+    @Inject(optional = true)
+    @Named("project.sync.window_ms")
+    private long syncWindowMs = DEFAULT_SYNC_WINDOW_MS;
+
+    @Inject(optional = true)
+    @Named("project.sync.attempts")
+    private int syncAttempts = DEFAULT_SYNC_ATTEMPTS;
 
     private String apiEndpoint;
 
@@ -75,6 +101,56 @@ public class WorkspaceHolder extends WorkspaceProjectsSyncer {
     }
 
 
+    @Override
+    protected long getSyncWindowMillis() {
+        return syncWindowMs;
+    }
+
+    /**
+     * Sends all changes of projects to WS-master with one request. Request replaces projects with the same paths, so it is repeated
+     * if master is not reachable or fails.
+     */
+    @Override
+    protected void applyChanges(List<ProjectConfig> added, List<ProjectConfig> updated, List<ProjectConfig> removed)
+            throws ServerException {
+        final List<ProjectConfigDto> changed = new ArrayList<>(added.size() + updated.size());
+        added.forEach(project -> changed.add(asDto(project)));
+        updated.forEach(project -> changed.add(asDto(project)));
+        final String href = UriBuilder.fromUri(apiEndpoint)
+                                      .path(WorkspaceService.class)
+                                      .path(WorkspaceService.class, "updateProjects")
+                                      .build(workspaceId).toString();
+        long delay = RETRY_DELAY_MS;
+        for (int attempt = 1; ; attempt++) {
+            final HttpJsonRequest request = httpJsonRequestFactory.fromUrl(href).usePutMethod().setBody(changed);
+            removed.forEach(project -> request.addQueryParam("remove", project.getPath()));
+            try {
+                request.request();
+                return;
+            } catch (IOException | ServerException e) {
+                if (attempt >= syncAttempts) {
+                    throw new ServerException(e.getMessage(), e);
+                }
+                LOG.warn("Attempt {} to update projects of workspace {} failed, retrying in {} ms. {}",
+                         attempt, workspaceId, delay, e.getMessage());
+            } catch (ApiException e) {
+                throw new ServerException(e.getMessage(), e);
+            }
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServerException("Interrupted while updating projects of workspace " + workspaceId);
+            }
+            delay *= 2;
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        stopSync();
+    }
+
     /**
      * Add project on WS-master side.
      *
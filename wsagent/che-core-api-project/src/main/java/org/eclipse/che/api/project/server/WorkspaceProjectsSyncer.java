@@ -10,25 +10,126 @@
  *******************************************************************************/
 package org.eclipse.che.api.project.server;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.model.project.ProjectConfig;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Synchronizer for Project Configurations stored in Workspace Configuration with Agent's state
+ * <p>
+ * Requests for synchronization that come while another synchronization is in progress are coalesced into one, which is performed
+ * right after the current one, so only projects that are changed at the moment of synchronization are sent to master. If
+ * {@link #getSyncWindowMillis()} is positive, synchronization is additionally deferred for this time to coalesce more requests.
+ * In any case {@link #sync(ProjectRegistry)} returns only after the synchronization that covers the request is finished and
+ * throws its failure.
  *
  * @author gazarenkov
  */
 public abstract class WorkspaceProjectsSyncer {
+    private final AtomicLong syncCount        = new AtomicLong();
+    private final AtomicLong failedSyncCount  = new AtomicLong();
+    private final AtomicLong totalSyncTime    = new AtomicLong();
+    private final AtomicLong maxSyncTime      = new AtomicLong();
+    private final AtomicLong lastSyncTime     = new AtomicLong();
+    private final AtomicLong syncRequestCount = new AtomicLong();
+    private final Object     syncLock         = new Object();
+
+    private SyncBatch                pendingBatch;
+    private ScheduledExecutorService syncExecutor;
+    private boolean                  stopped;
 
     /**
      * Synchronizes Project Config state on Agent and Master
      * @param projectRegistry project registry
      * @throws ServerException
+     *         if synchronization that covers this request fails
      */
     public final void sync(ProjectRegistry projectRegistry) throws ServerException {
+        syncRequestCount.incrementAndGet();
+        final long window = getSyncWindowMillis();
+        final SyncBatch batch;
+        boolean deferred = false;
+        synchronized (this) {
+            if (pendingBatch == null) {
+                pendingBatch = new SyncBatch();
+                if (window > 0 && !stopped) {
+                    if (syncExecutor == null) {
+                        syncExecutor = Executors.newSingleThreadScheduledExecutor(
+                                new ThreadFactoryBuilder().setNameFormat("WorkspaceProjectsSyncer-%d").setDaemon(true).build());
+                    }
+                    syncExecutor.schedule(this::flush, window, TimeUnit.MILLISECONDS);
+                    deferred = true;
+                }
+            } else {
+                deferred = window > 0 && !stopped;
+            }
+            pendingBatch.projectRegistry = projectRegistry;
+            batch = pendingBatch;
+        }
+        if (!deferred) {
+            flush();
+        }
+        batch.await(getWorkspaceId());
+    }
+
+    /** Synchronizes deferred changes immediately, does nothing if there are no deferred changes. */
+    public void flush() {
+        synchronized (syncLock) {
+            final SyncBatch batch;
+            synchronized (this) {
+                batch = pendingBatch;
+                pendingBatch = null;
+            }
+            if (batch != null) {
+                try {
+                    doSync(batch.projectRegistry);
+                    batch.result.complete(null);
+                } catch (ServerException | RuntimeException e) {
+                    batch.result.completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    /** Stops thread that synchronizes deferred changes and flushes them, next requests are synchronized without deferring. */
+    protected void stopSync() {
+        synchronized (this) {
+            stopped = true;
+            if (syncExecutor != null) {
+                syncExecutor.shutdownNow();
+                syncExecutor = null;
+            }
+        }
+        flush();
+    }
+
+    private void doSync(ProjectRegistry projectRegistry) throws ServerException {
+        final long start = System.currentTimeMillis();
+        try {
+            syncChanges(projectRegistry);
+        } catch (ServerException | RuntimeException e) {
+            failedSyncCount.incrementAndGet();
+            throw e;
+        } finally {
+            final long time = System.currentTimeMillis() - start;
+            syncCount.incrementAndGet();
+            totalSyncTime.addAndGet(time);
+            lastSyncTime.set(time);
+            maxSyncTime.accumulateAndGet(time, Math::max);
+        }
+    }
+
+    private void syncChanges(ProjectRegistry projectRegistry) throws ServerException {
 
         List<? extends ProjectConfig> remote = getProjects();
 
@@ -39,11 +140,10 @@ public abstract class WorkspaceProjectsSyncer {
                 removed.add(r);
         }
 
-        for(ProjectConfig r : removed)
-            removeProject(r);
-
-
         // update or add
+        List<ProjectConfig> added = new ArrayList<>();
+        List<ProjectConfig> updated = new ArrayList<>();
+        List<RegisteredProject> changed = new ArrayList<>();
         for(RegisteredProject project : projectRegistry.getProjects()) {
 
             if(!project.isSynced() && !project.isDetected()) {
@@ -59,21 +159,92 @@ public abstract class WorkspaceProjectsSyncer {
                 boolean found = false;
                 for(ProjectConfig r  : remote) {
                     if(r.getPath().equals(project.getPath())) {
-                        updateProject(config);
                         found = true;
                     }
                 }
 
-                if(!found)
-                    addProject(config);
+                if(found)
+                    updated.add(config);
+                else
+                    added.add(config);
 
-                project.setSync();
+                changed.add(project);
 
             }
 
 
         }
 
+        if (!added.isEmpty() || !updated.isEmpty() || !removed.isEmpty()) {
+            applyChanges(added, updated, removed);
+        }
+
+        changed.forEach(RegisteredProject::setSync);
+
+    }
+
+    /**
+     * Applies changes of projects to Workspace Config. Default implementation adds, updates and removes projects one by one,
+     * implementation may send all of them at once.
+     *
+     * @param added
+     *         projects that are absent in Workspace Config
+     * @param updated
+     *         projects that are present in Workspace Config and changed on Agent
+     * @param removed
+     *         projects that are present in Workspace Config and removed on Agent
+     * @throws ServerException
+     */
+    protected void applyChanges(List<ProjectConfig> added, List<ProjectConfig> updated, List<ProjectConfig> removed)
+            throws ServerException {
+        for (ProjectConfig project : removed) {
+            removeProject(project);
+        }
+        for (ProjectConfig project : updated) {
+            updateProject(project);
+        }
+        for (ProjectConfig project : added) {
+            addProject(project);
+        }
+    }
+
+    /**
+     * Returns time in milliseconds that synchronization is deferred for to coalesce requests for synchronization, {@code 0} means that
+     * projects are synchronized immediately, that is default behaviour. Positive window delays every request for this time.
+     */
+    protected long getSyncWindowMillis() {
+        return 0;
+    }
+
+    /** Returns number of requests for synchronization, several requests may be coalesced into one synchronization. */
+    public long getSyncRequestCount() {
+        return syncRequestCount.get();
+    }
+
+    /** Returns number of performed synchronizations including failed ones. */
+    public long getSyncCount() {
+        return syncCount.get();
+    }
+
+    /** Returns number of failed synchronizations. */
+    public long getFailedSyncCount() {
+        return failedSyncCount.get();
+    }
+
+    /** Returns average time of synchronization in milliseconds. */
+    public double getAverageSyncTime() {
+        final long count = syncCount.get();
+        return count == 0 ? 0 : (double)totalSyncTime.get() / count;
+    }
+
+    /** Returns max time of synchronization in milliseconds. */
+    public long getMaxSyncTime() {
+        return maxSyncTime.get();
+    }
+
+    /** Returns time of last synchronization in milliseconds. */
+    public long getLastSyncTime() {
+        return lastSyncTime.get();
     }
 
     /**
@@ -108,4 +279,27 @@ public abstract class WorkspaceProjectsSyncer {
      */
     protected abstract void removeProject(ProjectConfig project) throws ServerException;
 
+    /** Requests for synchronization that are coalesced into one synchronization. */
+    private static class SyncBatch {
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+        ProjectRegistry projectRegistry;
+
+        void await(String workspaceId) throws ServerException {
+            try {
+                result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServerException("Interrupted while synchronizing projects of workspace " + workspaceId);
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof ServerException) {
+                    throw (ServerException)cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException)cause;
+                }
+                throw new ServerException(cause.getMessage(), cause);
+            }
+        }
+    }
 }
@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server.importer;
+
+import org.everrest.core.impl.provider.json.JsonUtils;
+import org.everrest.websockets.WSConnectionContext;
+import org.everrest.websockets.message.ChannelBroadcastMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends time of each completed stage of project import to WS, so client may show progress of import. Unlike output of importer these
+ * messages are never skipped.
+ */
+public class ProjectImportStagesWSPublisher {
+    private static final Logger LOG = LoggerFactory.getLogger(ProjectImportStagesWSPublisher.class);
+
+    protected final String fPath;
+    protected final String fWorkspace;
+
+    public ProjectImportStagesWSPublisher(String fPath, String fWorkspace) {
+        this.fPath = fPath;
+        this.fWorkspace = fWorkspace;
+    }
+
+    /**
+     * Sends time of completed stage of import.
+     *
+     * @param stage
+     *         name of stage, e.g. "import" or "index"
+     * @param time
+     *         time of stage in milliseconds
+     */
+    public void stageCompleted(String stage, long time) {
+        final ChannelBroadcastMessage bm = new ChannelBroadcastMessage();
+        bm.setChannel("importProject:stages:" + fWorkspace + ":" + fPath);
+        bm.setBody(String.format("{\"stage\":%s, \"time\":%d}", JsonUtils.getJsonString(stage), time));
+        sendMessageToWS(bm);
+    }
+
+    protected void sendMessageToWS(final ChannelBroadcastMessage bm) {
+        try {
+            WSConnectionContext.sendMessage(bm);
+        } catch (Exception e) {
+            LOG.error("A problem occurred while sending websocket message", e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server.notification;
+
+import org.eclipse.che.api.core.notification.EventOrigin;
+import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
+
+import java.util.List;
+
+/**
+ * Changes of files detected by file watcher during short period of time, published by {@link VfsWatchEventCoalescer}. There is at most
+ * one change for each path, and when folder is deleted its deleted descendants are not included.
+ */
+@EventOrigin("vfs")
+public class VfsWatchBatchEvent {
+    private final List<Change> changes;
+
+    public VfsWatchBatchEvent(List<Change> changes) {
+        this.changes = changes;
+    }
+
+    public List<Change> getChanges() {
+        return changes;
+    }
+
+    @Override
+    public String toString() {
+        return "VfsWatchBatchEvent{" +
+               "changes=" + changes +
+               '}';
+    }
+
+    public static class Change {
+        private final FileWatcherEventType type;
+        private final String               path;
+        private final boolean              file;
+
+        public Change(FileWatcherEventType type, String path, boolean file) {
+            this.type = type;
+            this.path = path;
+            this.file = file;
+        }
+
+        public FileWatcherEventType getType() {
+            return type;
+        }
+
+        /** Returns path of changed item in virtual filesystem. */
+        public String getPath() {
+            return path;
+        }
+
+        public boolean isFile() {
+            return file;
+        }
+
+        @Override
+        public String toString() {
+            return "Change{" +
+                   "type=" + type +
+                   ", path='" + path + '\'' +
+                   ", file=" + file +
+                   '}';
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server.notification;
+
+import com.google.inject.Inject;
+
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.api.project.server.notification.VfsWatchBatchEvent.Change;
+import org.eclipse.che.api.project.server.notification.VfsWatchEventCoalescer.Pending;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps recent changes of files that are published by {@link VfsWatchEventCoalescer}. Each batch of changes gets next version, so client
+ * that has read tree of files at some version may get changes made after it instead of reading whole tree again.
+ * <p/>
+ * Only the last changes are kept. Versions start from current time on each start, so version that client got before restart is older
+ * than any version after restart and is rejected as unknown instead of being mixed with versions of another log.
+ */
+@Singleton
+public class VfsWatchChangeLog implements EventSubscriber<VfsWatchBatchEvent> {
+    /** Max number of kept changes, changes of the oldest batches are dropped when it is exceeded. */
+    static final int MAX_CHANGES = 10000;
+
+    private final EventService eventService;
+    private final Deque<Batch> batches;
+
+    @Inject(optional = true)
+    @Named("vfs.watcher.change_log.max_changes")
+    private int maxChanges = MAX_CHANGES;
+
+    private long version;
+    private long oldestVersion;
+    private int  size;
+
+    @Inject
+    public VfsWatchChangeLog(EventService eventService) {
+        this.eventService = eventService;
+        this.batches = new ArrayDeque<>();
+        this.version = System.currentTimeMillis();
+        this.oldestVersion = version;
+    }
+
+    @PostConstruct
+    void start() {
+        eventService.subscribe(this);
+    }
+
+    @PreDestroy
+    void stop() {
+        eventService.unsubscribe(this);
+    }
+
+    @Override
+    public synchronized void onEvent(VfsWatchBatchEvent event) {
+        batches.addLast(new Batch(++version, event.getChanges()));
+        size += event.getChanges().size();
+        while (size > maxChanges && batches.size() > 1) {
+            final Batch dropped = batches.removeFirst();
+            size -= dropped.changes.size();
+            oldestVersion = dropped.version;
+        }
+    }
+
+    /** Returns version of the last change. */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns changes that are made after version {@code since} up to version {@code until} inclusive. Changes of the same path are
+     * collapsed into one, in the same way as {@link VfsWatchEventCoalescer} does it.
+     *
+     * @return changes or {@code null} if changes made after version {@code since} are not kept anymore or version is unknown
+     */
+    public synchronized List<Change> getChanges(long since, long until) {
+        if (since < oldestVersion || since > until || until > version) {
+            return null;
+        }
+        final Map<String, Pending> pending = new LinkedHashMap<>();
+        for (Batch batch : batches) {
+            if (batch.version > since && batch.version <= until) {
+                for (Change change : batch.changes) {
+                    final Pending merged = VfsWatchEventCoalescer.merge(pending.remove(change.getPath()), change.getType(), change.isFile());
+                    if (merged != null) {
+                        pending.put(change.getPath(), merged);
+                    }
+                }
+            }
+        }
+        return VfsWatchEventCoalescer.collapse(pending);
+    }
+
+    private static class Batch {
+        final long         version;
+        final List<Change> changes;
+
+        Batch(long version, List<Change> changes) {
+            this.version = version;
+            this.changes = changes;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server.notification;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.project.server.notification.VfsWatchBatchEvent.Change;
+import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.VirtualFileFilter;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.CREATED;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.DELETED;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
+
+/**
+ * Collects events of file watcher and publishes them with {@link EventService} as {@link VfsWatchBatchEvent}. Events are published when
+ * there were no new events during quiet period, but not later than max delay after the first collected event, so operations like
+ * checkout of git branch are delivered to subscribers as a few batches instead of thousands of separate events.
+ * <p/>
+ * Sequence of events of the same path is collapsed into one change, e.g. file that is created and modified is reported as created,
+ * file that is created and deleted is not reported at all. Deletion of folder is reported without deletions of its descendants.
+ */
+@Singleton
+public class VfsWatchEventCoalescer {
+    private static final Logger LOG = LoggerFactory.getLogger(VfsWatchEventCoalescer.class);
+
+    /** Max number of collected changes, when it is reached changes are published without waiting for end of quiet period. */
+    static final int MAX_PENDING_CHANGES = 10000;
+
+    private final EventService                    eventService;
+    private final FileWatcherNotificationHandler  fileWatcherNotificationHandler;
+    private final FileWatcherNotificationListener fileWatcherListener;
+    private final ScheduledExecutorService        executor;
+    private final Map<String, Pending>            pending;
+
+    @Inject(optional = true)
+    @Named("vfs.watcher.batch.quiet_period_ms")
+    private long quietPeriod = 300;
+
+    @Inject(optional = true)
+    @Named("vfs.watcher.batch.max_delay_ms")
+    private long maxDelay = 2000;
+
+    private long               firstEventTime;
+    private long               lastEventTime;
+    private ScheduledFuture<?> scheduledFlush;
+
+    @Inject
+    public VfsWatchEventCoalescer(EventService eventService, FileWatcherNotificationHandler fileWatcherNotificationHandler) {
+        this.eventService = eventService;
+        this.fileWatcherNotificationHandler = fileWatcherNotificationHandler;
+        this.pending = new LinkedHashMap<>();
+        this.fileWatcherListener = new FileWatcherNotificationListener(VirtualFileFilter.ACCEPT_ALL) {
+            @Override
+            public void onFileWatcherEvent(VirtualFile virtualFile, FileWatcherEventType eventType) {
+                add(virtualFile.getPath().toString(), eventType, virtualFile.isFile());
+            }
+        };
+        this.executor = newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("VfsWatchEventCoalescer")
+                                                                                   .setDaemon(true)
+                                                                                   .build());
+    }
+
+    @PostConstruct
+    void start() {
+        fileWatcherNotificationHandler.addNotificationListener(fileWatcherListener);
+    }
+
+    @PreDestroy
+    void stop() {
+        fileWatcherNotificationHandler.removeNotificationListener(fileWatcherListener);
+        executor.shutdownNow();
+    }
+
+    /** Adds event of file watcher to the current batch. */
+    synchronized void add(String path, FileWatcherEventType type, boolean file) {
+        final Pending merged = merge(pending.remove(path), type, file);
+        if (merged != null) {
+            pending.put(path, merged);
+        }
+        lastEventTime = System.currentTimeMillis();
+        if (scheduledFlush == null) {
+            firstEventTime = lastEventTime;
+            scheduleFlush(quietPeriod);
+        } else if (pending.size() >= MAX_PENDING_CHANGES) {
+            scheduledFlush.cancel(false);
+            scheduleFlush(0);
+        }
+    }
+
+    private void scheduleFlush(long delay) {
+        scheduledFlush = executor.schedule(() -> {
+            try {
+                flush(false);
+            } catch (RuntimeException e) {
+                LOG.error(e.getMessage(), e);
+            }
+        }, delay, MILLISECONDS);
+    }
+
+    /**
+     * Publishes collected changes if quiet period or max delay is over, otherwise schedules next check.
+     *
+     * @param force
+     *         if {@code true} changes are published immediately
+     */
+    void flush(boolean force) {
+        final List<Change> changes;
+        synchronized (this) {
+            final long now = System.currentTimeMillis();
+            final long publishTime = Math.min(lastEventTime + quietPeriod, firstEventTime + maxDelay);
+            if (!force && now < publishTime && pending.size() < MAX_PENDING_CHANGES) {
+                scheduleFlush(publishTime - now);
+                return;
+            }
+            changes = collapse(pending);
+            pending.clear();
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+        }
+        if (!changes.isEmpty()) {
+            eventService.publish(new VfsWatchBatchEvent(changes));
+        }
+    }
+
+    /** Returns result of two sequential events of the same path or {@code null} if events cancel each other. */
+    static Pending merge(Pending previous, FileWatcherEventType type, boolean file) {
+        if (previous == null) {
+            return new Pending(type, file);
+        }
+        switch (previous.type) {
+            case CREATED:
+                return type == DELETED ? null : new Pending(CREATED, file);
+            case DELETED:
+                // File that is deleted and created again, e.g. saved by editor through temporary file, is modified
+                return type == CREATED && !(previous.file && file) ? new Pending(CREATED, file) : new Pending(MODIFIED, file);
+            default:
+                return new Pending(type == DELETED ? DELETED : MODIFIED, file);
+        }
+    }
+
+    /** Converts collected events to changes skipping deletions of descendants of deleted folders. */
+    static List<Change> collapse(Map<String, Pending> pending) {
+        final Set<String> deletedFolders = new HashSet<>();
+        for (Map.Entry<String, Pending> entry : pending.entrySet()) {
+            if (entry.getValue().type == DELETED && !entry.getValue().file) {
+                deletedFolders.add(entry.getKey());
+            }
+        }
+        final List<Change> changes = newArrayList();
+        for (Map.Entry<String, Pending> entry : pending.entrySet()) {
+            final String path = entry.getKey();
+            final Pending change = entry.getValue();
+            if (change.type != DELETED || !hasDeletedAncestor(path, deletedFolders)) {
+                changes.add(new Change(change.type, path, change.file));
+            }
+        }
+        return changes;
+    }
+
+    private static boolean hasDeletedAncestor(String path, Set<String> deletedFolders) {
+        if (deletedFolders.isEmpty()) {
+            return false;
+        }
+        for (int separator = path.lastIndexOf('/'); separator > 0; separator = path.lastIndexOf('/', separator - 1)) {
+            if (deletedFolders.contains(path.substring(0, separator))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static class Pending {
+        final FileWatcherEventType type;
+        final boolean              file;
+
+        Pending(FileWatcherEventType type, boolean file) {
+            this.type = type;
+            this.file = file;
+        }
+    }
+}
@@ -24,6 +24,10 @@ import java.util.Map;
  * @author gazarenkov
  */
 public abstract class ProjectTypeDef implements ProjectType {
+    /** Default time in seconds that provided values of attributes of this type are cached for. */
+    public static final long DEFAULT_VALUE_CACHE_TTL_SEC = 600;
+    /** Default max number of cached provided values of attributes of this type. */
+    public static final int  DEFAULT_VALUE_CACHE_SIZE    = 1000;
 
     protected final Map<String, Attribute>            attributes;
     protected final List<String>                      parents;
@@ -36,6 +40,9 @@ public abstract class ProjectTypeDef implements ProjectType {
     protected final boolean mixable;
     protected final boolean persisted;
 
+    private long valueCacheTtlSec = DEFAULT_VALUE_CACHE_TTL_SEC;
+    private int  valueCacheSize   = DEFAULT_VALUE_CACHE_SIZE;
+
     protected ProjectTypeDef(String id, String displayName, boolean primaryable, boolean mixable, boolean persisted) {
         ancestors = new ArrayList<>();
         attributes = new HashMap<>();
@@ -121,6 +128,31 @@ public abstract class ProjectTypeDef implements ProjectType {
         return attributes.get(name);
     }
 
+    /** Gets time in seconds that provided values of attributes of this type are cached for. */
+    public long getValueCacheTtlSec() {
+        return valueCacheTtlSec;
+    }
+
+    /** Gets max number of cached provided values of attributes of this type, {@code 0} means that values are not cached. */
+    public int getValueCacheSize() {
+        return valueCacheSize;
+    }
+
+    /**
+     * Sets limits of cache of provided values of attributes of this type. Values are cached only if {@link ValueProviderFactory} declares
+     * files they depend on.
+     *
+     * @param ttlSec
+     *         time in seconds that value is cached for
+     * @param size
+     *         max number of cached values, {@code 0} disables cache
+     * @see ValueProviderFactory#getDependencies()
+     */
+    protected void setValueCacheLimits(long ttlSec, int size) {
+        this.valueCacheTtlSec = ttlSec;
+        this.valueCacheSize = size;
+    }
+
     protected void addConstantDefinition(String name, String description, AttributeValue value) {
         attributes.put(name, new Constant(id, name, description, value));
     }
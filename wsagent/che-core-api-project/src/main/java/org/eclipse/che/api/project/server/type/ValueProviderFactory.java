@@ -12,6 +12,9 @@ package org.eclipse.che.api.project.server.type;
 
 import org.eclipse.che.api.project.server.FolderEntry;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Factory for {@link ValueProvider}.
  *
@@ -25,4 +28,13 @@ public interface ValueProviderFactory {
      * @param projectFolder
      */
     ValueProvider newInstance(FolderEntry projectFolder);
+
+    /**
+     * Returns paths of files, relative to project folder, that values of providers created by this factory depend on, e.g. pom.xml.
+     * Values are cached until any of these files is changed. Values are not cached if factory does not declare any files, that is
+     * default behaviour.
+     */
+    default List<String> getDependencies() {
+        return Collections.emptyList();
+    }
 }
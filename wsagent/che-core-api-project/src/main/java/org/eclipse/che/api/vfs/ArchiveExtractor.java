@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs;
+
+import com.google.common.io.ByteStreams;
+
+import org.eclipse.che.api.core.ConflictException;
+import org.eclipse.che.api.core.ForbiddenException;
+import org.eclipse.che.api.core.ServerException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Writes entries of archive to the folder. Entries are read from archive by the calling thread, content of small files is buffered and
+ * written by workers of executor that is shared by all extractors. Folders are created by the calling thread before files are written
+ * into them and are remembered, so folders that are created by this extractor are not checked for existing children.
+ */
+class ArchiveExtractor implements AutoCloseable {
+    /** Max size of file that is buffered in memory and written by worker. Bigger files are written by the calling thread. */
+    static final int  MAX_PARALLEL_ENTRY_SIZE = 1024 * 1024;
+    /** Max total size of buffered files that are not written yet. */
+    static final long MAX_PENDING_SIZE        = 64 * 1024 * 1024;
+    /** Max time in seconds to wait for workers that are writing files when extractor is closed. */
+    static final long TERMINATION_TIMEOUT     = 60;
+
+    private final VirtualFile            folder;
+    private final boolean                overwrite;
+    private final int                    threads;
+    private final ExecutorService        executor;
+    private final Deque<Future<Integer>> pending;
+    /** Folders that are already known to exist. Keys are paths relative to the extraction folder. */
+    private final Map<Path, VirtualFile> folders;
+    /** Folders that are created by this extractor. */
+    private final Set<Path>              createdFolders;
+    /** Files that are created by this extractor. */
+    private final Set<Path>              createdFiles;
+    private       long                   pendingSize;
+
+    /**
+     * @param folder
+     *         folder to extract archive to
+     * @param overwrite
+     *         overwrite existing files
+     * @param executor
+     *         executor that writes content of files, it is not shut down by extractor. If {@code null} then all files are written by
+     *         the calling thread
+     * @param threads
+     *         max number of files that are written in parallel, if less than 2 then all files are written by the calling thread
+     */
+    ArchiveExtractor(VirtualFile folder, boolean overwrite, ExecutorService executor, int threads) {
+        this.folder = folder;
+        this.overwrite = overwrite;
+        this.threads = threads;
+        this.executor = threads > 1 ? executor : null;
+        this.pending = new ArrayDeque<>();
+        this.folders = new HashMap<>();
+        this.createdFolders = new HashSet<>();
+        this.createdFiles = new HashSet<>();
+        folders.put(Path.ROOT, folder);
+    }
+
+    /** Creates folder if it does not exist yet. */
+    void addFolder(Path relativePath) throws ForbiddenException, ConflictException, ServerException {
+        getOrCreateFolder(relativePath);
+    }
+
+    /**
+     * Creates or, if overwriting is allowed, updates file. Content of file is read from {@code content} up to the end of stream before
+     * this method returns but may be written to the file later by worker.
+     */
+    void addFile(Path relativePath, InputStream content) throws IOException, ForbiddenException, ConflictException, ServerException {
+        final Path parentPath = relativePath.getParent();
+        final VirtualFile parent = getOrCreateFolder(parentPath);
+        final String name = relativePath.getName();
+
+        VirtualFile existing = null;
+        if (createdFiles.contains(relativePath)) {
+            // Same file appears in archive twice, make sure it is created before update it.
+            flush();
+            existing = parent.getChild(Path.of(name));
+        } else if (!createdFolders.contains(parentPath)) {
+            existing = parent.getChild(Path.of(name));
+        }
+        if (existing == null) {
+            createdFiles.add(relativePath);
+        } else if (!overwrite) {
+            throw new ConflictException(String.format("File '%s' already exists", existing.getPath()));
+        }
+
+        if (executor == null) {
+            write(parent, name, existing, content);
+            return;
+        }
+
+        final byte[] buffer = ByteStreams.toByteArray(ByteStreams.limit(content, MAX_PARALLEL_ENTRY_SIZE + 1));
+        if (buffer.length > MAX_PARALLEL_ENTRY_SIZE) {
+            write(parent, name, existing, new SequenceInputStream(new ByteArrayInputStream(buffer), content));
+            return;
+        }
+        final int bufferedSize = buffer.length;
+        while (!pending.isEmpty() && (pendingSize + bufferedSize > MAX_PENDING_SIZE || pending.size() >= threads * 4)) {
+            waitNext();
+        }
+        pendingSize += bufferedSize;
+        final VirtualFile existingFile = existing;
+        pending.add(executor.submit(() -> {
+            write(parent, name, existingFile, new ByteArrayInputStream(buffer));
+            return bufferedSize;
+        }));
+    }
+
+    /** Waits until content of all files is written. */
+    void flush() throws IOException, ForbiddenException, ConflictException, ServerException {
+        while (!pending.isEmpty()) {
+            waitNext();
+        }
+    }
+
+    /**
+     * Drops files that are not started to write yet and waits for files that are being written, so nothing is written to the folder
+     * after this method returns.
+     */
+    @Override
+    public void close() {
+        final long deadline = System.nanoTime() + SECONDS.toNanos(TERMINATION_TIMEOUT);
+        for (Future<Integer> future : pending) {
+            // Task that is already started may not be cancelled without interruption, wait until file is written
+            if (!future.cancel(false)) {
+                try {
+                    future.get(Math.max(0, deadline - System.nanoTime()), NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (ExecutionException | TimeoutException ignored) {
+                    // Error is already reported by flush or extraction was failed by other error
+                }
+            }
+        }
+        pending.clear();
+    }
+
+    private void write(VirtualFile parent, String name, VirtualFile existing, InputStream content)
+            throws ForbiddenException, ConflictException, ServerException {
+        if (existing == null) {
+            parent.createFile(name, content);
+        } else {
+            existing.updateContent(content);
+        }
+    }
+
+    private void waitNext() throws IOException, ForbiddenException, ConflictException, ServerException {
+        final int writtenSize;
+        try {
+            writtenSize = pending.poll().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServerException("Extraction was interrupted");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof ForbiddenException) {
+                throw (ForbiddenException)cause;
+            }
+            if (cause instanceof ConflictException) {
+                throw (ConflictException)cause;
+            }
+            if (cause instanceof ServerException) {
+                throw (ServerException)cause;
+            }
+            throw new ServerException(cause.getMessage(), cause);
+        }
+        pendingSize -= writtenSize;
+    }
+
+    private VirtualFile getOrCreateFolder(Path relativePath) throws ForbiddenException, ConflictException, ServerException {
+        VirtualFile existing = folders.get(relativePath);
+        if (existing != null) {
+            return existing;
+        }
+        final Path parentPath = relativePath.getParent();
+        final VirtualFile parent = getOrCreateFolder(parentPath);
+        final String name = relativePath.getName();
+        existing = createdFolders.contains(parentPath) ? null : parent.getChild(Path.of(name));
+        if (existing == null) {
+            existing = parent.createFolder(name);
+            createdFolders.add(relativePath);
+        } else if (!existing.isFolder()) {
+            throw new ConflictException(String.format("Item '%s' already exists and is not a folder", existing.getPath()));
+        }
+        folders.put(relativePath, existing);
+        return existing;
+    }
+}
@@ -17,13 +17,24 @@ import org.eclipse.che.api.core.ServerException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
 
 /** Archiver for compressing and extracting content of folder. */
 public abstract class Archiver {
-    protected final VirtualFile folder;
+    protected final VirtualFile     folder;
+    /** Executor that is shared by archivers to process content of files in parallel, {@code null} if archiver uses the calling thread. */
+    protected final ExecutorService executor;
+    /** Max number of files of one archive that are written in parallel when archive is extracted. */
+    protected final int             extractThreads;
 
     protected Archiver(VirtualFile folder) {
+        this(folder, null, 1);
+    }
+
+    protected Archiver(VirtualFile folder, ExecutorService executor, int extractThreads) {
         this.folder = folder;
+        this.executor = executor;
+        this.extractThreads = extractThreads;
     }
 
     /**
@@ -10,15 +10,47 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs;
 
+import java.util.concurrent.ExecutorService;
+import java.util.zip.Deflater;
+
 public class ArchiverFactory {
+    private final int             zipCompressionLevel;
+    private final ExecutorService executor;
+    private final int             zipThreads;
+    private final int             extractThreads;
+
+    /** Creates factory of archivers that compress and extract archives in the calling thread. */
+    public ArchiverFactory() {
+        this(Deflater.DEFAULT_COMPRESSION, null, 1, 1);
+    }
+
+    /**
+     * @param zipCompressionLevel
+     *         compression level of zip archives from 0 to 9 or -1 for default level
+     * @param executor
+     *         executor that is shared by all archivers created by this factory to compress content of files and to write content of
+     *         extracted files, it is not shut down by factory. If {@code null} then archives are processed in the calling thread
+     * @param zipThreads
+     *         max number of files of one zip archive that are compressed in parallel
+     * @param extractThreads
+     *         max number of files of one archive that are written in parallel when it is extracted. Virtual file system must support
+     *         concurrent creation of files in the same folder if this value is greater than 1
+     */
+    public ArchiverFactory(int zipCompressionLevel, ExecutorService executor, int zipThreads, int extractThreads) {
+        this.zipCompressionLevel = zipCompressionLevel;
+        this.executor = executor;
+        this.zipThreads = zipThreads;
+        this.extractThreads = extractThreads;
+    }
+
     public Archiver createArchiver(VirtualFile folder, String archiveType) {
         if (archiveType == null) {
             throw new IllegalArgumentException("Archive type might not be null");
         }
         if ("zip".equals(archiveType.toLowerCase())) {
-            return new ZipArchiver(folder);
+            return new ZipArchiver(folder, zipCompressionLevel, executor, zipThreads, extractThreads);
         } else if ("tar".equals(archiveType.toLowerCase())) {
-            return new TarArchiver(folder);
+            return new TarArchiver(folder, executor, extractThreads);
         }
         throw new IllegalArgumentException(String.format("Unsupported archive type %s", archiveType));
     }
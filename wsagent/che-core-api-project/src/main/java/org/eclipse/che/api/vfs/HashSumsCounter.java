@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs;
 
+import com.google.common.hash.HashCode;
 import com.google.common.hash.HashFunction;
 import com.google.common.hash.Hasher;
 import com.google.common.io.ByteStreams;
@@ -20,25 +21,57 @@ import org.eclipse.che.commons.lang.Pair;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.hash.Funnels.asOutputStream;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyList;
 
 /**
  * Traverses recursively all files in folder given in constructor and calculates hash sum for each file.
  * Algorithm specified by {@code hashFunction} is used for calculating hash sum.
+ * <p/>
+ * Content of files may be hashed by executor shared with other tasks, number of files hashed at once by one counter is limited, so one
+ * big folder does not occupy all threads of executor. Subclasses may override {@link #countHashSum(VirtualFile)}, e.g. to reuse hash sums
+ * that were counted before.
  */
 public class HashSumsCounter implements VirtualFileVisitor {
-    private final VirtualFile                folder;
-    private final HashFunction               hashFunction;
-    private final List<Pair<String, String>> hashSums;
-
+    private final   VirtualFile       folder;
+    protected final HashFunction      hashFunction;
+    private final   ExecutorService   executor;
+    private final   int               threads;
+    private final   List<VirtualFile> items;
 
     public HashSumsCounter(VirtualFile folder, HashFunction hashFunction) {
+        this(folder, hashFunction, null, 1);
+    }
+
+    /**
+     * @param folder
+     *         folder to count hash sums of files in
+     * @param hashFunction
+     *         hash function
+     * @param executor
+     *         executor that counts hash sums of files, if {@code null} then all hash sums are counted by the calling thread
+     * @param threads
+     *         max number of files hashed by {@code executor} at once, if less than 2 then all hash sums are counted by the calling thread
+     */
+    public HashSumsCounter(VirtualFile folder, HashFunction hashFunction, ExecutorService executor, int threads) {
         this.folder = folder;
         this.hashFunction = hashFunction;
-        hashSums = newArrayList();
+        this.executor = threads > 1 ? executor : null;
+        this.threads = threads;
+        items = newArrayList();
     }
 
     /**
@@ -50,27 +83,124 @@ public class HashSumsCounter implements VirtualFileVisitor {
      * </pre>
      */
     public List<Pair<String, String>> countHashSums() throws ServerException {
-        folder.accept(this);
+        final List<VirtualFile> files = collectItems();
+        final List<HashCode> fileHashSums = countHashSums(files);
+        final List<Pair<String, String>> hashSums = newArrayList();
+        for (int i = 0; i < files.size(); i++) {
+            hashSums.add(Pair.of(fileHashSums.get(i).toString(), files.get(i).getPath().subPath(folder.getPath()).toString()));
+        }
         return hashSums;
     }
 
-    @Override
-    public void visit(VirtualFile virtualFile) throws ServerException {
-        if (virtualFile.isFile()) {
-            try (InputStream in = virtualFile.getContent()) {
+    /**
+     * Tree of hash sums of folder given in constructor. Hash sum of file is counted from its content. Hash sum of folder is counted from
+     * names, types and hash sums of its children sorted by name, so two folders have the same hash sum only if they have the same content.
+     * If VirtualFile given in constructor is a file then tree contains only this file.
+     */
+    public HashTree countHashTree() throws ServerException {
+        final List<VirtualFile> files = collectItems();
+        final List<HashCode> fileHashSums = countHashSums(files);
+
+        // Items are visited parent first, so walk them backward to build children of each folder before the folder itself.
+        final Map<Path, List<HashTree>> children = new HashMap<>();
+        HashTree node = null;
+        int fileIndex = files.size();
+        for (int i = items.size() - 1; i >= 0; i--) {
+            final VirtualFile item = items.get(i);
+            final Path path = item.getPath();
+            if (item.isFile()) {
+                node = new HashTree(path, false, fileHashSums.get(--fileIndex), emptyList());
+            } else {
+                List<HashTree> folderChildren = children.remove(path);
+                if (folderChildren == null) {
+                    folderChildren = new ArrayList<>();
+                }
+                folderChildren.sort(Comparator.comparing(HashTree::getName));
                 final Hasher hasher = hashFunction.newHasher();
-                ByteStreams.copy(in, asOutputStream(hasher));
-                final String hexHash = hasher.hash().toString();
-                hashSums.add(Pair.of(hexHash, virtualFile.getPath().subPath(folder.getPath()).toString()));
-            } catch (IOException e) {
-                throw new ServerException(e);
-            } catch (ForbiddenException e) {
-                throw new ServerException(e.getServiceError());
+                for (HashTree child : folderChildren) {
+                    hasher.putString(child.isFolder() ? "d" : "f", UTF_8)
+                          .putString(child.getName(), UTF_8)
+                          .putByte((byte)0)
+                          .putBytes(child.getHashCode().asBytes());
+                }
+                node = new HashTree(path, true, hasher.hash(), folderChildren);
+            }
+            if (i > 0) {
+                children.computeIfAbsent(path.getParent(), parent -> new ArrayList<>()).add(node);
             }
-        } else {
+        }
+        return node;
+    }
+
+    @Override
+    public void visit(VirtualFile virtualFile) throws ServerException {
+        items.add(virtualFile);
+        if (virtualFile.isFolder()) {
             for (VirtualFile child : virtualFile.getChildren()) {
                 child.accept(this);
             }
         }
     }
+
+    /** Visits all items in folder given in constructor and returns files among them. */
+    private List<VirtualFile> collectItems() throws ServerException {
+        items.clear();
+        folder.accept(this);
+        final List<VirtualFile> files = new ArrayList<>();
+        for (VirtualFile item : items) {
+            if (item.isFile()) {
+                files.add(item);
+            }
+        }
+        return files;
+    }
+
+    /** Counts hash sum of content of file. */
+    protected HashCode countHashSum(VirtualFile file) throws ServerException {
+        try (InputStream in = file.getContent()) {
+            final Hasher hasher = hashFunction.newHasher();
+            ByteStreams.copy(in, asOutputStream(hasher));
+            return hasher.hash();
+        } catch (IOException e) {
+            throw new ServerException(e);
+        } catch (ForbiddenException e) {
+            throw new ServerException(e.getServiceError());
+        }
+    }
+
+    private List<HashCode> countHashSums(List<VirtualFile> files) throws ServerException {
+        final List<HashCode> hashSums = new ArrayList<>(files.size());
+        if (executor == null || files.size() < 2) {
+            for (VirtualFile file : files) {
+                hashSums.add(countHashSum(file));
+            }
+            return hashSums;
+        }
+        // Keep at most 'threads' files in executor's queue and submit next file once the eldest one is hashed.
+        final Deque<Future<HashCode>> pending = new ArrayDeque<>(threads);
+        int next = 0;
+        try {
+            while (hashSums.size() < files.size()) {
+                while (next < files.size() && pending.size() < threads) {
+                    final VirtualFile file = files.get(next++);
+                    pending.add(executor.submit(() -> countHashSum(file)));
+                }
+                hashSums.add(pending.poll().get());
+            }
+            return hashSums;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServerException("Counting of hash sums was interrupted");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof ServerException) {
+                throw (ServerException)cause;
+            }
+            throw new ServerException(cause.getMessage(), cause);
+        } finally {
+            for (Future<HashCode> future : pending) {
+                future.cancel(true);
+            }
+        }
+    }
 }
@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs;
+
+import com.google.common.hash.HashCode;
+
+import java.util.List;
+
+/**
+ * Node of tree of hash sums that is counted by {@link HashSumsCounter#countHashTree()}. Two nodes have the same hash sum only if content
+ * of files or whole subtrees of folders are the same, so subtrees with the same hash sums may be skipped at once when trees are compared.
+ */
+public final class HashTree {
+    private final Path           path;
+    private final boolean        folder;
+    private final HashCode       hashCode;
+    private final List<HashTree> children;
+
+    public HashTree(Path path, boolean folder, HashCode hashCode, List<HashTree> children) {
+        this.path = path;
+        this.folder = folder;
+        this.hashCode = hashCode;
+        this.children = children;
+    }
+
+    /** Path of file or folder. */
+    public Path getPath() {
+        return path;
+    }
+
+    /** Name of file or folder. */
+    public String getName() {
+        return path.getName();
+    }
+
+    public boolean isFolder() {
+        return folder;
+    }
+
+    /** Hash sum of file or folder represented as HEX String. */
+    public String getHash() {
+        return hashCode.toString();
+    }
+
+    public HashCode getHashCode() {
+        return hashCode;
+    }
+
+    /** Children of folder sorted by name. Empty list for file. */
+    public List<HashTree> getChildren() {
+        return children;
+    }
+
+    @Override
+    public String toString() {
+        return "HashTree{" +
+               "path=" + path +
+               ", folder=" + folder +
+               ", hashCode=" + hashCode +
+               '}';
+    }
+}
@@ -11,17 +11,19 @@
 package org.eclipse.che.api.vfs;
 
 import com.google.common.base.Joiner;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
 import java.util.regex.Pattern;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
 
 /**
  * Path of VirtualFile.
+ * <p/>
+ * Path keeps reference to its parent and name of the last element only, names are interned. So all paths of files of the same folder
+ * share path of the folder and file with the same name in different folders share the name, that makes huge number of paths, e.g. in
+ * caches and indexes, cheap. {@link #getParent()} and {@link #isChild(Path)} don't copy anything, string form of path is cached.
  *
  * @author andrew00x
  */
@@ -32,22 +34,39 @@ public final class Path {
         if (segments.length == 0) {
             return ROOT;
         }
-        return new Path(path.charAt(0) == '/', normalizePathSegments(EMPTY_PATH, segments));
+        return (path.charAt(0) == '/' ? ROOT : EMPTY).newPath(segments);
     }
 
-    private static final String[] EMPTY_PATH    = new String[0];
-    private static final Pattern  PATH_SPLITTER = Pattern.compile("/");
+    private static final String[]         EMPTY_PATH    = new String[0];
+    private static final Pattern          PATH_SPLITTER = Pattern.compile("/");
+    private static final Interner<String> NAMES         = Interners.newWeakInterner();
 
     public static final Path ROOT = new Path(true);
 
-    private final    String[] elements;
-    private final    boolean  absolute;
-    private volatile int      hashCode;
-    private volatile String   asString;
-
-    private Path(boolean absolute, String... elements) {
+    /* Relative path without elements, it is base of all relative paths as ROOT is base of all absolute paths. */
+    private static final Path EMPTY = new Path(false);
+
+    /* Parent of this path, null for ROOT and EMPTY */
+    private final    Path    parent;
+    /* Last element of this path, null for ROOT and EMPTY */
+    private final    String  name;
+    private final    int     length;
+    private final    boolean absolute;
+    private volatile int     hashCode;
+    private volatile String  asString;
+
+    private Path(boolean absolute) {
+        this.parent = null;
+        this.name = null;
+        this.length = 0;
         this.absolute = absolute;
-        this.elements = elements;
+    }
+
+    private Path(Path parent, String name) {
+        this.parent = parent;
+        this.name = NAMES.intern(name);
+        this.length = parent.length + 1;
+        this.absolute = parent.absolute;
     }
 
     public boolean isAbsolute() {
@@ -55,58 +74,71 @@ public final class Path {
     }
 
     public Path getParent() {
-        return isRoot() ? null : elements.length == 1 ? ROOT : subPath(0, elements.length - 1);
+        return isRoot() ? null : length == 1 ? ROOT : parent;
     }
 
     public Path subPath(Path parent) {
-        return subPath(parent.length(), elements.length);
+        return subPath(parent.length(), length);
     }
 
     public Path subPath(int beginIndex) {
-        return subPath(beginIndex, elements.length);
+        return subPath(beginIndex, length);
     }
 
     public Path subPath(int beginIndex, int endIndex) {
-        if (beginIndex < 0 || beginIndex >= elements.length || endIndex > elements.length || beginIndex >= endIndex) {
+        if (beginIndex < 0 || beginIndex >= length || endIndex > length || beginIndex >= endIndex) {
             throw new IllegalArgumentException("Invalid end or begin index. ");
         }
-        final String[] subPathElements = Arrays.copyOfRange(elements, beginIndex, endIndex);
-        return new Path(absolute && beginIndex == 0, subPathElements);
+        final Path end = ancestor(endIndex);
+        if (beginIndex == 0) {
+            return end;
+        }
+        final String[] elements = end.elements();
+        Path subPath = EMPTY;
+        for (int i = beginIndex; i < endIndex; i++) {
+            subPath = new Path(subPath, elements[i]);
+        }
+        return subPath;
+    }
+
+    /** Gets path that consists of the first {@code length} elements of this path. */
+    private Path ancestor(int length) {
+        Path ancestor = this;
+        while (ancestor.length > length) {
+            ancestor = ancestor.parent;
+        }
+        return ancestor;
     }
 
     public String getName() {
-        return isRoot() ? "" : element(elements.length - 1);
+        return isRoot() ? "" : element(length - 1);
     }
 
     public String[] elements() {
-        return Arrays.copyOf(elements, elements.length);
+        final String[] elements = new String[length];
+        for (Path path = this; path.length > 0; path = path.parent) {
+            elements[path.length - 1] = path.name;
+        }
+        return elements;
     }
 
     public int length() {
-        return elements.length;
+        return length;
     }
 
     public String element(int index) {
-        if (index < 0 || index >= elements.length) {
+        if (index < 0 || index >= length) {
             throw new IllegalArgumentException("Invalid index. ");
         }
-        return elements[index];
+        return ancestor(index + 1).name;
     }
 
     public boolean isRoot() {
-        return absolute && elements.length == 0;
+        return absolute && length == 0;
     }
 
     public boolean isChild(Path parent) {
-        if (parent.elements.length >= this.elements.length) {
-            return false;
-        }
-        for (int i = 0, parentLength = parent.elements.length; i < parentLength; i++) {
-            if (!parent.elements[i].equals(this.elements[i])) {
-                return false;
-            }
-        }
-        return true;
+        return parent.length < this.length && sameElements(ancestor(parent.length), parent);
     }
 
     public Path newPath(String relative) {
@@ -119,58 +151,72 @@ public final class Path {
     }
 
     public Path newPath(String... relative) {
-        if (relative.length == 0) {
-            return this;
-        }
-        return new Path(absolute, normalizePathSegments(elements, relative));
-    }
-
-    private static String[] normalizePathSegments(String[] parent, String[] relative) {
-        List<String> segmentsList = new ArrayList<>(parent.length + relative.length);
-        Collections.addAll(segmentsList, parent);
+        Path newPath = this;
         for (String segment : relative) {
             if ("..".equals(segment)) {
-                int size = segmentsList.size();
-                if (size == 0) {
+                if (newPath.length == 0) {
                     throw new IllegalArgumentException(String.format("Invalid path '%s', '..' on root. ", Joiner.on('/').join(relative)));
                 }
-                segmentsList.remove(size - 1);
+                newPath = newPath.parent;
             } else if (!(".".equals(segment))) {
-                segmentsList.add(segment);
+                newPath = new Path(newPath, segment);
             }
         }
-        if (segmentsList.isEmpty()) {
-            return EMPTY_PATH;
-        }
-        return segmentsList.toArray(new String[segmentsList.size()]);
+        return newPath;
     }
 
     public Path newPath(Path relative) {
-        final String[] newPath = new String[elements.length + relative.elements.length];
-        System.arraycopy(elements, 0, newPath, 0, elements.length);
-        System.arraycopy(relative.elements, 0, newPath, elements.length, relative.elements.length);
-        return new Path(absolute, newPath);
+        Path newPath = this;
+        for (String element : relative.elements()) {
+            newPath = new Path(newPath, element);
+        }
+        return newPath;
     }
 
     public String join(char separator) {
-        StringBuilder builder = new StringBuilder();
-        if (absolute) {
-            builder.append(separator);
+        if (length == 0) {
+            return absolute ? String.valueOf(separator) : "";
         }
-        Joiner.on(separator).appendTo(builder, elements);
+        final StringBuilder builder = new StringBuilder();
+        appendTo(builder, separator);
         return builder.toString();
     }
 
+    private void appendTo(StringBuilder builder, char separator) {
+        if (length == 0) {
+            return;
+        }
+        parent.appendTo(builder, separator);
+        if (parent.length > 0 || absolute) {
+            builder.append(separator);
+        }
+        builder.append(name);
+    }
+
+    private static boolean sameElements(Path first, Path second) {
+        while (first != second) {
+            if (first.length != second.length) {
+                return false;
+            }
+            if (first.length == 0) {
+                // ROOT and EMPTY have the same elements
+                return true;
+            }
+            if (!first.name.equals(second.name)) {
+                return false;
+            }
+            first = first.parent;
+            second = second.parent;
+        }
+        return true;
+    }
+
    /* ==================================================== */
 
     @Override
     public String toString() {
         if (asString == null) {
-            if (isRoot()) {
-                asString = "/";
-            } else {
-                asString = join('/');
-            }
+            asString = join('/');
         }
         return asString;
     }
@@ -182,16 +228,19 @@ public final class Path {
         }
         if (o instanceof Path) {
             Path path = (Path)o;
-            return Arrays.equals(elements, path.elements);
+            return sameElements(this, path);
         }
         return false;
     }
 
     @Override
     public int hashCode() {
-        if (hashCode == 0) {
-            hashCode = Arrays.hashCode(elements);
+        // the same as Arrays.hashCode of elements
+        int hash = hashCode;
+        if (hash == 0) {
+            hash = length == 0 ? 1 : 31 * parent.hashCode() + name.hashCode();
+            hashCode = hash;
         }
-        return hashCode;
+        return hash;
     }
 }
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Index of cache entries by paths of items that cached values depend on, caches use it to find entries affected by change of item. Few
+ * entries may be indexed under the same path, key of entry is path followed by '\0' and unique id. Keys are sorted, so entries of item
+ * are found as range of keys from path + '\0' to path + '\1' and entries of its descendants as range from path + '/' to path + '0',
+ * without scanning whole index.
+ * <p/>
+ * Entry is indexed before its value is computed, e.g. before files are read, and value is cached only with {@link Entry#cache(Runnable)}.
+ * If entry is invalidated while value is computed then value is either not cached or removed right after it is cached, values of other
+ * entries are not affected.
+ *
+ * @param <E>
+ *         type of entries
+ */
+public final class PathIndex<E extends PathIndex.Entry> {
+    private final ConcurrentNavigableMap<String, E> entries;
+    private final AtomicLong                        ids;
+
+    public PathIndex() {
+        entries = new ConcurrentSkipListMap<>();
+        ids = new AtomicLong();
+    }
+
+    /**
+     * Returns range of sorted map that contains keys of descendants of item with specified path. Key of item is its path that may be
+     * followed by character that precedes '/', e.g. '\0' and id.
+     */
+    public static <V> ConcurrentNavigableMap<String, V> descendants(ConcurrentNavigableMap<String, V> map, String path) {
+        // '0' follows '/', so range contains paths of all descendants of item and nothing else
+        return "/".equals(path) ? map.subMap("/\1", "0") : map.subMap(path + '/', path + '0');
+    }
+
+    /**
+     * Indexes entry under path.
+     *
+     * @return key of entry that is used to remove it from index
+     */
+    public String add(String path, E entry) {
+        final String key = path + '\0' + ids.incrementAndGet();
+        entries.put(key, entry);
+        return key;
+    }
+
+    public void remove(String key, E entry) {
+        entries.remove(key, entry);
+    }
+
+    /** Returns entries that are indexed under path. */
+    public Collection<E> get(String path) {
+        return entries.subMap(path + '\0', path + '\1').values();
+    }
+
+    /** Invalidates entries that are indexed under path. */
+    public void invalidate(String path) {
+        invalidateAll(get(path));
+    }
+
+    /** Invalidates entries that are indexed under descendants of path. */
+    public void invalidateDescendants(String path) {
+        invalidateAll(descendants(entries, path).values());
+    }
+
+    public void invalidateAll() {
+        invalidateAll(entries.values());
+    }
+
+    /** Returns number of indexed entries. */
+    public int size() {
+        return entries.size();
+    }
+
+    private void invalidateAll(Collection<E> range) {
+        for (Entry entry : range) {
+            entry.invalidate();
+        }
+    }
+
+    /** Entry of cache that may be invalidated while its value is computed. */
+    public abstract static class Entry {
+        private volatile boolean invalidated;
+
+        public boolean isInvalidated() {
+            return invalidated;
+        }
+
+        /**
+         * Caches value of entry unless entry is invalidated.
+         *
+         * @param put
+         *         puts value in cache
+         * @return {@code true} if value is cached and {@code false} if entry is invalidated
+         */
+        public boolean cache(Runnable put) {
+            if (invalidated) {
+                return false;
+            }
+            put.run();
+            // entry may be invalidated concurrently after flag is checked, value put after that must not stay in cache
+            if (invalidated) {
+                onInvalidated();
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * Removes value of entry from cache. It is called after entry is marked as invalidated, possibly more than once and concurrently
+         * with {@link #cache(Runnable)}, so it must not remove value of other entry.
+         */
+        protected abstract void onInvalidated();
+
+        /** Marks entry as invalidated and removes its value from cache. */
+        public void invalidate() {
+            // entry is marked first, so value that is cached after that is removed either here or by method that caches it
+            invalidated = true;
+            onInvalidated();
+        }
+    }
+}
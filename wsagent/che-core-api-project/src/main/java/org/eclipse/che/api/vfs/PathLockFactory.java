@@ -10,6 +10,16 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs;
 
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
 /**
  * Advisory file locks. It does not prevent access to the file from other programs.
  * <p/>
@@ -30,15 +40,27 @@ package org.eclipse.che.api.vfs;
  *         }
  *      }
  * </pre>
+ * Lock of path conflicts with locks of its parents and children held by other threads, e.g. exclusive lock of folder may not be
+ * obtained while other thread reads file in this folder. This is implemented with intention locks: before path is locked each of its
+ * parents is locked with intention shared or intention exclusive lock, from root down to direct parent. State of locks is kept in table
+ * that is split in stripes by hash of path, so threads that lock unrelated paths contend only for short time on stripes of their common
+ * parents. Threads that wait for lock of the same path get it in order of arrival. Thread that already holds lock of path may lock it
+ * again without waiting in queue. Such nested lock may be upgraded, e.g. from shared to exclusive, thread that upgrades lock waits
+ * until other threads release locks that conflict with it and is placed ahead of threads that do not hold lock of path yet. If two
+ * threads that hold lock of the same path both wait to upgrade it and each of them holds lock that conflicts with upgrade of the other
+ * one, {@link IllegalStateException} is thrown immediately to the thread that started to upgrade last, otherwise they would wait for
+ * each other until timeout.
  *
  * @author andrew00x>
  */
 public final class PathLockFactory {
-    private static final int MAX_RECURSIVE_LOCKS = (1 << 10) - 1;
+    private static final int    MAX_RECURSIVE_LOCKS = (1 << 10) - 1;
+    private static final int    STRIPES             = 64;
+    private static final Mode[] MODES               = Mode.values();
+
     /** Max number of threads allowed to access file. */
-    private final int maxThreads;
-    // Tail of the "lock table".
-    private final Node tail = new Node(null, 0, null);
+    private final int      maxThreads;
+    private final Stripe[] stripes;
 
     /**
      * @param maxThreads
@@ -50,145 +72,377 @@ public final class PathLockFactory {
             throw new IllegalArgumentException();
         }
         this.maxThreads = maxThreads;
+        stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
     }
 
     public PathLock getLock(Path path, boolean exclusive) {
-        return new PathLock(path, exclusive ? maxThreads : 1);
+        return new PathLock(hierarchy(path), exclusive ? Mode.EXCLUSIVE : Mode.SHARED);
     }
 
-    private synchronized void acquire(Path path, int permits) {
-        while (!tryAcquire(path, permits)) {
-            try {
-                wait();
-            } catch (InterruptedException e) {
-                notifyAll();
-                throw new RuntimeException(e);
+    /**
+     * @param timeoutMilliseconds
+     *         maximum time to wait for lock, negative value means waiting without timeout
+     */
+    private void acquire(Path[] hierarchy, Mode mode, long timeoutMilliseconds) {
+        final long deadline = timeoutMilliseconds < 0 ? Long.MAX_VALUE : System.nanoTime() + MILLISECONDS.toNanos(timeoutMilliseconds);
+        final Path path = hierarchy[hierarchy.length - 1];
+        final Mode intention = mode.intention();
+        int acquired = 0;
+        try {
+            for (; acquired < hierarchy.length; acquired++) {
+                final boolean last = acquired == hierarchy.length - 1;
+                acquireNode(hierarchy[acquired], last ? mode : intention, deadline, path);
+            }
+        } finally {
+            if (acquired < hierarchy.length) {
+                // Failed to get lock, release intention locks of parents
+                for (int i = acquired - 1; i >= 0; i--) {
+                    releaseNode(hierarchy[i], intention);
+                }
             }
         }
     }
 
-    private synchronized void acquire(Path path, int permits, long timeoutMilliseconds) {
-        final long endTime = System.currentTimeMillis() + timeoutMilliseconds;
-        long waitTime = timeoutMilliseconds;
-        while (!tryAcquire(path, permits)) {
+    private void acquireNode(Path path, Mode mode, long deadline, Path requestedPath) {
+        final Stripe stripe = stripeFor(path);
+        final Thread current = Thread.currentThread();
+        stripe.lock.lock();
+        try {
+            Node node = stripe.nodes.get(path);
+            if (node == null) {
+                node = new Node();
+                stripe.nodes.put(path, node);
+            }
+            final int[] own = node.holds(current);
+            final boolean holder = own != null;
+            if ((holder && covers(own, mode)) || ((holder || !node.hasWaiters()) && isCompatible(node, current, mode))) {
+                node.grant(current, mode);
+                return;
+            }
+            final Object waiter = new Object();
+            if (holder) {
+                final Thread upgrading = node.conflictingUpgrade(current, mode);
+                if (upgrading != null) {
+                    throw new IllegalStateException(String.format("Lock of '%s' held by current thread may not be upgraded to %s lock, " +
+                                                                  "thread %s waits to upgrade its lock of this path that conflicts with " +
+                                                                  "it. ", path, mode, upgrading.getName()));
+                }
+                // Thread that already holds lock of path is placed ahead of queue and does not wait for its turn, otherwise it may
+                // wait for threads which wait for it.
+                node.upgrades().put(current, mode);
+                node.waiters().addFirst(waiter);
+            } else {
+                node.waiters().addLast(waiter);
+            }
+            final Condition condition = node.condition(stripe);
             try {
-                wait(waitTime);
+                while ((!holder && node.waiters.peekFirst() != waiter) || !isCompatible(node, current, mode)) {
+                    if (deadline == Long.MAX_VALUE) {
+                        condition.await();
+                    } else {
+                        final long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            throw new RuntimeException(String.format("Get lock timeout for '%s'. Lock of '%s' is held by %s. ",
+                                                                     requestedPath, path, node.holderNames()));
+                        }
+                        condition.awaitNanos(remaining);
+                    }
+                }
+                node.grant(current, mode);
             } catch (InterruptedException e) {
-                notifyAll();
+                Thread.currentThread().interrupt();
                 throw new RuntimeException(e);
+            } finally {
+                node.waiters.remove(waiter);
+                if (holder) {
+                    node.upgrades.remove(current);
+                }
+                // Next thread in queue may get lock now.
+                condition.signalAll();
+                if (node.isUnused()) {
+                    stripe.nodes.remove(path);
+                }
             }
-            long now = System.currentTimeMillis();
-            if (now >= endTime) {
-                throw new RuntimeException(String.format("Get lock timeout for '%s'. ", path));
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private static boolean covers(int[] own, Mode mode) {
+        for (Mode held : MODES) {
+            if (own[held.ordinal()] > 0 && held.covers(mode)) {
+                return true;
             }
-            waitTime = endTime - now;
         }
+        return false;
     }
 
-    private synchronized void release(Path path, int permits) {
-        Node node = tail;
-        while (node != null) {
-            Node prev = node.prev;
-            if (prev == null) {
-                break;
-            }
-            if (prev.path.equals(path)) {
-                if (prev.threadDeep == 1) {
-                    // If last recursive lock.
-                    prev.permits += permits;
-                    if (prev.permits >= maxThreads) {
-                        // remove
-                        node.prev = prev.prev;
-                        prev.prev = null;
-                    }
-                } else {
-                    --prev.threadDeep;
+    private boolean isCompatible(Node node, Thread current, Mode mode) {
+        final int[] own = node.holds(current);
+        for (Mode granted : MODES) {
+            final int others = node.granted[granted.ordinal()] - (own == null ? 0 : own[granted.ordinal()]);
+            if (others > 0 && !mode.isCompatibleWith(granted)) {
+                return false;
+            }
+        }
+        if (mode == Mode.SHARED && node.granted[Mode.SHARED.ordinal()] >= maxThreads) {
+            // Count of granted locks includes nested locks, check number of threads.
+            int readers = 0;
+            for (Thread holder : node.holders()) {
+                if (holder != current && node.holds(holder)[Mode.SHARED.ordinal()] > 0) {
+                    readers++;
                 }
             }
-            node = node.prev;
+            return readers < maxThreads;
         }
-        notifyAll();
-        //System.err.printf(">>>>> release: %s : %d%n", path, permits);
+        return true;
     }
 
-    private boolean tryAcquire(Path path, int permits) {
-        //System.err.printf(">>>>> acquire: %s : %d%n", path, permits);
-        Node node = tail.prev;
+    private void release(Path[] hierarchy, Mode mode) {
+        final Mode intention = mode.intention();
+        releaseNode(hierarchy[hierarchy.length - 1], mode);
+        for (int i = hierarchy.length - 2; i >= 0; i--) {
+            releaseNode(hierarchy[i], intention);
+        }
+    }
+
+    private void releaseNode(Path path, Mode mode) {
+        final Stripe stripe = stripeFor(path);
         final Thread current = Thread.currentThread();
-        while (node != null) {
-            if (node.path.equals(path)) {
-                if (node.threadId == current.getId()) {
-                    // Current thread already has direct lock for this path
-                    if (node.threadDeep > MAX_RECURSIVE_LOCKS) {
-                        throw new Error("Max number of recursive locks exceeded. ");
+        stripe.lock.lock();
+        try {
+            final Node node = stripe.nodes.get(path);
+            if (node == null || !node.release(current, mode)) {
+                throw new IllegalStateException(String.format("Lock of '%s' is not held by current thread. ", path));
+            }
+            if (node.isUnused()) {
+                stripe.nodes.remove(path);
+            } else if (node.condition != null) {
+                node.condition.signalAll();
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /** Returns parents of the specified path, starting from root, and path itself. */
+    private static Path[] hierarchy(Path path) {
+        final Path[] hierarchy = new Path[path.length() + 1];
+        hierarchy[path.length()] = path;
+        for (int i = path.length() - 1; i >= 0; i--) {
+            hierarchy[i] = hierarchy[i + 1].getParent();
+        }
+        return hierarchy;
+    }
+
+    private Stripe stripeFor(Path path) {
+        final int hash = path.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    /** Checks that all locks are released. */
+    public void checkClean() {
+        final List<String> held = newArrayList();
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                for (Map.Entry<Path, Node> entry : stripe.nodes.entrySet()) {
+                    held.add(entry.getKey() + " held by " + entry.getValue().holderNames());
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        assert held.isEmpty() : "Locks are not released: " + held;
+    }
+
+   /* =============================================== */
+
+    private enum Mode {
+        INTENTION_SHARED, INTENTION_EXCLUSIVE, SHARED, EXCLUSIVE;
+
+        private static final boolean[][] COMPATIBILITY = {
+                //  IS     IX     S      X
+                {true, true, true, false},   // IS
+                {true, true, false, false},  // IX
+                {true, false, true, false},  // S
+                {false, false, false, false} // X
+        };
+
+        boolean isCompatibleWith(Mode other) {
+            return COMPATIBILITY[ordinal()][other.ordinal()];
+        }
+
+        /** Returns mode of lock of parents of path that is locked with this mode. */
+        Mode intention() {
+            return this == EXCLUSIVE || this == INTENTION_EXCLUSIVE ? INTENTION_EXCLUSIVE : INTENTION_SHARED;
+        }
+
+        /** Returns {@code true} if lock with this mode is taken to modify path or one of its children. */
+        boolean isWrite() {
+            return this == EXCLUSIVE || this == INTENTION_EXCLUSIVE;
+        }
+
+        /** Returns {@code true} if holder of lock with this mode may get lock with the specified mode without checking other locks. */
+        boolean covers(Mode other) {
+            return this == EXCLUSIVE || this == other || other == INTENTION_SHARED;
+        }
+    }
+
+    private static class Stripe {
+        final ReentrantLock   lock  = new ReentrantLock();
+        final Map<Path, Node> nodes = new HashMap<>();
+    }
+
+    /**
+     * State of lock of one path. Guarded by lock of stripe. Most of paths are locked by one thread at a time so the first holder is kept
+     * in fields of node and queue of waiters is created only when some thread has to wait.
+     */
+    private static class Node {
+        final int[] granted = new int[MODES.length];
+
+        Thread             owner;
+        int[]              ownerHolds;
+        Map<Thread, int[]> holders;
+        Map<Thread, Mode>  upgrades;
+        ArrayDeque<Object> waiters;
+        Condition          condition;
+
+        int[] holds(Thread thread) {
+            if (thread == owner) {
+                return ownerHolds;
+            }
+            return holders == null ? null : holders.get(thread);
+        }
+
+        List<Thread> holders() {
+            final List<Thread> result = newArrayList();
+            if (owner != null) {
+                result.add(owner);
+            }
+            if (holders != null) {
+                result.addAll(holders.keySet());
+            }
+            return result;
+        }
+
+        void grant(Thread thread, Mode mode) {
+            int[] own = holds(thread);
+            if (own == null) {
+                own = new int[MODES.length];
+                if (owner == null) {
+                    owner = thread;
+                    ownerHolds = own;
+                } else {
+                    if (holders == null) {
+                        holders = new HashMap<>(4);
                     }
-                    ++node.threadDeep;
-                    return true;
+                    holders.put(thread, own);
                 }
-                if (node.permits > permits) {
-                    // Lock already exists and current thread is not owner of this lock,
-                    // but lock is not exclusive and we can "share" it for other thread.
-                    node.permits -= permits; // decrement number of allowed concurrent threads
+            }
+            if (own[mode.ordinal()] > MAX_RECURSIVE_LOCKS) {
+                throw new Error("Max number of recursive locks exceeded. ");
+            }
+            own[mode.ordinal()]++;
+            granted[mode.ordinal()]++;
+        }
+
+        boolean release(Thread thread, Mode mode) {
+            final int[] own = holds(thread);
+            if (own == null || own[mode.ordinal()] == 0) {
+                return false;
+            }
+            own[mode.ordinal()]--;
+            granted[mode.ordinal()]--;
+            for (int count : own) {
+                if (count > 0) {
                     return true;
                 }
-                // Lock is exclusive or max number of allowed concurrent thread is reached.
-                return false;
-            } else if ((node.path.isChild(path) || path.isChild(node.path)) && node.permits <= permits) {
-                // Found some path which already has lock that prevents us to get required permits.
-                // There is two possibilities:
-                // 1. Parent of the path we try to lock already locked
-                // 2. Child of the path we try to lock already locked
-                // Need to check is such lock obtained by current thread or not.
-                // If such lock obtained by other thread stop here immediately there is no reasons to continue.
-                if (node.threadId != current.getId()) {
-                    return false;
+            }
+            if (thread == owner) {
+                owner = null;
+                ownerHolds = null;
+            } else {
+                holders.remove(thread);
+            }
+            return true;
+        }
+
+        Map<Thread, Mode> upgrades() {
+            if (upgrades == null) {
+                upgrades = new HashMap<>(4);
+            }
+            return upgrades;
+        }
+
+        /**
+         * Returns other thread that waits to upgrade its lock of this path if its upgrade conflicts with locks held by the specified
+         * thread and upgrade of the specified thread conflicts with its locks, {@code null} if there is no such thread.
+         */
+        Thread conflictingUpgrade(Thread thread, Mode mode) {
+            if (upgrades == null) {
+                return null;
+            }
+            for (Map.Entry<Thread, Mode> upgrade : upgrades.entrySet()) {
+                final Thread other = upgrade.getKey();
+                if (other != thread && conflicts(mode, holds(other)) && conflicts(upgrade.getValue(), holds(thread))) {
+                    return other;
                 }
             }
-            node = node.prev;
+            return null;
         }
-        // If we are here there is no lock for path yet.
-        tail.prev = new Node(path, maxThreads - permits, tail.prev);
-        return true;
-    }
 
-    public synchronized void checkClean() {
-        assert tail.prev == null;
-    }
+        private static boolean conflicts(Mode mode, int[] own) {
+            for (Mode held : MODES) {
+                if (own[held.ordinal()] > 0 && !mode.isCompatibleWith(held)) {
+                    return true;
+                }
+            }
+            return false;
+        }
 
-   /* =============================================== */
+        boolean hasWaiters() {
+            return waiters != null && !waiters.isEmpty();
+        }
 
-    private static class Node {
-        final Path path;
-        final long threadId = Thread.currentThread().getId();
-        int  permits;
-        int  threadDeep;
-        Node prev;
-
-        Node(Path path, int permits, Node prev) {
-            this.path = path;
-            this.permits = permits;
-            this.prev = prev;
-            threadDeep = 1;
-        }
-
-        @Override
-        public String toString() {
-            return "Node{" +
-                   "path=" + path +
-                   ", threadId=" + threadId +
-                   ", permits=" + permits +
-                   ", prev=" + prev +
-                   '}';
+        ArrayDeque<Object> waiters() {
+            if (waiters == null) {
+                waiters = new ArrayDeque<>(4);
+            }
+            return waiters;
+        }
+
+        Condition condition(Stripe stripe) {
+            if (condition == null) {
+                condition = stripe.lock.newCondition();
+            }
+            return condition;
+        }
+
+        boolean isUnused() {
+            return owner == null && (holders == null || holders.isEmpty()) && !hasWaiters();
+        }
+
+        String holderNames() {
+            final List<String> names = newArrayList();
+            for (Thread holder : holders()) {
+                names.add(holder.getName());
+            }
+            return names.toString();
         }
     }
 
     public final class PathLock {
-        private final Path path;
-        private final int  permits;
+        /** Parents of locked path, starting from root, and path itself. */
+        private final Path[] hierarchy;
+        private final Mode   mode;
 
-        private PathLock(Path path, int permits) {
-            this.path = path;
-            this.permits = permits;
+        private PathLock(Path[] hierarchy, Mode mode) {
+            this.hierarchy = hierarchy;
+            this.mode = mode;
         }
 
         /**
@@ -197,7 +451,7 @@ public final class PathLockFactory {
          * @return this PathLock instance
          */
         public PathLock acquire() {
-            PathLockFactory.this.acquire(path, permits);
+            PathLockFactory.this.acquire(hierarchy, mode, -1);
             return this;
         }
 
@@ -212,18 +466,18 @@ public final class PathLockFactory {
          *         if waiting timeout reached
          */
         public PathLock acquire(long timeoutMilliseconds) {
-            PathLockFactory.this.acquire(path, permits, timeoutMilliseconds);
+            PathLockFactory.this.acquire(hierarchy, mode, timeoutMilliseconds);
             return this;
         }
 
         /** Release file permit. */
         public void release() {
-            PathLockFactory.this.release(path, permits);
+            PathLockFactory.this.release(hierarchy, mode);
         }
 
         /** Returns <code>true</code> if this lock is exclusive and <code>false</code> otherwise. */
         public boolean isExclusive() {
-            return permits == PathLockFactory.this.maxThreads;
+            return mode == Mode.EXCLUSIVE;
         }
     }
 }
@@ -19,16 +19,32 @@ import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.vfs.util.NotClosableInputStream;
+import org.eclipse.che.api.vfs.util.TarContent;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
 
 public class TarArchiver extends Archiver {
     public TarArchiver(VirtualFile folder) {
         super(folder);
     }
 
+    /**
+     * @param folder
+     *         folder to compress or extract archive to
+     * @param executor
+     *         executor that writes content of extracted files, it is not shut down by archiver. If {@code null} then all files are
+     *         written by the calling thread
+     * @param extractThreads
+     *         max number of files of one archive that are written in parallel, if less than 2 then all files are written by the calling
+     *         thread
+     */
+    public TarArchiver(VirtualFile folder, ExecutorService executor, int extractThreads) {
+        super(folder, executor, extractThreads);
+    }
+
     @Override
     public void compress(OutputStream tarOutput) throws IOException, ServerException {
         compress(tarOutput, VirtualFileFilter.ACCEPT_ALL);
@@ -89,12 +105,11 @@ public class TarArchiver extends Archiver {
     @Override
     public void extract(InputStream tarInput, boolean overwrite, int stripNumber)
             throws IOException, ForbiddenException, ConflictException, ServerException {
-        try (TarArchiveInputStream tarInputStream = new TarArchiveInputStream(tarInput)) {
+        try (TarArchiveInputStream tarInputStream = new TarArchiveInputStream(TarContent.of(tarInput).getContent());
+             ArchiveExtractor extractor = new ArchiveExtractor(folder, overwrite, executor, extractThreads)) {
             InputStream notClosableInputStream = new NotClosableInputStream(tarInputStream);
             TarArchiveEntry tarEntry;
             while ((tarEntry = tarInputStream.getNextTarEntry()) != null) {
-                VirtualFile extractFolder = folder;
-
                 Path relativePath = Path.of(tarEntry.getName());
 
                 if (stripNumber > 0) {
@@ -105,33 +120,12 @@ public class TarArchiver extends Archiver {
                 }
 
                 if (tarEntry.isDirectory()) {
-                    if (!extractFolder.hasChild(relativePath)) {
-                        extractFolder.createFolder(relativePath.toString());
-                    }
-                    continue;
-                }
-
-                if (relativePath.length() > 1) {
-                    Path neededParentPath = relativePath.getParent();
-                    VirtualFile neededParent = extractFolder.getChild(neededParentPath);
-                    if (neededParent == null) {
-                        neededParent = extractFolder.createFolder(neededParentPath.toString());
-                    }
-                    extractFolder = neededParent;
-                }
-
-                String fileName = relativePath.getName();
-                VirtualFile file = extractFolder.getChild(Path.of(fileName));
-                if (file == null) {
-                    extractFolder.createFile(fileName, notClosableInputStream);
+                    extractor.addFolder(relativePath);
                 } else {
-                    if (overwrite) {
-                        file.updateContent(notClosableInputStream);
-                    } else {
-                        throw new ConflictException(String.format("File '%s' already exists", file.getPath()));
-                    }
+                    extractor.addFile(relativePath, notClosableInputStream);
                 }
             }
+            extractor.flush();
         }
     }
 }
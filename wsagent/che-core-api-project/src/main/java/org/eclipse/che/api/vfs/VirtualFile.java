@@ -18,6 +18,7 @@ import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.commons.lang.Pair;
 
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -504,6 +505,19 @@ public interface VirtualFile extends Comparable<VirtualFile> {
      */
     InputStream zip() throws ForbiddenException, ServerException;
 
+    /**
+     * Writes content of folder denoted by this VirtualFile as zip archive to specified output. Unlike {@link #zip()} archive is not
+     * buffered and is written to the output while it is being created.
+     *
+     * @param output
+     *         output for zip archive
+     * @throws ForbiddenException
+     *         if this item does not denote a folder
+     * @throws ServerException
+     *         if other error occurs
+     */
+    void zip(OutputStream output) throws ForbiddenException, ServerException;
+
     /**
      * Extracts zip archive to the folder denoted by this VirtualFile.
      *
@@ -699,6 +713,30 @@ public interface VirtualFile extends Comparable<VirtualFile> {
      */
     List<Pair<String, String>> countMd5Sums() throws ServerException;
 
+    /**
+     * Traverses recursively all files in current folder and builds tree of md5sums. Md5sum of file is counted from its content, md5sum
+     * of folder is counted from names, types and md5sums of its children. Folders that have the same md5sum have the same content. If
+     * this VirtualFile is not a folder the returned tree contains only this file.
+     *
+     * @throws ServerException
+     *         if any error occurs
+     * @see HashTree
+     */
+    HashTree countMd5Tree() throws ServerException;
+
+    /**
+     * Reads tree of items of current folder with their basic attributes: type, length and last modification date. Children of folder
+     * are sorted in the same order as {@link #getChildren()} returns them. If this VirtualFile is not a folder the returned tree contains
+     * only this file.
+     *
+     * @param depth
+     *         depth of tree, e.g. if {@code 1} only children of current folder are read
+     * @throws ServerException
+     *         if any error occurs
+     * @see VirtualFileTree
+     */
+    VirtualFileTree getTree(int depth) throws ServerException;
+
     /**
      * Gets java.io.File if implementation uses java.io.File as backend.
      *
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Node of tree of items with their basic attributes that is read by {@link VirtualFile#getTree(int)}. Attributes are read together with
+ * children of folder, so building of tree doesn't need separate requests to filesystem for each item.
+ */
+public final class VirtualFileTree {
+    /** The same order as order of children of folder: folders go first, then files, both sorted by name. */
+    public static final Comparator<VirtualFileTree> ORDER = Comparator.comparing((VirtualFileTree tree) -> !tree.isFolder())
+                                                                      .thenComparing(VirtualFileTree::getName);
+
+    private final Path                  path;
+    private final boolean               folder;
+    private final long                  length;
+    private final long                  lastModificationDate;
+    private final List<VirtualFileTree> children;
+
+    public VirtualFileTree(Path path, boolean folder, long length, long lastModificationDate, List<VirtualFileTree> children) {
+        this.path = path;
+        this.folder = folder;
+        this.length = length;
+        this.lastModificationDate = lastModificationDate;
+        this.children = children;
+    }
+
+    /** Path of file or folder. */
+    public Path getPath() {
+        return path;
+    }
+
+    /** Name of file or folder. */
+    public String getName() {
+        return path.getName();
+    }
+
+    public boolean isFolder() {
+        return folder;
+    }
+
+    public boolean isFile() {
+        return !folder;
+    }
+
+    /** Length of file content in bytes, {@code 0} for folder. */
+    public long getLength() {
+        return length;
+    }
+
+    /** Time of last modification in milliseconds. */
+    public long getLastModificationDate() {
+        return lastModificationDate;
+    }
+
+    /** Children of folder in {@link #ORDER}. Empty list for file and for folder that is deeper than requested depth. */
+    public List<VirtualFileTree> getChildren() {
+        return children;
+    }
+
+    @Override
+    public String toString() {
+        return "VirtualFileTree{" +
+               "path=" + path +
+               ", folder=" + folder +
+               ", length=" + length +
+               ", lastModificationDate=" + lastModificationDate +
+               '}';
+    }
+}
@@ -10,24 +10,99 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.common.io.ByteStreams;
 
+import org.apache.commons.compress.archivers.zip.Zip64Mode;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.vfs.util.NotClosableInputStream;
 import org.eclipse.che.api.vfs.util.ZipContent;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
-import java.util.zip.ZipOutputStream;
 
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+
+/**
+ * Archiver for ZIP format.
+ * <p/>
+ * Content of files is compressed in parallel: small files are read and deflated by workers of executor that is shared by all
+ * archivers while the calling thread writes already compressed entries to the output in order of visiting of the tree. Files bigger
+ * than {@link #MAX_PARALLEL_ENTRY_SIZE} are compressed by the calling thread directly to the output. Files that are already compressed,
+ * e.g. archives, images, video, and files which size is not decreased after compression are stored without compression. Big files of
+ * these types are written as deflated entries with compression level 0, so their CRC is counted while they are written and content of
+ * each file is read only once.
+ */
 public class ZipArchiver extends Archiver {
+    /** Max size of file that is compressed in memory by worker. */
+    static final long MAX_PARALLEL_ENTRY_SIZE = 4 * 1024 * 1024;
+    /** Max total size of files that are read or compressed by workers but are not written to the output yet. */
+    static final long MAX_PENDING_SIZE        = 64 * 1024 * 1024;
+
+    private static final Set<String> COMPRESSED_FILE_EXTENSIONS = ImmutableSet.of("zip", "jar", "war", "ear", "gz", "tgz", "bz2", "xz",
+                                                                                  "7z", "rar", "png", "jpg", "jpeg", "gif", "webp",
+                                                                                  "ico", "mp3", "mp4", "ogg", "avi", "mov", "mkv",
+                                                                                  "woff", "woff2");
+
+    private final int compressionLevel;
+    private final int threads;
+
+    /** Creates archiver that compresses and extracts all files in the calling thread. */
     public ZipArchiver(VirtualFile folder) {
-        super(folder);
+        this(folder, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Creates archiver that compresses and extracts all files in the calling thread.
+     *
+     * @param folder
+     *         folder to compress or extract archive to
+     * @param compressionLevel
+     *         compression level from 0 to 9 or -1 for default level
+     */
+    public ZipArchiver(VirtualFile folder, int compressionLevel) {
+        this(folder, compressionLevel, null, 1, 1);
+    }
+
+    /**
+     * @param folder
+     *         folder to compress or extract archive to
+     * @param compressionLevel
+     *         compression level from 0 to 9 or -1 for default level
+     * @param executor
+     *         executor that compresses content of files and writes content of extracted files, it is not shut down by archiver. If
+     *         {@code null} then all files are processed by the calling thread
+     * @param threads
+     *         max number of files of one archive that are compressed in parallel, if less than 2 then all files are compressed by the
+     *         calling thread
+     * @param extractThreads
+     *         max number of files of one archive that are written in parallel, if less than 2 then all files are written by the calling
+     *         thread
+     */
+    public ZipArchiver(VirtualFile folder, int compressionLevel, ExecutorService executor, int threads, int extractThreads) {
+        super(folder, executor, extractThreads);
+        if (compressionLevel < Deflater.DEFAULT_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException(String.format("Invalid compression level %d", compressionLevel));
+        }
+        this.compressionLevel = compressionLevel;
+        this.threads = threads;
     }
 
     @Override
@@ -37,22 +112,30 @@ public class ZipArchiver extends Archiver {
 
     @Override
     public void compress(OutputStream zipOutput, VirtualFileFilter filter) throws IOException, ServerException {
-        try (ZipOutputStream zipOutputStream = new ZipOutputStream(zipOutput)) {
-            folder.accept(new VirtualFileVisitor() {
-                @Override
-                public void visit(VirtualFile visitedVirtualFile) throws ServerException {
-                    if (filter.accept(visitedVirtualFile)) {
-                        if (!visitedVirtualFile.equals(folder)) {
-                            addZipEntry(visitedVirtualFile, zipOutputStream);
-                        }
-                        if (visitedVirtualFile.isFolder()) {
-                            for (VirtualFile child : visitedVirtualFile.getChildren()) {
-                                child.accept(this);
+        try (ZipArchiveOutputStream zipOutputStream = new ZipArchiveOutputStream(zipOutput)) {
+            zipOutputStream.setLevel(compressionLevel);
+            zipOutputStream.setUseZip64(Zip64Mode.AsNeeded);
+            final EntryWriter entryWriter = new EntryWriter(zipOutputStream, threads > 1 ? executor : null);
+            try {
+                folder.accept(new VirtualFileVisitor() {
+                    @Override
+                    public void visit(VirtualFile visitedVirtualFile) throws ServerException {
+                        if (filter.accept(visitedVirtualFile)) {
+                            if (!visitedVirtualFile.equals(folder)) {
+                                entryWriter.add(visitedVirtualFile);
+                            }
+                            if (visitedVirtualFile.isFolder()) {
+                                for (VirtualFile child : visitedVirtualFile.getChildren()) {
+                                    child.accept(this);
+                                }
                             }
                         }
                     }
-                }
-            });
+                });
+                entryWriter.flush();
+            } finally {
+                entryWriter.cancel();
+            }
         }
     }
 
@@ -64,35 +147,189 @@ public class ZipArchiver extends Archiver {
         return zipPath.toString();
     }
 
-    private void addZipEntry(VirtualFile virtualFile, ZipOutputStream zipOutputStream) throws ServerException {
-        try {
-            ZipEntry zipEntry = new ZipEntry(getZipEntryName(virtualFile));
-            zipOutputStream.putNextEntry(zipEntry);
-            if (virtualFile.isFolder()) {
-                zipEntry.setTime(0);
+    private boolean isCompressed(VirtualFile virtualFile) {
+        final String name = virtualFile.getName();
+        final int dot = name.lastIndexOf('.');
+        return dot > 0 && COMPRESSED_FILE_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase());
+    }
+
+    /** Writes entries to the output in order they are added, content of small files is prepared by workers. */
+    private class EntryWriter {
+        final ZipArchiveOutputStream       zipOutputStream;
+        final ExecutorService              executor;
+        final Deque<Future<PreparedEntry>> pending;
+        long pendingSize;
+
+        EntryWriter(ZipArchiveOutputStream zipOutputStream, ExecutorService executor) {
+            this.zipOutputStream = zipOutputStream;
+            this.executor = executor;
+            this.pending = new ArrayDeque<>();
+        }
+
+        void add(VirtualFile virtualFile) throws ServerException {
+            final PreparedEntry entry = new PreparedEntry(virtualFile);
+            if (virtualFile.isFile()) {
+                entry.size = virtualFile.getLength();
+            }
+            if (virtualFile.isFolder() || executor == null || entry.size > MAX_PARALLEL_ENTRY_SIZE) {
+                pending.add(immediateFuture(entry));
             } else {
-                try (InputStream content = virtualFile.getContent()) {
-                    ByteStreams.copy(content, zipOutputStream);
+                entry.pendingSize = entry.size;
+                while (!pending.isEmpty() && (pendingSize + entry.pendingSize > MAX_PENDING_SIZE || pending.size() >= threads * 4)) {
+                    writeNext();
+                }
+                pendingSize += entry.pendingSize;
+                pending.add(executor.submit(() -> {
+                    entry.prepare();
+                    return entry;
+                }));
+            }
+        }
+
+        void flush() throws ServerException {
+            while (!pending.isEmpty()) {
+                writeNext();
+            }
+        }
+
+        /** Drops entries that are not written, e.g. if compression failed, so workers of shared executor do not prepare them. */
+        void cancel() {
+            for (Future<PreparedEntry> future : pending) {
+                future.cancel(true);
+            }
+            pending.clear();
+        }
+
+        private void writeNext() throws ServerException {
+            final PreparedEntry entry;
+            try {
+                entry = pending.poll().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServerException("Compression was interrupted");
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof ServerException) {
+                    throw (ServerException)cause;
+                }
+                if (cause instanceof ForbiddenException) {
+                    throw new ServerException(((ForbiddenException)cause).getServiceError());
+                }
+                throw new ServerException(cause.getMessage(), cause);
+            }
+            pendingSize -= entry.pendingSize;
+            entry.write(zipOutputStream);
+        }
+    }
+
+    /** Zip entry with its content that may be compressed before the entry is written to the output. */
+    private class PreparedEntry {
+        final VirtualFile virtualFile;
+        long   size;
+        long   pendingSize;
+        long   crc;
+        byte[] data;
+        int    method;
+
+        PreparedEntry(VirtualFile virtualFile) {
+            this.virtualFile = virtualFile;
+        }
+
+        /** Reads content of small file and compresses it unless it is already compressed. */
+        void prepare() throws ServerException, ForbiddenException, IOException {
+            final CRC32 crc32 = new CRC32();
+            final byte[] content;
+            try (InputStream contentStream = virtualFile.getContent()) {
+                content = ByteStreams.toByteArray(contentStream);
+            }
+            crc32.update(content);
+            size = content.length;
+            crc = crc32.getValue();
+            data = content;
+            method = ZipEntry.STORED;
+            if (!isCompressed(virtualFile) && compressionLevel != Deflater.NO_COMPRESSION) {
+                final byte[] deflated = deflate(content);
+                if (deflated.length < content.length) {
+                    data = deflated;
+                    method = ZipEntry.DEFLATED;
+                }
+            }
+        }
+
+        private byte[] deflate(byte[] content) {
+            final Deflater deflater = new Deflater(compressionLevel, true);
+            try {
+                deflater.setInput(content);
+                deflater.finish();
+                final ByteArrayOutputStream output = new ByteArrayOutputStream(content.length / 2 + 64);
+                final byte[] buffer = new byte[8192];
+                while (!deflater.finished()) {
+                    output.write(buffer, 0, deflater.deflate(buffer));
+                }
+                return output.toByteArray();
+            } finally {
+                deflater.end();
+            }
+        }
+
+        void write(ZipArchiveOutputStream zipOutputStream) throws ServerException {
+            try {
+                final ZipArchiveEntry zipEntry = new ZipArchiveEntry(getZipEntryName(virtualFile));
+                if (virtualFile.isFolder()) {
+                    zipEntry.setTime(0);
+                    zipOutputStream.putArchiveEntry(zipEntry);
+                    zipOutputStream.closeArchiveEntry();
+                    return;
                 }
                 zipEntry.setTime(virtualFile.getLastModificationDate());
+                if (data == null && size <= MAX_PARALLEL_ENTRY_SIZE) {
+                    // Entry was not prepared by worker
+                    prepare();
+                }
+                if (data != null) {
+                    zipEntry.setMethod(method);
+                    zipEntry.setSize(size);
+                    zipEntry.setCompressedSize(data.length);
+                    zipEntry.setCrc(crc);
+                    zipOutputStream.addRawArchiveEntry(zipEntry, new ByteArrayInputStream(data));
+                    return;
+                }
+                // Stored entry needs CRC before its content is written while CRC of deflated entry is counted from content that is
+                // actually written, so content of big file is read once and entry is consistent even if file is changed meanwhile.
+                zipEntry.setMethod(ZipEntry.DEFLATED);
+                // Helps to decide whether Zip64 extensions are required for this entry.
+                zipEntry.setSize(size);
+                final boolean store = isCompressed(virtualFile);
+                if (store) {
+                    zipOutputStream.setLevel(Deflater.NO_COMPRESSION);
+                }
+                try {
+                    zipOutputStream.putArchiveEntry(zipEntry);
+                    try (InputStream content = virtualFile.getContent()) {
+                        ByteStreams.copy(content, zipOutputStream);
+                    }
+                    zipOutputStream.closeArchiveEntry();
+                } finally {
+                    if (store) {
+                        zipOutputStream.setLevel(compressionLevel);
+                    }
+                }
+            } catch (ForbiddenException e) {
+                throw new ServerException(e.getServiceError());
+            } catch (IOException e) {
+                throw new ServerException(e.getMessage(), e);
             }
-            zipOutputStream.closeEntry();
-        } catch (ForbiddenException e) {
-            throw new ServerException(e.getServiceError());
-        } catch (IOException e) {
-            throw new ServerException(e.getMessage(), e);
         }
     }
 
     @Override
     public void extract(InputStream zipInput, boolean overwrite, int stripNumber)
             throws IOException, ForbiddenException, ConflictException, ServerException {
-        try (ZipInputStream zip = new ZipInputStream(ZipContent.of(zipInput).getContent())) {
+        try (ZipInputStream zip = new ZipInputStream(ZipContent.of(zipInput).getContent());
+             ArchiveExtractor extractor = new ArchiveExtractor(folder, overwrite, executor, extractThreads)) {
             InputStream notClosableInputStream = new NotClosableInputStream(zip);
             ZipEntry zipEntry;
             while ((zipEntry = zip.getNextEntry()) != null) {
-                VirtualFile extractFolder = folder;
-
                 Path relativePath = Path.of(zipEntry.getName());
 
                 if (stripNumber > 0) {
@@ -103,34 +340,13 @@ public class ZipArchiver extends Archiver {
                 }
 
                 if (zipEntry.isDirectory()) {
-                    if (!extractFolder.hasChild(relativePath)) {
-                        extractFolder.createFolder(relativePath.toString());
-                    }
-                    continue;
-                }
-
-                if (relativePath.length() > 1) {
-                    Path neededParentPath = relativePath.getParent();
-                    VirtualFile neededParent = extractFolder.getChild(neededParentPath);
-                    if (neededParent == null) {
-                        neededParent = extractFolder.createFolder(neededParentPath.toString());
-                    }
-                    extractFolder = neededParent;
-                }
-
-                String fileName = relativePath.getName();
-                VirtualFile file = extractFolder.getChild(Path.of(fileName));
-                if (file == null) {
-                    extractFolder.createFile(fileName, notClosableInputStream);
+                    extractor.addFolder(relativePath);
                 } else {
-                    if (overwrite) {
-                        file.updateContent(notClosableInputStream);
-                    } else {
-                        throw new ConflictException(String.format("File '%s' already exists", file.getPath()));
-                    }
+                    extractor.addFile(relativePath, notClosableInputStream);
                 }
                 zip.closeEntry();
             }
+            extractor.flush();
         }
     }
 }
@@ -14,6 +14,7 @@ import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
 import org.eclipse.che.api.vfs.Path;
 import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.VirtualFileSystem;
 import org.eclipse.che.api.vfs.VirtualFileSystemProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,6 +44,10 @@ public class DefaultFileWatcherNotificationHandler implements FileWatcherNotific
         if (virtualFile == null) {
             return;
         }
+        // Listeners may read changed folder, drop its cached listing before they are notified
+        if (virtualFile.getFileSystem() instanceof LocalVirtualFileSystem) {
+            ((LocalVirtualFileSystem)virtualFile.getFileSystem()).invalidateDirectoryListings(virtualFile.getPath());
+        }
         for (FileWatcherNotificationListener virtualFileListener : fileWatcherNotificationListeners) {
             if (virtualFileListener.shouldBeNotifiedFor(virtualFile)) {
                 virtualFileListener.onFileWatcherEvent(virtualFile, eventType);
@@ -52,10 +57,28 @@ public class DefaultFileWatcherNotificationHandler implements FileWatcherNotific
 
     public void started(File watchRoot) {
         LOG.debug("Start watching file events on {}", watchRoot);
+        setDirectoryListingCacheEnabled(true);
     }
 
     public void errorOccurred(File watchRoot, Throwable cause) {
         LOG.warn("Error occurs while watching file events on {}: {}", watchRoot, cause.getMessage());
+        // Watcher is stopped, changes made not through virtual file system are not tracked anymore
+        setDirectoryListingCacheEnabled(false);
+    }
+
+    private void setDirectoryListingCacheEnabled(boolean enabled) {
+        try {
+            VirtualFileSystem virtualFileSystem = virtualFileSystemProvider.getVirtualFileSystem(true);
+            if (!(virtualFileSystem instanceof LocalVirtualFileSystem)) {
+                return;
+            }
+            DirectoryListingCache directoryListingCache = ((LocalVirtualFileSystem)virtualFileSystem).getDirectoryListingCache();
+            if (directoryListingCache != null) {
+                directoryListingCache.setEnabled(enabled);
+            }
+        } catch (ServerException e) {
+            LOG.warn(e.getMessage());
+        }
     }
 
     @Override
@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.PathIndex;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of directory listings of {@link LocalVirtualFileSystem}. Listing keeps names of children of directory and whether each
+ * child is directory or regular file. Cache is used only while it is enabled, {@link DefaultFileWatcherNotificationHandler} enables it when
+ * {@link FileTreeWatcher} starts and invalidates listings of changed items with each event of watcher. Changes made through virtual
+ * file system invalidate listings immediately. In addition listing is not used if last modification time of directory is changed since
+ * it was read, that catches changes of items that are excluded from watching.
+ * <p>
+ * When cache is full the least recently used listing is evicted. Readings of directories are kept in {@link PathIndex} while they are in
+ * progress and while their listings are cached, so listings of changed item and of its descendants are found without scanning whole cache.
+ */
+public class DirectoryListingCache {
+    /* Reading stays indexed until it is closed and its listing is removed from recentlyUsed. */
+    private final PathIndex<Reading>     readings;
+    private final Cache<String, Reading> recentlyUsed;
+    private final AtomicLong             hits;
+    private final AtomicLong             misses;
+
+    private volatile boolean enabled;
+
+    public DirectoryListingCache(int maxSize) {
+        readings = new PathIndex<>();
+        recentlyUsed = CacheBuilder.newBuilder()
+                                   .maximumSize(maxSize)
+                                   .removalListener((RemovalNotification<String, Reading> n) -> n.getValue().uncached())
+                                   .build();
+        hits = new AtomicLong();
+        misses = new AtomicLong();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Enables or disables cache. Cache is cleared when it is disabled. */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            invalidateAll();
+        }
+    }
+
+    /** Returns number of listings that were found in cache. */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /** Returns number of listings that were not found in cache and were read from disk. */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /** Returns number of cached listings. */
+    public long size() {
+        return recentlyUsed.size();
+    }
+
+    /**
+     * Invalidates listings that may be affected by change of item with specified path: listing of its parent, listing of item itself and
+     * listings of its descendants.
+     */
+    public void invalidate(Path path) {
+        if (path.isRoot()) {
+            invalidateAll();
+            return;
+        }
+        final String key = path.toString();
+        readings.invalidate(path.getParent().toString());
+        readings.invalidate(key);
+        readings.invalidateDescendants(key);
+    }
+
+    public void invalidateAll() {
+        readings.invalidateAll();
+    }
+
+    /**
+     * Gets cached listing of directory.
+     *
+     * @param directory
+     *         path of directory
+     * @param lastModified
+     *         current last modification time of directory
+     * @return cached listing or {@code null} if cache is disabled, listing is not cached or directory is changed since listing was read
+     */
+    Listing get(Path directory, long lastModified) {
+        if (!enabled) {
+            return null;
+        }
+        final Reading reading = recentlyUsed.getIfPresent(directory.toString());
+        if (reading != null && reading.listing.lastModified == lastModified) {
+            hits.incrementAndGet();
+            return reading.listing;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Starts reading of directory, it must be started before directory is read from disk. Listing that is read may be cached with
+     * {@link Reading#put(Listing)} and reading must be closed after that.
+     */
+    Reading startReading(Path directory) {
+        return new Reading(directory.toString());
+    }
+
+    /** Reading of one directory, listing that is read is cached only if directory is not invalidated while it is read. */
+    final class Reading extends PathIndex.Entry implements AutoCloseable {
+        private final String path;
+        private final String indexKey;
+
+        private volatile Listing listing;
+        private volatile boolean closed;
+
+        private Reading(String path) {
+            this.path = path;
+            this.indexKey = readings.add(path, this);
+        }
+
+        /** Caches listing of directory unless directory is invalidated after reading was started. */
+        void put(Listing listing) {
+            if (enabled) {
+                this.listing = listing;
+                cache(() -> recentlyUsed.put(path, this));
+            }
+        }
+
+        @Override
+        protected void onInvalidated() {
+            recentlyUsed.asMap().remove(path, this);
+        }
+
+        /** Called when listing is removed from cache. */
+        private void uncached() {
+            if (closed) {
+                readings.remove(indexKey, this);
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            if (recentlyUsed.asMap().get(path) != this) {
+                readings.remove(indexKey, this);
+            }
+        }
+    }
+
+    static final class Listing {
+        final long      lastModified;
+        final String[]  names;
+        final boolean[] folders;
+        final boolean[] files;
+
+        Listing(long lastModified, String[] names, boolean[] folders, boolean[] files) {
+            this.lastModified = lastModified;
+            this.names = names;
+            this.folders = folders;
+            this.files = files;
+        }
+    }
+}
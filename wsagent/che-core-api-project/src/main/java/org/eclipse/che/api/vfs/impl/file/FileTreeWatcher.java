@@ -10,13 +10,15 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs.impl.file;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
 
 import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.File;
@@ -33,7 +35,10 @@ import java.nio.file.WatchEvent;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -46,6 +51,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Maps.newLinkedHashMap;
 import static com.google.common.collect.Sets.newLinkedHashSet;
 import static java.nio.file.FileVisitResult.CONTINUE;
 import static java.nio.file.Files.getLastModifiedTime;
@@ -59,6 +65,15 @@ import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.DELETED;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
 
+/**
+ * Watches file tree and notifies {@link FileWatcherNotificationHandler} about created, modified and deleted files.
+ * <p/>
+ * By default events of {@link WatchService} are used only as signal that something is changed in directory, after that directory is
+ * listed and its entries are compared with entries seen before. In per-entry events mode (see {@link #setPerEntryEvents(boolean)})
+ * name and kind of each event are used directly, only changed entry is checked, and entries of watched directories are kept in compact
+ * form. On Linux {@link WatchService} is backed by inotify which provides such events, when queue of events overflows directories that
+ * received {@link java.nio.file.StandardWatchEventKinds#OVERFLOW} event are listed again.
+ */
 @Singleton
 public class FileTreeWatcher {
     private static final Logger LOG = LoggerFactory.getLogger(FileTreeWatcher.class);
@@ -68,6 +83,8 @@ public class FileTreeWatcher {
     private final File                           watchRoot;
     private final Path                           watchRootPath;
     private final Map<Path, WatchedDirectory>    watchedDirectories;
+    private final Map<Path, CompactDirectory>    compactDirectories;
+    private final Interner<String>               names;
     private final List<PathMatcher>              excludePatterns;
     private final FileWatcherNotificationHandler fileWatcherNotificationHandler;
     private final ExecutorService                executor;
@@ -75,6 +92,10 @@ public class FileTreeWatcher {
     private       WatchService                   watchService;
     private       WatchEvent.Modifier[]          watchEventModifiers;
 
+    @Inject(optional = true)
+    @Named("vfs.file_watcher.per_entry_events")
+    private boolean perEntryEvents;
+
     @Inject
     public FileTreeWatcher(@Named("che.user.workspaces.storage") File watchRoot,
                            @Named("vfs.index_filter_matcher") Set<PathMatcher> excludePatterns,
@@ -89,6 +110,8 @@ public class FileTreeWatcher {
         executor = Executors.newSingleThreadExecutor(threadFactory);
         running = new AtomicBoolean();
         watchedDirectories = newHashMap();
+        compactDirectories = newHashMap();
+        names = Interners.newWeakInterner();
     }
 
     private static File toCanonicalFile(File file) {
@@ -106,7 +129,7 @@ public class FileTreeWatcher {
         }
         running.set(true);
         walkTreeAndSetupWatches(watchRootPath);
-        executor.execute(new WatchEventTask());
+        executor.execute(perEntryEvents ? new EntryEventTask() : new WatchEventTask());
         fileWatcherNotificationHandler.started(watchRoot);
     }
 
@@ -157,6 +180,15 @@ public class FileTreeWatcher {
         }
     }
 
+    /**
+     * Enables or disables per-entry events mode. Must be set before {@link #startup()}.
+     *
+     * @see FileTreeWatcher
+     */
+    public void setPerEntryEvents(boolean perEntryEvents) {
+        this.perEntryEvents = perEntryEvents;
+    }
+
     public void addExcludeMatcher(PathMatcher exclude) {
         this.excludePatterns.add(exclude);
     }
@@ -179,6 +211,10 @@ public class FileTreeWatcher {
     }
 
     private boolean shouldNotify(Path subPath) {
+        // service directory of virtual file system, e.g. its metadata and temporary folders
+        if (subPath.getNameCount() > 0 && LocalVirtualFileSystem.VFS_SERVICE_DIR.equals(subPath.getName(0).toString())) {
+            return false;
+        }
         for (PathMatcher excludePattern : excludePatterns) {
             if (excludePattern.matches(subPath)) {
                 return false;
@@ -216,7 +252,9 @@ public class FileTreeWatcher {
     }
 
     private void setupDirectoryWatcher(Path directory) throws IOException {
-        if (watchedDirectories.get(directory) == null) {
+        if (perEntryEvents) {
+            setupCompactDirectoryWatcher(directory);
+        } else if (watchedDirectories.get(directory) == null) {
             WatchKey watchKey = directory.register(watchService,
                                                    new WatchEvent.Kind[]{ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY, OVERFLOW},
                                                    watchEventModifiers);
@@ -236,6 +274,34 @@ public class FileTreeWatcher {
         if (watchedDirectory != null) {
             watchedDirectory.getWatchKey().cancel();
         }
+        CompactDirectory compactDirectory = compactDirectories.remove(path);
+        if (compactDirectory != null) {
+            compactDirectory.getWatchKey().cancel();
+        }
+    }
+
+    private void setupCompactDirectoryWatcher(Path directory) throws IOException {
+        if (compactDirectories.get(directory) == null) {
+            WatchKey watchKey = directory.register(watchService,
+                                                   new WatchEvent.Kind[]{ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY, OVERFLOW},
+                                                   watchEventModifiers);
+            List<String> entryNames = newArrayList();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (Path entry : entries) {
+                    entryNames.add(entry.getFileName().toString());
+                }
+            }
+            // Sorted names are appended to the end of arrays without moving other entries
+            Collections.sort(entryNames);
+            CompactDirectory compactDirectory = new CompactDirectory(watchKey, entryNames.size());
+            for (String name : entryNames) {
+                BasicFileAttributes attributes = readAttributes(directory.resolve(name));
+                if (attributes != null) {
+                    compactDirectory.put(names.intern(name), attributes.isDirectory(), attributes.lastModifiedTime().toMillis());
+                }
+            }
+            compactDirectories.put(directory, compactDirectory);
+        }
     }
 
     private class WatchEventTask implements Runnable {
@@ -270,6 +336,171 @@ public class FileTreeWatcher {
         }
     }
 
+    private class EntryEventTask implements Runnable {
+        final Map<Path, WatchEvent.Kind<?>> pendingEntries     = newLinkedHashMap();
+        final Set<Path>                     pendingDirectories = newLinkedHashSet();
+
+        @Override
+        public void run() {
+            while (running.get()) {
+                try {
+                    WatchKey watchKey;
+                    if (pendingEntries.isEmpty() && pendingDirectories.isEmpty()) {
+                        watchKey = watchService.take();
+                    } else {
+                        watchKey = watchService.poll(EVENT_PROCESS_TIMEOUT_SEC, SECONDS);
+                        if (watchKey == null) {
+                            processPendingEntries(pendingEntries, pendingDirectories);
+                            pendingEntries.clear();
+                            pendingDirectories.clear();
+                        }
+                    }
+                    if (watchKey != null) {
+                        Path directory = (Path)watchKey.watchable();
+                        for (WatchEvent<?> event : watchKey.pollEvents()) {
+                            if (event.kind() == OVERFLOW) {
+                                // Some events are lost, whole directory must be checked
+                                pendingDirectories.add(directory);
+                            } else {
+                                // Only the last event is important, e.g. file that is created and deleted is not reported at all
+                                Path entry = directory.resolve((Path)event.context());
+                                pendingEntries.remove(entry);
+                                pendingEntries.put(entry, event.kind());
+                            }
+                        }
+                        watchKey.reset();
+                    }
+                } catch (InterruptedException | ClosedWatchServiceException e) {
+                    running.set(false);
+                } catch (Throwable e) {
+                    running.set(false);
+                    fileWatcherNotificationHandler.errorOccurred(watchRoot, e);
+                }
+            }
+        }
+    }
+
+    private void processPendingEntries(Map<Path, WatchEvent.Kind<?>> pendingEntries, Set<Path> pendingDirectories) throws IOException {
+        for (Path directory : pendingDirectories) {
+            rescanDirectory(directory);
+        }
+        for (Map.Entry<Path, WatchEvent.Kind<?>> pendingEntry : pendingEntries.entrySet()) {
+            Path entry = pendingEntry.getKey();
+            Path directory = entry.getParent();
+            CompactDirectory compactDirectory = compactDirectories.get(directory);
+            if (compactDirectory == null || pendingDirectories.contains(directory)) {
+                // Directory is removed or all its entries are already checked
+                continue;
+            }
+            BasicFileAttributes attributes = pendingEntry.getValue() == ENTRY_DELETE ? null : readAttributes(entry);
+            updateEntry(directory, compactDirectory, entry.getFileName().toString(), attributes);
+        }
+    }
+
+    private void rescanDirectory(Path directory) throws IOException {
+        CompactDirectory compactDirectory = compactDirectories.get(directory);
+        if (compactDirectory == null) {
+            return;
+        }
+        if (!Files.isDirectory(directory, NOFOLLOW_LINKS)) {
+            for (int i = compactDirectory.size() - 1; i >= 0; i--) {
+                updateEntry(directory, compactDirectory, compactDirectory.getName(i), null);
+            }
+            cancelDirectoryWatcher(directory);
+            return;
+        }
+        Set<String> present = new HashSet<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                String name = entry.getFileName().toString();
+                present.add(name);
+                updateEntry(directory, compactDirectory, name, readAttributes(entry));
+            }
+        }
+        for (int i = compactDirectory.size() - 1; i >= 0; i--) {
+            if (!present.contains(compactDirectory.getName(i))) {
+                updateEntry(directory, compactDirectory, compactDirectory.getName(i), null);
+            }
+        }
+    }
+
+    /**
+     * Compares entry of watched directory with its current state and fires events if needed.
+     *
+     * @param attributes
+     *         attributes of entry or {@code null} if entry doesn't exist
+     */
+    private void updateEntry(Path directory, CompactDirectory compactDirectory, String name, BasicFileAttributes attributes) {
+        final Path entry = directory.resolve(name);
+        final int index = compactDirectory.indexOf(name);
+        if (attributes == null) {
+            if (index >= 0) {
+                final boolean isDirectory = compactDirectory.isDirectory(index);
+                compactDirectory.remove(index);
+                if (isDirectory) {
+                    fireDeletedEventsForTree(entry);
+                }
+                fireWatchEvent(DELETED, entry, isDirectory);
+            }
+        } else if (index < 0) {
+            compactDirectory.put(names.intern(name), attributes.isDirectory(), attributes.lastModifiedTime().toMillis());
+            fireWatchEvent(CREATED, entry, attributes.isDirectory());
+            if (attributes.isDirectory()) {
+                try {
+                    walkTreeAndSetupWatches(entry);
+                } catch (IOException ignored) {
+                    // Directory is removed while walking, event about that is received later
+                }
+                fireCreatedEventsForTree(entry);
+            }
+        } else if (compactDirectory.isDirectory(index) != attributes.isDirectory()) {
+            // Replaced with item of other type
+            updateEntry(directory, compactDirectory, name, null);
+            updateEntry(directory, compactDirectory, name, attributes);
+        } else if (attributes.isRegularFile()) {
+            final long lastModified = attributes.lastModifiedTime().toMillis();
+            if (lastModified != compactDirectory.getLastModified(index)) {
+                compactDirectory.setLastModified(index, lastModified);
+                fireWatchEvent(MODIFIED, entry, false);
+            }
+        }
+    }
+
+    private void fireCreatedEventsForTree(Path directory) {
+        CompactDirectory compactDirectory = compactDirectories.get(directory);
+        if (compactDirectory != null) {
+            for (int i = 0; i < compactDirectory.size(); i++) {
+                Path entry = directory.resolve(compactDirectory.getName(i));
+                fireWatchEvent(CREATED, entry, compactDirectory.isDirectory(i));
+                if (compactDirectory.isDirectory(i)) {
+                    fireCreatedEventsForTree(entry);
+                }
+            }
+        }
+    }
+
+    private void fireDeletedEventsForTree(Path directory) {
+        CompactDirectory compactDirectory = compactDirectories.remove(directory);
+        if (compactDirectory != null) {
+            compactDirectory.getWatchKey().cancel();
+            for (int i = 0; i < compactDirectory.size(); i++) {
+                Path entry = directory.resolve(compactDirectory.getName(i));
+                if (compactDirectory.isDirectory(i)) {
+                    fireDeletedEventsForTree(entry);
+                }
+                fireWatchEvent(DELETED, entry, compactDirectory.isDirectory(i));
+            }
+        }
+    }
+
+    private BasicFileAttributes readAttributes(Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class, NOFOLLOW_LINKS);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
     private void processPendingEvents(Collection<PendingEvent> pendingEvents) throws IOException {
         for (PendingEvent pendingEvent : pendingEvents) {
             Path eventDirectoryPath = pendingEvent.getPath();
@@ -442,4 +673,79 @@ public class FileTreeWatcher {
             this.hitCounter = hitCounter;
         }
     }
+
+    /**
+     * Entries of watched directory in per-entry events mode. Interned names are kept sorted, type and modification time of entries are
+     * kept in parallel arrays, so there is no object per watched file.
+     */
+    static class CompactDirectory {
+        final WatchKey watchKey;
+        String[]  names;
+        boolean[] directories;
+        long[]    lastModified;
+        int       size;
+
+        CompactDirectory(WatchKey watchKey, int capacity) {
+            this.watchKey = watchKey;
+            names = new String[capacity];
+            directories = new boolean[capacity];
+            lastModified = new long[capacity];
+        }
+
+        WatchKey getWatchKey() {
+            return watchKey;
+        }
+
+        int size() {
+            return size;
+        }
+
+        /** Returns index of entry or negative value if there is no entry with specified name. */
+        int indexOf(String name) {
+            return Arrays.binarySearch(names, 0, size, name);
+        }
+
+        String getName(int index) {
+            return names[index];
+        }
+
+        boolean isDirectory(int index) {
+            return directories[index];
+        }
+
+        long getLastModified(int index) {
+            return lastModified[index];
+        }
+
+        void setLastModified(int index, long lastModified) {
+            this.lastModified[index] = lastModified;
+        }
+
+        void put(String name, boolean directory, long lastModified) {
+            int index = indexOf(name);
+            if (index < 0) {
+                index = -(index + 1);
+                if (size == names.length) {
+                    final int capacity = Math.max(4, size + (size >> 1));
+                    names = Arrays.copyOf(names, capacity);
+                    directories = Arrays.copyOf(directories, capacity);
+                    this.lastModified = Arrays.copyOf(this.lastModified, capacity);
+                }
+                System.arraycopy(names, index, names, index + 1, size - index);
+                System.arraycopy(directories, index, directories, index + 1, size - index);
+                System.arraycopy(this.lastModified, index, this.lastModified, index + 1, size - index);
+                size++;
+            }
+            names[index] = name;
+            directories[index] = directory;
+            this.lastModified[index] = lastModified;
+        }
+
+        void remove(int index) {
+            System.arraycopy(names, index + 1, names, index, size - index - 1);
+            System.arraycopy(directories, index + 1, directories, index, size - index - 1);
+            System.arraycopy(lastModified, index + 1, lastModified, index, size - index - 1);
+            names[--size] = null;
+        }
+    }
 }
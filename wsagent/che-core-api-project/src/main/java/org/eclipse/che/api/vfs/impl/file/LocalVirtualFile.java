@@ -15,9 +15,11 @@ import com.google.common.io.ByteStreams;
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.HashTree;
 import org.eclipse.che.api.vfs.Path;
 import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.api.vfs.VirtualFileFilter;
+import org.eclipse.che.api.vfs.VirtualFileTree;
 import org.eclipse.che.api.vfs.VirtualFileVisitor;
 import org.eclipse.che.commons.lang.Pair;
 
@@ -25,6 +27,7 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -246,6 +249,11 @@ public class LocalVirtualFile implements VirtualFile {
         return fileSystem.zip(this);
     }
 
+    @Override
+    public void zip(OutputStream output) throws ForbiddenException, ServerException {
+        fileSystem.zip(this, output);
+    }
+
     @Override
     public void unzip(InputStream zipped, boolean overwrite, int stripNumber)
             throws ForbiddenException, ConflictException, ServerException {
@@ -314,6 +322,16 @@ public class LocalVirtualFile implements VirtualFile {
         return fileSystem.countMd5Sums(this);
     }
 
+    @Override
+    public HashTree countMd5Tree() throws ServerException {
+        return fileSystem.countMd5Tree(this);
+    }
+
+    @Override
+    public VirtualFileTree getTree(int depth) throws ServerException {
+        return fileSystem.getTree(this, depth);
+    }
+
     @Override
     public File toIoFile() {
         return ioFile;
@@ -10,13 +10,15 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs.impl.file;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
-import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ConcurrentHashMultiset;
+import com.google.common.collect.Multiset;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
 import com.google.common.io.ByteStreams;
 import com.google.common.io.Files;
+import com.google.common.primitives.Bytes;
+import com.google.common.primitives.Longs;
 
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
@@ -26,12 +28,13 @@ import org.eclipse.che.api.vfs.AbstractVirtualFileSystemProvider;
 import org.eclipse.che.api.vfs.Archiver;
 import org.eclipse.che.api.vfs.ArchiverFactory;
 import org.eclipse.che.api.vfs.HashSumsCounter;
-import org.eclipse.che.api.vfs.LockedFileFinder;
+import org.eclipse.che.api.vfs.HashTree;
 import org.eclipse.che.api.vfs.Path;
 import org.eclipse.che.api.vfs.PathLockFactory;
 import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.api.vfs.VirtualFileFilter;
 import org.eclipse.che.api.vfs.VirtualFileSystem;
+import org.eclipse.che.api.vfs.VirtualFileTree;
 import org.eclipse.che.api.vfs.search.Searcher;
 import org.eclipse.che.api.vfs.search.SearcherProvider;
 import org.eclipse.che.api.vfs.util.DeleteOnCloseFileInputStream;
@@ -41,31 +44,42 @@ import org.eclipse.che.commons.lang.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Lists.newArrayListWithCapacity;
 import static com.google.common.collect.Maps.newLinkedHashMap;
+import static java.nio.file.Files.walkFileTree;
 import static java.util.Collections.emptyList;
-import static java.util.Collections.emptyMap;
 import static java.util.Collections.singletonMap;
-import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
 import static org.eclipse.che.api.vfs.VirtualFileFilters.dotGitFilter;
 import static org.eclipse.che.commons.lang.IoUtil.deleteRecursive;
 
@@ -81,45 +95,26 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
 
     private static final long WAIT_FOR_FILE_LOCK_TIMEOUT = 60000; // 60 seconds
     private static final int  FILE_LOCK_MAX_THREADS      = 1024;
-
-    private static final String   VFS_SERVICE_DIR        = ".vfs";
-    private static final String   FILE_LOCKS_DIR         = VFS_SERVICE_DIR + File.separatorChar + "locks";
-    private static final String   LOCK_FILE_SUFFIX       = "_lock";
+    private static final int  MD5_SUMS_COUNTER_THREADS   = Runtime.getRuntime().availableProcessors();
+    private static final int  MD5_SUM_BUFFER_SIZE        = 64 * 1024;
+    /* Some file systems keep modification time of file with granularity of 2 seconds. */
+    private static final long MD5_SUM_MTIME_GRANULARITY  = 2000;
+
+    static final         String   VFS_SERVICE_DIR        = ".vfs";
+    private static final Path     TEMP_FOLDERS_PATH      = Path.ROOT.newPath(VFS_SERVICE_DIR).newPath("tmp");
+    private static final String   METADATA_STORE_FILE    = VFS_SERVICE_DIR + File.separatorChar + "metadata";
+    private static final String   LOCK_KEY_PREFIX        = "lock:";
+    private static final String   PROPERTIES_KEY_PREFIX  = "props:";
+    private static final String   MD5_SUM_KEY_PREFIX     = "md5:";
     private static final FileLock NO_LOCK                = new FileLock("no_lock", 0);
-    private static final String   FILE_PROPERTIES_DIR    = VFS_SERVICE_DIR + File.separatorChar + "props";
+    /* Locks and properties were stored in separate files in these directories before they were moved to metadata store. */
+    private static final String   LEGACY_LOCKS_DIR       = "locks";
+    private static final String   LOCK_FILE_SUFFIX       = "_lock";
+    private static final String   LEGACY_PROPERTIES_DIR  = "props";
     private static final String   PROPERTIES_FILE_SUFFIX = "_props";
 
     private static final FilenameFilter DOT_VFS_DIR_FILTER = (dir, name) -> !(VFS_SERVICE_DIR.equals(name));
 
-    private static final FilenameFilter VFS_LOCK_FILTER =
-            (dir, name) -> !(dir.getAbsolutePath().endsWith(FILE_LOCKS_DIR) || name.endsWith(LOCK_FILE_SUFFIX));
-
-    private class LockTokenCacheLoader extends CacheLoader<Path, FileLock> {
-        @Override
-        public FileLock load(Path path) throws Exception {
-            final File lockIoFile = getFileLockIoFile(path);
-            if (lockIoFile.exists()) {
-                try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(lockIoFile)))) {
-                    return locksSerializer.read(dis);
-                }
-            }
-            return NO_LOCK;
-        }
-    }
-
-    private class FilePropertiesCacheLoader extends CacheLoader<Path, Map<String, String>> {
-        @Override
-        public Map<String, String> load(Path path) throws Exception {
-            final File metadataIoFile = getMetadataIoFile(path);
-            if (metadataIoFile.exists()) {
-                try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(metadataIoFile)))) {
-                    return ImmutableMap.copyOf(metadataSerializer.read(dis));
-                }
-            }
-            return emptyMap();
-        }
-    }
-
     private final File                                            ioRoot;
     private final ArchiverFactory                                 archiverFactory;
     private final SearcherProvider                                searcherProvider;
@@ -130,38 +125,54 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
 
     private final LocalVirtualFile root;
 
-    private final FileLockSerializer           locksSerializer;
-    private final LoadingCache<Path, FileLock> lockTokensCache;
+    private final FileLockSerializer     locksSerializer;
+    private final FileMetadataSerializer metadataSerializer;
+
+    /* Opened on first access to locks or properties. */
+    private volatile MappedKeyValueStore metadataStore;
+
+    /* Archives are being extracted to these folders. Files created in them are indexed in one batch once extraction is done. */
+    private final Multiset<Path> extractionFolders = ConcurrentHashMultiset.create();
 
-    private final FileMetadataSerializer                  metadataSerializer;
-    private final LoadingCache<Path, Map<String, String>> metadataCache;
+    /* Optional, null if listings of directories are not cached. */
+    private final DirectoryListingCache directoryListingCache;
+
+    /* Optional, null if md5sums of files are counted by the calling thread. */
+    private final ExecutorService executor;
 
-    @SuppressWarnings("unchecked")
     public LocalVirtualFileSystem(File ioRoot,
                                   ArchiverFactory archiverFactory,
                                   SearcherProvider searcherProvider,
                                   AbstractVirtualFileSystemProvider.CloseCallback closeCallback) {
+        this(ioRoot, archiverFactory, searcherProvider, closeCallback, null);
+    }
+
+    public LocalVirtualFileSystem(File ioRoot,
+                                  ArchiverFactory archiverFactory,
+                                  SearcherProvider searcherProvider,
+                                  AbstractVirtualFileSystemProvider.CloseCallback closeCallback,
+                                  DirectoryListingCache directoryListingCache) {
+        this(ioRoot, archiverFactory, searcherProvider, closeCallback, directoryListingCache, null);
+    }
+
+    public LocalVirtualFileSystem(File ioRoot,
+                                  ArchiverFactory archiverFactory,
+                                  SearcherProvider searcherProvider,
+                                  AbstractVirtualFileSystemProvider.CloseCallback closeCallback,
+                                  DirectoryListingCache directoryListingCache,
+                                  ExecutorService executor) {
         this.ioRoot = ioRoot;
         this.archiverFactory = archiverFactory;
         this.searcherProvider = searcherProvider;
         this.closeCallback = closeCallback;
+        this.directoryListingCache = directoryListingCache;
+        this.executor = executor;
 
         root = new LocalVirtualFile(ioRoot, Path.ROOT, this);
         pathLockFactory = new PathLockFactory(FILE_LOCK_MAX_THREADS);
 
         locksSerializer = new FileLockSerializer();
-        lockTokensCache = CacheBuilder.newBuilder()
-                                      .concurrencyLevel(8)
-                                      .maximumSize(256)
-                                      .expireAfterAccess(10, MINUTES)
-                                      .build(new LockTokenCacheLoader());
-
         metadataSerializer = new FileMetadataSerializer();
-        metadataCache = CacheBuilder.newBuilder()
-                                    .concurrencyLevel(8)
-                                    .maximumSize(256)
-                                    .expireAfterAccess(10, MINUTES)
-                                    .build(new FilePropertiesCacheLoader());
     }
 
     @Override
@@ -174,9 +185,49 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         return searcherProvider;
     }
 
+    /**
+     * Acquires lock of item with specified path, the same lock that is taken by methods of {@link LocalVirtualFile}. While shared lock
+     * is held item and its descendants may be read but not changed by other threads, exclusive lock prevents reading of them too. Caller
+     * must release lock in the same thread.
+     *
+     * @throws RuntimeException
+     *         if lock is not acquired in 60 seconds
+     */
+    public PathLockFactory.PathLock lock(Path path, boolean exclusive) {
+        return pathLockFactory.getLock(path, exclusive).acquire(WAIT_FOR_FILE_LOCK_TIMEOUT);
+    }
+
+    /**
+     * Creates new empty folder in service directory of file system. Folder is on the same file system as files of workspace but it is
+     * hidden from listings, searcher and watcher of files. Caller must delete folder once it is not needed any more.
+     */
+    public LocalVirtualFile createTemporaryFolder(String prefix) throws ServerException {
+        final Path path = TEMP_FOLDERS_PATH.newPath(prefix + '-' + NameGenerator.generate(null, 8));
+        final File ioFolder = new File(ioRoot, toIoPath(path));
+        if (!ioFolder.mkdirs()) {
+            throw new ServerException(String.format("Unable create temporary folder '%s'", path));
+        }
+        return new LocalVirtualFile(ioFolder, path, this);
+    }
+
+    /** Gets cache of directory listings or {@code null} if listings are not cached. */
+    public DirectoryListingCache getDirectoryListingCache() {
+        return directoryListingCache;
+    }
+
+    /**
+     * Drops cached listings that may be affected by change of item with specified path. Should be called when item is changed not through
+     * this virtual file system, e.g. by file watcher.
+     */
+    public void invalidateDirectoryListings(Path path) {
+        if (directoryListingCache != null) {
+            directoryListingCache.invalidate(path);
+        }
+    }
+
     @Override
     public void close() throws ServerException {
-        cleanUpCaches();
+        closeMetadataStore();
         if (searcherProvider != null) {
             Searcher searcher = searcherProvider.getSearcher(this, false);
             if (searcher != null) {
@@ -205,16 +256,110 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         return Objects.hashCode(ioRoot);
     }
 
-    private void cleanUpCaches() {
-        lockTokensCache.invalidateAll();
-        metadataCache.invalidateAll();
-    }
-
     /** Used in tests. Need this to check state of PathLockFactory. All locks MUST be released at the end of request lifecycle. */
     PathLockFactory getPathLockFactory() {
         return pathLockFactory;
     }
 
+    /**
+     * Gets store of locks and properties of files of this file system. Store is created with the first access to locks or properties, at
+     * this moment locks and properties that are kept in files under {@code .vfs} directories, in format of previous versions, are moved to
+     * the store.
+     */
+    MappedKeyValueStore getMetadataStore() throws ServerException {
+        MappedKeyValueStore store = metadataStore;
+        if (store == null) {
+            synchronized (this) {
+                store = metadataStore;
+                if (store == null) {
+                    final File storeIoFile = new File(ioRoot, METADATA_STORE_FILE);
+                    final boolean importLegacyMetadata = !storeIoFile.exists();
+                    try {
+                        storeIoFile.getParentFile().mkdirs();
+                        store = new MappedKeyValueStore(storeIoFile);
+                        if (importLegacyMetadata) {
+                            importLegacyMetadata(store);
+                        }
+                    } catch (IOException e) {
+                        String errorMessage = String.format("Unable open metadata store %s", storeIoFile);
+                        LOG.error(errorMessage + "\n" + e.getMessage(), e);
+                        throw new ServerException(errorMessage);
+                    }
+                    metadataStore = store;
+                }
+            }
+        }
+        return store;
+    }
+
+    private void importLegacyMetadata(MappedKeyValueStore store) throws IOException {
+        final java.nio.file.Path ioRootPath = ioRoot.toPath();
+        walkFileTree(ioRootPath, new SimpleFileVisitor<java.nio.file.Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(java.nio.file.Path dir, BasicFileAttributes attrs) throws IOException {
+                if (!VFS_SERVICE_DIR.equals(dir.getFileName() == null ? null : dir.getFileName().toString())) {
+                    return FileVisitResult.CONTINUE;
+                }
+                final String parentIoPath = ioRootPath.relativize(dir.getParent()).toString();
+                final Path parent = Path.ROOT.newPath(parentIoPath.replace(File.separatorChar, '/'));
+                importLegacyMetadataFiles(store, dir.resolve(LEGACY_LOCKS_DIR).toFile(), parent, LOCK_FILE_SUFFIX, LOCK_KEY_PREFIX);
+                importLegacyMetadataFiles(store, dir.resolve(LEGACY_PROPERTIES_DIR).toFile(), parent, PROPERTIES_FILE_SUFFIX,
+                                          PROPERTIES_KEY_PREFIX);
+                return FileVisitResult.SKIP_SUBTREE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(java.nio.file.Path file, IOException e) {
+                LOG.warn("Unable read {}, {}", file, e.getMessage());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void importLegacyMetadataFiles(MappedKeyValueStore store, File dir, Path parent, String fileSuffix, String keyPrefix)
+            throws IOException {
+        final File[] files = dir.listFiles((ignored, name) -> name.endsWith(fileSuffix));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            final String name = file.getName().substring(0, file.getName().length() - fileSuffix.length());
+            store.put(keyPrefix + (name.isEmpty() ? parent : parent.newPath(name)), Files.toByteArray(file));
+            if (!file.delete()) {
+                LOG.warn("Unable delete file {}", file);
+            }
+        }
+    }
+
+    private void closeMetadataStore() {
+        final MappedKeyValueStore store = metadataStore;
+        if (store != null) {
+            metadataStore = null;
+            try {
+                store.close();
+            } catch (IOException e) {
+                LOG.error(e.getMessage(), e);
+            }
+        }
+    }
+
+    static String lockKey(Path path) {
+        return LOCK_KEY_PREFIX + path;
+    }
+
+    static String propertiesKey(Path path) {
+        return PROPERTIES_KEY_PREFIX + path;
+    }
+
+    static String md5SumKey(Path path) {
+        return MD5_SUM_KEY_PREFIX + path;
+    }
+
+    /** Gets prefix of keys of all descendants of item which key is specified. */
+    private static String descendantsKeyPrefix(String key) {
+        return key.endsWith("/") ? key : key + '/';
+    }
+
 
     LocalVirtualFile getParent(LocalVirtualFile virtualFile) {
         if (virtualFile.isRoot()) {
@@ -240,11 +385,14 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     }
 
     private boolean isVfsServicePath(Path path) {
-        return newArrayList(path.elements()).contains(".vfs");
+        return newArrayList(path.elements()).contains(VFS_SERVICE_DIR);
     }
 
     List<VirtualFile> getChildren(LocalVirtualFile parent, VirtualFileFilter filter) throws ServerException {
         if (parent.isFolder()) {
+            if (directoryListingCache != null && directoryListingCache.isEnabled()) {
+                return doGetCachedChildren(parent, filter);
+            }
             final List<VirtualFile> children = doGetChildren(parent, DOT_VFS_DIR_FILTER, filter);
             Collections.sort(children);
             return children;
@@ -280,6 +428,54 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         return children;
     }
 
+    /**
+     * Gets sorted children of folder with listing of folder from cache. Types of children that are kept in listing are used only to filter
+     * and sort children, returned items check their types on disk.
+     */
+    private List<VirtualFile> doGetCachedChildren(LocalVirtualFile parent, VirtualFileFilter vfsFilter) throws ServerException {
+        final File ioDir = parent.toIoFile();
+        final long lastModified = ioDir.lastModified();
+        DirectoryListingCache.Listing listing = directoryListingCache.get(parent.getPath(), lastModified);
+        if (listing == null) {
+            try (DirectoryListingCache.Reading reading = directoryListingCache.startReading(parent.getPath())) {
+                final String[] names = ioDir.list(DOT_VFS_DIR_FILTER);
+                if (names == null) {
+                    throw new ServerException(String.format("Unable get children of '%s'", parent.getPath()));
+                }
+                final boolean[] folders = new boolean[names.length];
+                final boolean[] files = new boolean[names.length];
+                for (int i = 0; i < names.length; i++) {
+                    final File ioFile = new File(ioDir, names[i]);
+                    folders[i] = ioFile.isDirectory();
+                    files[i] = !folders[i] && ioFile.isFile();
+                }
+                listing = new DirectoryListingCache.Listing(lastModified, names, folders, files);
+                reading.put(listing);
+            }
+        }
+
+        if (vfsFilter == null) {
+            vfsFilter = VirtualFileFilter.ACCEPT_ALL;
+        }
+
+        final List<ListedLocalVirtualFile> listed = newArrayListWithCapacity(listing.names.length);
+        for (int i = 0; i < listing.names.length; i++) {
+            final Path childPath = parent.getPath().newPath(listing.names[i]);
+            final ListedLocalVirtualFile child =
+                    new ListedLocalVirtualFile(new File(ioDir, listing.names[i]), childPath, this, listing.folders[i], listing.files[i]);
+            if (vfsFilter.accept(child)) {
+                listed.add(child);
+            }
+        }
+        Collections.sort(listed);
+
+        final List<VirtualFile> children = newArrayListWithCapacity(listed.size());
+        for (ListedLocalVirtualFile child : listed) {
+            children.add(new LocalVirtualFile(child.toIoFile(), child.getPath(), this));
+        }
+        return children;
+    }
+
 
     LocalVirtualFile createFile(LocalVirtualFile parent, String name, InputStream content)
             throws ForbiddenException, ConflictException, ServerException {
@@ -303,6 +499,8 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
                 throw new ServerException(errorMessage);
             }
 
+            invalidateDirectoryListings(newPath);
+
             final LocalVirtualFile newVirtualFile = new LocalVirtualFile(newIoFile, newPath, this);
 
             if (content != null) {
@@ -330,6 +528,10 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
                     throw new ConflictException(String.format("Item '%s' already exists", newPath));
                 }
             }
+            // name may contain few segments, all created folders are new items of listings
+            for (Path created = newPath; !created.equals(parent.getPath()); created = created.getParent()) {
+                invalidateDirectoryListings(created);
+            }
 
             return new LocalVirtualFile(newIoFile, newPath, this);
         } else {
@@ -375,17 +577,27 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
             // will see error and may try to copy again. But if we successfully copy tree (or single file) and then fail to copy
             // metadata client may not try to copy again because copy destination already exists.
 
-            final File fromMetadataFile = getMetadataIoFile(from.getPath());
-            final File toMetadataFile = getMetadataIoFile(to.getPath());
-            if (fromMetadataFile.exists()) {
-                IoUtil.copy(fromMetadataFile, toMetadataFile, null);
+            final MappedKeyValueStore store = getMetadataStore();
+            final String fromKey = propertiesKey(from.getPath());
+            final String toKey = propertiesKey(to.getPath());
+            final byte[] properties = store.get(fromKey);
+            if (properties != null) {
+                store.put(toKey, properties);
+            }
+            if (from.isFolder()) {
+                final String descendantsKeyPrefix = descendantsKeyPrefix(fromKey);
+                for (Map.Entry<String, byte[]> entry : store.getByPrefix(descendantsKeyPrefix).entrySet()) {
+                    store.put(descendantsKeyPrefix(toKey) + entry.getKey().substring(descendantsKeyPrefix.length()), entry.getValue());
+                }
             }
 
-            IoUtil.copy(from.toIoFile(), to.toIoFile(), VFS_LOCK_FILTER);
+            IoUtil.copy(from.toIoFile(), to.toIoFile(), DOT_VFS_DIR_FILTER);
         } catch (IOException e) {
             String errorMessage = String.format("Unable copy '%s' to '%s'", from, to);
             LOG.error(errorMessage + "\n" + e.getMessage(), e);
             throw new ServerException(errorMessage);
+        } finally {
+            invalidateDirectoryListings(to.getPath());
         }
     }
 
@@ -403,7 +615,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
                 throw new ForbiddenException(String.format("Unable rename file '%s'. File is locked", virtualFile.getPath()));
             }
         } else {
-            final List<VirtualFile> lockedFiles = new LockedFileFinder(virtualFile).findLockedFiles();
+            final List<VirtualFile> lockedFiles = findLockedFiles(virtualFile);
             if (!lockedFiles.isEmpty()) {
                 throw new ForbiddenException(
                         String.format("Unable rename folder '%s'. Child items '%s' are locked", virtualFile.getPath(), lockedFiles));
@@ -457,7 +669,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
                 throw new ForbiddenException(String.format("Unable move file '%s'. File is locked", sourcePath));
             }
         } else {
-            final List<VirtualFile> lockedFiles = new LockedFileFinder(virtualFile).findLockedFiles();
+            final List<VirtualFile> lockedFiles = findLockedFiles(virtualFile);
             if (!lockedFiles.isEmpty()) {
                 throw new ForbiddenException(
                         String.format("Unable move folder '%s'. Child items '%s' are locked", virtualFile, lockedFiles));
@@ -562,7 +774,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
 
     private void doDelete(LocalVirtualFile virtualFile, String lockToken) throws ForbiddenException, ServerException {
         if (virtualFile.isFolder()) {
-            final List<VirtualFile> lockedFiles = new LockedFileFinder(virtualFile).findLockedFiles();
+            final List<VirtualFile> lockedFiles = findLockedFiles(virtualFile);
             if (!lockedFiles.isEmpty()) {
                 throw new ForbiddenException(
                         String.format("Unable delete folder '%s'. Child items '%s' are locked", virtualFile.getPath(), lockedFiles));
@@ -571,25 +783,21 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
             throw new ForbiddenException(String.format("Unable delete file '%s'. File is locked", virtualFile.getPath()));
         }
 
-        cleanUpCaches();
-
-        final File fileLockIoFile = getFileLockIoFile(virtualFile.getPath());
-        if (fileLockIoFile.delete()) {
-            if (fileLockIoFile.exists()) {
-                LOG.error("Unable delete lock file {}", fileLockIoFile);
-                throw new ServerException(String.format("Unable delete item '%s'", virtualFile.getPath()));
-            }
-        }
-
-        final File metadataIoFile = getMetadataIoFile(virtualFile.getPath());
-        if (metadataIoFile.delete()) {
-            if (metadataIoFile.exists()) {
-                LOG.error("Unable delete metadata file {}", metadataIoFile);
-                throw new ServerException(String.format("Unable delete item '%s'", virtualFile.getPath()));
+        final MappedKeyValueStore store = getMetadataStore();
+        try {
+            for (String key : new String[]{lockKey(virtualFile.getPath()), propertiesKey(virtualFile.getPath()),
+                                           md5SumKey(virtualFile.getPath())}) {
+                store.remove(key);
+                store.removeByPrefix(descendantsKeyPrefix(key));
             }
+        } catch (IOException e) {
+            LOG.error("Unable delete locks and properties of {}, {}", virtualFile.getPath(), e.getMessage(), e);
+            throw new ServerException(String.format("Unable delete item '%s'", virtualFile.getPath()));
         }
 
-        if (!deleteRecursive(virtualFile.toIoFile())) {
+        final boolean deleted = deleteRecursive(virtualFile.toIoFile());
+        invalidateDirectoryListings(virtualFile.getPath());
+        if (!deleted) {
             LOG.error("Unable delete file {}", virtualFile.toIoFile());
             throw new ServerException(String.format("Unable delete item '%s'", virtualFile.getPath()));
         }
@@ -608,14 +816,29 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     }
 
 
+    void zip(LocalVirtualFile folder, OutputStream output) throws ForbiddenException, ServerException {
+        if(archiverFactory == null)
+            throw new ServerException("VFS: Could not create zip archiver. Archiver Factory is not properly configured (is null)");
+
+        if (folder.isFolder()) {
+            try {
+                archiverFactory.createArchiver(folder, "zip").compress(output, dotGitFilter());
+            } catch (IOException e) {
+                throw new ServerException(e.getMessage(), e);
+            }
+        } else {
+            throw new ForbiddenException(String.format("Unable export to zip. Item '%s' is not a folder", folder.getPath()));
+        }
+    }
+
+
     void unzip(LocalVirtualFile parent, InputStream zipped, boolean overwrite, int stripNumber)
             throws ForbiddenException, ConflictException, ServerException {
         if(archiverFactory == null)
             throw new ServerException("VFS: Could not create zip archiver. Archiver Factory is not properly configured (is null)");
 
         if (parent.isFolder()) {
-            extract(archiverFactory.createArchiver(parent, "zip"), zipped, overwrite, stripNumber);
-            addInSearcher(parent);
+            extract(archiverFactory.createArchiver(parent, "zip"), parent, zipped, overwrite, stripNumber);
         } else {
             throw new ForbiddenException(String.format("Unable import zip content. Item '%s' is not a folder", parent.getPath()));
         }
@@ -639,8 +862,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
             throw new ServerException("VFS: Could not create tar archiver. Archiver Factory is not properly configured (is null)");
 
         if (parent.isFolder()) {
-            extract(archiverFactory.createArchiver(parent, "tar"), tarArchive, overwrite, stripNumber);
-            addInSearcher(parent);
+            extract(archiverFactory.createArchiver(parent, "tar"), parent, tarArchive, overwrite, stripNumber);
         } else {
             throw new ForbiddenException(String.format("Unable import tar archive. Item '%s' is not a folder", parent.getPath()));
         }
@@ -662,12 +884,17 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         }
     }
 
-    private void extract(Archiver archiver, InputStream compressed, boolean overwrite, int stripNumber)
+    private void extract(Archiver archiver, LocalVirtualFile parent, InputStream compressed, boolean overwrite, int stripNumber)
             throws ConflictException, ServerException, ForbiddenException {
+        extractionFolders.add(parent.getPath());
         try {
             archiver.extract(compressed, overwrite, stripNumber);
         } catch (IOException e) {
             throw new ServerException(e.getMessage(), e);
+        } finally {
+            extractionFolders.remove(parent.getPath());
+            invalidateDirectoryListings(parent.getPath());
+            addInSearcher(parent);
         }
     }
 
@@ -685,25 +912,20 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     }
 
     private String doLock(LocalVirtualFile virtualFile, long timeout) throws ConflictException, ServerException {
+        if (NO_LOCK != readFileLock(virtualFile.getPath())) {
+            throw new ConflictException(String.format("Unable lock file '%s'. File already locked", virtualFile.getPath()));
+        }
         try {
-            if (NO_LOCK == lockTokensCache.get(virtualFile.getPath())) {
-                final FileLock lock = createLock(timeout);
-                final File fileLockIoFile = getFileLockIoFile(virtualFile.getPath());
-                fileLockIoFile.getParentFile().mkdirs();
-                try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileLockIoFile)))) {
-                    locksSerializer.write(dos, lock);
-                }
-                lockTokensCache.put(virtualFile.getPath(), lock);
-                return lock.getLockToken();
+            final FileLock lock = createLock(timeout);
+            final ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+            try (DataOutputStream dos = new DataOutputStream(serialized)) {
+                locksSerializer.write(dos, lock);
             }
-            throw new ConflictException(String.format("Unable lock file '%s'. File already locked", virtualFile.getPath()));
-        } catch (IOException | ExecutionException e) {
+            getMetadataStore().put(lockKey(virtualFile.getPath()), serialized.toByteArray());
+            return lock.getLockToken();
+        } catch (IOException e) {
             String errorMessage = String.format("Unable lock file '%s'", virtualFile.getPath());
-            if (e instanceof ExecutionException) {
-                LOG.error(errorMessage + "\n" + e.getCause().getMessage(), e.getCause());
-            } else {
-                LOG.error(errorMessage + "\n" + e.getMessage(), e);
-            }
+            LOG.error(errorMessage + "\n" + e.getMessage(), e);
             throw new ServerException(errorMessage);
         }
     }
@@ -743,13 +965,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
 
     private void doUnlock(LocalVirtualFile virtualFile) throws ForbiddenException, ServerException {
         try {
-            final File fileLockIoFile = getFileLockIoFile(virtualFile.getPath());
-            if (!fileLockIoFile.delete()) {
-                if (fileLockIoFile.exists()) {
-                    throw new IOException(String.format("Unable delete lock file %s", fileLockIoFile));
-                }
-            }
-            lockTokensCache.put(virtualFile.getPath(), NO_LOCK);
+            getMetadataStore().remove(lockKey(virtualFile.getPath()));
         } catch (IOException e) {
             String errorMessage = String.format("Unable unlock file '%s'", virtualFile.getPath());
             LOG.error(errorMessage + "\n" + e.getMessage(), e);
@@ -773,26 +989,16 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         final PathLockFactory.PathLock lockFilePathLock =
                 pathLockFactory.getLock(virtualFile.getPath(), true).acquire(WAIT_FOR_FILE_LOCK_TIMEOUT);
         try {
-            final FileLock lock;
-            try {
-                lock = lockTokensCache.get(virtualFile.getPath());
-            } catch (ExecutionException e) {
-                String errorMessage = String.format("Unable get lock of file '%s'", virtualFile.getPath());
-                LOG.error(errorMessage + "\n" + e.getCause().getMessage(), e.getCause());
-                throw new ServerException(errorMessage);
-            }
+            final FileLock lock = readFileLock(virtualFile.getPath());
             if (NO_LOCK == lock) {
                 return lock;
             }
             if (lock.getExpired() < System.currentTimeMillis()) {
-                final File fileLockIoFile = getFileLockIoFile(virtualFile.getPath());
-                if (!fileLockIoFile.delete()) {
-                    if (fileLockIoFile.exists()) {
-                        FileCleaner.addFile(fileLockIoFile);
-                        LOG.warn("Unable delete lock file %s", fileLockIoFile);
-                    }
+                try {
+                    getMetadataStore().remove(lockKey(virtualFile.getPath()));
+                } catch (IOException e) {
+                    LOG.warn("Unable remove expired lock of file {}, {}", virtualFile.getPath(), e.getMessage());
                 }
-                lockTokensCache.put(virtualFile.getPath(), NO_LOCK);
                 return NO_LOCK;
             }
             return lock;
@@ -801,15 +1007,32 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         }
     }
 
-    private File getFileLockIoFile(Path virtualFilePath) {
-        final String fileLockFileName = virtualFilePath.getName() + LOCK_FILE_SUFFIX;
-        final Path metadataFilePath;
-        if (virtualFilePath.isRoot()) {
-            metadataFilePath = virtualFilePath.newPath(FILE_LOCKS_DIR, fileLockFileName);
-        } else {
-            metadataFilePath = virtualFilePath.getParent().newPath(FILE_LOCKS_DIR, fileLockFileName);
+    private FileLock readFileLock(Path path) throws ServerException {
+        final byte[] serialized = getMetadataStore().get(lockKey(path));
+        if (serialized == null) {
+            return NO_LOCK;
+        }
+        try {
+            return locksSerializer.read(new DataInputStream(new ByteArrayInputStream(serialized)));
+        } catch (IOException e) {
+            String errorMessage = String.format("Unable get lock of file '%s'", path);
+            LOG.error(errorMessage + "\n" + e.getMessage(), e);
+            throw new ServerException(errorMessage);
+        }
+    }
+
+    /** Finds locked files in specified folder and all its sub folders with lookup of locks which keys start with path of folder. */
+    private List<VirtualFile> findLockedFiles(LocalVirtualFile folder) throws ServerException {
+        final List<VirtualFile> lockedFiles = newArrayList();
+        final String lockKeyPrefix = descendantsKeyPrefix(lockKey(folder.getPath()));
+        for (String key : getMetadataStore().getByPrefix(lockKeyPrefix).keySet()) {
+            final Path path = Path.of(key.substring(LOCK_KEY_PREFIX.length()));
+            final LocalVirtualFile file = new LocalVirtualFile(new File(ioRoot, toIoPath(path)), path, this);
+            if (file.isFile() && isLocked(file)) {
+                lockedFiles.add(file);
+            }
         }
-        return new File(ioRoot, toIoPath(metadataFilePath));
+        return lockedFiles;
     }
 
 
@@ -817,10 +1040,14 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         final PathLockFactory.PathLock metadataFilePathLock =
                 pathLockFactory.getLock(virtualFile.getPath(), false).acquire(WAIT_FOR_FILE_LOCK_TIMEOUT);
         try {
-            return newLinkedHashMap(metadataCache.get(virtualFile.getPath()));
-        } catch (ExecutionException e) {
+            final byte[] serialized = getMetadataStore().get(propertiesKey(virtualFile.getPath()));
+            if (serialized == null) {
+                return newLinkedHashMap();
+            }
+            return newLinkedHashMap(metadataSerializer.read(new DataInputStream(new ByteArrayInputStream(serialized))));
+        } catch (IOException e) {
             String errorMessage = String.format("Unable read properties of file '%s'", virtualFile.getPath());
-            LOG.error(errorMessage + "\n" + e.getCause().getMessage(), e.getCause());
+            LOG.error(errorMessage + "\n" + e.getMessage(), e);
             throw new ServerException(errorMessage);
         } finally {
             metadataFilePathLock.release();
@@ -858,23 +1085,17 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
                 }
             }
 
-            final File metadataIoFile = getMetadataIoFile(virtualFile.getPath());
+            final MappedKeyValueStore store = getMetadataStore();
             if (properties.isEmpty()) {
-                if (!metadataIoFile.delete()) {
-                    if (metadataIoFile.exists()) {
-                        LOG.error("Unable delete metadata file {}", metadataIoFile);
-                        throw new IOException(String.format("Unable update properties of item '%s'", virtualFile.getPath()));
-                    }
-                }
+                store.remove(propertiesKey(virtualFile.getPath()));
             } else {
-                metadataIoFile.getParentFile().mkdirs();
-                try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(metadataIoFile)))) {
+                final ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+                try (DataOutputStream dos = new DataOutputStream(serialized)) {
                     metadataSerializer.write(dos, properties);
                 }
+                store.put(propertiesKey(virtualFile.getPath()), serialized.toByteArray());
             }
 
-            metadataCache.put(virtualFile.getPath(), properties);
-
             if (!virtualFile.toIoFile().setLastModified(System.currentTimeMillis())) {
                 LOG.warn("Unable to set timestamp to '{}'", virtualFile.toIoFile());
             }
@@ -892,23 +1113,192 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     }
 
 
-    private File getMetadataIoFile(Path virtualFilePath) {
-        final String metadataFileName = virtualFilePath.getName() + PROPERTIES_FILE_SUFFIX;
-        final Path metadataFilePath;
-        if (virtualFilePath.isRoot()) {
-            metadataFilePath = virtualFilePath.newPath(FILE_PROPERTIES_DIR, metadataFileName);
-        } else {
-            metadataFilePath = virtualFilePath.getParent().newPath(FILE_PROPERTIES_DIR, metadataFileName);
+    List<Pair<String, String>> countMd5Sums(LocalVirtualFile virtualFile) throws ServerException {
+        if (virtualFile.isFile()) {
+            return emptyList();
         }
-        return new File(ioRoot, toIoPath(metadataFilePath));
+        return new CachingMd5SumsCounter(virtualFile).countHashSums();
     }
 
 
-    List<Pair<String, String>> countMd5Sums(LocalVirtualFile virtualFile) throws ServerException {
-        if (virtualFile.isFile()) {
-            return emptyList();
+    HashTree countMd5Tree(LocalVirtualFile virtualFile) throws ServerException {
+        return new CachingMd5SumsCounter(virtualFile).countHashTree();
+    }
+
+
+    VirtualFileTree getTree(LocalVirtualFile virtualFile, int depth) throws ServerException {
+        final java.nio.file.Path ioPath = virtualFile.toIoFile().toPath();
+        // Folders that are being walked, the last one is parent of currently visited item
+        final Deque<TreeFrame> folders = new ArrayDeque<>();
+        final TreeFrame result = new TreeFrame(null, null);
+        folders.push(result);
+        try {
+            walkFileTree(ioPath, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Math.max(depth, 0), new SimpleFileVisitor<java.nio.file.Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(java.nio.file.Path dir, BasicFileAttributes attrs) {
+                    if (!dir.equals(ioPath) && isServiceDir(dir)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    folders.push(new TreeFrame(childPath(dir), attrs));
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(java.nio.file.Path file, BasicFileAttributes attrs) {
+                    if ((attrs.isRegularFile() || attrs.isDirectory()) && (file.equals(ioPath) || !isServiceDir(file))) {
+                        folders.peek().children.add(new TreeFrame(childPath(file), attrs).toTree());
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(java.nio.file.Path file, IOException e) throws IOException {
+                    if (file.equals(ioPath)) {
+                        throw e;
+                    }
+                    LOG.warn("Unable read {}, {}", file, e.getMessage());
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(java.nio.file.Path dir, IOException e) throws IOException {
+                    if (e != null) {
+                        if (dir.equals(ioPath)) {
+                            throw e;
+                        }
+                        LOG.warn("Unable read {}, {}", dir, e.getMessage());
+                    }
+                    final TreeFrame folder = folders.pop();
+                    folders.peek().children.add(folder.toTree());
+                    return FileVisitResult.CONTINUE;
+                }
+
+                private Path childPath(java.nio.file.Path ioChild) {
+                    return ioChild.equals(ioPath) ? virtualFile.getPath() : folders.peek().path.newPath(ioChild.getFileName().toString());
+                }
+
+                private boolean isServiceDir(java.nio.file.Path ioChild) {
+                    return VFS_SERVICE_DIR.equals(ioChild.getFileName().toString());
+                }
+            });
+        } catch (IOException e) {
+            String errorMessage = String.format("Unable get tree of '%s'", virtualFile.getPath());
+            LOG.error(errorMessage + "\n" + e.getMessage(), e);
+            throw new ServerException(errorMessage);
+        }
+        if (result.children.isEmpty()) {
+            throw new ServerException(String.format("Unable get tree of '%s'", virtualFile.getPath()));
+        }
+        return result.children.get(0);
+    }
+
+
+    /** Item of tree that is being built by {@link #getTree(LocalVirtualFile, int)}. */
+    private static final class TreeFrame {
+        final Path                  path;
+        final BasicFileAttributes   attributes;
+        final List<VirtualFileTree> children;
+
+        TreeFrame(Path path, BasicFileAttributes attributes) {
+            this.path = path;
+            this.attributes = attributes;
+            this.children = new ArrayList<>();
+        }
+
+        VirtualFileTree toTree() {
+            children.sort(VirtualFileTree.ORDER);
+            final boolean folder = attributes.isDirectory();
+            return new VirtualFileTree(path, folder, folder ? 0 : attributes.size(), attributes.lastModifiedTime().toMillis(), children);
+        }
+    }
+
+
+    /**
+     * Reads content of files directly from disk and keeps md5sums in metadata store together with size, modification time and key of
+     * file and time when md5sum was counted. Md5sum of file is counted again if any of them is changed or if file was modified within
+     * granularity of modification time before its md5sum was counted, such file may be changed again without change of its modification
+     * time.
+     */
+    private class CachingMd5SumsCounter extends HashSumsCounter {
+        CachingMd5SumsCounter(LocalVirtualFile folder) {
+            super(folder, Hashing.md5(), executor, MD5_SUMS_COUNTER_THREADS);
+        }
+
+        @Override
+        protected HashCode countHashSum(VirtualFile file) throws ServerException {
+            final PathLockFactory.PathLock lock = pathLockFactory.getLock(file.getPath(), false).acquire(WAIT_FOR_FILE_LOCK_TIMEOUT);
+            try {
+                final File ioFile = ((LocalVirtualFile)file).toIoFile();
+                final long countedAt = System.currentTimeMillis();
+                final BasicFileAttributes attributes = java.nio.file.Files.readAttributes(ioFile.toPath(), BasicFileAttributes.class);
+                final byte[] fileState = fileState(attributes);
+                final String key = md5SumKey(file.getPath());
+                final MappedKeyValueStore store = getMetadataStore();
+                final byte[] stored = store.get(key);
+                if (stored != null && stored.length > fileState.length + Longs.BYTES
+                    && Arrays.equals(fileState, Arrays.copyOf(stored, fileState.length))) {
+                    final long storedCountedAt =
+                            Longs.fromByteArray(Arrays.copyOfRange(stored, fileState.length, fileState.length + Longs.BYTES));
+                    if (attributes.lastModifiedTime().toMillis() + MD5_SUM_MTIME_GRANULARITY < storedCountedAt) {
+                        return HashCode.fromBytes(Arrays.copyOfRange(stored, fileState.length + Longs.BYTES, stored.length));
+                    }
+                }
+                final HashCode md5Sum = countMd5Sum(ioFile, attributes.size());
+                store.put(key, Bytes.concat(fileState, Longs.toByteArray(countedAt), md5Sum.asBytes()));
+                return md5Sum;
+            } catch (IOException e) {
+                String errorMessage = String.format("Unable count md5sum of '%s'", file.getPath());
+                LOG.error(errorMessage + "\n" + e.getMessage(), e);
+                throw new ServerException(errorMessage);
+            } finally {
+                lock.release();
+            }
+        }
+
+        private byte[] fileState(BasicFileAttributes attributes) throws IOException {
+            final Object fileKey = attributes.fileKey();
+            final ByteArrayOutputStream state = new ByteArrayOutputStream();
+            final DataOutputStream stateOutput = new DataOutputStream(state);
+            stateOutput.writeLong(attributes.size());
+            stateOutput.writeLong(attributes.lastModifiedTime().to(MICROSECONDS));
+            stateOutput.writeUTF(fileKey == null ? "" : fileKey.toString());
+            return state.toByteArray();
+        }
+
+        private HashCode countMd5Sum(File ioFile, long size) throws IOException {
+            final Hasher hasher = hashFunction.newHasher();
+            try (FileChannel channel = FileChannel.open(ioFile.toPath(), StandardOpenOption.READ)) {
+                final ByteBuffer buffer = ByteBuffer.allocate((int)Math.max(1, Math.min(size, MD5_SUM_BUFFER_SIZE)));
+                while (channel.read(buffer) != -1) {
+                    hasher.putBytes(buffer.array(), 0, buffer.position());
+                    buffer.clear();
+                }
+            }
+            return hasher.hash();
+        }
+    }
+
+
+    /** Item of cached listing of directory, it doesn't check type of file on disk. Used only to filter and sort cached listing. */
+    private static final class ListedLocalVirtualFile extends LocalVirtualFile {
+        private final boolean folder;
+        private final boolean file;
+
+        ListedLocalVirtualFile(File ioFile, Path path, LocalVirtualFileSystem fileSystem, boolean folder, boolean file) {
+            super(ioFile, path, fileSystem);
+            this.folder = folder;
+            this.file = file;
+        }
+
+        @Override
+        public boolean isFile() {
+            return file;
+        }
+
+        @Override
+        public boolean isFolder() {
+            return folder;
         }
-        return new HashSumsCounter(virtualFile, Hashing.md5()).countHashSums();
     }
 
 
@@ -931,7 +1321,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
 
 
     private void addInSearcher(LocalVirtualFile newVirtualFile) {
-        if (searcherProvider != null) {
+        if (searcherProvider != null && !isIndexingDeferred(newVirtualFile.getPath()) && !isVfsServicePath(newVirtualFile.getPath())) {
             try {
                 searcherProvider.getSearcher(this).add(newVirtualFile);
             } catch (ServerException e) {
@@ -941,7 +1331,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     }
 
     private void updateInSearcher(LocalVirtualFile virtualFile) {
-        if (searcherProvider != null) {
+        if (searcherProvider != null && !isIndexingDeferred(virtualFile.getPath()) && !isVfsServicePath(virtualFile.getPath())) {
             try {
                 searcherProvider.getSearcher(this).update(virtualFile);
             } catch (ServerException e) {
@@ -950,8 +1340,17 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         }
     }
 
+    private boolean isIndexingDeferred(Path path) {
+        for (Path extractionFolder : extractionFolders.elementSet()) {
+            if (path.equals(extractionFolder) || path.isChild(extractionFolder)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private void deleteInSearcher(Path path, boolean isFile) {
-        if (searcherProvider != null) {
+        if (searcherProvider != null && !isVfsServicePath(path)) {
             try {
                 searcherProvider.getSearcher(this).delete(path.toString(), isFile);
             } catch (ServerException e) {
@@ -10,23 +10,48 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs.impl.file;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.vfs.AbstractVirtualFileSystemProvider;
 import org.eclipse.che.api.vfs.ArchiverFactory;
 import org.eclipse.che.api.vfs.VirtualFileSystem;
 import org.eclipse.che.api.vfs.search.SearcherProvider;
 
-import javax.inject.Inject;
+import javax.annotation.PreDestroy;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
 
 @Singleton
 public class LocalVirtualFileSystemProvider extends AbstractVirtualFileSystemProvider {
     private final File             rootDirectory;
     private final SearcherProvider searcherProvider;
+    /* Shared by all operations of file system that process files in parallel, e.g. compression of archives or counting md5sums. */
+    private final ExecutorService  executor;
+
+    @Inject(optional = true)
+    @Named("vfs.zip.compression_level")
+    private int zipCompressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+    @Inject(optional = true)
+    @Named("vfs.zip.threads")
+    private int zipThreads = Runtime.getRuntime().availableProcessors();
+
+    @Inject(optional = true)
+    @Named("vfs.archive.extract_threads")
+    private int extractThreads = Runtime.getRuntime().availableProcessors();
+
+    /* Max number of directories which listings are cached, zero disables cache. */
+    @Inject(optional = true)
+    @Named("vfs.local.directory_listing_cache.max_size")
+    private int directoryListingCacheSize = 10000;
 
     @Inject
     public LocalVirtualFileSystemProvider(@Named("che.user.workspaces.storage") File rootDirectory,
@@ -34,10 +59,21 @@ public class LocalVirtualFileSystemProvider extends AbstractVirtualFileSystemPro
         this.rootDirectory = rootDirectory;
         this.searcherProvider = searcherProvider;
         Files.createDirectories(rootDirectory.toPath());
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                                                new ThreadFactoryBuilder().setNameFormat("VirtualFileSystem-WorkerThread-%d")
+                                                                          .setDaemon(true).build());
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
     }
 
     @Override
     protected VirtualFileSystem createVirtualFileSystem(CloseCallback closeCallback) throws ServerException {
-        return new LocalVirtualFileSystem(rootDirectory, new ArchiverFactory(), searcherProvider, closeCallback);
+        final ArchiverFactory archiverFactory = new ArchiverFactory(zipCompressionLevel, executor, zipThreads, extractThreads);
+        final DirectoryListingCache directoryListingCache =
+                directoryListingCacheSize > 0 ? new DirectoryListingCache(directoryListingCacheSize) : null;
+        return new LocalVirtualFileSystem(rootDirectory, archiverFactory, searcherProvider, closeCallback, directoryListingCache, executor);
     }
 }
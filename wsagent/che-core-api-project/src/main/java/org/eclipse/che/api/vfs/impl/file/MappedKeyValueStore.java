@@ -0,0 +1,420 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.move;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Append-only key-value store backed by memory-mapped file. All entries are kept in memory sorted by key, so entries which keys start
+ * with the same prefix may be found without scanning the whole store. Each update is appended to the end of file. Log of updates is
+ * replayed when store is opened and rewritten when size of obsolete records becomes bigger than size of actual ones.
+ * <p/>
+ * Each record in file has following format: length of record after header (int), CRC32 checksum of type and of the rest of record
+ * (int), type of record (byte), length of key in UTF-8 (unsigned short), key and value bytes. Record is committed when its length is
+ * written, so record which is not completely written because of crash of JVM is ignored when store is opened. If OS crashes, pages of
+ * file may be written to storage device in any order, so record may be torn. Replay stops at the first record which checksum does not
+ * match, this record and all records after it are discarded.
+ * <p/>
+ * Appended records are in page cache of OS as soon as method that updates store returns, so they survive crash of JVM. They are forced
+ * to storage device when store is compacted or closed, when {@link #force()} is called and, while store is updated, not later than
+ * in {@link #FORCE_INTERVAL_SECONDS} after previous update was forced. Records appended after the last force may be lost if OS crashes.
+ * Forcing does not block updates of store.
+ * <p/>
+ * Values returned by this store must not be modified.
+ */
+public class MappedKeyValueStore implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(MappedKeyValueStore.class);
+
+    private static final byte PUT    = 1;
+    private static final byte REMOVE = 2;
+
+    private static final int RECORD_HEADER_SIZE   = 9;
+    private static final int MAX_KEY_LENGTH       = 0xFFFF;
+    private static final int MIN_MAPPED_SIZE      = 64 * 1024;
+    private static final int COMPACTION_THRESHOLD = 1024 * 1024;
+
+    /** Max time in seconds between update of store and forcing of it to storage device, unless store is idle. */
+    public static final int FORCE_INTERVAL_SECONDS = 1;
+
+    private final File                                   file;
+    private final ConcurrentNavigableMap<String, byte[]> entries;
+
+    /* Guards mapping of file, buffer may be forced under read lock while store is updated and is replaced under write lock only. */
+    private final ReadWriteLock mappingLock;
+
+    private FileChannel      channel;
+    private MappedByteBuffer buffer;
+    private int              position;
+    private long             liveSize;
+    private long             compactionRetryPosition;
+    private volatile long    lastForced;
+
+    /**
+     * Opens store. File is created if it does not exist yet.
+     *
+     * @throws IOException
+     *         if any i/o error occurs while reading existed records
+     */
+    public MappedKeyValueStore(File file) throws IOException {
+        this.file = file;
+        entries = new ConcurrentSkipListMap<>();
+        mappingLock = new ReentrantReadWriteLock();
+        openChannel();
+        replay();
+    }
+
+    public byte[] get(String key) {
+        return entries.get(key);
+    }
+
+    /** Returns view of all entries which keys start with specified prefix. */
+    public NavigableMap<String, byte[]> getByPrefix(String prefix) {
+        return entries.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    public void put(String key, byte[] value) throws IOException {
+        doPut(key, value);
+        forceIfNeeded();
+    }
+
+    private synchronized void doPut(String key, byte[] value) throws IOException {
+        final byte[] keyBytes = encodeKey(key);
+        append(PUT, keyBytes, value);
+        final byte[] previous = entries.put(key, value);
+        if (previous != null) {
+            liveSize -= recordSize(keyBytes, previous);
+        }
+        liveSize += recordSize(keyBytes, value);
+        compactIfNeeded();
+    }
+
+    /**
+     * Removes entry with specified key.
+     *
+     * @return {@code true} if entry existed and {@code false} otherwise
+     */
+    public boolean remove(String key) throws IOException {
+        final boolean removed = doRemove(key);
+        forceIfNeeded();
+        return removed;
+    }
+
+    private synchronized boolean doRemove(String key) throws IOException {
+        if (!entries.containsKey(key)) {
+            return false;
+        }
+        final byte[] keyBytes = encodeKey(key);
+        append(REMOVE, keyBytes, null);
+        liveSize -= recordSize(keyBytes, entries.remove(key));
+        compactIfNeeded();
+        return true;
+    }
+
+    /**
+     * Removes all entries which keys start with specified prefix.
+     *
+     * @return number of removed entries
+     */
+    public int removeByPrefix(String prefix) throws IOException {
+        int removed = 0;
+        synchronized (this) {
+            for (String key : getByPrefix(prefix).keySet()) {
+                if (doRemove(key)) {
+                    removed++;
+                }
+            }
+        }
+        forceIfNeeded();
+        return removed;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /** Forces all records appended to this store to storage device. Store may be updated while records are forced. */
+    public void force() {
+        final long start = System.nanoTime();
+        mappingLock.readLock().lock();
+        try {
+            if (channel != null) {
+                buffer.force();
+                lastForced = start;
+            }
+        } finally {
+            mappingLock.readLock().unlock();
+        }
+    }
+
+    private void forceIfNeeded() {
+        if (System.nanoTime() - lastForced > SECONDS.toNanos(FORCE_INTERVAL_SECONDS)) {
+            force();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        mappingLock.writeLock().lock();
+        try {
+            if (channel != null) {
+                buffer.force();
+                closeChannel(channel, buffer);
+                channel = null;
+                buffer = null;
+            }
+        } finally {
+            mappingLock.writeLock().unlock();
+        }
+    }
+
+    private void openChannel() throws IOException {
+        final FileChannel opened = new RandomAccessFile(file, "rw").getChannel();
+        try {
+            buffer = opened.map(READ_WRITE, 0, Math.max(MIN_MAPPED_SIZE, opened.size()));
+        } catch (IOException e) {
+            opened.close();
+            throw e;
+        }
+        channel = opened;
+        lastForced = System.nanoTime();
+    }
+
+    private static void closeChannel(FileChannel channel, MappedByteBuffer buffer) throws IOException {
+        try {
+            channel.close();
+        } finally {
+            unmap(buffer);
+        }
+    }
+
+    private void replay() {
+        final int limit = buffer.limit();
+        int offset = 0;
+        while (offset + RECORD_HEADER_SIZE <= limit) {
+            final int length = buffer.getInt(offset);
+            if (length < 2 || length > limit - offset - RECORD_HEADER_SIZE) {
+                break;
+            }
+            final ByteBuffer checked = buffer.duplicate();
+            checked.limit(offset + RECORD_HEADER_SIZE + length).position(offset + 8);
+            final CRC32 checksum = new CRC32();
+            checksum.update(checked);
+            if (buffer.getInt(offset + 4) != (int)checksum.getValue()) {
+                break;
+            }
+            final byte type = buffer.get(offset + 8);
+            final int keyLength = buffer.getShort(offset + RECORD_HEADER_SIZE) & 0xFFFF;
+            if (keyLength > length - 2 || (type != PUT && type != REMOVE)) {
+                break;
+            }
+            final byte[] keyBytes = new byte[keyLength];
+            final byte[] value = new byte[length - 2 - keyLength];
+            final ByteBuffer record = buffer.duplicate();
+            record.position(offset + RECORD_HEADER_SIZE + 2);
+            record.get(keyBytes);
+            record.get(value);
+            final String key = new String(keyBytes, UTF_8);
+            final byte[] previous = type == PUT ? entries.put(key, value) : entries.remove(key);
+            if (previous != null) {
+                liveSize -= recordSize(keyBytes, previous);
+            }
+            if (type == PUT) {
+                liveSize += recordSize(keyBytes, value);
+            }
+            offset += RECORD_HEADER_SIZE + length;
+        }
+        position = offset;
+        // Remove rest of record that was not completely written or is torn and all records after it, otherwise bytes of them may be read
+        // as part of the next records.
+        for (int i = offset; i < limit; i++) {
+            if (buffer.get(i) != 0) {
+                LOG.warn("Discard incomplete or torn record at offset {} in {}", offset, file);
+                for (int j = i; j < limit; j++) {
+                    buffer.put(j, (byte)0);
+                }
+                break;
+            }
+        }
+    }
+
+    private void append(byte type, byte[] keyBytes, byte[] value) throws IOException {
+        final int length = 2 + keyBytes.length + (value == null ? 0 : value.length);
+        ensureCapacity(RECORD_HEADER_SIZE + length);
+        buffer.put(position + 8, type);
+        buffer.putShort(position + RECORD_HEADER_SIZE, (short)keyBytes.length);
+        final ByteBuffer record = buffer.duplicate();
+        record.position(position + RECORD_HEADER_SIZE + 2);
+        record.put(keyBytes);
+        if (value != null) {
+            record.put(value);
+        }
+        final ByteBuffer checked = buffer.duplicate();
+        checked.limit(position + RECORD_HEADER_SIZE + length).position(position + 8);
+        final CRC32 checksum = new CRC32();
+        checksum.update(checked);
+        buffer.putInt(position + 4, (int)checksum.getValue());
+        buffer.putInt(position, length);
+        position += RECORD_HEADER_SIZE + length;
+    }
+
+    private void ensureCapacity(int recordSize) throws IOException {
+        if (channel == null) {
+            throw new IOException(String.format("Store %s is closed", file));
+        }
+        final long required = (long)position + recordSize;
+        if (required > buffer.limit()) {
+            final long newSize = Math.max(required, 2L * buffer.limit());
+            if (newSize > Integer.MAX_VALUE) {
+                throw new IOException(String.format("Store %s is too big", file));
+            }
+            mappingLock.writeLock().lock();
+            try {
+                final MappedByteBuffer replaced = buffer;
+                buffer = channel.map(READ_WRITE, 0, newSize);
+                // Both mappings share pages of the same file, so nothing is lost when the old one is unmapped.
+                unmap(replaced);
+            } finally {
+                mappingLock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Compacts file if size of obsolete records is big enough. Record that caused compaction is already appended, so failure of compaction
+     * is logged and store keeps using file as is until size of obsolete records grows by {@link #COMPACTION_THRESHOLD} again.
+     */
+    private void compactIfNeeded() {
+        final long obsoleteSize = position - liveSize;
+        if (obsoleteSize > COMPACTION_THRESHOLD && obsoleteSize > liveSize && position >= compactionRetryPosition) {
+            try {
+                compact();
+            } catch (IOException e) {
+                LOG.warn("Unable compact store {}. {}", file, e.getMessage());
+                compactionRetryPosition = (long)position + COMPACTION_THRESHOLD;
+            }
+        }
+    }
+
+    /**
+     * Writes actual entries in new file and moves it over the current one. Current file stays mapped until the new one is moved and
+     * opened, so store may be used as before if anything fails.
+     */
+    private void compact() throws IOException {
+        final File compacted = new File(file.getParentFile(), file.getName() + ".compact");
+        if (compacted.exists() && !compacted.delete()) {
+            throw new IOException(String.format("Unable delete file %s", compacted));
+        }
+        try {
+            final MappedKeyValueStore target = new MappedKeyValueStore(compacted);
+            try {
+                for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                    target.append(PUT, encodeKey(entry.getKey()), entry.getValue());
+                }
+            } finally {
+                target.close();
+            }
+            move(compacted.toPath(), file.toPath(), ATOMIC_MOVE, REPLACE_EXISTING);
+        } catch (IOException e) {
+            if (compacted.exists() && !compacted.delete()) {
+                LOG.warn("Unable delete file {}", compacted);
+            }
+            throw e;
+        }
+        mappingLock.writeLock().lock();
+        try {
+            final FileChannel replacedChannel = channel;
+            final MappedByteBuffer replacedBuffer = buffer;
+            try {
+                openChannel();
+            } catch (IOException e) {
+                // File is replaced with compacted one already, updates of replaced file would be lost.
+                channel = null;
+                buffer = null;
+                closeChannel(replacedChannel, replacedBuffer);
+                throw new IOException(String.format("Unable open compacted store %s, store is closed. %s", file, e.getMessage()), e);
+            }
+            position = (int)liveSize;
+            closeChannel(replacedChannel, replacedBuffer);
+        } finally {
+            mappingLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Releases memory mapped by buffer without waiting for garbage collection of it. Buffer must not be used after this method is called.
+     * There is no public API to do this, so if the internal one is not accessible, buffer is left for garbage collector.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        if (buffer == null) {
+            return;
+        }
+        try {
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = null;
+            try {
+                invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            } catch (NoSuchMethodException ignored) {
+                // Java 8, use cleaner of buffer
+            }
+            if (invokeCleaner != null) {
+                final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                invokeCleaner.invoke(theUnsafe.get(null), buffer);
+            } else {
+                final Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                final Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+            }
+        } catch (Exception e) {
+            LOG.debug("Unable unmap buffer, it is released by garbage collector. " + e.getMessage(), e);
+        }
+    }
+
+    private static byte[] encodeKey(String key) {
+        final byte[] keyBytes = key.getBytes(UTF_8);
+        if (keyBytes.length > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(String.format("Key is too long, %d bytes", keyBytes.length));
+        }
+        return keyBytes;
+    }
+
+    private static long recordSize(byte[] keyBytes, byte[] value) {
+        return RECORD_HEADER_SIZE + 2 + keyBytes.length + value.length;
+    }
+}
@@ -18,11 +18,13 @@ import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.vfs.Archiver;
 import org.eclipse.che.api.vfs.HashSumsCounter;
+import org.eclipse.che.api.vfs.HashTree;
 import org.eclipse.che.api.vfs.LockedFileFinder;
 import org.eclipse.che.api.vfs.Path;
 import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.api.vfs.VirtualFileFilter;
 import org.eclipse.che.api.vfs.VirtualFileSystem;
+import org.eclipse.che.api.vfs.VirtualFileTree;
 import org.eclipse.che.api.vfs.VirtualFileVisitor;
 import org.eclipse.che.api.vfs.search.SearcherProvider;
 import org.eclipse.che.commons.lang.NameGenerator;
@@ -34,6 +36,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
@@ -228,6 +231,24 @@ public class MemoryVirtualFile implements VirtualFile {
         return new HashSumsCounter(this, Hashing.md5()).countHashSums();
     }
 
+    @Override
+    public HashTree countMd5Tree() throws ServerException {
+        checkExistence();
+        return new HashSumsCounter(this, Hashing.md5()).countHashTree();
+    }
+
+    @Override
+    public VirtualFileTree getTree(int depth) {
+        checkExistence();
+        final List<VirtualFileTree> children = newArrayList();
+        if (isFolder() && depth > 0) {
+            for (VirtualFile child : getChildren()) {
+                children.add(((MemoryVirtualFile)child).getTree(depth - 1));
+            }
+        }
+        return new VirtualFileTree(getPath(), isFolder(), getLength(), getLastModificationDate(), children);
+    }
+
     @Override
     public List<VirtualFile> getChildren(VirtualFileFilter filter) {
         checkExistence();
@@ -588,6 +609,21 @@ public class MemoryVirtualFile implements VirtualFile {
         }
     }
 
+    @Override
+    public void zip(OutputStream output) throws ForbiddenException, ServerException {
+        checkExistence();
+
+        if (isFolder()) {
+            try {
+                fileSystem.getArchiverFactory().createArchiver(this, "zip").compress(output);
+            } catch (IOException e) {
+                throw new ServerException(e.getMessage(), e);
+            }
+        } else {
+            throw new ForbiddenException(String.format("Unable export to zip. Item '%s' is not a folder", getPath()));
+        }
+    }
+
     @Override
     public void unzip(InputStream zipped, boolean overwrite, int stripNumber)
             throws ForbiddenException, ServerException, ConflictException {
@@ -15,8 +15,10 @@ public class QueryExpression {
     private String name;
     private String path;
     private String text;
+    private String regex;
     private int    skipCount;
     private int    maxItems;
+    private int    maxOccurrences;
 
     /** Optional file path parameter. Only file with the specified path or children are included in result. */
     public String getPath() {
@@ -48,6 +50,20 @@ public class QueryExpression {
         return this;
     }
 
+    /**
+     * Regular expression for searching in file content. Only files content of which contains match of this expression are included in
+     * result. Expression must be compatible with {@link java.util.regex.Pattern}, to search for substring quote it with
+     * {@link java.util.regex.Pattern#quote(String)}.
+     */
+    public String getRegex() {
+        return regex;
+    }
+
+    public QueryExpression setRegex(String regex) {
+        this.regex = regex;
+        return this;
+    }
+
     /** Number of items in search result that should be skipped. This parameter used for paging through large set of search result. */
     public int getSkipCount() {
         return skipCount;
@@ -68,14 +84,30 @@ public class QueryExpression {
         return this;
     }
 
+    /**
+     * Max number of occurrences of searched text that are provided for each found file. Occurrences are not provided if this parameter
+     * is not set or is set to zero. This parameter makes sense only if {@link #getText() text} or {@link #getRegex() regex} for
+     * searching is set.
+     */
+    public int getMaxOccurrences() {
+        return maxOccurrences;
+    }
+
+    public QueryExpression setMaxOccurrences(int maxOccurrences) {
+        this.maxOccurrences = maxOccurrences;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "QueryExpression{" +
                "text='" + text + '\'' +
+               ", regex='" + regex + '\'' +
                ", name='" + name + '\'' +
                ", path='" + path + '\'' +
                ", skipCount=" + skipCount +
                ", maxItems=" + maxItems +
+               ", maxOccurrences=" + maxOccurrences +
                '}';
     }
 }
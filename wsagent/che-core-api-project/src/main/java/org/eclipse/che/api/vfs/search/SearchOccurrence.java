@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search;
+
+/**
+ * Single occurrence of searched text in file.
+ */
+public class SearchOccurrence {
+    private final int    lineNumber;
+    private final int    startColumn;
+    private final int    endColumn;
+    private final int    startOffset;
+    private final int    endOffset;
+    private final String snippet;
+    private final int    snippetStartColumn;
+
+    public SearchOccurrence(int lineNumber,
+                            int startColumn,
+                            int endColumn,
+                            int startOffset,
+                            int endOffset,
+                            String snippet,
+                            int snippetStartColumn) {
+        this.lineNumber = lineNumber;
+        this.startColumn = startColumn;
+        this.endColumn = endColumn;
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+        this.snippet = snippet;
+        this.snippetStartColumn = snippetStartColumn;
+    }
+
+    /** Number of line that contains occurrence, first line of file has number 1. */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    /** Column in line where occurrence starts, first column of line is 0. */
+    public int getStartColumn() {
+        return startColumn;
+    }
+
+    /** Column in line where occurrence ends (exclusive). */
+    public int getEndColumn() {
+        return endColumn;
+    }
+
+    /** Offset of first character of occurrence from the beginning of file. */
+    public int getStartOffset() {
+        return startOffset;
+    }
+
+    /** Offset of character that follows the last character of occurrence from the beginning of file. */
+    public int getEndOffset() {
+        return endOffset;
+    }
+
+    /** Part of line that contains occurrence. Long lines are cut around occurrence. */
+    public String getSnippet() {
+        return snippet;
+    }
+
+    /** Column in line where {@link #getSnippet() snippet} starts. Occurrence in snippet starts at {@code startColumn - snippetStartColumn}. */
+    public int getSnippetStartColumn() {
+        return snippetStartColumn;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchOccurrence{" +
+               "lineNumber=" + lineNumber +
+               ", startColumn=" + startColumn +
+               ", endColumn=" + endColumn +
+               ", snippet='" + snippet + '\'' +
+               '}';
+    }
+}
@@ -11,6 +11,8 @@
 package org.eclipse.che.api.vfs.search.impl;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
 
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.vfs.VirtualFileFilter;
@@ -34,6 +36,38 @@ public abstract class AbstractLuceneSearcherProvider implements SearcherProvider
     protected final AtomicReference<Searcher> searcherReference = new AtomicReference<>();
     private final ExecutorService executor;
 
+    @Inject(optional = true)
+    @Named("vfs.index.indexing_threads")
+    private int indexingThreads = LuceneSearcher.DEFAULT_INDEXING_THREADS;
+
+    @Inject(optional = true)
+    @Named("vfs.index.ram_buffer_size_mb")
+    private double ramBufferSizeMB = LuceneSearcher.DEFAULT_RAM_BUFFER_SIZE_MB;
+
+    @Inject(optional = true)
+    @Named("vfs.index.commit_interval")
+    private int commitInterval = LuceneSearcher.DEFAULT_COMMIT_INTERVAL;
+
+    @Inject(optional = true)
+    @Named("vfs.index.target_min_stale_sec")
+    private double targetMinStaleSec = LuceneSearcher.DEFAULT_TARGET_MIN_STALE_SEC;
+
+    @Inject(optional = true)
+    @Named("vfs.index.target_max_stale_sec")
+    private double targetMaxStaleSec = LuceneSearcher.DEFAULT_TARGET_MAX_STALE_SEC;
+
+    @Inject(optional = true)
+    @Named("vfs.index.result_cache_size")
+    private int resultCacheSize = LuceneSearcher.DEFAULT_RESULT_CACHE_SIZE;
+
+    @Inject(optional = true)
+    @Named("vfs.index.indexing_queue_size")
+    private int indexingQueueSize = LuceneSearcher.DEFAULT_INDEXING_QUEUE_SIZE;
+
+    @Inject(optional = true)
+    @Named("vfs.index.indexing_batch_size")
+    private int indexingBatchSize = LuceneSearcher.DEFAULT_INDEXING_BATCH_SIZE;
+
     /**
      * @param fileIndexFilters
      *         set filter for files that should not be indexed
@@ -63,6 +97,13 @@ public abstract class AbstractLuceneSearcherProvider implements SearcherProvider
         Searcher cachedSearcher = searcherReference.get();
         if (cachedSearcher == null && create) {
             LuceneSearcher searcher = createLuceneSearcher(() -> searcherReference.set(null));
+            searcher.setIndexingThreads(indexingThreads);
+            searcher.setRamBufferSizeMB(ramBufferSizeMB);
+            searcher.setCommitInterval(commitInterval);
+            searcher.setTargetStaleSec(targetMinStaleSec, targetMaxStaleSec);
+            searcher.setResultCacheSize(resultCacheSize);
+            searcher.setIndexingQueueSize(indexingQueueSize);
+            searcher.setIndexingBatchSize(indexingBatchSize);
             if (searcherReference.compareAndSet(null, searcher)) {
                 searcher.initAsynchronously(executor, virtualFileSystem);
             }
@@ -14,24 +14,18 @@ import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
 import org.apache.lucene.store.SingleInstanceLockFactory;
 import org.eclipse.che.api.core.ServerException;
-import org.eclipse.che.api.core.util.FileCleaner;
 import org.eclipse.che.api.vfs.VirtualFileFilter;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
 
-import static org.eclipse.che.commons.lang.IoUtil.deleteRecursive;
-
 /**
- * Filesystem based LuceneSearcher which cleans index directory after call method {@link #close()}.
+ * Filesystem based LuceneSearcher. Index directory is kept after call method {@link #close()}, next time searcher is initialized the
+ * existed index is reused and only files that were changed since last commit are re-indexed.
  *
  * @author andrew00x
  */
 public class FSLuceneSearcher extends LuceneSearcher {
-    private static final Logger LOG = LoggerFactory.getLogger(FSLuceneSearcher.class);
-
     private final File indexDirectory;
 
     FSLuceneSearcher(File indexDirectory, VirtualFileFilter filter) {
@@ -51,13 +45,4 @@ public class FSLuceneSearcher extends LuceneSearcher {
             throw new ServerException(e);
         }
     }
-
-    @Override
-    protected void afterClose() throws IOException {
-        if (!deleteRecursive(indexDirectory)) {
-            LOG.warn("Unable delete index directory '{}', add it in FileCleaner", indexDirectory);
-            FileCleaner.addFile(indexDirectory);
-        }
-        super.afterClose();
-    }
 }
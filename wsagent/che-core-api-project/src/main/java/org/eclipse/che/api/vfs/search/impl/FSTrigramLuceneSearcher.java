@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import com.google.common.io.CharStreams;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.LowerCaseFilter;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.analysis.ngram.NGramTokenizer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.search.Query;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.VirtualFileFilter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.regex.Pattern;
+
+import static java.util.Collections.singletonMap;
+
+/**
+ * Filesystem based LuceneSearcher that in addition to words keeps trigrams of file content in index. Trigrams are used for narrowing set
+ * of files that are checked when searching with regular expression or substring, see {@link TrigramQueryBuilder}. Trigrams select fewer
+ * files than words do and they are looked up without going through all terms of index. Index of this searcher is bigger and indexing is
+ * slower than {@link FSLuceneSearcher}'s.
+ */
+public class FSTrigramLuceneSearcher extends FSLuceneSearcher {
+    static final String TRIGRAMS_FIELD = "trigrams";
+
+    private static final String    TRIGRAM_SCHEMA_VERSION = SCHEMA_VERSION + "-trigram";
+    private static final FieldType TRIGRAMS_FIELD_TYPE    = new FieldType();
+
+    static {
+        // Only presence of trigram in file is needed, positions and norms just make index bigger
+        TRIGRAMS_FIELD_TYPE.setIndexOptions(IndexOptions.DOCS);
+        TRIGRAMS_FIELD_TYPE.setTokenized(true);
+        TRIGRAMS_FIELD_TYPE.setOmitNorms(true);
+        TRIGRAMS_FIELD_TYPE.freeze();
+    }
+
+    private final TrigramQueryBuilder trigramQueryBuilder = new TrigramQueryBuilder(TRIGRAMS_FIELD);
+
+    FSTrigramLuceneSearcher(File indexDirectory, VirtualFileFilter filter) {
+        this(indexDirectory, filter, null);
+    }
+
+    FSTrigramLuceneSearcher(File indexDirectory, VirtualFileFilter filter, AbstractLuceneSearcherProvider.CloseCallback closeCallback) {
+        super(indexDirectory, filter, closeCallback);
+    }
+
+    @Override
+    protected Analyzer makeAnalyzer() {
+        final Analyzer trigramAnalyzer = new Analyzer() {
+            @Override
+            protected TokenStreamComponents createComponents(String fieldName) {
+                Tokenizer tokenizer = new NGramTokenizer(3, 3);
+                TokenStream filter = new LowerCaseFilter(tokenizer);
+                return new TokenStreamComponents(tokenizer, filter);
+            }
+        };
+        return new PerFieldAnalyzerWrapper(super.makeAnalyzer(), singletonMap(TRIGRAMS_FIELD, trigramAnalyzer));
+    }
+
+    @Override
+    protected String getSchemaVersion() {
+        return TRIGRAM_SCHEMA_VERSION;
+    }
+
+    /**
+     * Adds trigrams of file content to document. Trigrams are not kept for files that are bigger than
+     * {@link SearchOccurrencesFinder#MAX_FILE_LENGTH}, content of such files is not loaded in memory and they are never checked with
+     * regular expression anyway.
+     */
+    @Override
+    protected Document createDocument(VirtualFile virtualFile, Reader reader) throws ServerException {
+        if (reader == null || virtualFile.getLength() > SearchOccurrencesFinder.MAX_FILE_LENGTH) {
+            return super.createDocument(virtualFile, reader);
+        }
+        final String content;
+        try {
+            content = CharStreams.toString(reader);
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        }
+        final Document doc = super.createDocument(virtualFile, new StringReader(content));
+        doc.add(new Field(TRIGRAMS_FIELD, content, TRIGRAMS_FIELD_TYPE));
+        return doc;
+    }
+
+    @Override
+    protected Query createRegexCandidatesQuery(Pattern regex) {
+        final Query trigramsQuery = trigramQueryBuilder.build(regex);
+        return trigramsQuery != null ? trigramsQuery : super.createRegexCandidatesQuery(regex);
+    }
+}
@@ -0,0 +1,332 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
+import org.eclipse.che.api.vfs.PathIndex;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.VirtualFileFilter;
+import org.eclipse.che.api.vfs.VirtualFileSystemProvider;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.Collections.emptyList;
+
+/**
+ * In-memory index of paths of files for fast "go to file" search. Files are looked for by fuzzy match of file name, see
+ * {@link FuzzyNameMatcher}, and optionally by directory, e.g. query "impl/FSLS" finds file "FSLuceneSearcher.java" in any directory path
+ * of which contains characters "impl" in the same order. Index is built in background by walking of virtual filesystem and then is kept
+ * up to date with events of file watcher, until index is built files are looked for by walking of virtual filesystem. Files that are
+ * excluded from watching are excluded from index as well.
+ * <p>
+ * Files are grouped by directories that are sorted by path, so all files of removed folder are removed with one range deletion. Each file
+ * is represented by small entry: interned directory path that is shared by all files in directory, name of file, lower-cased name and mask
+ * of characters of name. Full paths of files are not kept. Mask allows reject most files without matching, so index of 100k files is
+ * scanned in few milliseconds.
+ */
+@Singleton
+public class FilePathIndex {
+    private static final Logger LOG = LoggerFactory.getLogger(FilePathIndex.class);
+
+    /** Max number of files that are returned by one query. */
+    public static final int RESULT_LIMIT = 500;
+
+    private static final Comparator<Match> MATCH_COMPARATOR = Comparator.comparingInt((Match match) -> match.score)
+                                                                        .thenComparing(match -> -match.entry.length())
+                                                                        .thenComparing(match -> match.entry.path(),
+                                                                                       Comparator.reverseOrder());
+
+    private final VirtualFileSystemProvider                          vfsProvider;
+    private final FileWatcherNotificationHandler                     fileWatcherNotificationHandler;
+    private final FileWatcherNotificationListener                    fileWatcherListener;
+    private final List<PathMatcher>                                  excludeMatchers;
+    /* Files grouped by path of directory, directory is mapped to names of its files. */
+    private final ConcurrentNavigableMap<String, Map<String, Entry>> entries;
+    private final Interner<String>                                   directories;
+    private final ExecutorService                                    executor;
+
+    private volatile boolean initialized;
+
+    @Inject
+    public FilePathIndex(VirtualFileSystemProvider vfsProvider,
+                         FileWatcherNotificationHandler fileWatcherNotificationHandler,
+                         @Named("vfs.index_filter_matcher") Set<PathMatcher> excludeMatchers) {
+        this.vfsProvider = vfsProvider;
+        this.fileWatcherNotificationHandler = fileWatcherNotificationHandler;
+        this.excludeMatchers = newArrayList(excludeMatchers);
+        this.entries = new ConcurrentSkipListMap<>();
+        this.directories = Interners.newWeakInterner();
+        this.fileWatcherListener = new FileWatcherNotificationListener(VirtualFileFilter.ACCEPT_ALL) {
+            @Override
+            public void onFileWatcherEvent(VirtualFile virtualFile, FileWatcherEventType eventType) {
+                FilePathIndex.this.onFileWatcherEvent(virtualFile, eventType);
+            }
+        };
+        this.executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("FilePathIndexInitThread")
+                                                                                    .setDaemon(true)
+                                                                                    .build());
+        fileWatcherNotificationHandler.addNotificationListener(fileWatcherListener);
+    }
+
+    /** Starts building of index in background. */
+    @PostConstruct
+    void start() {
+        executor.execute(() -> {
+            try {
+                initialize();
+            } catch (ServerException e) {
+                LOG.error(e.getMessage(), e);
+            }
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+        fileWatcherNotificationHandler.removeNotificationListener(fileWatcherListener);
+    }
+
+    /** Walks virtual filesystem and adds all files in index if it is not done yet. */
+    synchronized void initialize() throws ServerException {
+        if (initialized) {
+            return;
+        }
+        final long startTime = System.currentTimeMillis();
+        addTree(vfsProvider.getVirtualFileSystem().getRoot(), entries);
+        initialized = true;
+        LOG.info("Indexed paths of {} files in {} ms", size(), System.currentTimeMillis() - startTime);
+    }
+
+    /** Returns number of files in index. */
+    public int size() {
+        int size = 0;
+        for (Map<String, Entry> files : entries.values()) {
+            size += files.size();
+        }
+        return size;
+    }
+
+    /**
+     * Finds files that match query. Part of query after last '/' is matched with name of file, part before it, if any, is matched with
+     * directory path.
+     *
+     * @param query
+     *         query, e.g. "FSLS", "lucsearch.java" or "search/impl/FSLS"
+     * @param maxItems
+     *         max number of files in result
+     * @return paths of found files, the best matches go first
+     * @throws ServerException
+     *         if index is not built yet and walking of virtual filesystem fails
+     */
+    public List<String> find(String query, int maxItems) throws ServerException {
+        final String normalizedQuery = query.replace("*", "").replaceAll("\\s+", "");
+        final int slash = normalizedQuery.lastIndexOf('/');
+        final String namePattern = normalizedQuery.substring(slash + 1);
+        final char[] directoryPattern = slash > 0 ? FuzzyNameMatcher.toLowerCase(normalizedQuery.substring(0, slash)) : null;
+        if (namePattern.isEmpty() && directoryPattern == null) {
+            return emptyList();
+        }
+        final FuzzyNameMatcher nameMatcher = namePattern.isEmpty() ? null : new FuzzyNameMatcher(namePattern);
+        final int limit = Math.max(1, Math.min(maxItems, RESULT_LIMIT));
+
+        final ConcurrentNavigableMap<String, Map<String, Entry>> searchEntries;
+        if (initialized) {
+            searchEntries = entries;
+        } else {
+            // index is being built, don't wait for it
+            searchEntries = new ConcurrentSkipListMap<>();
+            addTree(vfsProvider.getVirtualFileSystem().getRoot(), searchEntries);
+        }
+
+        // min-heap that keeps the best matches
+        final PriorityQueue<Match> matches = new PriorityQueue<>(limit + 1, MATCH_COMPARATOR);
+        for (Map.Entry<String, Map<String, Entry>> directory : searchEntries.entrySet()) {
+            int directoryScore = 0;
+            if (directoryPattern != null) {
+                directoryScore = scoreDirectory(directory.getKey(), directoryPattern);
+                if (directoryScore == FuzzyNameMatcher.NO_MATCH) {
+                    continue;
+                }
+            }
+            for (Entry entry : directory.getValue().values()) {
+                int score = directoryScore;
+                if (nameMatcher != null) {
+                    final int nameScore = nameMatcher.score(entry.name, entry.lowerName, entry.charMask);
+                    if (nameScore == FuzzyNameMatcher.NO_MATCH) {
+                        continue;
+                    }
+                    score += nameScore;
+                }
+                final Match match = new Match(entry, score);
+                if (matches.size() < limit) {
+                    matches.add(match);
+                } else if (MATCH_COMPARATOR.compare(match, matches.peek()) > 0) {
+                    matches.poll();
+                    matches.add(match);
+                }
+            }
+        }
+
+        final List<String> result = new ArrayList<>(matches.size());
+        while (!matches.isEmpty()) {
+            result.add(matches.poll().entry.path());
+        }
+        // heap returns the worst match first
+        Collections.reverse(result);
+        return result;
+    }
+
+    /** Characters of pattern must appear in directory path in the same order, contiguous match is ranked higher. */
+    private static int scoreDirectory(String directory, char[] pattern) {
+        int next = 0;
+        for (char c : pattern) {
+            while (next < directory.length() && Character.toLowerCase(directory.charAt(next)) != c) {
+                next++;
+            }
+            if (next == directory.length()) {
+                return FuzzyNameMatcher.NO_MATCH;
+            }
+            next++;
+        }
+        return directory.toLowerCase().contains(new String(pattern)) ? 10 : 0;
+    }
+
+    private void onFileWatcherEvent(VirtualFile virtualFile, FileWatcherEventType eventType) {
+        try {
+            switch (eventType) {
+                case CREATED:
+                    if (virtualFile.isFile()) {
+                        addFile(virtualFile, entries);
+                    } else {
+                        addTree(virtualFile, entries);
+                    }
+                    break;
+                case DELETED:
+                    remove(virtualFile.getPath().toString());
+                    break;
+                default:
+                    break;
+            }
+        } catch (ServerException e) {
+            LOG.warn(e.getMessage());
+        }
+    }
+
+    private void addTree(VirtualFile folder, ConcurrentNavigableMap<String, Map<String, Entry>> target) throws ServerException {
+        for (VirtualFile child : folder.getChildren()) {
+            if (isExcluded(child)) {
+                continue;
+            }
+            if (child.isFile()) {
+                addFile(child, target);
+            } else {
+                addTree(child, target);
+            }
+        }
+    }
+
+    private void addFile(VirtualFile file, ConcurrentNavigableMap<String, Map<String, Entry>> target) {
+        if (isExcluded(file)) {
+            return;
+        }
+        final String directory = directories.intern(file.getPath().getParent().toString());
+        target.computeIfAbsent(directory, d -> new ConcurrentHashMap<>()).put(file.getName(), new Entry(directory, file.getName()));
+    }
+
+    /**
+     * Removes file or all files of folder. Watcher may not know whether deleted item was file or folder, so both are checked. Files of
+     * folder and its sub-folders are removed as range of sorted directories.
+     */
+    private void remove(String path) {
+        final int slash = path.lastIndexOf('/');
+        final Map<String, Entry> parentFiles = entries.get(slash == 0 ? "/" : path.substring(0, slash));
+        if (parentFiles != null && parentFiles.remove(path.substring(slash + 1)) != null) {
+            return;
+        }
+        entries.remove(path);
+        PathIndex.descendants(entries, path).clear();
+    }
+
+    private boolean isExcluded(VirtualFile virtualFile) {
+        if (excludeMatchers.isEmpty()) {
+            return false;
+        }
+        // file watcher matches paths relative to root of filesystem
+        final Path relativePath = Paths.get(virtualFile.getPath().toString().substring(1));
+        for (PathMatcher excludeMatcher : excludeMatchers) {
+            if (excludeMatcher.matches(relativePath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class Entry {
+        final String directory;
+        final String name;
+        final char[] lowerName;
+        final long   charMask;
+
+        Entry(String directory, String name) {
+            this.directory = directory;
+            this.name = name;
+            this.lowerName = FuzzyNameMatcher.toLowerCase(name);
+            this.charMask = FuzzyNameMatcher.charMask(lowerName);
+        }
+
+        String path() {
+            return "/".equals(directory) ? '/' + name : directory + '/' + name;
+        }
+
+        int length() {
+            return directory.length() + 1 + name.length();
+        }
+    }
+
+    private static class Match {
+        final Entry entry;
+        final int   score;
+
+        Match(Entry entry, int score) {
+            this.entry = entry;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+/**
+ * Fuzzy matcher of file names. Characters of pattern must appear in file name in the same order, case is ignored. Matches where
+ * characters of pattern start words of file name ("camel humps"), e.g. "FSLS" for "FSLuceneSearcher", or follow each other are ranked
+ * higher than scattered matches.
+ */
+class FuzzyNameMatcher {
+    /** Score of name that is not matched by pattern. */
+    static final int NO_MATCH = Integer.MIN_VALUE;
+
+    private final char[] pattern;
+    private final char[] lowerPattern;
+    private final long   charMask;
+
+    /**
+     * @param pattern
+     *         pattern, must not be empty
+     */
+    FuzzyNameMatcher(String pattern) {
+        this.pattern = pattern.toCharArray();
+        this.lowerPattern = toLowerCase(pattern);
+        this.charMask = charMask(lowerPattern);
+    }
+
+    /** Returns mask of characters of pattern, see {@link #charMask(char[])}. */
+    long getCharMask() {
+        return charMask;
+    }
+
+    /**
+     * Calculates score of match of name.
+     *
+     * @param name
+     *         name of file
+     * @param lowerName
+     *         lower-cased name of file
+     * @param nameCharMask
+     *         mask of characters of lower-cased name of file
+     * @return score of match, bigger is better, or {@link #NO_MATCH} if name does not match
+     */
+    int score(String name, char[] lowerName, long nameCharMask) {
+        if ((charMask & ~nameCharMask) != 0 || lowerPattern.length > lowerName.length) {
+            return NO_MATCH;
+        }
+        final int[] positions = new int[lowerPattern.length];
+        final boolean humps = matchHumps(name, lowerName, positions);
+        if (!humps && !matchSubsequence(lowerName, positions)) {
+            return NO_MATCH;
+        }
+
+        int score = humps ? 10 : 0;
+        for (int i = 0; i < positions.length; i++) {
+            final int position = positions[i];
+            score += 1;
+            if (isWordStart(name, position)) {
+                score += 8;
+            }
+            if (i > 0) {
+                final int gap = position - positions[i - 1] - 1;
+                score += gap == 0 ? 4 : -Math.min(gap, 5);
+            }
+            if (name.charAt(position) == pattern[i]) {
+                score += 1;
+            }
+        }
+        if (positions[0] == 0) {
+            score += 10;
+        }
+        if (startsWith(lowerName, lowerPattern)) {
+            score += 15;
+            if (lowerName.length == lowerPattern.length) {
+                score += 30;
+            } else if (lowerName[lowerPattern.length] == '.') {
+                // name without extension is equal to pattern
+                score += 20;
+            }
+        }
+        return score - lowerName.length / 4;
+    }
+
+    /** Matches each character of pattern either right after previous matched character or at start of next word of name. */
+    private boolean matchHumps(String name, char[] lowerName, int[] positions) {
+        int next = 0;
+        for (int i = 0; i < lowerPattern.length; i++) {
+            final char c = lowerPattern[i];
+            if (i > 0 && next < lowerName.length && lowerName[next] == c) {
+                positions[i] = next++;
+                continue;
+            }
+            while (next < lowerName.length && !(lowerName[next] == c && isWordStart(name, next))) {
+                next++;
+            }
+            if (next == lowerName.length) {
+                return false;
+            }
+            positions[i] = next++;
+        }
+        return true;
+    }
+
+    /** Matches each character of pattern at first position after previous matched character. */
+    private boolean matchSubsequence(char[] lowerName, int[] positions) {
+        int next = 0;
+        for (int i = 0; i < lowerPattern.length; i++) {
+            final char c = lowerPattern[i];
+            while (next < lowerName.length && lowerName[next] != c) {
+                next++;
+            }
+            if (next == lowerName.length) {
+                return false;
+            }
+            positions[i] = next++;
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether character at the specified position of name starts word. Word starts at the beginning of name, after non letter or
+     * digit character, at upper case letter that follows lower case letter or precedes lower case letter, e.g. "L" in "FSLucene", and at
+     * first digit of number.
+     */
+    static boolean isWordStart(String name, int position) {
+        if (position == 0) {
+            return true;
+        }
+        final char c = name.charAt(position);
+        final char prev = name.charAt(position - 1);
+        if (!Character.isLetterOrDigit(c)) {
+            return false;
+        }
+        if (!Character.isLetterOrDigit(prev)) {
+            return true;
+        }
+        if (Character.isUpperCase(c)) {
+            return Character.isLowerCase(prev)
+                   || Character.isDigit(prev)
+                   || (position + 1 < name.length() && Character.isLowerCase(name.charAt(position + 1)));
+        }
+        return Character.isDigit(c) && !Character.isDigit(prev);
+    }
+
+    /**
+     * Returns mask of characters of lower-cased string. Each latin letter, digit and '.', '_', '-' has own bit, all other characters
+     * share one bit. If mask of pattern has bits that mask of name does not have then name may not match pattern.
+     */
+    static long charMask(char[] lower) {
+        long mask = 0;
+        for (char c : lower) {
+            mask |= 1L << charBit(c);
+        }
+        return mask;
+    }
+
+    private static int charBit(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a';
+        }
+        if (c >= '0' && c <= '9') {
+            return 26 + c - '0';
+        }
+        switch (c) {
+            case '.':
+                return 36;
+            case '_':
+                return 37;
+            case '-':
+                return 38;
+            default:
+                return 63;
+        }
+    }
+
+    static char[] toLowerCase(String str) {
+        final char[] chars = str.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return chars;
+    }
+
+    private static boolean startsWith(char[] str, char[] prefix) {
+        if (prefix.length > str.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (str[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,344 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.collect.Lists.newArrayListWithCapacity;
+
+/**
+ * Bounded queue of pending changes of index. Changes are applied asynchronously by single thread, so caller does not wait while file is
+ * read and tokenized. Only the latest change of each path is kept in queue, e.g. file that is saved few times before it is indexed is
+ * indexed once. Changes are applied in batches and index is committed once per batch. When queue is full, caller that adds change of path
+ * that is not in queue yet waits until there is free space in queue.
+ */
+public class IndexingQueue {
+    private static final Logger LOG = LoggerFactory.getLogger(IndexingQueue.class);
+
+    /** Max time that {@link #close()} waits for the batch that is being applied. */
+    private static final long CLOSE_TIMEOUT_MILLIS = 10000;
+
+    /** Applies changes of index. */
+    interface Indexer {
+        void add(VirtualFile virtualFile) throws ServerException;
+
+        void update(VirtualFile virtualFile) throws ServerException;
+
+        void delete(String path, boolean isFile) throws ServerException;
+
+        void commit() throws ServerException;
+    }
+
+    private final Indexer                    indexer;
+    private final int                        capacity;
+    private final int                        batchSize;
+    /* Pending changes in order of their sequence numbers, the latest change of path is moved to the tail of queue. */
+    private final Map<String, PendingChange> pending;
+    private final Thread                     worker;
+
+    private long    lastQueuedSequence;
+    private long    lastIndexedSequence;
+    private long    indexedCount;
+    private long    mergedCount;
+    private long    batchCount;
+    private boolean closed;
+
+    /**
+     * @param indexer
+     *         applies changes of index
+     * @param capacity
+     *         max number of pending changes, must be greater than zero
+     * @param batchSize
+     *         max number of changes that are applied before commit of index, must be greater than zero
+     */
+    IndexingQueue(Indexer indexer, int capacity, int batchSize) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException(String.format("Invalid capacity of indexing queue %d", capacity));
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException(String.format("Invalid size of indexing batch %d", batchSize));
+        }
+        this.indexer = indexer;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        pending = new LinkedHashMap<>();
+        worker = new Thread(this::applyChanges, "LuceneIndexingQueueThread");
+        worker.setDaemon(true);
+    }
+
+    void start() {
+        worker.start();
+    }
+
+    /**
+     * Adds file or folder in index, content of folder is added recursively.
+     *
+     * @return sequence number of queued change, see {@link #awaitIndexed(long, long)}
+     */
+    public long add(VirtualFile virtualFile) throws ServerException {
+        final String path = virtualFile.getPath().toString();
+        return enqueue(path, new PendingChange(ChangeType.ADD, path, virtualFile, virtualFile.isFile()));
+    }
+
+    /**
+     * Updates indexed file.
+     *
+     * @return sequence number of queued change, see {@link #awaitIndexed(long, long)}
+     */
+    public long update(VirtualFile virtualFile) throws ServerException {
+        final String path = virtualFile.getPath().toString();
+        return enqueue(path, new PendingChange(ChangeType.UPDATE, path, virtualFile, virtualFile.isFile()));
+    }
+
+    /**
+     * Deletes file or folder from index, content of folder is deleted recursively.
+     *
+     * @return sequence number of queued change, see {@link #awaitIndexed(long, long)}
+     */
+    public long delete(String path, boolean isFile) throws ServerException {
+        return enqueue(path, new PendingChange(ChangeType.DELETE, path, null, isFile));
+    }
+
+    private synchronized long enqueue(String path, PendingChange change) throws ServerException {
+        while (!closed && pending.size() >= capacity && !pending.containsKey(path)) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServerException("Interrupted while waiting for free space in indexing queue");
+            }
+        }
+        if (closed) {
+            throw new ServerException("Indexing queue is closed");
+        }
+        final PendingChange previous = pending.remove(path);
+        if (previous != null) {
+            change.mergeWith(previous);
+            mergedCount++;
+        }
+        if (change.type == ChangeType.DELETE && !change.isFile) {
+            // Changes of items inside of deleted folder are superseded by deletion of folder.
+            final String prefix = path + "/";
+            pending.keySet().removeIf(pendingPath -> pendingPath.startsWith(prefix));
+        }
+        change.sequence = ++lastQueuedSequence;
+        change.queuedTime = System.currentTimeMillis();
+        pending.put(path, change);
+        notifyAll();
+        return change.sequence;
+    }
+
+    /**
+     * Waits until all changes that are added in queue before this call are applied.
+     *
+     * @param timeoutMillis
+     *         max time to wait
+     * @return {@code true} if changes are applied and {@code false} if time is elapsed or queue is closed
+     */
+    public synchronized boolean awaitIndexed(long timeoutMillis) throws InterruptedException {
+        return awaitIndexed(lastQueuedSequence, timeoutMillis);
+    }
+
+    /**
+     * Waits until change with the specified sequence number and all changes that are queued before it are applied. Changes that are
+     * queued after it are not waited for.
+     *
+     * @param sequence
+     *         sequence number of change that is returned when change is added in queue
+     * @param timeoutMillis
+     *         max time to wait
+     * @return {@code true} if changes are applied and {@code false} if time is elapsed or queue is closed
+     */
+    public synchronized boolean awaitIndexed(long sequence, long timeoutMillis) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + timeoutMillis;
+        long timeLeft = timeoutMillis;
+        while (!closed && lastIndexedSequence < sequence && timeLeft > 0) {
+            wait(timeLeft);
+            timeLeft = deadline - System.currentTimeMillis();
+        }
+        return lastIndexedSequence >= sequence;
+    }
+
+    /** Returns number of pending changes. */
+    public synchronized int getDepth() {
+        return pending.size();
+    }
+
+    /** Returns time in milliseconds that the oldest pending change waits in queue or zero if queue is empty. */
+    public synchronized long getLagMillis() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        return System.currentTimeMillis() - pending.values().iterator().next().queuedTime;
+    }
+
+    /** Returns number of changes that are applied. */
+    public synchronized long getIndexedCount() {
+        return indexedCount;
+    }
+
+    /** Returns number of changes that are merged with pending change of the same path instead of being applied separately. */
+    public synchronized long getMergedCount() {
+        return mergedCount;
+    }
+
+    /** Returns number of applied batches of changes, index is committed once per batch. */
+    public synchronized long getBatchCount() {
+        return batchCount;
+    }
+
+    /**
+     * Stops applying of changes. Batch that is being applied is completed, other pending changes are discarded. Index is brought in sync
+     * with virtual filesystem when it is reused next time.
+     */
+    void close() {
+        final int discarded;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            discarded = pending.size();
+            pending.clear();
+            notifyAll();
+        }
+        if (discarded > 0) {
+            LOG.warn("Indexing queue is closed, {} pending changes of index are discarded", discarded);
+        }
+        if (Thread.currentThread() != worker) {
+            try {
+                worker.join(CLOSE_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void applyChanges() {
+        List<PendingChange> batch;
+        while ((batch = takeBatch()) != null) {
+            for (PendingChange change : batch) {
+                try {
+                    change.apply(indexer);
+                } catch (ServerException | RuntimeException e) {
+                    LOG.error(e.getMessage(), e);
+                }
+            }
+            try {
+                indexer.commit();
+            } catch (ServerException | RuntimeException e) {
+                LOG.error(e.getMessage(), e);
+            }
+            batchApplied(batch);
+        }
+    }
+
+    private synchronized List<PendingChange> takeBatch() {
+        while (!closed && pending.isEmpty()) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        if (closed) {
+            return null;
+        }
+        final List<PendingChange> batch = newArrayListWithCapacity(Math.min(batchSize, pending.size()));
+        final Iterator<PendingChange> iterator = pending.values().iterator();
+        while (iterator.hasNext() && batch.size() < batchSize) {
+            batch.add(iterator.next());
+            iterator.remove();
+        }
+        // There is free space in queue.
+        notifyAll();
+        return batch;
+    }
+
+    private synchronized void batchApplied(List<PendingChange> batch) {
+        lastIndexedSequence = batch.get(batch.size() - 1).sequence;
+        indexedCount += batch.size();
+        batchCount++;
+        notifyAll();
+    }
+
+    private enum ChangeType {
+        ADD,
+        UPDATE,
+        DELETE
+    }
+
+    private static class PendingChange {
+        private final String      path;
+        private final VirtualFile virtualFile;
+        private final boolean     isFile;
+
+        private ChangeType type;
+        /* Item that existed under the same path before is deleted before this change is applied, see #mergeWith. */
+        private boolean    deleteBefore;
+        private boolean    deleteBeforeIsFile;
+        private long       sequence;
+        private long       queuedTime;
+
+        PendingChange(ChangeType type, String path, VirtualFile virtualFile, boolean isFile) {
+            this.type = type;
+            this.path = path;
+            this.virtualFile = virtualFile;
+            this.isFile = isFile;
+        }
+
+        /** Merges this change with the previous pending change of the same path. */
+        void mergeWith(PendingChange previous) {
+            if (type == ChangeType.DELETE) {
+                // Deletion supersedes any previous change.
+                return;
+            }
+            if (previous.type == ChangeType.DELETE) {
+                // Folder is replaced with new item, documents of its old content must not stay in index.
+                deleteBefore = true;
+                deleteBeforeIsFile = previous.isFile;
+            } else {
+                deleteBefore = previous.deleteBefore;
+                deleteBeforeIsFile = previous.deleteBeforeIsFile;
+                if (previous.type == ChangeType.ADD) {
+                    // Added folder is indexed recursively, update does not do that.
+                    type = ChangeType.ADD;
+                }
+            }
+        }
+
+        void apply(Indexer indexer) throws ServerException {
+            if (deleteBefore) {
+                indexer.delete(path, deleteBeforeIsFile);
+            }
+            switch (type) {
+                case ADD:
+                    indexer.add(virtualFile);
+                    break;
+                case UPDATE:
+                    indexer.update(virtualFile);
+                    break;
+                case DELETE:
+                    indexer.delete(path, isFile);
+                    break;
+            }
+        }
+    }
+}
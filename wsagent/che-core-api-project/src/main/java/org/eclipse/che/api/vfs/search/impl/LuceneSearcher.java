@@ -10,6 +10,11 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs.search.impl;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.CountingInputStream;
+
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.Tokenizer;
@@ -17,33 +22,45 @@ import org.apache.lucene.analysis.core.LowerCaseFilter;
 import org.apache.lucene.analysis.core.WhitespaceTokenizer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexCommit;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexWriterConfig.OpenMode;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.MultiFields;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TrackingIndexWriter;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.PrefixQuery;
 import org.apache.lucene.search.Query;
-import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.SearcherFactory;
 import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.WildcardQuery;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.IOUtils;
 import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.Path;
 import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.api.vfs.VirtualFileFilter;
 import org.eclipse.che.api.vfs.VirtualFileFilters;
 import org.eclipse.che.api.vfs.VirtualFileSystem;
 import org.eclipse.che.api.vfs.search.MediaTypeFilter;
 import org.eclipse.che.api.vfs.search.QueryExpression;
+import org.eclipse.che.api.vfs.search.SearchOccurrence;
 import org.eclipse.che.api.vfs.search.SearchResult;
 import org.eclipse.che.api.vfs.search.SearchResultEntry;
 import org.eclipse.che.api.vfs.search.Searcher;
@@ -54,12 +71,29 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Lists.newArrayListWithCapacity;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonMap;
+import static java.util.stream.Collectors.toList;
 
 /**
  * Lucene based searcher.
@@ -71,13 +105,65 @@ public abstract class LuceneSearcher implements Searcher {
 
     private static final int RESULT_LIMIT = 1000;
 
+    /** Default number of threads that read and tokenize files when whole tree is indexed. */
+    public static final int    DEFAULT_INDEXING_THREADS     = Runtime.getRuntime().availableProcessors();
+    /** Default size of RAM buffer of lucene index writer. Buffered documents are flushed to the index once buffer is full. */
+    public static final double DEFAULT_RAM_BUFFER_SIZE_MB   = 64;
+    /** Default number of documents that are added in index between two commits when whole tree is indexed. */
+    public static final int    DEFAULT_COMMIT_INTERVAL      = 10000;
+    /** Default max time in seconds that changes of index may stay invisible for search when nobody waits for them. */
+    public static final double DEFAULT_TARGET_MAX_STALE_SEC = 1.0;
+    /** Default min time in seconds between two refreshes of searcher when search waits for changes of index. */
+    public static final double DEFAULT_TARGET_MIN_STALE_SEC = 0.025;
+    /** Default number of queries which hits are cached for the current state of index, zero disables caching. */
+    public static final int    DEFAULT_RESULT_CACHE_SIZE    = 64;
+    /** Default max number of pending changes of index, zero or negative value makes changes be applied synchronously. */
+    public static final int    DEFAULT_INDEXING_QUEUE_SIZE  = 10000;
+    /** Default max number of pending changes of index that are applied before commit of index. */
+    public static final int    DEFAULT_INDEXING_BATCH_SIZE  = 100;
+    /** Max time that search waits for its changes of index to become visible, search is done on current searcher after that. */
+    private static final int   MAX_WAIT_FOR_GENERATION_MS   = 10000;
+    /** Max number of files that are indexed in one task when whole tree is indexed. */
+    private static final int   FILES_PER_INDEXING_TASK      = 64;
+    /** Number of indexed files after that indexing progress is logged. */
+    private static final int   PROGRESS_REPORT_INTERVAL     = 5000;
+
+    /**
+     * Version of structure of index documents. Index created with other version is rebuilt from scratch on initialization, so this value
+     * must be changed each time when set of fields of document or way of indexing them is changed.
+     */
+    static final String SCHEMA_VERSION          = "1";
+    static final String SCHEMA_VERSION_PROPERTY = "che.index.schema_version";
+
     private final List<VirtualFileFilter>                      indexFilters;
     private final AbstractLuceneSearcherProvider.CloseCallback closeCallback;
+    /* Generation of the last change of index. */
+    private final AtomicLong                                   indexGeneration;
+    private final TokenQueryBuilder                            tokenQueryBuilder = new TokenQueryBuilder("text");
+    /* Sequence number of the last change of index that is queued by current thread and is not waited for by its search yet. */
+    private final ThreadLocal<Long>                            queuedSequence    = new ThreadLocal<>();
+
+    private IndexWriter                                   luceneIndexWriter;
+    private TrackingIndexWriter                           trackingIndexWriter;
+    private SearcherManager                               searcherManager;
+    private ControlledRealTimeReopenThread<IndexSearcher> reopenThread;
+    private Cache<HitsKey, Hits>                          resultCache;
+    private ForkJoinPool                                  indexingPool;
+    private IndexingQueue                                 indexingQueue;
 
-    private IndexWriter     luceneIndexWriter;
-    private SearcherManager searcherManager;
+    private int    indexingThreads   = DEFAULT_INDEXING_THREADS;
+    private double ramBufferSizeMB   = DEFAULT_RAM_BUFFER_SIZE_MB;
+    private int    commitInterval    = DEFAULT_COMMIT_INTERVAL;
+    private double targetMaxStaleSec = DEFAULT_TARGET_MAX_STALE_SEC;
+    private double targetMinStaleSec = DEFAULT_TARGET_MIN_STALE_SEC;
+    private int    resultCacheSize   = DEFAULT_RESULT_CACHE_SIZE;
+    private int    indexingQueueSize = DEFAULT_INDEXING_QUEUE_SIZE;
+    private int    indexingBatchSize = DEFAULT_INDEXING_BATCH_SIZE;
 
-    private boolean closed = true;
+    private boolean closed      = true;
+    private boolean indexReused = false;
+
+    private volatile VirtualFileSystem virtualFileSystem;
 
     protected LuceneSearcher() {
         this(new MediaTypeFilter(), null);
@@ -96,6 +182,7 @@ public abstract class LuceneSearcher implements Searcher {
         this.closeCallback = closeCallback;
         indexFilters = new CopyOnWriteArrayList<>();
         indexFilters.add(indexFilter);
+        indexGeneration = new AtomicLong();
     }
 
     @Override
@@ -122,7 +209,99 @@ public abstract class LuceneSearcher implements Searcher {
     protected abstract Directory makeDirectory() throws ServerException;
 
     /**
-     * Init lucene index. Need call this method if index directory is clean. Scan all files in virtual filesystem and add to index.
+     * Sets number of threads that read and tokenize files when whole tree is indexed. Must be set before initialization of searcher.
+     *
+     * @param indexingThreads
+     *         number of indexing threads, must be greater than zero
+     */
+    public synchronized void setIndexingThreads(int indexingThreads) {
+        if (indexingThreads < 1) {
+            throw new IllegalArgumentException(String.format("Invalid number of indexing threads %d", indexingThreads));
+        }
+        this.indexingThreads = indexingThreads;
+    }
+
+    /**
+     * Sets size of RAM buffer of lucene index writer. Must be set before initialization of searcher.
+     *
+     * @param ramBufferSizeMB
+     *         size of buffer in megabytes, must be greater than zero
+     */
+    public synchronized void setRamBufferSizeMB(double ramBufferSizeMB) {
+        if (ramBufferSizeMB <= 0) {
+            throw new IllegalArgumentException(String.format("Invalid size of RAM buffer %s", ramBufferSizeMB));
+        }
+        this.ramBufferSizeMB = ramBufferSizeMB;
+    }
+
+    /**
+     * Sets number of documents that are added in index between two commits when whole tree is indexed.
+     *
+     * @param commitInterval
+     *         number of documents, zero or negative value disables intermediate commits
+     */
+    public synchronized void setCommitInterval(int commitInterval) {
+        this.commitInterval = commitInterval;
+    }
+
+    /**
+     * Sets how stale searcher may be. Searcher is refreshed in background thread, changes of index become visible for search in at most
+     * {@code targetMaxStaleSec} seconds. Search that waits for its changes of index makes searcher be refreshed in at most {@code
+     * targetMinStaleSec} seconds since previous refresh. Must be set before initialization of searcher.
+     *
+     * @param targetMinStaleSec
+     *         min time in seconds between two refreshes of searcher, must be greater than zero
+     * @param targetMaxStaleSec
+     *         max time in seconds between two refreshes of searcher, must not be less than {@code targetMinStaleSec}
+     */
+    public synchronized void setTargetStaleSec(double targetMinStaleSec, double targetMaxStaleSec) {
+        if (targetMinStaleSec <= 0 || targetMaxStaleSec < targetMinStaleSec) {
+            throw new IllegalArgumentException(String.format("Invalid staleness of searcher, min %s, max %s",
+                                                             targetMinStaleSec, targetMaxStaleSec));
+        }
+        this.targetMinStaleSec = targetMinStaleSec;
+        this.targetMaxStaleSec = targetMaxStaleSec;
+    }
+
+    /**
+     * Sets number of queries which hits are cached for the current state of index. All hits of query are cached in order of relevance,
+     * so repeated search and retrieving of other pages of results are served from cache until index is changed. Must be set before
+     * initialization of searcher.
+     *
+     * @param resultCacheSize
+     *         number of queries which hits are cached, zero or negative value disables caching
+     */
+    public synchronized void setResultCacheSize(int resultCacheSize) {
+        this.resultCacheSize = resultCacheSize;
+    }
+
+    /**
+     * Sets max number of pending changes of index. Files that are added, updated or deleted with methods of this searcher are indexed
+     * asynchronously, see {@link IndexingQueue}. Must be set before initialization of searcher.
+     *
+     * @param indexingQueueSize
+     *         max number of pending changes, zero or negative value makes changes be applied synchronously
+     */
+    public synchronized void setIndexingQueueSize(int indexingQueueSize) {
+        this.indexingQueueSize = indexingQueueSize;
+    }
+
+    /**
+     * Sets max number of pending changes of index that are applied before commit of index. Must be set before initialization of searcher.
+     *
+     * @param indexingBatchSize
+     *         number of changes, must be greater than zero
+     */
+    public synchronized void setIndexingBatchSize(int indexingBatchSize) {
+        if (indexingBatchSize < 1) {
+            throw new IllegalArgumentException(String.format("Invalid size of indexing batch %d", indexingBatchSize));
+        }
+        this.indexingBatchSize = indexingBatchSize;
+    }
+
+    /**
+     * Init lucene index. If index directory is clean or existed index may not be reused then scan all files in virtual filesystem and
+     * add to index. Otherwise only files that were added, changed or deleted since last commit of existed index are re-indexed.
      *
      * @param virtualFileSystem
      *         VirtualFileSystem
@@ -130,16 +309,18 @@ public abstract class LuceneSearcher implements Searcher {
      *         if any virtual filesystem error occurs
      */
     public void init(VirtualFileSystem virtualFileSystem) throws ServerException {
+        this.virtualFileSystem = virtualFileSystem;
         doInit();
-        addTree(virtualFileSystem.getRoot());
+        indexTree(virtualFileSystem.getRoot());
     }
 
     public void initAsynchronously(ExecutorService executor, VirtualFileSystem virtualFileSystem) throws ServerException {
+        this.virtualFileSystem = virtualFileSystem;
         doInit();
         if (!executor.isShutdown()) {
             executor.execute(() -> {
                 try {
-                    LuceneSearcher.this.addTree(virtualFileSystem.getRoot());
+                    LuceneSearcher.this.indexTree(virtualFileSystem.getRoot());
                 } catch (ServerException e) {
                     LOG.error(e.getMessage());
                 }
@@ -149,18 +330,91 @@ public abstract class LuceneSearcher implements Searcher {
 
     protected final synchronized void doInit() throws ServerException {
         try {
-            luceneIndexWriter = new IndexWriter(makeDirectory(), new IndexWriterConfig(makeAnalyzer()));
+            final Directory directory = makeDirectory();
+            indexReused = isIndexReusable(directory);
+            if (indexReused) {
+                try {
+                    luceneIndexWriter = new IndexWriter(directory, makeIndexWriterConfig(OpenMode.APPEND));
+                } catch (IOException e) {
+                    LOG.warn("Unable open existed index, index will be rebuilt. {}", e.getMessage());
+                    indexReused = false;
+                }
+            }
+            if (!indexReused) {
+                luceneIndexWriter = new IndexWriter(directory, makeIndexWriterConfig(OpenMode.CREATE));
+            }
+            luceneIndexWriter.setCommitData(singletonMap(SCHEMA_VERSION_PROPERTY, getSchemaVersion()));
+            trackingIndexWriter = new TrackingIndexWriter(luceneIndexWriter);
             searcherManager = new SearcherManager(luceneIndexWriter, true, new SearcherFactory());
+            reopenThread = new ControlledRealTimeReopenThread<>(trackingIndexWriter, searcherManager, targetMaxStaleSec, targetMinStaleSec);
+            reopenThread.setName("LuceneSearcherReopenThread");
+            reopenThread.setDaemon(true);
+            reopenThread.start();
+            resultCache = resultCacheSize > 0 ? CacheBuilder.newBuilder().maximumSize(resultCacheSize).build() : null;
+            indexingPool = new ForkJoinPool(indexingThreads, new IndexingThreadFactory(), null, false);
+            if (indexingQueueSize > 0) {
+                indexingQueue = new IndexingQueue(new QueuedChangesIndexer(), indexingQueueSize, indexingBatchSize);
+                indexingQueue.start();
+            }
             closed = false;
         } catch (IOException e) {
             throw new ServerException(e);
         }
     }
 
-    public final synchronized void close() {
+    private IndexWriterConfig makeIndexWriterConfig(OpenMode openMode) {
+        return new IndexWriterConfig(makeAnalyzer()).setRAMBufferSizeMB(ramBufferSizeMB).setOpenMode(openMode);
+    }
+
+    /**
+     * Checks whether index in the specified directory exists, is readable and is created with current {@link #getSchemaVersion()}. If so
+     * the index may be reused and brought in sync with virtual filesystem instead of being built from scratch.
+     */
+    private boolean isIndexReusable(Directory directory) {
+        try {
+            if (!DirectoryReader.indexExists(directory)) {
+                return false;
+            }
+            final List<IndexCommit> commits = DirectoryReader.listCommits(directory);
+            final String schemaVersion = commits.get(commits.size() - 1).getUserData().get(SCHEMA_VERSION_PROPERTY);
+            if (!getSchemaVersion().equals(schemaVersion)) {
+                LOG.info("Index schema version changed from {} to {}, index will be rebuilt", schemaVersion, getSchemaVersion());
+                return false;
+            }
+            return true;
+        } catch (IOException e) {
+            LOG.warn("Unable read existed index, index will be rebuilt. {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Returns version of structure of index documents. Subclasses that add own fields to documents must return own version, so index
+     * is rebuilt when one implementation of searcher is replaced with another.
+     */
+    protected String getSchemaVersion() {
+        return SCHEMA_VERSION;
+    }
+
+    /** Returns {@code true} if index that existed before initialization of this searcher is reused. */
+    public synchronized boolean isIndexReused() {
+        return indexReused;
+    }
+
+    public final void close() {
+        final IndexingQueue indexingQueue = getIndexingQueue();
+        if (indexingQueue != null) {
+            // Thread of queue needs lock of this searcher to complete its batch, so queue is closed before the lock is taken.
+            indexingQueue.close();
+        }
+        doClose();
+    }
+
+    private synchronized void doClose() {
         if (!closed) {
+            indexingPool.shutdownNow();
             try {
-                IOUtils.close(getIndexWriter(), getIndexWriter().getDirectory(), searcherManager);
+                IOUtils.close(reopenThread, getIndexWriter(), getIndexWriter().getDirectory(), searcherManager);
                 afterClose();
             } catch (IOException e) {
                 LOG.error(e.getMessage(), e);
@@ -184,47 +438,91 @@ public abstract class LuceneSearcher implements Searcher {
         return luceneIndexWriter;
     }
 
-    @Override
-    public SearchResult search(QueryExpression query) throws ServerException {
-        IndexSearcher luceneSearcher = null;
-        try {
-            final long startTime = System.currentTimeMillis();
-            searcherManager.maybeRefresh();
-            luceneSearcher = searcherManager.acquire();
+    private synchronized TrackingIndexWriter getTrackingIndexWriter() {
+        return trackingIndexWriter;
+    }
 
-            Query luceneQuery = createLuceneQuery(query);
+    private synchronized ControlledRealTimeReopenThread<IndexSearcher> getReopenThread() {
+        return reopenThread;
+    }
 
-            ScoreDoc after = null;
-            final int numSkipDocs = Math.max(0, query.getSkipCount());
-            if (numSkipDocs > 0) {
-                after = skipScoreDocs(luceneSearcher, luceneQuery, numSkipDocs);
-            }
+    private synchronized Cache<HitsKey, Hits> getResultCache() {
+        return resultCache;
+    }
 
-            final int numDocs = query.getMaxItems() > 0 ? Math.min(query.getMaxItems(), RESULT_LIMIT) : RESULT_LIMIT;
-            TopDocs topDocs = luceneSearcher.searchAfter(after, luceneQuery, numDocs);
-            final int totalHitsNum = topDocs.totalHits;
+    /** Returns queue of pending changes of index or {@code null} if changes are applied synchronously. */
+    public synchronized IndexingQueue getIndexingQueue() {
+        return indexingQueue;
+    }
 
-            List<SearchResultEntry> results = newArrayList();
-            for (int i = 0; i < topDocs.scoreDocs.length; i++) {
-                ScoreDoc scoreDoc = topDocs.scoreDocs[i];
-                String filePath = luceneSearcher.doc(scoreDoc.doc).getField("path").stringValue();
-                results.add(new SearchResultEntry(filePath));
-            }
+    /**
+     * Returns generation of the last change of index. Generation may be passed to {@link #search(QueryExpression, long)} to make sure
+     * search sees this change.
+     */
+    public long getIndexGeneration() {
+        return indexGeneration.get();
+    }
 
-            final long elapsedTimeMillis = System.currentTimeMillis() - startTime;
+    private void updateIndexGeneration(long generation) {
+        indexGeneration.accumulateAndGet(generation, Math::max);
+    }
 
-            boolean hasMoreToRetrieve = numSkipDocs + topDocs.scoreDocs.length + 1 < totalHitsNum;
-            QueryExpression nextPageQueryExpression = null;
-            if (hasMoreToRetrieve) {
-                nextPageQueryExpression = createNextPageQuery(query, numSkipDocs + topDocs.scoreDocs.length);
+    /**
+     * Searches after changes of index that are done or queued by the current thread before this call and changes that are already applied
+     * by other threads become visible for search. Search does not wait for changes that are queued by other threads, they become visible
+     * once indexing queue applies them.
+     */
+    @Override
+    public SearchResult search(QueryExpression query) throws ServerException {
+        final Long sequence = queuedSequence.get();
+        final IndexingQueue indexingQueue = getIndexingQueue();
+        if (sequence != null && indexingQueue != null) {
+            queuedSequence.remove();
+            try {
+                if (!indexingQueue.awaitIndexed(sequence, MAX_WAIT_FOR_GENERATION_MS)) {
+                    LOG.warn("Queued changes of index are not applied in {} ms", MAX_WAIT_FOR_GENERATION_MS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServerException("Interrupted while waiting for changes of index");
             }
+        }
+        return search(query, getIndexGeneration());
+    }
 
-            return SearchResult.aSearchResult()
-                               .withResults(results)
-                               .withTotalHits(totalHitsNum)
-                               .withNextPageQueryExpression(nextPageQueryExpression)
-                               .withElapsedTimeMillis(elapsedTimeMillis)
-                               .build();
+    /**
+     * Searches after the specified generation of index becomes visible for search. Searcher is refreshed in background thread so search
+     * does not wait if this generation is already visible.
+     *
+     * @param query
+     *         query expression
+     * @param indexGeneration
+     *         generation of index, see {@link #getIndexGeneration()}. Zero or negative value means search does not wait and sees changes
+     *         of index that are done at most {@code targetMaxStaleSec} seconds ago
+     * @see #setTargetStaleSec(double, double)
+     */
+    public SearchResult search(QueryExpression query, long indexGeneration) throws ServerException {
+        final ControlledRealTimeReopenThread<IndexSearcher> reopenThread = getReopenThread();
+        if (indexGeneration > 0) {
+            waitForGeneration(reopenThread, indexGeneration);
+        }
+        final Cache<HitsKey, Hits> resultCache = getResultCache();
+        IndexSearcher luceneSearcher = null;
+        try {
+            luceneSearcher = searcherManager.acquire();
+            final long startTime = System.currentTimeMillis();
+            // Version of reader is changed only when index is changed, periodic reopen of unchanged index keeps the same reader.
+            final HitsKey hitsKey = resultCache == null
+                                    ? null
+                                    : new HitsKey(query, ((DirectoryReader)luceneSearcher.getIndexReader()).getVersion());
+            Hits hits = hitsKey == null ? null : resultCache.getIfPresent(hitsKey);
+            if (hits == null) {
+                hits = findHits(luceneSearcher, query);
+                if (hitsKey != null) {
+                    resultCache.put(hitsKey, hits);
+                }
+            }
+            return getPage(luceneSearcher, hits, query, startTime);
         } catch (IOException e) {
             throw new ServerException(e.getMessage(), e);
         } finally {
@@ -236,7 +534,178 @@ public abstract class LuceneSearcher implements Searcher {
         }
     }
 
-    private Query createLuceneQuery(QueryExpression query) throws ServerException {
+    private void waitForGeneration(ControlledRealTimeReopenThread<IndexSearcher> reopenThread, long generation) throws ServerException {
+        try {
+            if (!reopenThread.waitForGeneration(generation, MAX_WAIT_FOR_GENERATION_MS)) {
+                LOG.warn("Changes of index are not visible for search in {} ms", MAX_WAIT_FOR_GENERATION_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServerException("Interrupted while waiting for changes of index");
+        }
+    }
+
+    /** Finds all hits of query in order of relevance, parameters of query that select page of result are ignored. */
+    private Hits findHits(IndexSearcher luceneSearcher, QueryExpression query) throws IOException, ServerException {
+        final Pattern regex = compileRegex(query.getRegex());
+        final Query luceneQuery = createLuceneQuery(query, regex);
+        final TopDocs topDocs = luceneSearcher.search(luceneQuery, Math.max(1, luceneSearcher.getIndexReader().maxDoc()));
+        final int[] docs = new int[topDocs.scoreDocs.length];
+        for (int i = 0; i < docs.length; i++) {
+            docs[i] = topDocs.scoreDocs[i].doc;
+        }
+        if (regex == null) {
+            return new Hits(docs, null);
+        }
+        return findRegexHits(luceneSearcher, docs, regex, query.getMaxOccurrences());
+    }
+
+    /**
+     * Files that are selected by lucene query are candidates only, each of them is read and checked with regular expression. Candidates
+     * are checked in parallel in the pool of indexing threads.
+     */
+    private Hits findRegexHits(IndexSearcher luceneSearcher, int[] candidates, Pattern regex, int maxOccurrences)
+            throws IOException, ServerException {
+        if (virtualFileSystem == null) {
+            throw new ServerException("Unable search with regular expression, virtual filesystem is not set");
+        }
+        final List<String> candidatePaths = newArrayListWithCapacity(candidates.length);
+        for (int doc : candidates) {
+            candidatePaths.add(luceneSearcher.doc(doc).getField("path").stringValue());
+        }
+
+        final List<List<SearchOccurrence>> candidateOccurrences;
+        try {
+            candidateOccurrences = getIndexingPool().submit(() -> candidatePaths.parallelStream()
+                                                                                .map(path -> findRegexOccurrences(path, regex,
+                                                                                                                  Math.max(1, maxOccurrences)))
+                                                                                .collect(toList()))
+                                                    .get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServerException("Search interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IndexingException) {
+                throw ((IndexingException)e.getCause()).getCause();
+            }
+            throw new ServerException(e.getCause().getMessage(), e.getCause());
+        }
+
+        final int[] docs = new int[candidates.length];
+        final List<List<SearchOccurrence>> occurrences = newArrayList();
+        for (int i = 0; i < candidates.length; i++) {
+            if (!candidateOccurrences.get(i).isEmpty()) {
+                docs[occurrences.size()] = candidates[i];
+                occurrences.add(candidateOccurrences.get(i));
+            }
+        }
+        LOG.debug("Checked {} candidates with regular expression '{}', {} of them matched", candidates.length, regex, occurrences.size());
+        return new Hits(Arrays.copyOf(docs, occurrences.size()), occurrences);
+    }
+
+    /** Creates page of search result from hits, searcher must see the same version of index that hits are found in. */
+    private SearchResult getPage(IndexSearcher luceneSearcher, Hits hits, QueryExpression query, long startTime)
+            throws IOException, ServerException {
+        final int numSkipDocs = Math.min(Math.max(0, query.getSkipCount()), hits.docs.length);
+        final int numDocs = query.getMaxItems() > 0 ? Math.min(query.getMaxItems(), RESULT_LIMIT) : RESULT_LIMIT;
+        final int end = Math.min(numSkipDocs + numDocs, hits.docs.length);
+
+        final SearchOccurrencesFinder occurrencesFinder = hits.occurrences == null ? createOccurrencesFinder(query) : null;
+        final List<SearchResultEntry> results = newArrayListWithCapacity(end - numSkipDocs);
+        for (int i = numSkipDocs; i < end; i++) {
+            final String filePath = luceneSearcher.doc(hits.docs[i]).getField("path").stringValue();
+            if (hits.occurrences != null) {
+                results.add(new SearchResultEntry(filePath, query.getMaxOccurrences() > 0 ? hits.occurrences.get(i) : emptyList()));
+            } else if (occurrencesFinder == null) {
+                results.add(new SearchResultEntry(filePath));
+            } else {
+                results.add(new SearchResultEntry(filePath, findOccurrences(occurrencesFinder, filePath, query.getMaxOccurrences())));
+            }
+        }
+
+        final long elapsedTimeMillis = System.currentTimeMillis() - startTime;
+
+        QueryExpression nextPageQueryExpression = null;
+        if (end < hits.docs.length) {
+            nextPageQueryExpression = createNextPageQuery(query, end);
+        }
+
+        return SearchResult.aSearchResult()
+                           .withResults(results)
+                           .withTotalHits(hits.docs.length)
+                           .withNextPageQueryExpression(nextPageQueryExpression)
+                           .withElapsedTimeMillis(elapsedTimeMillis)
+                           .build();
+    }
+
+    private List<SearchOccurrence> findRegexOccurrences(String filePath, Pattern regex, int maxOccurrences) {
+        try {
+            final VirtualFile file = virtualFileSystem.getRoot().getChild(Path.of(filePath));
+            if (file == null || !file.isFile()) {
+                return emptyList();
+            }
+            final String content = SearchOccurrencesFinder.readContent(file);
+            if (content == null) {
+                return emptyList();
+            }
+            return SearchOccurrencesFinder.findOccurrences(content, regex, maxOccurrences);
+        } catch (ServerException e) {
+            throw new IndexingException(e);
+        }
+    }
+
+    private Pattern compileRegex(String regex) throws ServerException {
+        if (regex == null) {
+            return null;
+        }
+        try {
+            return Pattern.compile(regex);
+        } catch (PatternSyntaxException e) {
+            throw new ServerException(e.getMessage());
+        }
+    }
+
+    /**
+     * Creates query that narrows set of files that may contain match of regular expression. Files selected by this query are read and
+     * checked with regular expression, so query may select more files than needed but must not miss any file that contains match. This
+     * implementation selects files which tokens of content contain literal fragments of expression, see {@link TokenQueryBuilder}. It
+     * relies on analyzer of "text" field that is created by this class, subclasses that change it must override this method too.
+     *
+     * @param regex
+     *         regular expression
+     * @return query or {@code null} if set of files may not be narrowed, then each file that is matched by other parameters of query is
+     * checked
+     */
+    protected Query createRegexCandidatesQuery(Pattern regex) {
+        return tokenQueryBuilder.build(regex);
+    }
+
+    private SearchOccurrencesFinder createOccurrencesFinder(QueryExpression query) throws ServerException {
+        if (query.getText() == null || query.getMaxOccurrences() <= 0 || virtualFileSystem == null) {
+            return null;
+        }
+        return new SearchOccurrencesFinder(getIndexWriter().getAnalyzer(), parseTextQuery(query.getText()), "text");
+    }
+
+    private List<SearchOccurrence> findOccurrences(SearchOccurrencesFinder occurrencesFinder, String filePath, int maxOccurrences)
+            throws ServerException {
+        final VirtualFile file = virtualFileSystem.getRoot().getChild(Path.of(filePath));
+        if (file == null || !file.isFile()) {
+            return emptyList();
+        }
+        return occurrencesFinder.findOccurrences(file, maxOccurrences);
+    }
+
+    private Query parseTextQuery(String text) throws ServerException {
+        QueryParser qParser = new QueryParser("text", makeAnalyzer());
+        try {
+            return qParser.parse(text);
+        } catch (ParseException e) {
+            throw new ServerException(e.getMessage());
+        }
+    }
+
+    private Query createLuceneQuery(QueryExpression query, Pattern regex) throws ServerException {
         final BooleanQuery luceneQuery = new BooleanQuery();
         final String name = query.getName();
         final String path = query.getPath();
@@ -248,48 +717,38 @@ public abstract class LuceneSearcher implements Searcher {
             luceneQuery.add(new WildcardQuery(new Term("name", name)), BooleanClause.Occur.MUST);
         }
         if (text != null) {
-            QueryParser qParser = new QueryParser("text", makeAnalyzer());
-            try {
-                luceneQuery.add(qParser.parse(text), BooleanClause.Occur.MUST);
-            } catch (ParseException e) {
-                throw new ServerException(e.getMessage());
-            }
+            luceneQuery.add(parseTextQuery(text), BooleanClause.Occur.MUST);
         }
-        return luceneQuery;
-    }
-
-    private ScoreDoc skipScoreDocs(IndexSearcher luceneSearcher, Query luceneQuery, int numSkipDocs) throws IOException {
-        final int readFrameSize = Math.min(numSkipDocs, RESULT_LIMIT);
-        ScoreDoc scoreDoc = null;
-        int retrievedDocs = 0;
-        TopDocs topDocs;
-        do {
-            topDocs = luceneSearcher.searchAfter(scoreDoc, luceneQuery, readFrameSize);
-            if (topDocs.scoreDocs.length > 0) {
-                scoreDoc = topDocs.scoreDocs[topDocs.scoreDocs.length - 1];
+        if (regex != null) {
+            final Query candidatesQuery = createRegexCandidatesQuery(regex);
+            if (candidatesQuery != null) {
+                luceneQuery.add(candidatesQuery, BooleanClause.Occur.MUST);
             }
-            retrievedDocs += topDocs.scoreDocs.length;
-        } while (retrievedDocs < numSkipDocs && topDocs.scoreDocs.length > 0);
-
-        if (retrievedDocs > numSkipDocs) {
-            int lastScoreDocIndex = topDocs.scoreDocs.length - (retrievedDocs - numSkipDocs);
-            scoreDoc = topDocs.scoreDocs[lastScoreDocIndex];
         }
-
-        return scoreDoc;
+        if (luceneQuery.clauses().isEmpty()) {
+            luceneQuery.add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST);
+        }
+        return luceneQuery;
     }
 
     private QueryExpression createNextPageQuery(QueryExpression originalQuery, int newSkipCount) {
         return new QueryExpression().setText(originalQuery.getText())
+                                    .setRegex(originalQuery.getRegex())
                                     .setName(originalQuery.getName())
                                     .setPath(originalQuery.getPath())
                                     .setSkipCount(newSkipCount)
-                                    .setMaxItems(originalQuery.getMaxItems());
+                                    .setMaxItems(originalQuery.getMaxItems())
+                                    .setMaxOccurrences(originalQuery.getMaxOccurrences());
     }
 
     @Override
     public final void add(VirtualFile virtualFile) throws ServerException {
-        doAdd(virtualFile);
+        final IndexingQueue indexingQueue = getIndexingQueue();
+        if (indexingQueue != null) {
+            queuedSequence.set(indexingQueue.add(virtualFile));
+        } else {
+            doAdd(virtualFile);
+        }
     }
 
     protected void doAdd(VirtualFile virtualFile) throws ServerException {
@@ -300,55 +759,391 @@ public abstract class LuceneSearcher implements Searcher {
         }
     }
 
-    protected void addTree(VirtualFile tree) throws ServerException {
-        final long start = System.currentTimeMillis();
-        final LinkedList<VirtualFile> q = new LinkedList<>();
-        q.add(tree);
-        int indexedFiles = 0;
-        while (!q.isEmpty()) {
-            final VirtualFile folder = q.pop();
-            if (folder.exists()) {
-                for (VirtualFile child : folder.getChildren()) {
-                    if (child.isFolder()) {
-                        q.push(child);
-                    } else {
-                        addFile(child);
-                        indexedFiles++;
-                    }
+    private void indexTree(VirtualFile tree) throws ServerException {
+        if (isIndexReused()) {
+            reconcileTree(tree);
+        } else {
+            addTree(tree);
+        }
+    }
+
+    /**
+     * Brings index in sync with the specified tree. Size and modification date of each file stored in index are compared with actual
+     * ones, only new and changed files are re-indexed, files that do not exist anymore are removed from index. If stored state of files
+     * may not be read index is rebuilt from scratch.
+     */
+    protected void reconcileTree(VirtualFile tree) throws ServerException {
+        final Map<String, IndexedFile> manifest;
+        try {
+            manifest = readManifest();
+        } catch (IOException e) {
+            LOG.warn("Unable read state of indexed files, index will be rebuilt. {}", e.getMessage());
+            try {
+                updateIndexGeneration(getTrackingIndexWriter().deleteAll());
+            } catch (IOException deleteError) {
+                throw new ServerException(deleteError.getMessage(), deleteError);
+            }
+            addTree(tree);
+            return;
+        }
+        final IndexingProgress progress = new IndexingProgress(tree);
+        try {
+            getIndexingPool().invoke(new IndexTreeTask(tree, manifest, progress));
+            if (!manifest.isEmpty()) {
+                updateIndexGeneration(getTrackingIndexWriter().deleteDocuments(
+                        manifest.keySet().stream().map(path -> new Term("path", path)).toArray(Term[]::new)));
+            }
+            getIndexWriter().commit();
+        } catch (IndexingException e) {
+            throw e.getCause();
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        }
+        progress.done();
+        LOG.debug("Removed {} deleted files from index", manifest.size());
+    }
+
+    /** Reads path, size and modification date of all files stored in index. */
+    private Map<String, IndexedFile> readManifest() throws IOException {
+        final Map<String, IndexedFile> manifest = new ConcurrentHashMap<>();
+        final Set<String> fieldsToLoad = ImmutableSet.of("path", "size", "mtime");
+        final IndexSearcher luceneSearcher = searcherManager.acquire();
+        try {
+            final IndexReader reader = luceneSearcher.getIndexReader();
+            final Bits liveDocs = MultiFields.getLiveDocs(reader);
+            for (int i = 0; i < reader.maxDoc(); i++) {
+                if (liveDocs == null || liveDocs.get(i)) {
+                    final Document doc = reader.document(i, fieldsToLoad);
+                    final IndexableField size = doc.getField("size");
+                    final IndexableField mtime = doc.getField("mtime");
+                    manifest.put(doc.get("path"), new IndexedFile(size == null ? -1 : size.numericValue().longValue(),
+                                                                  mtime == null ? -1 : mtime.numericValue().longValue()));
                 }
             }
+        } finally {
+            searcherManager.release(luceneSearcher);
+        }
+        return manifest;
+    }
+
+    /**
+     * Adds all files of the specified tree in index. Tree is walked with fork-join pool, files of each folder are split on chunks and
+     * chunks are read and tokenized concurrently. Documents are buffered by lucene index writer and flushed to the index once its RAM
+     * buffer is full, changes are committed after each {@code commitInterval} documents and at the end of indexing.
+     */
+    protected void addTree(VirtualFile tree) throws ServerException {
+        final IndexingProgress progress = new IndexingProgress(tree);
+        try {
+            getIndexingPool().invoke(new IndexTreeTask(tree, null, progress));
+            getIndexWriter().commit();
+        } catch (IndexingException e) {
+            throw e.getCause();
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
         }
-        final long end = System.currentTimeMillis();
-        LOG.debug("Indexed {} files from {}, time: {} ms", indexedFiles, tree.getPath(), (end - start));
+        progress.done();
     }
 
     protected void addFile(VirtualFile virtualFile) throws ServerException {
+        indexFile(virtualFile);
+    }
+
+    /**
+     * Adds single file in index.
+     *
+     * @return number of bytes of file content that were read for indexing
+     */
+    private long indexFile(VirtualFile virtualFile) throws ServerException {
         if (virtualFile.exists()) {
-            try (Reader fContentReader = shouldIndexContent(virtualFile)
-                                         ? new BufferedReader(new InputStreamReader(virtualFile.getContent()))
-                                         : null) {
-                getIndexWriter()
-                        .updateDocument(new Term("path", virtualFile.getPath().toString()), createDocument(virtualFile, fContentReader));
+            final CountingInputStream content;
+            try {
+                content = shouldIndexContent(virtualFile) ? new CountingInputStream(virtualFile.getContent()) : null;
+            } catch (ForbiddenException e) {
+                throw new ServerException(e.getServiceError());
+            }
+            try (Reader fContentReader = content != null ? new BufferedReader(new InputStreamReader(content)) : null) {
+                updateIndexGeneration(getTrackingIndexWriter().updateDocument(new Term("path", virtualFile.getPath().toString()),
+                                                                              createDocument(virtualFile, fContentReader)));
             } catch (OutOfMemoryError oome) {
                 close();
                 throw oome;
             } catch (IOException e) {
                 throw new ServerException(e.getMessage(), e);
-            } catch (ForbiddenException e) {
-                throw new ServerException(e.getServiceError());
+            }
+            return content != null ? content.getCount() : 0;
+        }
+        return 0;
+    }
+
+    private synchronized ForkJoinPool getIndexingPool() {
+        return indexingPool;
+    }
+
+    private synchronized int getCommitInterval() {
+        return commitInterval;
+    }
+
+    private void commitIfNeeded(int indexedFiles) throws ServerException {
+        final int interval = getCommitInterval();
+        if (interval > 0 && indexedFiles % interval == 0) {
+            try {
+                getIndexWriter().commit();
+            } catch (IOException e) {
+                throw new ServerException(e.getMessage(), e);
             }
         }
     }
 
+    /**
+     * Indexes files of folder and forks tasks for indexing its sub-folders. If manifest of already indexed files is provided then only
+     * new and changed files are indexed, all visited files are removed from the manifest.
+     */
+    private class IndexTreeTask extends RecursiveAction {
+        private final VirtualFile              folder;
+        private final Map<String, IndexedFile> manifest;
+        private final IndexingProgress         progress;
+
+        IndexTreeTask(VirtualFile folder, Map<String, IndexedFile> manifest, IndexingProgress progress) {
+            this.folder = folder;
+            this.manifest = manifest;
+            this.progress = progress;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                if (!folder.exists()) {
+                    return;
+                }
+                final List<RecursiveAction> subTasks = newArrayList();
+                final List<VirtualFile> files = newArrayList();
+                for (VirtualFile child : folder.getChildren()) {
+                    if (child.isFolder()) {
+                        subTasks.add(new IndexTreeTask(child, manifest, progress));
+                    } else {
+                        files.add(child);
+                    }
+                }
+                for (int from = 0; from < files.size(); from += FILES_PER_INDEXING_TASK) {
+                    subTasks.add(new IndexFilesTask(files.subList(from, Math.min(from + FILES_PER_INDEXING_TASK, files.size())),
+                                                    manifest,
+                                                    progress));
+                }
+                invokeAll(subTasks);
+            } catch (ServerException e) {
+                throw new IndexingException(e);
+            }
+        }
+    }
+
+    /** Reads and adds in index chunk of files. */
+    private class IndexFilesTask extends RecursiveAction {
+        private final List<VirtualFile>        files;
+        private final Map<String, IndexedFile> manifest;
+        private final IndexingProgress         progress;
+
+        IndexFilesTask(List<VirtualFile> files, Map<String, IndexedFile> manifest, IndexingProgress progress) {
+            this.files = files;
+            this.manifest = manifest;
+            this.progress = progress;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                for (VirtualFile file : files) {
+                    if (manifest != null) {
+                        final IndexedFile indexed = manifest.remove(file.getPath().toString());
+                        if (indexed != null && indexed.isUpToDate(file)) {
+                            continue;
+                        }
+                    }
+                    commitIfNeeded(progress.fileIndexed(indexFile(file)));
+                }
+            } catch (ServerException e) {
+                throw new IndexingException(e);
+            }
+        }
+    }
+
+    /** Tracks number of indexed files and bytes and reports indexing throughput. */
+    private static class IndexingProgress {
+        private final String        treePath;
+        private final long          startTime;
+        private final AtomicInteger indexedFiles;
+        private final AtomicLong    indexedBytes;
+
+        IndexingProgress(VirtualFile tree) {
+            treePath = tree.getPath().toString();
+            startTime = System.nanoTime();
+            indexedFiles = new AtomicInteger();
+            indexedBytes = new AtomicLong();
+        }
+
+        int fileIndexed(long bytes) {
+            final long totalBytes = indexedBytes.addAndGet(bytes);
+            final int totalFiles = indexedFiles.incrementAndGet();
+            if (totalFiles % PROGRESS_REPORT_INTERVAL == 0) {
+                final long elapsed = elapsedMillis();
+                LOG.info("Indexing of {} in progress, indexed {} files, {} files/s, {} KB/s",
+                         treePath, totalFiles, perSecond(totalFiles, elapsed), perSecond(totalBytes, elapsed) / 1024);
+            }
+            return totalFiles;
+        }
+
+        void done() {
+            final long elapsed = elapsedMillis();
+            final int totalFiles = indexedFiles.get();
+            final long totalBytes = indexedBytes.get();
+            LOG.debug("Indexed {} files ({} bytes) from {}, time: {} ms, {} files/s, {} KB/s",
+                      totalFiles, totalBytes, treePath, elapsed, perSecond(totalFiles, elapsed), perSecond(totalBytes, elapsed) / 1024);
+        }
+
+        private long elapsedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        }
+
+        private static long perSecond(long count, long elapsedMillis) {
+            return elapsedMillis > 0 ? count * 1000 / elapsedMillis : count;
+        }
+    }
+
+    /** State of file at the moment when it was indexed. */
+    private static class IndexedFile {
+        private final long size;
+        private final long lastModificationDate;
+
+        IndexedFile(long size, long lastModificationDate) {
+            this.size = size;
+            this.lastModificationDate = lastModificationDate;
+        }
+
+        boolean isUpToDate(VirtualFile file) throws ServerException {
+            return size == file.getLength() && lastModificationDate == file.getLastModificationDate();
+        }
+    }
+
+    /** Hits of query in order of relevance, pages of search result are taken from them. */
+    private static class Hits {
+        /* Ids of documents, they are valid only for the version of index reader that hits are found with. */
+        final int[]                        docs;
+        /* Occurrences of regular expression in files of hits or null if query has no regular expression. */
+        final List<List<SearchOccurrence>> occurrences;
+
+        Hits(int[] docs, List<List<SearchOccurrence>> occurrences) {
+            this.docs = docs;
+            this.occurrences = occurrences;
+        }
+    }
+
+    /** Key of cached hits: parameters of query except of those that select page and version of index reader that hits are found with. */
+    private static class HitsKey {
+        private final String name;
+        private final String path;
+        private final String text;
+        private final String regex;
+        private final int    maxOccurrences;
+        private final long   readerVersion;
+
+        HitsKey(QueryExpression query, long readerVersion) {
+            name = query.getName();
+            path = query.getPath();
+            text = query.getText();
+            regex = query.getRegex();
+            maxOccurrences = query.getMaxOccurrences();
+            this.readerVersion = readerVersion;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof HitsKey)) {
+                return false;
+            }
+            final HitsKey other = (HitsKey)o;
+            return maxOccurrences == other.maxOccurrences
+                   && readerVersion == other.readerVersion
+                   && Objects.equals(name, other.name)
+                   && Objects.equals(path, other.path)
+                   && Objects.equals(text, other.text)
+                   && Objects.equals(regex, other.regex);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, path, text, regex, maxOccurrences, readerVersion);
+        }
+    }
+
+    /** Applies changes of index that are taken from {@link IndexingQueue}. */
+    private class QueuedChangesIndexer implements IndexingQueue.Indexer {
+        @Override
+        public void add(VirtualFile virtualFile) throws ServerException {
+            doAdd(virtualFile);
+        }
+
+        @Override
+        public void update(VirtualFile virtualFile) throws ServerException {
+            doUpdate(new Term("path", virtualFile.getPath().toString()), virtualFile);
+        }
+
+        @Override
+        public void delete(String path, boolean isFile) throws ServerException {
+            doDelete(path, isFile);
+        }
+
+        @Override
+        public void commit() throws ServerException {
+            try {
+                getIndexWriter().commit();
+            } catch (IOException e) {
+                throw new ServerException(e.getMessage(), e);
+            }
+        }
+    }
+
+    /** Carries checked exception out of fork-join tasks. */
+    private static class IndexingException extends RuntimeException {
+        IndexingException(ServerException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized ServerException getCause() {
+            return (ServerException)super.getCause();
+        }
+    }
+
+    private static class IndexingThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+        @Override
+        public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("LuceneIndexingThread-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
     @Override
     public final void delete(String path, boolean isFile) throws ServerException {
+        final IndexingQueue indexingQueue = getIndexingQueue();
+        if (indexingQueue != null) {
+            queuedSequence.set(indexingQueue.delete(path, isFile));
+        } else {
+            doDelete(path, isFile);
+        }
+    }
+
+    private void doDelete(String path, boolean isFile) throws ServerException {
         try {
             if (isFile) {
                 Term term = new Term("path", path);
-                getIndexWriter().deleteDocuments(term);
+                updateIndexGeneration(getTrackingIndexWriter().deleteDocuments(term));
             } else {
                 Term term = new Term("path", path + "/");
-                getIndexWriter().deleteDocuments(new PrefixQuery(term));
+                updateIndexGeneration(getTrackingIndexWriter().deleteDocuments(new PrefixQuery(term)));
             }
         } catch (OutOfMemoryError oome) {
             close();
@@ -360,14 +1155,19 @@ public abstract class LuceneSearcher implements Searcher {
 
     @Override
     public final void update(VirtualFile virtualFile) throws ServerException {
-        doUpdate(new Term("path", virtualFile.getPath().toString()), virtualFile);
+        final IndexingQueue indexingQueue = getIndexingQueue();
+        if (indexingQueue != null) {
+            queuedSequence.set(indexingQueue.update(virtualFile));
+        } else {
+            doUpdate(new Term("path", virtualFile.getPath().toString()), virtualFile);
+        }
     }
 
     protected void doUpdate(Term deleteTerm, VirtualFile virtualFile) throws ServerException {
         try (Reader fContentReader = shouldIndexContent(virtualFile)
                                      ? new BufferedReader(new InputStreamReader(virtualFile.getContent()))
                                      : null) {
-            getIndexWriter().updateDocument(deleteTerm, createDocument(virtualFile, fContentReader));
+            updateIndexGeneration(getTrackingIndexWriter().updateDocument(deleteTerm, createDocument(virtualFile, fContentReader)));
         } catch (OutOfMemoryError oome) {
             close();
             throw oome;
@@ -382,6 +1182,8 @@ public abstract class LuceneSearcher implements Searcher {
         final Document doc = new Document();
         doc.add(new StringField("path", virtualFile.getPath().toString(), Field.Store.YES));
         doc.add(new StringField("name", virtualFile.getName(), Field.Store.YES));
+        doc.add(new StoredField("size", virtualFile.getLength()));
+        doc.add(new StoredField("mtime", virtualFile.getLastModificationDate()));
         if (reader != null) {
             doc.add(new TextField("text", reader));
         }
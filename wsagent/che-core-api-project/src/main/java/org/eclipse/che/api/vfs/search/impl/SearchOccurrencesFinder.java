@@ -0,0 +1,257 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import com.google.common.io.CharStreams;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.PhraseQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.WildcardQuery;
+import org.eclipse.che.api.core.ForbiddenException;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.search.SearchOccurrence;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.Collections.emptyList;
+
+/**
+ * Finds occurrences of terms of lucene query in content of files. Content is tokenized with the same analyzer that is used for indexing,
+ * so found occurrences correspond to tokens that are matched by the query. Only files from the current page of search result are
+ * processed, so this is much cheaper than opening and scanning each found file on the client side.
+ */
+class SearchOccurrencesFinder {
+    /** Max length of snippet of line that contains occurrence. */
+    static final int  SNIPPET_LENGTH  = 120;
+    /** Occurrences are not looked for in files that are bigger than this limit. */
+    static final long MAX_FILE_LENGTH = 5 * 1024 * 1024; // 5M
+
+    private final Analyzer                analyzer;
+    private final String                  field;
+    private final List<Predicate<String>> termMatchers;
+
+    /**
+     * @param analyzer
+     *         analyzer that is used for indexing of file content
+     * @param query
+     *         query over file content
+     * @param field
+     *         name of field that contains file content in index
+     */
+    SearchOccurrencesFinder(Analyzer analyzer, Query query, String field) {
+        this.analyzer = analyzer;
+        this.field = field;
+        this.termMatchers = newArrayList();
+        collectTermMatchers(query);
+    }
+
+    private void collectTermMatchers(Query query) {
+        if (query instanceof BooleanQuery) {
+            for (BooleanClause clause : ((BooleanQuery)query).clauses()) {
+                if (!clause.isProhibited()) {
+                    collectTermMatchers(clause.getQuery());
+                }
+            }
+        } else if (query instanceof TermQuery) {
+            addExactMatcher(((TermQuery)query).getTerm());
+        } else if (query instanceof PhraseQuery) {
+            for (Term term : ((PhraseQuery)query).getTerms()) {
+                addExactMatcher(term);
+            }
+        } else if (query instanceof FuzzyQuery) {
+            addExactMatcher(((FuzzyQuery)query).getTerm());
+        } else if (query instanceof PrefixQuery) {
+            final Term prefix = ((PrefixQuery)query).getPrefix();
+            if (field.equals(prefix.field())) {
+                final String text = prefix.text();
+                termMatchers.add(token -> token.startsWith(text));
+            }
+        } else if (query instanceof WildcardQuery) {
+            final Term wildcard = ((WildcardQuery)query).getTerm();
+            if (field.equals(wildcard.field())) {
+                final Pattern pattern = wildcardToPattern(wildcard.text());
+                termMatchers.add(token -> pattern.matcher(token).matches());
+            }
+        }
+    }
+
+    private void addExactMatcher(Term term) {
+        if (field.equals(term.field())) {
+            final String text = term.text();
+            termMatchers.add(text::equals);
+        }
+    }
+
+    private static Pattern wildcardToPattern(String wildcard) {
+        final StringBuilder regex = new StringBuilder();
+        for (char c : wildcard.toCharArray()) {
+            if (c == WildcardQuery.WILDCARD_STRING) {
+                regex.append(".*");
+            } else if (c == WildcardQuery.WILDCARD_CHAR) {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    /**
+     * Finds occurrences of query terms in content of the specified file.
+     *
+     * @param file
+     *         file
+     * @param maxOccurrences
+     *         max number of occurrences that should be found
+     * @return occurrences or empty list if there is no occurrences or the file is too big
+     */
+    List<SearchOccurrence> findOccurrences(VirtualFile file, int maxOccurrences) throws ServerException {
+        if (termMatchers.isEmpty() || maxOccurrences <= 0) {
+            return emptyList();
+        }
+        final String content = readContent(file);
+        if (content == null) {
+            return emptyList();
+        }
+        try {
+            return findOccurrences(content, maxOccurrences);
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        }
+    }
+
+    List<SearchOccurrence> findOccurrences(String content, int maxOccurrences) throws IOException {
+        final List<SearchOccurrence> occurrences = newArrayList();
+        try (TokenStream tokenStream = analyzer.tokenStream(field, new StringReader(content))) {
+            final CharTermAttribute termAttribute = tokenStream.addAttribute(CharTermAttribute.class);
+            final OffsetAttribute offsetAttribute = tokenStream.addAttribute(OffsetAttribute.class);
+            final LineTracker lines = new LineTracker(content);
+            tokenStream.reset();
+            while (occurrences.size() < maxOccurrences && tokenStream.incrementToken()) {
+                if (matches(termAttribute.toString())) {
+                    occurrences.add(lines.createOccurrence(offsetAttribute.startOffset(), offsetAttribute.endOffset()));
+                }
+            }
+            tokenStream.end();
+        }
+        return occurrences;
+    }
+
+    /**
+     * Finds matches of regular expression in content.
+     *
+     * @param content
+     *         content of file
+     * @param pattern
+     *         regular expression
+     * @param maxOccurrences
+     *         max number of occurrences that should be found
+     * @return occurrences or empty list if there is no match of expression in content
+     */
+    static List<SearchOccurrence> findOccurrences(String content, Pattern pattern, int maxOccurrences) {
+        final List<SearchOccurrence> occurrences = newArrayList();
+        final Matcher matcher = pattern.matcher(content);
+        final LineTracker lines = new LineTracker(content);
+        while (occurrences.size() < maxOccurrences && matcher.find()) {
+            occurrences.add(lines.createOccurrence(matcher.start(), matcher.end()));
+        }
+        return occurrences;
+    }
+
+    /**
+     * Reads content of file as string.
+     *
+     * @return content of file or {@code null} if file is bigger than {@link #MAX_FILE_LENGTH}
+     */
+    static String readContent(VirtualFile file) throws ServerException {
+        if (file.getLength() > MAX_FILE_LENGTH) {
+            return null;
+        }
+        try (Reader reader = new InputStreamReader(file.getContent())) {
+            return CharStreams.toString(reader);
+        } catch (ForbiddenException e) {
+            throw new ServerException(e.getServiceError());
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        }
+    }
+
+    private boolean matches(String token) {
+        for (Predicate<String> termMatcher : termMatchers) {
+            if (termMatcher.test(token)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Converts offsets in content to line and columns. Offsets must be passed in ascending order. */
+    private static class LineTracker {
+        private final String content;
+
+        private int position;
+        private int lineNumber;
+        private int lineStart;
+
+        LineTracker(String content) {
+            this.content = content;
+            this.lineNumber = 1;
+        }
+
+        SearchOccurrence createOccurrence(int startOffset, int endOffset) {
+            for (; position < startOffset; position++) {
+                if (content.charAt(position) == '\n') {
+                    lineNumber++;
+                    lineStart = position + 1;
+                }
+            }
+            int lineEnd = content.indexOf('\n', startOffset);
+            if (lineEnd < 0) {
+                lineEnd = content.length();
+            }
+            if (lineEnd > lineStart && content.charAt(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            final int startColumn = startOffset - lineStart;
+            final int endColumn = Math.min(endOffset, lineEnd) - lineStart;
+            final int lineLength = lineEnd - lineStart;
+
+            int snippetStart = 0;
+            int snippetEnd = lineLength;
+            if (lineLength > SNIPPET_LENGTH) {
+                snippetStart = Math.max(0, startColumn - Math.max(0, SNIPPET_LENGTH - (endColumn - startColumn)) / 2);
+                snippetEnd = Math.min(lineLength, snippetStart + SNIPPET_LENGTH);
+                snippetStart = Math.max(0, snippetEnd - SNIPPET_LENGTH);
+            }
+            final String snippet = content.substring(lineStart + snippetStart, lineStart + snippetEnd);
+            return new SearchOccurrence(lineNumber, startColumn, endColumn, startOffset, endOffset, snippet, snippetStart);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.RegexpQuery;
+import org.apache.lucene.search.WildcardQuery;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Builds query over field that contains lower-cased whitespace separated tokens of file content. Query selects files that have tokens
+ * containing each whitespace separated part of literal fragments that any match of regular expression must contain, see
+ * {@link TrigramQueryBuilder} for how fragments are found. E.g. for expression {@code "new\\s+Foo\\(bar"} only files that have tokens
+ * matching {@code *new*} and {@code *foo(bar*} are selected. Query is much cheaper than checking of each file with expression since it
+ * goes through terms of index only.
+ * <p>
+ * Tokenizer cuts tokens that are longer than 255 chars, so literal fragment may be split between two tokens. Files that have long tokens
+ * are always selected.
+ */
+class TokenQueryBuilder {
+    /* Token that is cut by tokenizer has 255 chars, that is at least 128 code points. */
+    private static final String LONG_TOKEN_REGEXP = ".{128,}";
+
+    private final String field;
+
+    /**
+     * @param field
+     *         name of field that contains lower-cased content of file tokenized by whitespaces
+     */
+    TokenQueryBuilder(String field) {
+        this.field = field;
+    }
+
+    /**
+     * Creates query for the specified regular expression.
+     *
+     * @param pattern
+     *         regular expression
+     * @return query or {@code null} if any alternative of expression has no literal fragments
+     */
+    Query build(Pattern pattern) {
+        final List<String> alternatives = TrigramQueryBuilder.analyzableAlternatives(pattern);
+        if (alternatives == null) {
+            return null;
+        }
+        if (alternatives.size() == 1) {
+            return buildAlternative(alternatives.get(0));
+        }
+        final BooleanQuery query = new BooleanQuery();
+        for (String alternative : alternatives) {
+            final Query alternativeQuery = buildAlternative(alternative);
+            if (alternativeQuery == null) {
+                return null;
+            }
+            query.add(alternativeQuery, BooleanClause.Occur.SHOULD);
+        }
+        return query;
+    }
+
+    private Query buildAlternative(String regex) {
+        final Set<String> parts = new LinkedHashSet<>();
+        for (String literal : TrigramQueryBuilder.requiredLiterals(regex)) {
+            parts.addAll(tokenParts(literal));
+        }
+        if (parts.isEmpty()) {
+            return null;
+        }
+        final BooleanQuery query = new BooleanQuery();
+        for (String part : parts) {
+            final BooleanQuery partQuery = new BooleanQuery();
+            partQuery.add(new WildcardQuery(new Term(field, '*' + escapeWildcards(part) + '*')), BooleanClause.Occur.SHOULD);
+            partQuery.add(new RegexpQuery(new Term(field, LONG_TOKEN_REGEXP)), BooleanClause.Occur.SHOULD);
+            query.add(partQuery, BooleanClause.Occur.MUST);
+        }
+        return query;
+    }
+
+    /** Splits literal by whitespaces in the same way as tokenizer does and converts parts to lower case. */
+    static Set<String> tokenParts(String literal) {
+        final Set<String> parts = new LinkedHashSet<>();
+        final StringBuilder current = new StringBuilder();
+        for (int i = 0; i < literal.length(); ) {
+            final int codePoint = literal.codePointAt(i);
+            if (Character.isWhitespace(codePoint)) {
+                if (current.length() > 0) {
+                    parts.add(current.toString());
+                    current.setLength(0);
+                }
+            } else {
+                current.appendCodePoint(Character.toLowerCase(codePoint));
+            }
+            i += Character.charCount(codePoint);
+        }
+        if (current.length() > 0) {
+            parts.add(current.toString());
+        }
+        return parts;
+    }
+
+    private static String escapeWildcards(String part) {
+        final StringBuilder escaped = new StringBuilder(part.length());
+        for (int i = 0; i < part.length(); i++) {
+            final char c = part.charAt(i);
+            if (c == WildcardQuery.WILDCARD_STRING || c == WildcardQuery.WILDCARD_CHAR || c == WildcardQuery.WILDCARD_ESCAPE) {
+                escaped.append(WildcardQuery.WILDCARD_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
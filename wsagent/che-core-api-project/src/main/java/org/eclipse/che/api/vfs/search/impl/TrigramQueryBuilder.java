@@ -0,0 +1,345 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+/**
+ * Builds query over field that contains trigrams of file content. Query selects files that contain all trigrams of literal fragments that
+ * any match of regular expression must contain. E.g. each match of expression {@code "class\\s+Foo(Bar)?"} contains {@code "class"} and
+ * {@code "Foo"}, so only files that contain trigrams {@code "cla", "las", "ass", "foo"} are selected. Alternatives on top level of
+ * expression are combined with OR. Query is case insensitive because trigrams are indexed in lower case. Groups, character classes and
+ * escaped character classes are not analyzed and break literal fragments, so selected files must be checked with expression itself.
+ */
+class TrigramQueryBuilder {
+    private static final Pattern COMMENTS_FLAG = Pattern.compile("\\(\\?[a-zA-Z]*x");
+
+    private final String field;
+
+    /**
+     * @param field
+     *         name of field that contains lower-cased trigrams of file content
+     */
+    TrigramQueryBuilder(String field) {
+        this.field = field;
+    }
+
+    /**
+     * Creates query for the specified regular expression.
+     *
+     * @param pattern
+     *         regular expression
+     * @return query or {@code null} if there are no literal fragments which are long enough to narrow search
+     */
+    Query build(Pattern pattern) {
+        final List<String> alternatives = analyzableAlternatives(pattern);
+        if (alternatives == null) {
+            return null;
+        }
+        if (alternatives.size() == 1) {
+            return buildAlternative(alternatives.get(0));
+        }
+        final BooleanQuery query = new BooleanQuery();
+        for (String alternative : alternatives) {
+            final Query alternativeQuery = buildAlternative(alternative);
+            if (alternativeQuery == null) {
+                return null;
+            }
+            query.add(alternativeQuery, BooleanClause.Occur.SHOULD);
+        }
+        return query;
+    }
+
+    private Query buildAlternative(String regex) {
+        final Set<String> trigrams = new LinkedHashSet<>();
+        for (String literal : requiredLiterals(regex)) {
+            trigrams.addAll(trigrams(literal));
+        }
+        if (trigrams.isEmpty()) {
+            return null;
+        }
+        final BooleanQuery query = new BooleanQuery();
+        for (String trigram : trigrams) {
+            query.add(new TermQuery(new Term(field, trigram)), BooleanClause.Occur.MUST);
+        }
+        return query;
+    }
+
+    /**
+     * Returns top level alternatives of expression or {@code null} if expression may not be analyzed, e.g. whitespaces and comments are
+     * ignored in expression or whole expression is literal.
+     */
+    static List<String> analyzableAlternatives(Pattern pattern) {
+        final String regex = pattern.pattern();
+        if ((pattern.flags() & (Pattern.COMMENTS | Pattern.LITERAL)) != 0 || COMMENTS_FLAG.matcher(regex).find()) {
+            return null;
+        }
+        return splitAlternatives(regex);
+    }
+
+    /** Splits expression by '|' characters that are not nested in groups or character classes. */
+    static List<String> splitAlternatives(String regex) {
+        final List<String> alternatives = newArrayList();
+        int start = 0;
+        int i = 0;
+        while (i < regex.length()) {
+            final char c = regex.charAt(i);
+            if (c == '\\') {
+                i = skipEscape(regex, i);
+            } else if (c == '[') {
+                i = skipCharacterClass(regex, i);
+            } else if (c == '(') {
+                i = skipGroup(regex, i);
+            } else if (c == '|') {
+                alternatives.add(regex.substring(start, i));
+                start = ++i;
+            } else {
+                i++;
+            }
+        }
+        alternatives.add(regex.substring(start));
+        return alternatives;
+    }
+
+    /** Collects literal fragments that each match of expression without top level alternatives contains. */
+    static List<String> requiredLiterals(String regex) {
+        final List<String> literals = newArrayList();
+        final StringBuilder current = new StringBuilder();
+        int i = 0;
+        while (i < regex.length()) {
+            final char c = regex.charAt(i);
+            switch (c) {
+                case '\\':
+                    final int next = i + 1 < regex.length() ? regex.charAt(i + 1) : -1;
+                    if (next == 'Q') {
+                        int end = regex.indexOf("\\E", i + 2);
+                        if (end < 0) {
+                            end = regex.length();
+                        }
+                        current.append(regex, i + 2, end);
+                        i = Math.min(regex.length(), end + 2);
+                    } else if (next == 't' || next == 'n' || next == 'r' || next == 'f') {
+                        current.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : '\f');
+                        i += 2;
+                    } else if (next >= 0 && !Character.isLetterOrDigit(next)) {
+                        current.append((char)next);
+                        i += 2;
+                    } else {
+                        flush(current, literals);
+                        i = skipEscape(regex, i);
+                    }
+                    break;
+                case '[':
+                    flush(current, literals);
+                    i = skipCharacterClass(regex, i);
+                    break;
+                case '(':
+                    flush(current, literals);
+                    i = skipGroup(regex, i);
+                    break;
+                case '.':
+                case '^':
+                case '$':
+                    flush(current, literals);
+                    i++;
+                    break;
+                case '*':
+                case '?':
+                    dropLast(current);
+                    flush(current, literals);
+                    i = skipQuantifierModifier(regex, i + 1);
+                    break;
+                case '+':
+                    i = skipQuantifierModifier(regex, i + 1);
+                    repeatLast(current, literals);
+                    break;
+                case '{':
+                    int end = regex.indexOf('}', i);
+                    if (end < 0) {
+                        end = regex.length() - 1;
+                    }
+                    if (minRepetitions(regex.substring(i + 1, end)) == 0) {
+                        dropLast(current);
+                        flush(current, literals);
+                    } else {
+                        repeatLast(current, literals);
+                    }
+                    i = skipQuantifierModifier(regex, end + 1);
+                    break;
+                default:
+                    current.append(c);
+                    i++;
+            }
+        }
+        flush(current, literals);
+        return literals;
+    }
+
+    /** Returns distinct lower-cased trigrams of the specified string. */
+    static Set<String> trigrams(String literal) {
+        final Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= literal.length(); i++) {
+            final char[] trigram = literal.substring(i, i + 3).toCharArray();
+            for (int j = 0; j < trigram.length; j++) {
+                trigram[j] = Character.toLowerCase(trigram[j]);
+            }
+            trigrams.add(new String(trigram));
+        }
+        return trigrams;
+    }
+
+    private static void flush(StringBuilder current, List<String> literals) {
+        if (current.length() > 0) {
+            literals.add(current.toString());
+            current.setLength(0);
+        }
+    }
+
+    private static void dropLast(StringBuilder current) {
+        if (current.length() > 0) {
+            current.setLength(current.length() - 1);
+        }
+    }
+
+    /**
+     * Last character is repeated at least once, so it ends current fragment and starts the next one, e.g. "ab+c" gives fragments "ab" and
+     * "bc".
+     */
+    private static void repeatLast(StringBuilder current, List<String> literals) {
+        if (current.length() > 0) {
+            final char last = current.charAt(current.length() - 1);
+            flush(current, literals);
+            current.append(last);
+        }
+    }
+
+    /** Returns min number of repetitions of bounded quantifier, e.g. 2 for "2,5". */
+    private static int minRepetitions(String bounds) {
+        final int comma = bounds.indexOf(',');
+        try {
+            return Integer.parseInt((comma < 0 ? bounds : bounds.substring(0, comma)).trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static int skipQuantifierModifier(String regex, int i) {
+        if (i < regex.length() && (regex.charAt(i) == '?' || regex.charAt(i) == '+')) {
+            return i + 1;
+        }
+        return i;
+    }
+
+    /** Returns index of character that follows escape sequence which starts at the specified index. */
+    private static int skipEscape(String regex, int i) {
+        if (i + 1 >= regex.length()) {
+            return regex.length();
+        }
+        final char c = regex.charAt(i + 1);
+        int end = i + 2;
+        switch (c) {
+            case 'Q':
+                final int quoteEnd = regex.indexOf("\\E", end);
+                return quoteEnd < 0 ? regex.length() : quoteEnd + 2;
+            case 'p':
+            case 'P':
+            case 'N':
+            case 'x':
+                if (end < regex.length() && regex.charAt(end) == '{') {
+                    final int braceEnd = regex.indexOf('}', end);
+                    return braceEnd < 0 ? regex.length() : braceEnd + 1;
+                }
+                return Math.min(regex.length(), end + (c == 'x' ? 2 : 1));
+            case 'u':
+                return Math.min(regex.length(), end + 4);
+            case 'c':
+                return Math.min(regex.length(), end + 1);
+            case 'k':
+                final int nameEnd = regex.indexOf('>', end);
+                return nameEnd < 0 ? regex.length() : nameEnd + 1;
+            case '0':
+                while (end < regex.length() && end < i + 5 && regex.charAt(end) >= '0' && regex.charAt(end) <= '7') {
+                    end++;
+                }
+                return end;
+            default:
+                if (Character.isDigit(c)) {
+                    while (end < regex.length() && Character.isDigit(regex.charAt(end))) {
+                        end++;
+                    }
+                }
+                return end;
+        }
+    }
+
+    /** Returns index of character that follows character class which starts at the specified index. */
+    private static int skipCharacterClass(String regex, int i) {
+        int depth = 0;
+        int j = i;
+        while (j < regex.length()) {
+            final char c = regex.charAt(j);
+            if (c == '\\') {
+                j = skipEscape(regex, j);
+                continue;
+            }
+            if (c == '[') {
+                depth++;
+                j++;
+                // ']' right after opening bracket or negation is literal
+                if (j < regex.length() && regex.charAt(j) == '^') {
+                    j++;
+                }
+                if (j < regex.length() && regex.charAt(j) == ']') {
+                    j++;
+                }
+                continue;
+            }
+            if (c == ']' && --depth == 0) {
+                return j + 1;
+            }
+            j++;
+        }
+        return regex.length();
+    }
+
+    /** Returns index of character that follows group which starts at the specified index. */
+    private static int skipGroup(String regex, int i) {
+        int depth = 0;
+        int j = i;
+        while (j < regex.length()) {
+            final char c = regex.charAt(j);
+            if (c == '\\') {
+                j = skipEscape(regex, j);
+            } else if (c == '[') {
+                j = skipCharacterClass(regex, j);
+            } else {
+                if (c == '(') {
+                    depth++;
+                } else if (c == ')' && --depth == 0) {
+                    return j + 1;
+                }
+                j++;
+            }
+        }
+        return regex.length();
+    }
+}
@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.util;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.primitives.Bytes;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.eclipse.che.api.core.util.FileCleaner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+
+/**
+ * Spools TAR stream and checks that it may be read till the end, so broken or truncated archive is rejected before anything is extracted
+ * from it.
+ */
+public final class TarContent {
+    /** Memory threshold. If tar stream over this size it spooled in file. */
+    private static final int KEEP_IN_MEMORY_THRESHOLD = 200 * 1024;
+    private static final int COPY_BUFFER_SIZE         = 8 * 1024;
+    private static final int RECORD_SIZE              = 512;
+    /** TAR archive ends with two records filled with zeros. */
+    private static final int END_OF_ARCHIVE_SIZE      = 2 * RECORD_SIZE;
+
+    public static TarContent of(InputStream in) throws IOException {
+        java.io.File file = null;
+        byte[] inMemory = null;
+
+        int count = 0;
+        ByteArrayOutputStream inMemorySpool = new ByteArrayOutputStream(KEEP_IN_MEMORY_THRESHOLD);
+
+        int bytes;
+        final byte[] buff = new byte[COPY_BUFFER_SIZE];
+        while (count <= KEEP_IN_MEMORY_THRESHOLD && (bytes = in.read(buff)) != -1) {
+            inMemorySpool.write(buff, 0, bytes);
+            count += bytes;
+        }
+
+        try {
+            final byte[] tail = new byte[END_OF_ARCHIVE_SIZE];
+            final long length;
+            if (count > KEEP_IN_MEMORY_THRESHOLD) {
+                file = java.io.File.createTempFile("import", ".tar");
+                try (FileOutputStream fileSpool = new FileOutputStream(file)) {
+                    inMemorySpool.writeTo(fileSpool);
+                    ByteStreams.copy(in, fileSpool);
+                }
+                try (RandomAccessFile spool = new RandomAccessFile(file, "r")) {
+                    length = spool.length();
+                    spool.seek(length - END_OF_ARCHIVE_SIZE);
+                    spool.readFully(tail);
+                }
+            } else {
+                inMemory = inMemorySpool.toByteArray();
+                length = inMemory.length;
+                if (length >= END_OF_ARCHIVE_SIZE) {
+                    System.arraycopy(inMemory, inMemory.length - END_OF_ARCHIVE_SIZE, tail, 0, END_OF_ARCHIVE_SIZE);
+                }
+            }
+            // Archive that is cut at boundary of entries looks like valid one for TarArchiveInputStream,
+            // so check it ends with two zero records as required by TAR format.
+            if (length < END_OF_ARCHIVE_SIZE || length % RECORD_SIZE != 0 || !Bytes.asList(tail).stream().allMatch(b -> b == 0)) {
+                throw new IOException("Truncated TAR archive");
+            }
+
+            try (TarArchiveInputStream tar = new TarArchiveInputStream(inMemory == null ? new FileInputStream(file)
+                                                                                       : new ByteArrayInputStream(inMemory))) {
+                while (tar.getNextTarEntry() != null) {
+                    while (tar.read(buff) != -1) {
+                        // read content of entry to check it is not truncated
+                    }
+                }
+            }
+        } catch (IOException e) {
+            if (file != null) {
+                FileCleaner.addFile(file);
+            }
+            throw e;
+        }
+
+        return new TarContent(inMemory == null ? new DeleteOnCloseFileInputStream(file) : new ByteArrayInputStream(inMemory));
+    }
+
+    private final InputStream tarContent;
+
+    private TarContent(InputStream tarContent) {
+        this.tarContent = tarContent;
+    }
+
+    public InputStream getContent() {
+        return tarContent;
+    }
+}
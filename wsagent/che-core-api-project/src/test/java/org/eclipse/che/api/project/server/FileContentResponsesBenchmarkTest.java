@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import com.google.common.io.ByteStreams;
+
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.impl.file.LocalVirtualFileSystem;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Compares throughput of download of file content with {@link VirtualFile#getContent()} and with {@link FileContentResponses}.
+ * This test is excluded from regular build, run it manually.
+ */
+public class FileContentResponsesBenchmarkTest {
+    private static final Logger LOG = LoggerFactory.getLogger(FileContentResponsesBenchmarkTest.class);
+
+    private static final int FILE_SIZE  = 64 * 1024 * 1024;
+    private static final int ITERATIONS = 20;
+
+    private File        workDirectory;
+    private VirtualFile file;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        workDirectory = Files.createTempDirectory("download-").toFile();
+        byte[] content = new byte[FILE_SIZE];
+        new Random().nextBytes(content);
+        LocalVirtualFileSystem fileSystem = new LocalVirtualFileSystem(workDirectory, null, null, null);
+        file = fileSystem.getRoot().createFile("file.bin", new ByteArrayInputStream(content));
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        IoUtil.deleteRecursive(workDirectory);
+    }
+
+    @Test
+    public void comparesThroughput() throws Exception {
+        Request request = mock(Request.class);
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                CountingOutputStream output = new CountingOutputStream();
+                try (InputStream content = file.getContent()) {
+                    ByteStreams.copy(content, output);
+                }
+                assertEquals(output.count, FILE_SIZE);
+            }
+            long streamTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                CountingOutputStream output = new CountingOutputStream();
+                ((StreamingOutput)FileContentResponses.create(file, request, null, null).build().getEntity()).write(output);
+                assertEquals(output.count, FILE_SIZE);
+            }
+            long transferTime = System.nanoTime() - start;
+
+            LOG.info("getContent: {} MB/s, FileContentResponses: {} MB/s", throughput(streamTime), throughput(transferTime));
+        }
+    }
+
+    private long throughput(long nanos) {
+        return (long)FILE_SIZE * ITERATIONS * 1000 / nanos;
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
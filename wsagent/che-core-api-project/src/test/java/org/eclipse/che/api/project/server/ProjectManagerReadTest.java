@@ -199,6 +199,34 @@ public class ProjectManagerReadTest extends WsAgentTestBase {
 
     }
 
+    @Test
+    public void testProjectThatFailsToInitializeDoesNotPreventOthersFromInitialization() throws Exception {
+        new File(root, "/broken").mkdir();
+
+        List<ProjectConfig> projects = new ArrayList<>();
+        projects.add(DtoFactory.newDto(ProjectConfigDto.class)
+                               .withPath("/normal")
+                               .withName("project1Name")
+                               .withType("primary1"));
+        projects.add(DtoFactory.newDto(ProjectConfigDto.class)
+                               .withPath("/broken")
+                               .withName("broken")
+                               .withType("unknown"));
+
+        ProjectTypeRegistry projectTypeRegistry = new ProjectTypeRegistry(new HashSet<>());
+        projectTypeRegistry.registerProjectType(new PT1());
+        ProjectRegistry registry = new ProjectRegistry(new TestWorkspaceHolder(projects), vfsProvider, projectTypeRegistry,
+                                                       new ProjectHandlerRegistry(new HashSet<>()), eventService);
+        registry.initProjects();
+
+        assertEquals("primary1", registry.getProject("/normal").getType());
+        assertEquals(0, registry.getProject("/normal").getProblems().size());
+        assertEquals(BaseProjectType.ID, registry.getProject("/broken").getType());
+        assertEquals(12, registry.getProject("/broken").getProblems().get(0).code);
+        assertTrue(registry.getInitializationTimes().containsKey("/normal"));
+        assertTrue(registry.getInitializationTimes().containsKey("/broken"));
+    }
+
 
 
 }
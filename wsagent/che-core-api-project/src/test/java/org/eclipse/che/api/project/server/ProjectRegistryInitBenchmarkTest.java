@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import org.eclipse.che.api.core.model.project.ProjectConfig;
+import org.eclipse.che.api.project.server.handlers.ProjectHandlerRegistry;
+import org.eclipse.che.api.project.server.type.ProjectTypeDef;
+import org.eclipse.che.api.project.server.type.ProjectTypeRegistry;
+import org.eclipse.che.api.project.server.type.ReadonlyValueProvider;
+import org.eclipse.che.api.project.server.type.ValueStorageException;
+import org.eclipse.che.api.workspace.shared.dto.ProjectConfigDto;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Measures wall-clock time of initialization of {@link ProjectRegistry} with generated projects which value provider does some I/O,
+ * with single init thread and with thread per available core. This test is excluded from regular build, run it manually.
+ */
+public class ProjectRegistryInitBenchmarkTest extends WsAgentTestBase {
+    private static final Logger LOG = LoggerFactory.getLogger(ProjectRegistryInitBenchmarkTest.class);
+
+    private static final int PROJECTS            = 200;
+    private static final int FILES_PER_PROJECT   = 100;
+    private static final int PROVIDER_LATENCY_MS = 20;
+    private static final int ITERATIONS          = 3;
+
+    @Before
+    public void setUp() throws Exception {
+        final List<ProjectConfig> projects = new ArrayList<>(PROJECTS);
+        super.setUp();
+        for (int i = 0; i < PROJECTS; i++) {
+            final String name = String.format("project%03d", i);
+            final File folder = new File(root, name);
+            folder.mkdir();
+            for (int j = 0; j < FILES_PER_PROJECT; j++) {
+                new File(folder, String.format("File%d.java", j)).createNewFile();
+            }
+            projects.add(DtoFactory.newDto(ProjectConfigDto.class)
+                                   .withPath("/" + name)
+                                   .withName(name)
+                                   .withType("slow"));
+        }
+        workspaceHolder = new TestWorkspaceHolder(projects);
+
+        projectTypeRegistry = new ProjectTypeRegistry(new HashSet<>());
+        projectTypeRegistry.registerProjectType(new SlowProjectType());
+    }
+
+    @Test
+    public void measuresInitializationWithDifferentNumberOfThreads() throws Exception {
+        final long sequential = measure(1);
+        final int cores = Runtime.getRuntime().availableProcessors();
+        final long parallel = measure(cores);
+        LOG.info("Initialized {} projects in {} ms with 1 thread and in {} ms with {} threads, speedup {}",
+                 PROJECTS, sequential, parallel, cores, String.format("%.2f", (double)sequential / parallel));
+    }
+
+    private long measure(int threads) throws Exception {
+        long total = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            final ProjectRegistry registry = new ProjectRegistry(workspaceHolder, vfsProvider, projectTypeRegistry,
+                                                                 new ProjectHandlerRegistry(new HashSet<>()), eventService);
+            registry.setInitThreads(threads);
+            final long start = System.nanoTime();
+            registry.initProjects();
+            total += System.nanoTime() - start;
+            assertEquals(PROJECTS, registry.getProjects().size());
+            assertEquals(PROJECTS, registry.getInitializationTimes().size());
+        }
+        return total / 1000000 / ITERATIONS;
+    }
+
+    private static class SlowProjectType extends ProjectTypeDef {
+        SlowProjectType() {
+            super("slow", "slow", true, false);
+            addVariableDefinition("files", "number of files in project", false, projectFolder -> new ReadonlyValueProvider() {
+                @Override
+                public List<String> getValues(String attributeName) throws ValueStorageException {
+                    try {
+                        // simulates provider that reads project descriptors, e.g. pom.xml
+                        Thread.sleep(PROVIDER_LATENCY_MS);
+                        return singletonList(String.valueOf(projectFolder.getChildFiles().size()));
+                    } catch (Exception e) {
+                        throw new ValueStorageException(e.getMessage());
+                    }
+                }
+            });
+        }
+    }
+}
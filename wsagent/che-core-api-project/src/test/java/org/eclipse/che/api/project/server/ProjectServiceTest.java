@@ -10,6 +10,11 @@
  *******************************************************************************/
 package org.eclipse.che.api.project.server;
 
+import com.google.common.base.Strings;
+import com.google.common.hash.Hashing;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
 import org.eclipse.che.WorkspaceIdProvider;
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
@@ -29,6 +34,9 @@ import org.eclipse.che.api.project.server.handlers.CreateProjectHandler;
 import org.eclipse.che.api.project.server.handlers.ProjectHandlerRegistry;
 import org.eclipse.che.api.project.server.importer.ProjectImporter;
 import org.eclipse.che.api.project.server.importer.ProjectImporterRegistry;
+import org.eclipse.che.api.project.server.notification.VfsWatchBatchEvent;
+import org.eclipse.che.api.project.server.notification.VfsWatchBatchEvent.Change;
+import org.eclipse.che.api.project.server.notification.VfsWatchChangeLog;
 import org.eclipse.che.api.project.server.type.AttributeValue;
 import org.eclipse.che.api.project.server.type.ProjectTypeDef;
 import org.eclipse.che.api.project.server.type.ProjectTypeRegistry;
@@ -36,9 +44,12 @@ import org.eclipse.che.api.project.server.type.ReadonlyValueProvider;
 import org.eclipse.che.api.project.server.type.ValueProviderFactory;
 import org.eclipse.che.api.project.server.type.ValueStorageException;
 import org.eclipse.che.api.project.shared.dto.CopyOptions;
+import org.eclipse.che.api.project.shared.dto.FileHashDto;
+import org.eclipse.che.api.project.shared.dto.HashTreeDto;
 import org.eclipse.che.api.project.shared.dto.ItemReference;
 import org.eclipse.che.api.project.shared.dto.MoveOptions;
 import org.eclipse.che.api.project.shared.dto.SourceEstimation;
+import org.eclipse.che.api.project.shared.dto.TreeChangesDto;
 import org.eclipse.che.api.project.shared.dto.TreeElement;
 import org.eclipse.che.api.user.server.dao.UserDao;
 import org.eclipse.che.api.vfs.VirtualFile;
@@ -50,6 +61,7 @@ import org.eclipse.che.api.vfs.impl.file.LocalVirtualFileSystemProvider;
 import org.eclipse.che.api.vfs.search.Searcher;
 import org.eclipse.che.api.vfs.search.SearcherProvider;
 import org.eclipse.che.api.vfs.search.impl.FSLuceneSearcherProvider;
+import org.eclipse.che.api.vfs.search.impl.FilePathIndex;
 import org.eclipse.che.api.workspace.shared.dto.ProjectConfigDto;
 import org.eclipse.che.api.workspace.shared.dto.SourceStorageDto;
 import org.eclipse.che.api.workspace.shared.dto.WorkspaceConfigDto;
@@ -84,6 +96,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.InputStream;
 import java.net.URI;
+import java.nio.file.Files;
 import java.nio.file.PathMatcher;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -96,10 +109,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
+import static com.google.common.collect.Lists.newArrayList;
 import static java.util.Collections.singletonList;
 import static javax.ws.rs.HttpMethod.DELETE;
 import static javax.ws.rs.HttpMethod.GET;
@@ -107,6 +123,9 @@ import static javax.ws.rs.HttpMethod.POST;
 import static javax.ws.rs.HttpMethod.PUT;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static javax.ws.rs.core.MediaType.TEXT_PLAIN;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.CREATED;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.DELETED;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
 import static org.eclipse.che.commons.lang.ws.rs.ExtMediaType.APPLICATION_ZIP;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
@@ -142,6 +161,7 @@ public class ProjectServiceTest {
     private ProjectManager         pm;
     private ResourceLauncher       launcher;
     private ProjectHandlerRegistry phRegistry;
+    private VfsWatchChangeLog      changeLog;
 
     private org.eclipse.che.commons.env.EnvironmentContext env;
 
@@ -265,6 +285,9 @@ public class ProjectServiceTest {
         dependencies.addComponent(ProjectImporterRegistry.class, importerRegistry);
         dependencies.addComponent(ProjectHandlerRegistry.class, phRegistry);
         dependencies.addComponent(EventService.class, eventService);
+        dependencies.addComponent(FilePathIndex.class, new FilePathIndex(vfsProvider, fileWatcherNotificationHandler, new HashSet<>()));
+        changeLog = new VfsWatchChangeLog(eventService);
+        dependencies.addComponent(VfsWatchChangeLog.class, changeLog);
 
         ResourceBinder resources = new ResourceBinderImpl();
         ProviderBinder providers = new ApplicationProviderBinder();
@@ -690,6 +713,45 @@ public class ProjectServiceTest {
 
     }
 
+    @Test
+    public void testResolveSourcesIsCachedUntilFolderIsChanged() throws Exception {
+        VirtualFile root = pm.getProjectsRoot().getVirtualFile();
+        VirtualFile folder = root.createFolder("testResolveSourcesCached");
+        AtomicInteger resolutions = new AtomicInteger();
+
+        final ValueProviderFactory vpf1 = projectFolder -> new ReadonlyValueProvider() {
+            @Override
+            public List<String> getValues(String attributeName) throws ValueStorageException {
+                resolutions.incrementAndGet();
+                try {
+                    return projectFolder.getChild("check") == null ? Collections.emptyList() : singletonList("checked");
+                } catch (ServerException e) {
+                    throw new ValueStorageException(e.getMessage());
+                }
+            }
+        };
+
+        ProjectTypeDef pt = new ProjectTypeDef("testResolveSourcesCachedPT", "my testResolveSourcesCached type", true, false) {
+            {
+                addVariableDefinition("calculated_attribute", "attr description", true, vpf1);
+            }
+        };
+
+        ptRegistry.registerProjectType(pt);
+
+        assertTrue(pm.resolveSources("/testResolveSourcesCached", false).stream()
+                     .noneMatch(resolution -> resolution.getType().equals("testResolveSourcesCachedPT")));
+        assertTrue(pm.resolveSources("/testResolveSourcesCached", false).stream()
+                     .noneMatch(resolution -> resolution.getType().equals("testResolveSourcesCachedPT")));
+        assertEquals(resolutions.get(), 1);
+
+        folder.createFolder("check");
+
+        assertTrue(pm.resolveSources("/testResolveSourcesCached", false).stream()
+                     .anyMatch(resolution -> resolution.getType().equals("testResolveSourcesCachedPT")));
+        assertEquals(resolutions.get(), 2);
+    }
+
 
     @Test
     public void testImportProject() throws Exception {
@@ -817,6 +879,113 @@ public class ProjectServiceTest {
         assertEquals(new String(writer.getBody()), myContent);
     }
 
+    @Test
+    public void testGetFileContentRange() throws Exception {
+        String myContent = "to be or not to be";
+        pm.getProject("my_project").getBaseFolder().createFile("test.txt", myContent.getBytes());
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put("Range", singletonList("bytes=3-7"));
+        ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
+        ContainerResponse response = launcher.service(GET,
+                                                      "http://localhost:8080/api/project/file/my_project/test.txt",
+                                                      "http://localhost:8080/api", headers, null, writer, null);
+        assertEquals(response.getStatus(), 206, "Error: " + response.getEntity());
+        assertEquals(response.getHttpHeaders().getFirst("Content-Range").toString(), "bytes 3-7/18");
+        assertEquals(new String(writer.getBody()), "be or");
+    }
+
+    @Test
+    public void testGetSymlinkedFileContentRange() throws Exception {
+        String myContent = "to be or not to be";
+        FolderEntry projectFolder = pm.getProject("my_project").getBaseFolder();
+        projectFolder.createFile("test.txt", myContent.getBytes());
+        File ioFolder = projectFolder.getVirtualFile().toIoFile();
+        Files.createSymbolicLink(new File(ioFolder, "link.txt").toPath(), new File(ioFolder, "test.txt").toPath());
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put("Range", singletonList("bytes=3-"));
+        ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
+        ContainerResponse response = launcher.service(GET,
+                                                      "http://localhost:8080/api/project/file/my_project/link.txt",
+                                                      "http://localhost:8080/api", headers, null, writer, null);
+        assertEquals(response.getStatus(), 206, "Error: " + response.getEntity());
+        assertEquals(response.getHttpHeaders().getFirst("Content-Range").toString(), "bytes 3-17/18");
+        assertEquals(response.getHttpHeaders().getFirst("Content-Length").toString(), "15");
+        assertEquals(new String(writer.getBody()), myContent.substring(3));
+    }
+
+    @Test
+    public void testGetFileContentSuffixRange() throws Exception {
+        String myContent = "to be or not to be";
+        pm.getProject("my_project").getBaseFolder().createFile("test.txt", myContent.getBytes());
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put("Range", singletonList("bytes=-5"));
+        ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
+        ContainerResponse response = launcher.service(GET,
+                                                      "http://localhost:8080/api/project/file/my_project/test.txt",
+                                                      "http://localhost:8080/api", headers, null, writer, null);
+        assertEquals(response.getStatus(), 206, "Error: " + response.getEntity());
+        assertEquals(new String(writer.getBody()), "to be");
+    }
+
+    @Test
+    public void testGetFileContentIgnoresInvalidSuffixRange() throws Exception {
+        String myContent = "to be or not to be";
+        pm.getProject("my_project").getBaseFolder().createFile("test.txt", myContent.getBytes());
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put("Range", singletonList("bytes=--5"));
+        ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
+        ContainerResponse response = launcher.service(GET,
+                                                      "http://localhost:8080/api/project/file/my_project/test.txt",
+                                                      "http://localhost:8080/api", headers, null, writer, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        assertEquals(new String(writer.getBody()), myContent);
+    }
+
+    @Test
+    public void testGetFileContentUnsatisfiableRange() throws Exception {
+        pm.getProject("my_project").getBaseFolder().createFile("test.txt", "to be or not to be".getBytes());
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put("Range", singletonList("bytes=100-"));
+        ContainerResponse response = launcher.service(GET,
+                                                      "http://localhost:8080/api/project/file/my_project/test.txt",
+                                                      "http://localhost:8080/api", headers, null, null);
+        assertEquals(response.getStatus(), 416);
+        assertEquals(response.getHttpHeaders().getFirst("Content-Range").toString(), "bytes */18");
+    }
+
+    @Test
+    public void testGetFileContentIgnoresRangeIfFileChanged() throws Exception {
+        String myContent = "to be or not to be";
+        pm.getProject("my_project").getBaseFolder().createFile("test.txt", myContent.getBytes());
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put("Range", singletonList("bytes=3-7"));
+        headers.put("If-Range", singletonList("\"outdated\""));
+        ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
+        ContainerResponse response = launcher.service(GET,
+                                                      "http://localhost:8080/api/project/file/my_project/test.txt",
+                                                      "http://localhost:8080/api", headers, null, writer, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        assertEquals(new String(writer.getBody()), myContent);
+    }
+
+    @Test
+    public void testGetFileContentNotModified() throws Exception {
+        pm.getProject("my_project").getBaseFolder().createFile("test.txt", "to be or not to be".getBytes());
+        ContainerResponse response = launcher.service(GET,
+                                                      "http://localhost:8080/api/project/file/my_project/test.txt",
+                                                      "http://localhost:8080/api", null, null, new ByteArrayContainerResponseWriter(), null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        Object entityTag = response.getHttpHeaders().getFirst("ETag");
+        assertNotNull(entityTag);
+
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put("If-None-Match", singletonList(entityTag.toString()));
+        response = launcher.service(GET,
+                                    "http://localhost:8080/api/project/file/my_project/test.txt",
+                                    "http://localhost:8080/api", headers, null, null);
+        assertEquals(response.getStatus(), 304);
+    }
+
     @Test
     public void testUpdateFileContent() throws Exception {
         String myContent = "<test>hello</test>";
@@ -1352,6 +1521,86 @@ public class ProjectServiceTest {
         assertNotNull(myProject.getBaseFolder().getChild("a/b/folder1/file1.txt"));
     }
 
+    @Test
+    public void testGetSyncDiff() throws Exception {
+        RegisteredProject myProject = pm.getProject("my_project");
+        FolderEntry a = myProject.getBaseFolder().createFolder("a");
+        a.createFile("same.txt", "same".getBytes());
+        a.createFolder("b").createFile("changed.txt", "old".getBytes());
+        a.createFile("server-only.txt", "server".getBytes());
+
+        List<String> manifest = newArrayList(fileHash("same.txt", "same"),
+                                             fileHash("b/changed.txt", "new"),
+                                             fileHash("/c/client-only.txt", "client"));
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put(CONTENT_TYPE, singletonList(APPLICATION_JSON));
+        ContainerResponse response = launcher.service(POST,
+                                                      "http://localhost:8080/api/project/sync/diff/my_project/a",
+                                                      "http://localhost:8080/api", headers,
+                                                      ("[" + String.join(",", manifest) + "]").getBytes(), null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        assertEquals(response.getEntity(), newArrayList("b/changed.txt", "/c/client-only.txt"));
+    }
+
+    @Test
+    public void testGetSyncDiffRejectsPathOutsideOfFolder() throws Exception {
+        RegisteredProject myProject = pm.getProject("my_project");
+        myProject.getBaseFolder().createFolder("a");
+
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put(CONTENT_TYPE, singletonList(APPLICATION_JSON));
+        ContainerResponse response = launcher.service(POST,
+                                                      "http://localhost:8080/api/project/sync/diff/my_project/a",
+                                                      "http://localhost:8080/api", headers,
+                                                      ("[" + fileHash("../outside.txt", "client") + "]").getBytes(), null);
+        assertEquals(response.getStatus(), 400, "Error: " + response.getEntity());
+    }
+
+    @Test
+    public void testApplySync() throws Exception {
+        RegisteredProject myProject = pm.getProject("my_project");
+        FolderEntry a = myProject.getBaseFolder().createFolder("a");
+        a.createFolder("b").createFile("changed.txt", "old".getBytes());
+        a.createFile("untouched.txt", "untouched".getBytes());
+
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream tarOut = new TarArchiveOutputStream(bout)) {
+            addTarEntry(tarOut, "b/changed.txt", "new");
+            addTarEntry(tarOut, "c/client-only.txt", "client");
+        }
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put(CONTENT_TYPE, singletonList(ExtMediaType.APPLICATION_X_TAR));
+        ContainerResponse response = launcher.service(POST,
+                                                      "http://localhost:8080/api/project/sync/apply/my_project/a",
+                                                      "http://localhost:8080/api", headers, bout.toByteArray(), null);
+        assertEquals(response.getStatus(), 204, "Error: " + response.getEntity());
+        assertEquals(((FileEntry)a.getChild("b/changed.txt")).getVirtualFile().getContentAsString(), "new");
+        assertEquals(((FileEntry)a.getChild("c/client-only.txt")).getVirtualFile().getContentAsString(), "client");
+        assertEquals(((FileEntry)a.getChild("untouched.txt")).getVirtualFile().getContentAsString(), "untouched");
+    }
+
+    @Test
+    public void testApplySyncDoesNotChangeAnythingWhenArchiveIsTruncated() throws Exception {
+        RegisteredProject myProject = pm.getProject("my_project");
+        FolderEntry a = myProject.getBaseFolder().createFolder("a");
+        a.createFile("first.txt", "old".getBytes());
+
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream tarOut = new TarArchiveOutputStream(bout)) {
+            addTarEntry(tarOut, "first.txt", "new");
+            addTarEntry(tarOut, "second.txt", Strings.repeat("x", 4096));
+        }
+        byte[] truncated = Arrays.copyOf(bout.toByteArray(), 2048);
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put(CONTENT_TYPE, singletonList(ExtMediaType.APPLICATION_X_TAR));
+        ContainerResponse response = launcher.service(POST,
+                                                      "http://localhost:8080/api/project/sync/apply/my_project/a",
+                                                      "http://localhost:8080/api", headers, truncated, null);
+        assertEquals(response.getStatus(), 500);
+        assertEquals(((FileEntry)a.getChild("first.txt")).getVirtualFile().getContentAsString(), "old");
+        Assert.assertNull(a.getChild("second.txt"));
+    }
+
     @Test
     public void testImportZipWithoutSkipFirstLevel() throws Exception {
         RegisteredProject myProject = pm.getProject("my_project");
@@ -1382,11 +1631,21 @@ public class ProjectServiceTest {
     public void testExportZip() throws Exception {
         RegisteredProject myProject = pm.getProject("my_project");
         myProject.getBaseFolder().createFolder("a/b").createFile("test.txt", "hello".getBytes());
+        ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
         ContainerResponse response = launcher.service(GET,
                                                       "http://localhost:8080/api/project/export/my_project",
-                                                      "http://localhost:8080/api", null, null, null);
+                                                      "http://localhost:8080/api", null, null, writer, null);
         assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
         assertEquals(response.getContentType().toString(), ExtMediaType.APPLICATION_ZIP);
+
+        Set<String> entries = new HashSet<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(writer.getBody()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.add(entry.getName());
+            }
+        }
+        assertTrue(entries.contains("a/b/test.txt"));
     }
 
     @Test
@@ -1482,6 +1741,113 @@ public class ProjectServiceTest {
         Assert.assertTrue(names.contains("x"));
     }
 
+    @Test
+    public void testGetHashTree() throws Exception {
+        RegisteredProject myProject = pm.getProject("my_project");
+        FolderEntry a = myProject.getBaseFolder().createFolder("a");
+        a.createFolder("b").createFile("test.txt", "test".getBytes());
+        a.createFolder("x").createFile("test.txt", "test".getBytes());
+        a.createFile("test.txt", "test".getBytes());
+        ContainerResponse response = launcher.service(GET,
+                                                      "http://localhost:8080/api/project/hashes/my_project/a",
+                                                      "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        HashTreeDto tree = (HashTreeDto)response.getEntity();
+        assertEquals(tree.getName(), "a");
+        assertEquals(tree.getPath(), "/my_project/a");
+        assertEquals(tree.getType(), "folder");
+        List<HashTreeDto> children = tree.getChildren();
+        assertEquals(children.size(), 3);
+        assertEquals(children.get(0).getName(), "b");
+        assertEquals(children.get(1).getName(), "test.txt");
+        assertEquals(children.get(1).getType(), "file");
+        assertEquals(children.get(1).getHash(), Hashing.md5().hashBytes("test".getBytes()).toString());
+        assertEquals(children.get(2).getName(), "x");
+        assertEquals(children.get(0).getHash(), children.get(2).getHash());
+        Assert.assertTrue(children.get(0).getChildren().isEmpty()); // default depth is 1
+
+        a.getChild("x/test.txt").getVirtualFile().updateContent("updated");
+        response = launcher.service(GET,
+                                    "http://localhost:8080/api/project/hashes/my_project/a?depth=2",
+                                    "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        HashTreeDto updatedTree = (HashTreeDto)response.getEntity();
+        Assert.assertNotEquals(updatedTree.getHash(), tree.getHash());
+        assertEquals(updatedTree.getChildren().get(0).getHash(), children.get(0).getHash());
+        Assert.assertNotEquals(updatedTree.getChildren().get(2).getHash(), children.get(2).getHash());
+        assertEquals(updatedTree.getChildren().get(2).getChildren().get(0).getHash(),
+                     Hashing.md5().hashBytes("updated".getBytes()).toString());
+    }
+
+    @Test
+    public void testGetHashTreeOfMissedFolder() throws Exception {
+        ContainerResponse response = launcher.service(GET,
+                                                      "http://localhost:8080/api/project/hashes/my_project/missed",
+                                                      "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 404, "Error: " + response.getEntity());
+    }
+
+    @Test
+    public void testGetTreeVersion() throws Exception {
+        RegisteredProject myProject = pm.getProject("my_project");
+        myProject.getBaseFolder().createFolder("a");
+        changeLog.onEvent(new VfsWatchBatchEvent(singletonList(new Change(CREATED, "/my_project/a", false))));
+
+        ContainerResponse response = launcher.service(GET,
+                                                      "http://localhost:8080/api/project/tree/my_project",
+                                                      "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        assertEquals(((TreeElement)response.getEntity()).getVersion(), changeLog.getVersion());
+    }
+
+    @Test
+    public void testGetTreeChanges() throws Exception {
+        RegisteredProject myProject = pm.getProject("my_project");
+        FolderEntry a = myProject.getBaseFolder().createFolder("a");
+        long version = changeLog.getVersion();
+        a.createFolder("b");
+        a.createFile("test.txt", "test".getBytes());
+        a.createFile("modified.txt", "test".getBytes());
+        changeLog.onEvent(new VfsWatchBatchEvent(Arrays.asList(new Change(CREATED, "/my_project/a/b", false),
+                                                               new Change(CREATED, "/my_project/a/test.txt", true),
+                                                               new Change(MODIFIED, "/my_project/a/modified.txt", true),
+                                                               new Change(DELETED, "/my_project/a/c", false),
+                                                               new Change(CREATED, "/my_project/other.txt", true))));
+
+        ContainerResponse response = launcher.service(GET,
+                                                      "http://localhost:8080/api/project/tree-changes/my_project/a?includeFiles=true&since="
+                                                      + version,
+                                                      "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        TreeChangesDto changes = (TreeChangesDto)response.getEntity();
+        assertEquals(changes.getVersion(), changeLog.getVersion());
+        assertEquals(changes.getAdded().stream().map(ItemReference::getPath).collect(Collectors.toList()),
+                     Arrays.asList("/my_project/a/b", "/my_project/a/test.txt"));
+        validateFolderLinks(changes.getAdded().get(0));
+        validateFileLinks(changes.getAdded().get(1));
+        assertEquals(changes.getUpdated().stream().map(ItemReference::getPath).collect(Collectors.toList()),
+                     singletonList("/my_project/a/modified.txt"));
+        assertEquals(changes.getRemoved(), singletonList("/my_project/a/c"));
+
+        response = launcher.service(GET,
+                                    "http://localhost:8080/api/project/tree-changes/my_project/a?since=" + changes.getVersion(),
+                                    "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        changes = (TreeChangesDto)response.getEntity();
+        Assert.assertTrue(changes.getAdded().isEmpty());
+        Assert.assertTrue(changes.getUpdated().isEmpty());
+        Assert.assertTrue(changes.getRemoved().isEmpty());
+    }
+
+    @Test
+    public void testGetTreeChangesSinceUnknownVersion() throws Exception {
+        ContainerResponse response = launcher.service(GET,
+                                                      "http://localhost:8080/api/project/tree-changes/my_project?since="
+                                                      + (changeLog.getVersion() + 1),
+                                                      "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 409, "Error: " + response.getEntity());
+    }
+
     @Test
     public void testGetTreeWithDepth() throws Exception {
         RegisteredProject myProject = pm.getProject("my_project");
@@ -1609,6 +1975,24 @@ public class ProjectServiceTest {
         Assert.assertTrue(paths.contains("/my_project/x/y/test.txt"));
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testFindFilesByFuzzyName() throws Exception {
+        RegisteredProject myProject = pm.getProject("my_project");
+        myProject.getBaseFolder().createFolder("a/b").createFile("FileTreeWatcher.java", "hello".getBytes());
+        myProject.getBaseFolder().createFolder("x/y").createFile("FileWatcher.java", "hello".getBytes());
+        myProject.getBaseFolder().createFolder("c").createFile("Fetcher.java", "hello".getBytes());
+
+        ContainerResponse response = launcher.service(GET,
+                                                      "http://localhost:8080/api/project/find-files?q=FWatcher",
+                                                      "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        List<ItemReference> result = (List<ItemReference>)response.getEntity();
+        assertEquals(result.size(), 2);
+        assertEquals(result.get(0).getPath(), "/my_project/x/y/FileWatcher.java");
+        assertEquals(result.get(1).getPath(), "/my_project/a/b/FileTreeWatcher.java");
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     public void testSearchByText() throws Exception {
@@ -1799,6 +2183,20 @@ public class ProjectServiceTest {
         Assert.assertTrue(result.get(0).getPath().equals("/my_project/c/test.txt"));
     }
 
+    private String fileHash(String path, String content) {
+        return DtoFactory.getInstance().toJson(DtoFactory.newDto(FileHashDto.class)
+                                                         .withPath(path)
+                                                         .withHash(Hashing.md5().hashBytes(content.getBytes()).toString()));
+    }
+
+    private void addTarEntry(TarArchiveOutputStream tarOut, String name, String content) throws Exception {
+        TarArchiveEntry entry = new TarArchiveEntry(name);
+        entry.setSize(content.length());
+        tarOut.putArchiveEntry(entry);
+        tarOut.write(content.getBytes());
+        tarOut.closeArchiveEntry();
+    }
+
     private void validateFileLinks(ItemReference item) {
         Link link = item.getLink("delete");
         assertNotNull(link);
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import org.eclipse.che.api.project.server.type.ProjectTypeDef;
+import org.eclipse.che.api.project.server.type.ProjectTypeResolution;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ProjectTypeResolutionCacheTest {
+    private ProjectTypeResolutionCache resolutionCache;
+    private ProjectTypeDef             projectType;
+    private ProjectTypeResolution      resolution;
+
+    @Before
+    public void setUp() throws Exception {
+        resolutionCache = new ProjectTypeResolutionCache(100);
+        projectType = new ProjectTypeDef("pt", "pt", true, false) {};
+        resolution = new ProjectTypeDef.DefaultResolution("pt", new HashMap<>(), true);
+    }
+
+    @Test
+    public void returnsCachedResolutionWhenFolderIsNotChanged() throws Exception {
+        put("/a", 1);
+
+        assertEquals(resolution, resolutionCache.get("/a", projectType, 1));
+    }
+
+    @Test
+    public void doesNotReturnResolutionWhenStampOfFolderIsChanged() throws Exception {
+        put("/a", 1);
+
+        assertNull(resolutionCache.get("/a", projectType, 2));
+    }
+
+    @Test
+    public void doesNotReturnResolutionOfReplacedProjectType() throws Exception {
+        put("/a", 1);
+
+        assertNull(resolutionCache.get("/a", new ProjectTypeDef("pt", "pt", true, false) {}, 1));
+    }
+
+    @Test
+    public void invalidatesResolutionsOfChangedItemAndItsParent() throws Exception {
+        put("/", 1);
+        put("/a", 1);
+        put("/a/b", 1);
+        put("/a/b/c", 1);
+        put("/a/bb", 1);
+
+        resolutionCache.invalidate("/a/b");
+
+        assertEquals(resolution, resolutionCache.get("/", projectType, 1));
+        assertNull(resolutionCache.get("/a", projectType, 1));
+        assertNull(resolutionCache.get("/a/b", projectType, 1));
+        assertEquals(resolution, resolutionCache.get("/a/b/c", projectType, 1));
+        assertEquals(resolution, resolutionCache.get("/a/bb", projectType, 1));
+    }
+
+    @Test
+    public void invalidatesResolutionsOfAllProjectTypesOfFolder() throws Exception {
+        ProjectTypeDef otherProjectType = new ProjectTypeDef("other", "other", true, false) {};
+        put("/a", 1);
+        try (ProjectTypeResolutionCache.Resolving resolving = resolutionCache.startResolving("/a")) {
+            resolving.put(otherProjectType, 1, resolution);
+        }
+
+        resolutionCache.invalidate("/a/file");
+
+        assertNull(resolutionCache.get("/a", projectType, 1));
+        assertNull(resolutionCache.get("/a", otherProjectType, 1));
+        assertEquals(0, resolutionCache.size());
+    }
+
+    @Test
+    public void doesNotCacheResolutionOfFolderInvalidatedWhileItIsResolved() throws Exception {
+        try (ProjectTypeResolutionCache.Resolving resolvingA = resolutionCache.startResolving("/a");
+             ProjectTypeResolutionCache.Resolving resolvingB = resolutionCache.startResolving("/b")) {
+            resolutionCache.invalidate("/a/file");
+            resolvingA.put(projectType, 1, resolution);
+            resolvingB.put(projectType, 1, resolution);
+        }
+
+        assertNull(resolutionCache.get("/a", projectType, 1));
+        assertEquals(resolution, resolutionCache.get("/b", projectType, 1));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedResolutionWhenFull() throws Exception {
+        resolutionCache = new ProjectTypeResolutionCache(2);
+        put("/a", 1);
+        put("/b", 1);
+        resolutionCache.get("/a", projectType, 1);
+        put("/c", 1);
+
+        assertEquals(2, resolutionCache.size());
+        assertEquals(resolution, resolutionCache.get("/a", projectType, 1));
+        assertNull(resolutionCache.get("/b", projectType, 1));
+    }
+
+    private void put(String folderPath, long stamp) {
+        try (ProjectTypeResolutionCache.Resolving resolving = resolutionCache.startResolving(folderPath)) {
+            resolving.put(projectType, stamp, resolution);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import org.eclipse.che.api.project.server.type.ProjectTypeDef;
+import org.eclipse.che.api.project.server.type.ReadonlyValueProvider;
+import org.eclipse.che.api.project.server.type.ValueProvider;
+import org.eclipse.che.api.project.server.type.ValueProviderFactory;
+import org.eclipse.che.api.vfs.ArchiverFactory;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.impl.memory.MemoryVirtualFileSystem;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+public class ProvidedValuesCacheTest {
+    private ProvidedValuesCache providedValuesCache;
+    private ProjectTypeDef      projectType;
+    private FolderEntry         folder;
+    private VirtualFile         pom;
+    private AtomicInteger       provided;
+    private CountingFactory     factory;
+
+    @Before
+    public void setUp() throws Exception {
+        providedValuesCache = new ProvidedValuesCache();
+        projectType = new ProjectTypeDef("pt", "pt", true, false) {};
+        MemoryVirtualFileSystem virtualFileSystem = new MemoryVirtualFileSystem(mock(ArchiverFactory.class), null);
+        VirtualFile project = virtualFileSystem.getRoot().createFolder("project");
+        pom = project.createFile("pom.xml", "<project/>");
+        project.createFolder("src").createFile("A.java", "class A {}");
+        folder = new FolderEntry(project);
+        provided = new AtomicInteger();
+        factory = new CountingFactory(singletonList("pom.xml"));
+    }
+
+    @Test
+    public void returnsCachedValuesWhileDependenciesAreNotChanged() throws Exception {
+        assertEquals(singletonList("value"), getValues(factory));
+        assertEquals(singletonList("value"), getValues(factory));
+
+        assertEquals(1, provided.get());
+        assertEquals(1, providedValuesCache.getStats().get(CountingFactory.class.getName()).hitCount());
+        assertEquals(1, providedValuesCache.getStats().get(CountingFactory.class.getName()).missCount());
+    }
+
+    @Test
+    public void providesValuesAgainWhenDependencyIsChanged() throws Exception {
+        getValues(factory);
+
+        pom.updateContent("<project><artifactId>changed</artifactId></project>");
+        getValues(factory);
+
+        assertEquals(2, provided.get());
+    }
+
+    @Test
+    public void doesNotCacheValuesOfFactoryThatDoesNotDeclareDependencies() throws Exception {
+        CountingFactory factory = new CountingFactory(Collections.emptyList());
+
+        getValues(factory);
+        getValues(factory);
+
+        assertEquals(2, provided.get());
+    }
+
+    @Test
+    public void doesNotCacheValuesWhenCacheOfProjectTypeIsDisabled() throws Exception {
+        projectType = new ProjectTypeDef("pt", "pt", true, false) {
+            {
+                setValueCacheLimits(DEFAULT_VALUE_CACHE_TTL_SEC, 0);
+            }
+        };
+
+        getValues(factory);
+        getValues(factory);
+
+        assertEquals(2, provided.get());
+    }
+
+    @Test
+    public void invalidatesValuesWhenDependencyOrProjectIsChanged() throws Exception {
+        getValues(factory);
+
+        providedValuesCache.invalidate("/project/src/A.java");
+        getValues(factory);
+        assertEquals(1, provided.get());
+
+        providedValuesCache.invalidate("/project/pom.xml");
+        getValues(factory);
+        assertEquals(2, provided.get());
+
+        providedValuesCache.invalidate("/project");
+        getValues(factory);
+        assertEquals(3, provided.get());
+    }
+
+    @Test
+    public void invalidatesValuesWhenFolderOfDependencyIsChanged() throws Exception {
+        CountingFactory factory = new CountingFactory(singletonList(".git/HEAD"));
+        getValues(factory);
+
+        providedValuesCache.invalidate("/project/.git");
+        getValues(factory);
+
+        assertEquals(2, provided.get());
+    }
+
+    @Test
+    public void doesNotCacheValuesInvalidatedWhileTheyAreProvided() throws Exception {
+        CountingFactory factory = new CountingFactory(singletonList("pom.xml"), () -> providedValuesCache.invalidate("/project/pom.xml"));
+
+        getValues(factory);
+        getValues(factory);
+
+        assertEquals(2, provided.get());
+    }
+
+    @Test
+    public void cachesValuesWhenOtherProjectIsChangedWhileTheyAreProvided() throws Exception {
+        CountingFactory factory = new CountingFactory(singletonList("pom.xml"), () -> providedValuesCache.invalidate("/other/pom.xml"));
+
+        getValues(factory);
+        getValues(factory);
+
+        assertEquals(1, provided.get());
+        assertEquals(1, providedValuesCache.size());
+    }
+
+    private List<String> getValues(ValueProviderFactory factory) throws Exception {
+        return providedValuesCache.getValues(projectType, folder, "attr", factory, factory.newInstance(folder));
+    }
+
+    private class CountingFactory implements ValueProviderFactory {
+        private final List<String> dependencies;
+        /* Runs while values are provided. */
+        private final Runnable     onProvide;
+
+        CountingFactory(List<String> dependencies) {
+            this(dependencies, () -> {});
+        }
+
+        CountingFactory(List<String> dependencies, Runnable onProvide) {
+            this.dependencies = dependencies;
+            this.onProvide = onProvide;
+        }
+
+        @Override
+        public ValueProvider newInstance(FolderEntry projectFolder) {
+            return new ReadonlyValueProvider() {
+                @Override
+                public List<String> getValues(String attributeName) {
+                    provided.incrementAndGet();
+                    onProvide.run();
+                    return singletonList("value");
+                }
+            };
+        }
+
+        @Override
+        public List<String> getDependencies() {
+            return dependencies;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.eclipse.che.api.core.ConflictException;
+import org.eclipse.che.api.vfs.ArchiverFactory;
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.impl.file.LocalVirtualFileSystem;
+import org.eclipse.che.api.vfs.impl.memory.MemoryVirtualFileSystem;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.commons.lang.NameGenerator;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SyncArchiveApplierTest {
+    private VirtualFile root;
+    private VirtualFile folder;
+
+    @Before
+    public void setUp() throws Exception {
+        root = new MemoryVirtualFileSystem(new ArchiverFactory(), null).getRoot();
+        folder = root.createFolder("project");
+        folder.createFile("first.txt", "old");
+        folder.createFolder("b").createFile("changed.txt", "old");
+        folder.createFolder("z");
+    }
+
+    @Test
+    public void writesFilesOfArchiveToFolder() throws Exception {
+        new SyncArchiveApplier(folder).apply(tar("b/changed.txt", "new", "c/added.txt", "added"));
+
+        assertEquals("new", folder.getChild(Path.of("b/changed.txt")).getContentAsString());
+        assertEquals("added", folder.getChild(Path.of("c/added.txt")).getContentAsString());
+        assertEquals("old", folder.getChild(Path.of("first.txt")).getContentAsString());
+        assertEquals(newArrayList("project"), names(root));
+    }
+
+    @Test
+    public void revertsAllChangesWhenFileMayNotBeWritten() throws Exception {
+        // "z" is folder in target folder, so it may not be replaced with file after "c/added.txt" and "first.txt" are written
+        try {
+            new SyncArchiveApplier(folder).apply(tar("c/added.txt", "added", "first.txt", "new", "z", "file"));
+            fail("ConflictException expected");
+        } catch (ConflictException expected) {
+        }
+
+        assertEquals("old", folder.getChild(Path.of("first.txt")).getContentAsString());
+        assertNull(folder.getChild(Path.of("c")));
+        assertEquals(newArrayList("b", "first.txt", "z"), names(folder));
+        assertEquals(newArrayList("project"), names(root));
+    }
+
+    @Test
+    public void stagesArchiveInServiceDirectoryOfLocalFileSystem() throws Exception {
+        File targetDir = new File(Thread.currentThread().getContextClassLoader().getResource(".").getPath()).getParentFile();
+        File testDirectory = new File(targetDir, NameGenerator.generate("fs-", 4));
+        assertTrue(testDirectory.mkdirs());
+        try {
+            VirtualFile localRoot = new LocalVirtualFileSystem(testDirectory, new ArchiverFactory(), null, null).getRoot();
+            localRoot.createFolder("project").createFile("first.txt", "old");
+
+            new SyncArchiveApplier(localRoot).apply(tar("project/first.txt", "new", "added.txt", "added"));
+
+            assertEquals("new", localRoot.getChild(Path.of("project/first.txt")).getContentAsString());
+            assertEquals("added", localRoot.getChild(Path.of("added.txt")).getContentAsString());
+            assertEquals(newArrayList("added.txt", "project"), names(localRoot));
+            List<String> ioNames = newArrayList(testDirectory.list()).stream().sorted().collect(toList());
+            assertEquals(newArrayList(".vfs", "added.txt", "project"), ioNames);
+            assertEquals(0, new File(testDirectory, ".vfs/tmp").list().length);
+        } finally {
+            IoUtil.deleteRecursive(testDirectory);
+        }
+    }
+
+    private static List<String> names(VirtualFile folder) throws Exception {
+        return folder.getChildren().stream().map(VirtualFile::getName).sorted().collect(toList());
+    }
+
+    private static ByteArrayInputStream tar(String... namesAndContents) throws Exception {
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream tarOut = new TarArchiveOutputStream(bout)) {
+            for (int i = 0; i < namesAndContents.length; i += 2) {
+                TarArchiveEntry entry = new TarArchiveEntry(namesAndContents[i]);
+                entry.setSize(namesAndContents[i + 1].length());
+                tarOut.putArchiveEntry(entry);
+                tarOut.write(namesAndContents[i + 1].getBytes());
+                tarOut.closeArchiveEntry();
+            }
+        }
+        return new ByteArrayInputStream(bout.toByteArray());
+    }
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.model.project.ProjectConfig;
+import org.eclipse.che.api.core.rest.HttpJsonRequest;
+import org.eclipse.che.api.core.rest.HttpJsonRequestFactory;
+import org.eclipse.che.api.core.rest.HttpJsonResponse;
+import org.eclipse.che.api.project.server.type.BaseProjectType;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyList;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WorkspaceHolderTest {
+    private HttpJsonRequest     request;
+    private WorkspaceHolder     workspaceHolder;
+    private List<ProjectConfig> removed;
+
+    @Before
+    public void setUp() throws Exception {
+        request = mock(HttpJsonRequest.class);
+        when(request.usePutMethod()).thenReturn(request);
+        when(request.setBody(anyList())).thenReturn(request);
+        when(request.addQueryParam(anyString(), any())).thenReturn(request);
+        HttpJsonRequestFactory requestFactory = mock(HttpJsonRequestFactory.class);
+        when(requestFactory.fromUrl(anyString())).thenReturn(request);
+        workspaceHolder = new WorkspaceHolder("http://localhost/api", "ws", requestFactory);
+        removed = Collections.singletonList(new NewProjectConfig("/a", "a", BaseProjectType.ID, null));
+    }
+
+    @Test
+    public void retriesToSendChangesWhenMasterFails() throws Exception {
+        when(request.request()).thenThrow(new IOException("connection refused"))
+                               .thenReturn(mock(HttpJsonResponse.class));
+
+        workspaceHolder.applyChanges(Collections.emptyList(), Collections.emptyList(), removed);
+
+        verify(request, times(2)).request();
+    }
+
+    @Test
+    public void throwsFailureWhenAllAttemptsFail() throws Exception {
+        IOException failure = new IOException("connection refused");
+        when(request.request()).thenThrow(failure);
+
+        try {
+            workspaceHolder.applyChanges(Collections.emptyList(), Collections.emptyList(), removed);
+            fail("ServerException expected");
+        } catch (ServerException e) {
+            assertEquals("connection refused", e.getMessage());
+            assertSame(failure, e.getCause());
+        }
+        verify(request, times(WorkspaceHolder.DEFAULT_SYNC_ATTEMPTS)).request();
+    }
+}
@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.model.project.ProjectConfig;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WorkspaceProjectsSyncerTest {
+    private ProjectRegistry   projectRegistry;
+    private RegisteredProject project;
+
+    @Before
+    public void setUp() throws Exception {
+        project = mock(RegisteredProject.class);
+        when(project.getPath()).thenReturn("/a");
+        projectRegistry = mock(ProjectRegistry.class);
+        when(projectRegistry.getProjects()).thenReturn(Collections.singletonList(project));
+    }
+
+    @Test
+    public void coalescesRequestsThatComeWhileSynchronizationIsInProgress() throws Exception {
+        CountDownLatch applying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TestSyncer syncer = new TestSyncer(0) {
+            @Override
+            protected void applyChanges(List<ProjectConfig> added, List<ProjectConfig> updated, List<ProjectConfig> removed)
+                    throws ServerException {
+                super.applyChanges(added, updated, removed);
+                if (applied.size() == 1) {
+                    applying.countDown();
+                    await(release);
+                }
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<?> first = executor.submit(() -> sync(syncer));
+            applying.await(5, TimeUnit.SECONDS);
+            Future<?> second = executor.submit(() -> sync(syncer));
+            Future<?> third = executor.submit(() -> sync(syncer));
+            waitForRequests(syncer, 3);
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            second.get(5, TimeUnit.SECONDS);
+            third.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(3, syncer.getSyncRequestCount());
+        assertEquals(2, syncer.getSyncCount());
+        assertEquals(2, syncer.applied.size());
+    }
+
+    @Test
+    public void coalescesRequestsThatComeDuringSyncWindowAndReturnsAfterFlush() throws Exception {
+        TestSyncer syncer = new TestSyncer(TimeUnit.MINUTES.toMillis(1));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = executor.submit(() -> sync(syncer));
+            Future<?> second = executor.submit(() -> sync(syncer));
+            waitForRequests(syncer, 2);
+            assertEquals(0, syncer.getSyncCount());
+
+            syncer.flush();
+            first.get(5, TimeUnit.SECONDS);
+            second.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+            syncer.stopSync();
+        }
+
+        assertEquals(1, syncer.getSyncCount());
+        assertEquals(1, syncer.applied.size());
+    }
+
+    @Test
+    public void throwsFailureOfSynchronizationAndMarksProjectsSyncedOnlyAfterSuccess() throws Exception {
+        TestSyncer syncer = new TestSyncer(0);
+        syncer.failure = new ServerException("master is not available");
+
+        try {
+            syncer.sync(projectRegistry);
+            fail("ServerException expected");
+        } catch (ServerException e) {
+            assertEquals("master is not available", e.getMessage());
+        }
+        verify(project, never()).setSync();
+        assertEquals(1, syncer.getFailedSyncCount());
+
+        syncer.failure = null;
+        syncer.sync(projectRegistry);
+
+        verify(project).setSync();
+        assertEquals(2, syncer.applied.size());
+        assertEquals(asList("/a"), syncer.applied.get(1));
+    }
+
+    private void sync(WorkspaceProjectsSyncer syncer) {
+        try {
+            syncer.sync(projectRegistry);
+        } catch (ServerException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /** Waits until all requests joined batch, joined requests wait either for result of batch or for lock of synchronization. */
+    private static void waitForRequests(TestSyncer syncer, int count) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (syncer.getSyncRequestCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class TestSyncer extends WorkspaceProjectsSyncer {
+        final List<List<String>> applied = Collections.synchronizedList(new ArrayList<>());
+        final long                syncWindow;
+        volatile ServerException  failure;
+
+        TestSyncer(long syncWindow) {
+            this.syncWindow = syncWindow;
+        }
+
+        @Override
+        protected long getSyncWindowMillis() {
+            return syncWindow;
+        }
+
+        @Override
+        protected void applyChanges(List<ProjectConfig> added, List<ProjectConfig> updated, List<ProjectConfig> removed)
+                throws ServerException {
+            final List<String> paths = new ArrayList<>();
+            added.forEach(project -> paths.add(project.getPath()));
+            applied.add(paths);
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        @Override
+        public List<? extends ProjectConfig> getProjects() throws ServerException {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public String getWorkspaceId() {
+            return "ws";
+        }
+
+        @Override
+        protected void addProject(ProjectConfig project) throws ServerException {
+        }
+
+        @Override
+        protected void updateProject(ProjectConfig project) throws ServerException {
+        }
+
+        @Override
+        protected void removeProject(ProjectConfig project) throws ServerException {
+        }
+    }
+}
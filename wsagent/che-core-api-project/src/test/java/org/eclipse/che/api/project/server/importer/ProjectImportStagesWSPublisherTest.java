@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server.importer;
+
+import org.everrest.websockets.message.ChannelBroadcastMessage;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ProjectImportStagesWSPublisherTest {
+
+    @Test
+    public void sendsEachCompletedStageToChannelOfImportedProject() throws Exception {
+        final List<ChannelBroadcastMessage> messages = new ArrayList<>();
+        ProjectImportStagesWSPublisher publisher = new ProjectImportStagesWSPublisher("/project", "ws") {
+            @Override
+            protected void sendMessageToWS(ChannelBroadcastMessage bm) {
+                messages.add(bm);
+            }
+        };
+
+        publisher.stageCompleted("import", 120);
+        publisher.stageCompleted("detect", 5);
+
+        assertEquals(2, messages.size());
+        assertEquals("importProject:stages:ws:/project", messages.get(0).getChannel());
+        assertEquals("{\"stage\":\"import\", \"time\":120}", messages.get(0).getBody());
+        assertEquals("importProject:stages:ws:/project", messages.get(1).getChannel());
+        assertEquals("{\"stage\":\"detect\", \"time\":5}", messages.get(1).getBody());
+    }
+
+    @Test
+    public void escapesNameOfStage() throws Exception {
+        final List<ChannelBroadcastMessage> messages = new ArrayList<>();
+        ProjectImportStagesWSPublisher publisher = new ProjectImportStagesWSPublisher("/project", "ws") {
+            @Override
+            protected void sendMessageToWS(ChannelBroadcastMessage bm) {
+                messages.add(bm);
+            }
+        };
+
+        publisher.stageCompleted("a\"b", 1);
+
+        assertEquals("{\"stage\":\"a\\\"b\", \"time\":1}", messages.get(0).getBody());
+    }
+}
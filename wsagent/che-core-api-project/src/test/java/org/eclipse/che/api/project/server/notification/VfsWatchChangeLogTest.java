@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server.notification;
+
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.project.server.notification.VfsWatchBatchEvent.Change;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.CREATED;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.DELETED;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class VfsWatchChangeLogTest {
+    private VfsWatchChangeLog changeLog;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        changeLog = new VfsWatchChangeLog(mock(EventService.class));
+    }
+
+    @Test
+    public void increasesVersionWithEachBatch() throws Exception {
+        long version = changeLog.getVersion();
+
+        changeLog.onEvent(newBatch(new Change(CREATED, "/project/a.txt", true)));
+
+        assertEquals(changeLog.getVersion(), version + 1);
+        assertTrue(changeLog.getChanges(version + 1, version + 1).isEmpty());
+    }
+
+    @Test
+    public void returnsChangesSinceVersion() throws Exception {
+        changeLog.onEvent(newBatch(new Change(CREATED, "/project/old.txt", true)));
+        long since = changeLog.getVersion();
+        changeLog.onEvent(newBatch(new Change(CREATED, "/project/a.txt", true), new Change(MODIFIED, "/project/b.txt", true)));
+        changeLog.onEvent(newBatch(new Change(MODIFIED, "/project/a.txt", true), new Change(DELETED, "/project/c.txt", true)));
+
+        assertEquals(toStrings(changeLog.getChanges(since, changeLog.getVersion())), Arrays.asList("MODIFIED /project/b.txt",
+                                                                                                   "CREATED /project/a.txt",
+                                                                                                   "DELETED /project/c.txt"));
+    }
+
+    @Test
+    public void collapsesChangesOfDifferentBatches() throws Exception {
+        long since = changeLog.getVersion();
+        changeLog.onEvent(newBatch(new Change(CREATED, "/project/temporary.txt", true),
+                                   new Change(CREATED, "/project/src/A.java", true)));
+        changeLog.onEvent(newBatch(new Change(DELETED, "/project/temporary.txt", true),
+                                   new Change(DELETED, "/project/src/A.java", true),
+                                   new Change(DELETED, "/project/src", false)));
+
+        assertEquals(toStrings(changeLog.getChanges(since, changeLog.getVersion())), Arrays.asList("DELETED /project/src"));
+    }
+
+    @Test
+    public void doesNotReturnChangesThatAreNotKeptAnymore() throws Exception {
+        long since = changeLog.getVersion();
+        Change[] changes = new Change[VfsWatchChangeLog.MAX_CHANGES];
+        Arrays.fill(changes, new Change(MODIFIED, "/project/a.txt", true));
+        changeLog.onEvent(newBatch(changes));
+        long afterFirstBatch = changeLog.getVersion();
+        changeLog.onEvent(newBatch(new Change(MODIFIED, "/project/b.txt", true)));
+
+        assertNull(changeLog.getChanges(since, changeLog.getVersion()));
+        assertEquals(toStrings(changeLog.getChanges(afterFirstBatch, changeLog.getVersion())), Arrays.asList("MODIFIED /project/b.txt"));
+    }
+
+    @Test
+    public void doesNotReturnChangesSinceUnknownVersion() throws Exception {
+        assertNull(changeLog.getChanges(changeLog.getVersion() + 1, changeLog.getVersion()));
+        assertNull(changeLog.getChanges(changeLog.getVersion() - 1, changeLog.getVersion()));
+    }
+
+    private VfsWatchBatchEvent newBatch(Change... changes) {
+        return new VfsWatchBatchEvent(Arrays.asList(changes));
+    }
+
+    private List<String> toStrings(List<Change> changes) {
+        return changes.stream().map(change -> change.getType() + " " + change.getPath()).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server.notification;
+
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.project.server.notification.VfsWatchBatchEvent.Change;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
+import org.mockito.ArgumentCaptor;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.CREATED;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.DELETED;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+
+public class VfsWatchEventCoalescerTest {
+    private EventService           eventService;
+    private VfsWatchEventCoalescer coalescer;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        eventService = mock(EventService.class);
+        coalescer = new VfsWatchEventCoalescer(eventService, mock(FileWatcherNotificationHandler.class));
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        coalescer.stop();
+    }
+
+    @Test
+    public void collapsesEventsOfTheSamePath() throws Exception {
+        coalescer.add("/project/created.txt", CREATED, true);
+        coalescer.add("/project/created.txt", MODIFIED, true);
+        coalescer.add("/project/modified.txt", MODIFIED, true);
+        coalescer.add("/project/modified.txt", MODIFIED, true);
+        coalescer.add("/project/temporary.txt", CREATED, true);
+        coalescer.add("/project/temporary.txt", DELETED, true);
+        coalescer.add("/project/saved.txt", DELETED, true);
+        coalescer.add("/project/saved.txt", CREATED, true);
+
+        coalescer.flush(true);
+
+        assertEquals(publishedChanges(), newChanges("CREATED /project/created.txt",
+                                                    "MODIFIED /project/modified.txt",
+                                                    "MODIFIED /project/saved.txt"));
+    }
+
+    @Test
+    public void reportsDeletionOfFolderWithoutItsDescendants() throws Exception {
+        coalescer.add("/project/src/main/A.java", DELETED, true);
+        coalescer.add("/project/src/main", DELETED, false);
+        coalescer.add("/project/src/B.java", DELETED, true);
+        coalescer.add("/project/src", DELETED, false);
+        coalescer.add("/project/pom.xml", MODIFIED, true);
+
+        coalescer.flush(true);
+
+        assertEquals(publishedChanges(), newChanges("DELETED /project/src", "MODIFIED /project/pom.xml"));
+    }
+
+    @Test
+    public void doesNotPublishEmptyBatch() throws Exception {
+        coalescer.add("/project/temporary.txt", CREATED, true);
+        coalescer.add("/project/temporary.txt", DELETED, true);
+
+        coalescer.flush(true);
+
+        verify(eventService, never()).publish(any());
+    }
+
+    @Test
+    public void publishesBatchAfterQuietPeriod() throws Exception {
+        coalescer.add("/project/a.txt", CREATED, true);
+        coalescer.add("/project/b.txt", CREATED, true);
+
+        verify(eventService, timeout(5000)).publish(any(VfsWatchBatchEvent.class));
+        assertEquals(publishedChanges(), newChanges("CREATED /project/a.txt", "CREATED /project/b.txt"));
+    }
+
+    private List<String> publishedChanges() {
+        ArgumentCaptor<VfsWatchBatchEvent> event = ArgumentCaptor.forClass(VfsWatchBatchEvent.class);
+        verify(eventService).publish(event.capture());
+        return event.getValue().getChanges().stream().map(this::toString).collect(Collectors.toList());
+    }
+
+    private List<String> newChanges(String... changes) {
+        return Arrays.asList(changes);
+    }
+
+    private String toString(Change change) {
+        return change.getType() + " " + change.getPath();
+    }
+}
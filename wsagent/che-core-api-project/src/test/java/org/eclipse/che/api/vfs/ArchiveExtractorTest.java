@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ArchiveExtractorTest {
+    @Test
+    public void waitsForFilesThatAreBeingWrittenWhenClosed() throws Exception {
+        AtomicBoolean written = new AtomicBoolean();
+        VirtualFile folder = mock(VirtualFile.class);
+        when(folder.createFile(eq("file.txt"), any(InputStream.class))).thenAnswer(invocation -> {
+            // writing of file is not interrupted when extractor is closed
+            Uninterruptibles.sleepUninterruptibly(500, MILLISECONDS);
+            written.set(true);
+            return null;
+        });
+
+        ExecutorService executor = newFixedThreadPool(2);
+        try (ArchiveExtractor extractor = new ArchiveExtractor(folder, false, executor, 2)) {
+            extractor.addFile(Path.of("file.txt"), new ByteArrayInputStream("content".getBytes()));
+            // give worker time to start writing
+            Thread.sleep(100);
+        }
+
+        assertTrue(written.get());
+        // executor is shared by extractors and is not shut down when one of them is closed
+        assertFalse(executor.isShutdown());
+        executor.shutdown();
+    }
+}
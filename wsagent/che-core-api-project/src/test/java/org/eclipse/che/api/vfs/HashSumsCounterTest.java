@@ -19,11 +19,18 @@ import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
 import java.io.ByteArrayInputStream;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Sets.newHashSet;
+import static java.util.stream.Collectors.toList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
@@ -45,6 +52,66 @@ public class HashSumsCounterTest {
         assertEquals(expected, hashSums);
     }
 
+    @Test
+    public void countsHashSumsWithPoolOfThreads() throws Exception {
+        VirtualFile fileAB = mockFile("/a/file", "file1".getBytes());
+        VirtualFile fileBA = mockFile("/a/b/file", "file2".getBytes());
+        VirtualFile fileBB = mockFile("/a/b/file2", "file3".getBytes());
+        VirtualFile folderB = mockFolder("/a/b", fileBA, fileBB);
+        VirtualFile folderA = mockFolder("/a", folderB, fileAB);
+        List<Pair<String, String>> expected = newArrayList(Pair.of(countMd5Sum("file2".getBytes()), "b/file"),
+                                                           Pair.of(countMd5Sum("file3".getBytes()), "b/file2"),
+                                                           Pair.of(countMd5Sum("file1".getBytes()), "file"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Pair<String, String>> hashSums = new HashSumsCounter(folderA, Hashing.md5(), executor, 2).countHashSums();
+
+            assertEquals(expected, hashSums);
+            assertFalse(executor.isShutdown());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void countsHashTree() throws Exception {
+        VirtualFile fileA = mockFile("/a/file", "file1".getBytes());
+        VirtualFile fileBA = mockFile("/a/b/file", "file2".getBytes());
+        VirtualFile fileCA = mockFile("/a/c/file", "file2".getBytes());
+        VirtualFile folderB = mockFolder("/a/b", fileBA);
+        VirtualFile folderC = mockFolder("/a/c", fileCA);
+        VirtualFile folderA = mockFolder("/a", folderC, fileA, folderB);
+
+        HashTree tree = new HashSumsCounter(folderA, Hashing.md5()).countHashTree();
+
+        assertTrue(tree.isFolder());
+        assertEquals("/a", tree.getPath().toString());
+        assertEquals(newArrayList("b", "c", "file"), tree.getChildren().stream().map(HashTree::getName).collect(toList()));
+        HashTree treeB = tree.getChildren().get(0);
+        HashTree treeC = tree.getChildren().get(1);
+        HashTree treeFile = tree.getChildren().get(2);
+        assertFalse(treeFile.isFolder());
+        assertEquals(countMd5Sum("file1".getBytes()), treeFile.getHash());
+        assertEquals(countMd5Sum("file2".getBytes()), treeB.getChildren().get(0).getHash());
+        assertEquals(treeB.getHash(), treeC.getHash());
+        assertNotEquals(treeB.getHash(), tree.getHash());
+    }
+
+    @Test
+    public void changesHashOfAllParentFoldersWhenFileIsChanged() throws Exception {
+        HashTree tree = new HashSumsCounter(mockFolder("/a", mockFolder("/a/b", mockFile("/a/b/file", "file1".getBytes())),
+                                                       mockFolder("/a/c", mockFile("/a/c/file", "file2".getBytes()))),
+                                            Hashing.md5()).countHashTree();
+        HashTree changedTree = new HashSumsCounter(mockFolder("/a", mockFolder("/a/b", mockFile("/a/b/file", "file3".getBytes())),
+                                                              mockFolder("/a/c", mockFile("/a/c/file", "file2".getBytes()))),
+                                                   Hashing.md5()).countHashTree();
+
+        assertNotEquals(tree.getHash(), changedTree.getHash());
+        assertNotEquals(tree.getChildren().get(0).getHash(), changedTree.getChildren().get(0).getHash());
+        assertEquals(tree.getChildren().get(1).getHash(), changedTree.getChildren().get(1).getHash());
+    }
+
     private String countMd5Sum(byte[] bytes) throws Exception {
         return ByteSource.wrap(bytes).hash(Hashing.md5()).toString();
     }
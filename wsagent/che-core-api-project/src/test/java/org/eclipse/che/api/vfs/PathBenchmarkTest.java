@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures heap retained by {@link Path}s of large generated tree, in the way they are kept by caches and indexes, and time of typical
+ * operations: building of child paths, {@link Path#getParent()}, {@link Path#isChild(Path)}, {@link Path#toString()} and lookup in hash
+ * set. This test is excluded from regular build, run it manually.
+ */
+public class PathBenchmarkTest {
+    private static final Logger LOG = LoggerFactory.getLogger(PathBenchmarkTest.class);
+
+    private static final int MODULES          = 200;
+    private static final int PACKAGES         = 20;
+    private static final int FILES_PER_FOLDER = 50;
+    private static final int ITERATIONS       = 5;
+
+    @Test
+    public void measuresHeapAndTimeOfOperations() throws Exception {
+        final int paths = MODULES * PACKAGES * FILES_PER_FOLDER;
+        long usedBefore = usedMemory();
+        List<Path> files = buildTree();
+        long usedAfter = usedMemory();
+        LOG.info("Retained {} bytes per path of {} files", (usedAfter - usedBefore) / paths, paths);
+        assertEquals(paths, files.size());
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            buildTree();
+        }
+        LOG.info("Built {} paths in {} ms", paths, (System.nanoTime() - start) / 1000000 / ITERATIONS);
+
+        final Path module = Path.of("/project/module007");
+        start = System.nanoTime();
+        int children = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            children = 0;
+            for (Path file : files) {
+                if (file.isChild(module)) {
+                    children++;
+                }
+            }
+        }
+        LOG.info("Checked {} paths with isChild in {} ms", paths, (System.nanoTime() - start) / 1000000 / ITERATIONS);
+        assertEquals(PACKAGES * FILES_PER_FOLDER, children);
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            for (Path file : files) {
+                for (Path parent = file.getParent(); parent != null; parent = parent.getParent()) {
+                    parent.getName();
+                }
+            }
+        }
+        LOG.info("Walked to root from {} paths in {} ms", paths, (System.nanoTime() - start) / 1000000 / ITERATIONS);
+
+        start = System.nanoTime();
+        long length = 0;
+        for (Path file : buildTree()) {
+            length += file.toString().length();
+        }
+        LOG.info("Converted {} new paths to string in {} ms", paths, (System.nanoTime() - start) / 1000000);
+        assertTrue(length > 0);
+
+        final Set<Path> set = new HashSet<>(files);
+        final List<Path> copies = buildTree();
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            for (Path copy : copies) {
+                assertTrue(set.contains(copy));
+            }
+        }
+        LOG.info("Looked up {} paths in hash set in {} ms", paths, (System.nanoTime() - start) / 1000000 / ITERATIONS);
+    }
+
+    /** Builds paths the same way virtual file system does it while walking tree: each child path is created from path of parent. */
+    private List<Path> buildTree() {
+        final List<Path> files = new ArrayList<>(MODULES * PACKAGES * FILES_PER_FOLDER);
+        final Path root = Path.of("/project");
+        for (int i = 0; i < MODULES; i++) {
+            final Path sources = root.newPath(String.format("module%03d", i)).newPath("src").newPath("main").newPath("java");
+            for (int j = 0; j < PACKAGES; j++) {
+                final Path pack = sources.newPath("org").newPath("eclipse").newPath(String.format("package%02d", j));
+                for (int k = 0; k < FILES_PER_FOLDER; k++) {
+                    files.add(pack.newPath(String.format("Class%d.java", k)));
+                }
+            }
+        }
+        return files;
+    }
+
+    private long usedMemory() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
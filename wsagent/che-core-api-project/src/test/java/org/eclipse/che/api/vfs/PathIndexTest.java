@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import static com.google.common.collect.Sets.newHashSet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PathIndexTest {
+    private PathIndex<TestEntry> index;
+
+    @Before
+    public void setUp() throws Exception {
+        index = new PathIndex<>();
+    }
+
+    @Test
+    public void invalidatesEntriesOfPathButNotOfPathsWithTheSamePrefix() throws Exception {
+        TestEntry a = add("/a");
+        TestEntry otherA = add("/a");
+        TestEntry ab = add("/a/b");
+        TestEntry aa = add("/aa");
+
+        index.invalidate("/a");
+
+        assertTrue(a.isInvalidated());
+        assertTrue(otherA.isInvalidated());
+        assertFalse(ab.isInvalidated());
+        assertFalse(aa.isInvalidated());
+        assertEquals(2, a.removed + otherA.removed);
+    }
+
+    @Test
+    public void invalidatesEntriesOfDescendants() throws Exception {
+        TestEntry a = add("/a");
+        TestEntry ab = add("/a/b");
+        TestEntry abc = add("/a/b/c");
+        TestEntry aa = add("/aa");
+
+        index.invalidateDescendants("/a");
+
+        assertFalse(a.isInvalidated());
+        assertTrue(ab.isInvalidated());
+        assertTrue(abc.isInvalidated());
+        assertFalse(aa.isInvalidated());
+    }
+
+    @Test
+    public void invalidatesAllEntriesButRootOnesAsDescendantsOfRoot() throws Exception {
+        TestEntry root = add("/");
+        TestEntry a = add("/a");
+
+        index.invalidateDescendants("/");
+
+        assertFalse(root.isInvalidated());
+        assertTrue(a.isInvalidated());
+    }
+
+    @Test
+    public void doesNotCacheValueOfInvalidatedEntry() throws Exception {
+        TestEntry a = add("/a");
+        index.invalidate("/a");
+
+        assertFalse(a.cache(() -> a.cached = true));
+        assertFalse(a.cached);
+    }
+
+    @Test
+    public void removesValueThatIsCachedWhileEntryIsInvalidated() throws Exception {
+        TestEntry a = add("/a");
+
+        assertFalse(a.cache(() -> {
+            a.cached = true;
+            index.invalidate("/a");
+        }));
+        assertTrue(a.removed > 0);
+    }
+
+    @Test
+    public void removesEntryFromIndex() throws Exception {
+        TestEntry a = new TestEntry();
+        String key = index.add("/a", a);
+
+        index.remove(key, a);
+
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void selectsRangeOfDescendantsInSortedMap() throws Exception {
+        ConcurrentSkipListMap<String, String> map = new ConcurrentSkipListMap<>();
+        for (String path : new String[]{"/", "/a", "/a/b", "/a/b/c", "/a-b", "/aa"}) {
+            map.put(path, path);
+        }
+
+        assertEquals(newHashSet("/a/b", "/a/b/c"), PathIndex.descendants(map, "/a").keySet());
+        assertEquals(newHashSet("/a", "/a/b", "/a/b/c", "/a-b", "/aa"), PathIndex.descendants(map, "/").keySet());
+    }
+
+    private TestEntry add(String path) {
+        TestEntry entry = new TestEntry();
+        index.add(path, entry);
+        return entry;
+    }
+
+    private static class TestEntry extends PathIndex.Entry {
+        boolean cached;
+        int     removed;
+
+        @Override
+        protected void onInvalidated() {
+            removed++;
+        }
+    }
+}
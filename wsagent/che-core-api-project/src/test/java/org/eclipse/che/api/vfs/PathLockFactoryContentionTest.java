@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares throughput of {@link PathLockFactory} and previous implementation {@link MonitorPathLockFactory} when many threads lock
+ * unrelated files and files in the same folder. This test is excluded from regular build, run it manually.
+ */
+public class PathLockFactoryContentionTest {
+    private static final Logger LOG = LoggerFactory.getLogger(PathLockFactoryContentionTest.class);
+
+    private static final int  MAX_THREADS = 1024;
+    private static final long DURATION_MS = 3000;
+
+    @Test
+    public void comparesThroughput() throws Exception {
+        final int[] threads = {1, 4, Math.max(8, Runtime.getRuntime().availableProcessors() * 2)};
+        for (int numberOfThreads : threads) {
+            for (boolean sameFolder : new boolean[]{false, true}) {
+                final PathLockFactory pathLockFactory = new PathLockFactory(MAX_THREADS);
+                final long striped = measure(numberOfThreads, sameFolder, new Locker() {
+                    @Override
+                    public void lockAndRelease(Path path, boolean exclusive) {
+                        pathLockFactory.getLock(path, exclusive).acquire().release();
+                    }
+                });
+                pathLockFactory.checkClean();
+
+                final MonitorPathLockFactory monitorPathLockFactory = new MonitorPathLockFactory(MAX_THREADS);
+                final long monitor = measure(numberOfThreads, sameFolder, new Locker() {
+                    @Override
+                    public void lockAndRelease(Path path, boolean exclusive) {
+                        monitorPathLockFactory.getLock(path, exclusive).acquire().release();
+                    }
+                });
+                monitorPathLockFactory.checkClean();
+
+                LOG.info("{} threads, {}: striped {} locks/s, monitor {} locks/s",
+                         numberOfThreads, sameFolder ? "same folder" : "unrelated files",
+                         striped * 1000 / DURATION_MS, monitor * 1000 / DURATION_MS);
+            }
+        }
+    }
+
+    private long measure(int numberOfThreads, final boolean sameFolder, final Locker locker) throws Exception {
+        final AtomicLong counter = new AtomicLong();
+        final CountDownLatch starter = new CountDownLatch(1);
+        final CountDownLatch waiter = new CountDownLatch(numberOfThreads);
+        final long endTime = System.currentTimeMillis() + DURATION_MS;
+        for (int i = 0; i < numberOfThreads; i++) {
+            final int threadNumber = i;
+            new Thread(() -> {
+                try {
+                    starter.await();
+                    final Path folder = sameFolder ? Path.of("/project/src") : Path.of("/project" + threadNumber + "/src");
+                    long locks = 0;
+                    while (System.currentTimeMillis() < endTime) {
+                        // Mix of reads and writes of files, as it goes when project is edited and indexed at the same time
+                        final Path file = folder.newPath(String.format("file%d_%d", threadNumber, locks % 100));
+                        locker.lockAndRelease(file, locks % 4 == 0);
+                        locks++;
+                    }
+                    counter.addAndGet(locks);
+                } catch (InterruptedException ignored) {
+                } finally {
+                    waiter.countDown();
+                }
+            }).start();
+        }
+        starter.countDown();
+        waiter.await();
+        return counter.get();
+    }
+
+    private interface Locker {
+        void lockAndRelease(Path path, boolean exclusive);
+    }
+}
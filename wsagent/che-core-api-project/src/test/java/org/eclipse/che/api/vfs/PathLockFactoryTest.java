@@ -236,4 +236,226 @@ public class PathLockFactoryTest extends TestCase {
         waiter.await();
         assertEquals(2, acquired.get());
     }
+
+    public void testLockUnrelatedPaths() throws Exception {
+        final Path other = Path.of("/a/x/y");
+        PathLockFactory.PathLock lock = pathLockFactory.getLock(path, true).acquire();
+        final AtomicBoolean acquired = new AtomicBoolean(false);
+        Thread t = new Thread() {
+            @Override
+            public void run() {
+                PathLockFactory.PathLock otherLock = pathLockFactory.getLock(other, true).acquire(100);
+                acquired.set(true);
+                otherLock.release();
+            }
+        };
+        t.start();
+        t.join();
+        lock.release();
+        assertTrue(acquired.get());
+        pathLockFactory.checkClean();
+    }
+
+    public void testParentSharedLockBlocksExclusiveLockOfChild() throws Exception {
+        PathLockFactory.PathLock parentLock = pathLockFactory.getLock(path.getParent(), false).acquire();
+        final AtomicBoolean timeout = new AtomicBoolean(false);
+        Thread t = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    pathLockFactory.getLock(path, true).acquire(100);
+                } catch (RuntimeException e) {
+                    timeout.set(true);
+                }
+            }
+        };
+        t.start();
+        t.join();
+        parentLock.release();
+        assertTrue(timeout.get());
+        // Intention locks of parents must be released after timeout
+        pathLockFactory.checkClean();
+    }
+
+    public void testExclusiveLockIsGrantedInOrderOfArrival() throws Exception {
+        PathLockFactory.PathLock sharedLock = pathLockFactory.getLock(path, false).acquire();
+        final List<String> order = new ArrayList<>();
+        final CountDownLatch writerWaits = new CountDownLatch(1);
+        Thread writer = new Thread() {
+            @Override
+            public void run() {
+                writerWaits.countDown();
+                PathLockFactory.PathLock lock = pathLockFactory.getLock(path, true).acquire();
+                synchronized (order) {
+                    order.add("writer");
+                }
+                lock.release();
+            }
+        };
+        writer.start();
+        writerWaits.await();
+        Thread.sleep(100); // let writer be queued
+        Thread reader = new Thread() {
+            @Override
+            public void run() {
+                PathLockFactory.PathLock lock = pathLockFactory.getLock(path, false).acquire();
+                synchronized (order) {
+                    order.add("reader");
+                }
+                lock.release();
+            }
+        };
+        reader.start();
+        Thread.sleep(100);
+        // Reader must not overtake writer even if its lock is compatible with lock held by main thread
+        synchronized (order) {
+            assertTrue(order.isEmpty());
+        }
+        sharedLock.release();
+        writer.join();
+        reader.join();
+        assertEquals(2, order.size());
+        assertEquals("writer", order.get(0));
+        assertEquals("reader", order.get(1));
+        pathLockFactory.checkClean();
+    }
+
+    public void testUpgradeOfLockHeldBySingleThread() throws Exception {
+        PathLockFactory.PathLock sharedLock = pathLockFactory.getLock(path, false).acquire();
+        PathLockFactory.PathLock exclusiveLock = pathLockFactory.getLock(path, true).acquire(100);
+        assertTrue(exclusiveLock.isExclusive());
+        exclusiveLock.release();
+        sharedLock.release();
+        pathLockFactory.checkClean();
+    }
+
+    public void testUpgradeOfParentIntentionLockWaitsUntilOtherThreadReleasesSharedLock() throws Exception {
+        final CountDownLatch otherAcquired = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(1);
+        Thread other = new Thread() {
+            @Override
+            public void run() {
+                PathLockFactory.PathLock lock = pathLockFactory.getLock(path, false).acquire();
+                otherAcquired.countDown();
+                try {
+                    done.await();
+                } catch (InterruptedException ignored) {
+                } finally {
+                    lock.release();
+                }
+            }
+        };
+        other.start();
+        otherAcquired.await();
+        // Shared lock of child takes intention shared lock of path
+        PathLockFactory.PathLock sharedLock = pathLockFactory.getLock(path.newPath("x"), false).acquire();
+        new Thread() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException ignored) {
+                }
+                done.countDown();
+            }
+        }.start();
+        final long start = System.currentTimeMillis();
+        try {
+            // Exclusive lock of other child needs intention exclusive lock of path that is shared by other thread
+            PathLockFactory.PathLock exclusiveLock = pathLockFactory.getLock(path.newPath("y"), true).acquire(10000);
+            assertTrue(System.currentTimeMillis() - start >= 150);
+            exclusiveLock.release();
+        } finally {
+            sharedLock.release();
+            done.countDown();
+            other.join();
+        }
+        pathLockFactory.checkClean();
+    }
+
+    public void testUpgradeOfSharedLockHeldByOtherThreadFailsWithTimeout() throws Exception {
+        final CountDownLatch otherAcquired = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(1);
+        Thread other = new Thread() {
+            @Override
+            public void run() {
+                PathLockFactory.PathLock lock = pathLockFactory.getLock(path, false).acquire();
+                otherAcquired.countDown();
+                try {
+                    done.await();
+                } catch (InterruptedException ignored) {
+                } finally {
+                    lock.release();
+                }
+            }
+        };
+        other.start();
+        otherAcquired.await();
+        PathLockFactory.PathLock sharedLock = pathLockFactory.getLock(path, false).acquire();
+        try {
+            pathLockFactory.getLock(path, true).acquire(100);
+            fail();
+        } catch (IllegalStateException e) {
+            fail("Upgrade must wait for lock of other thread");
+        } catch (RuntimeException e) {
+            // OK, timeout
+        } finally {
+            sharedLock.release();
+            done.countDown();
+            other.join();
+        }
+        pathLockFactory.checkClean();
+    }
+
+    public void testMutualUpgradeOfSharedLockFailsWithoutWaiting() throws Exception {
+        final CountDownLatch otherAcquired = new CountDownLatch(1);
+        final CountDownLatch mainAcquired = new CountDownLatch(1);
+        final AtomicBoolean otherUpgraded = new AtomicBoolean();
+        Thread other = new Thread() {
+            @Override
+            public void run() {
+                PathLockFactory.PathLock lock = pathLockFactory.getLock(path, false).acquire();
+                otherAcquired.countDown();
+                try {
+                    mainAcquired.await();
+                    PathLockFactory.PathLock exclusiveLock = pathLockFactory.getLock(path, true).acquire(10000);
+                    otherUpgraded.set(true);
+                    exclusiveLock.release();
+                } catch (InterruptedException ignored) {
+                } finally {
+                    lock.release();
+                }
+            }
+        };
+        other.start();
+        otherAcquired.await();
+        PathLockFactory.PathLock sharedLock = pathLockFactory.getLock(path, false).acquire();
+        mainAcquired.countDown();
+        // Let other thread start to wait for upgrade
+        Thread.sleep(200);
+        final long start = System.currentTimeMillis();
+        try {
+            pathLockFactory.getLock(path, true).acquire(10000);
+            fail();
+        } catch (IllegalStateException e) {
+            // OK, upgrade is rejected instead of waiting for timeout
+            assertTrue(System.currentTimeMillis() - start < 5000);
+        } finally {
+            sharedLock.release();
+            other.join();
+        }
+        assertTrue(otherUpgraded.get());
+        pathLockFactory.checkClean();
+    }
+
+    public void testCheckCleanFailsIfLockIsNotReleased() throws Exception {
+        pathLockFactory.getLock(path, false).acquire();
+        try {
+            pathLockFactory.checkClean();
+        } catch (AssertionError e) {
+            return; // OK
+        }
+        // Assertions disabled
+        assertFalse(PathLockFactoryTest.class.desiredAssertionStatus());
+    }
 }
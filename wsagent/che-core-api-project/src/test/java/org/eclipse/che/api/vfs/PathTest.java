@@ -20,6 +20,7 @@ import org.junit.runner.RunWith;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -120,4 +121,24 @@ public class PathTest {
         assertFalse(child1.isChild(child2));
         assertFalse(parent.isChild(child1));
     }
+
+    @Test
+    public void sharesParentPathAndNamesOfElements() {
+        Path parent = Path.of("/a/b");
+        Path child1 = parent.newPath("c");
+        Path child2 = Path.of("/x").newPath(new String("c"));
+        assertSame(parent, child1.getParent());
+        assertSame(parent, child1.newPath("d/e").subPath(0, 2));
+        assertSame(child1.getName(), child2.getName());
+    }
+
+    @Test
+    public void comparesPathsByElements() {
+        Path path = Path.of("/a/b/c");
+        assertEquals(path, Path.of("/a").newPath("b").newPath("c"));
+        assertEquals(path.hashCode(), Path.of("/a").newPath("b").newPath("c").hashCode());
+        assertEquals(Path.of("b/c"), path.subPath(1));
+        assertFalse(path.equals(Path.of("/a/b/d")));
+        assertFalse(path.equals(Path.of("/a/b")));
+    }
 }
@@ -35,11 +35,14 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static java.util.stream.Collectors.toMap;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -54,8 +57,9 @@ public class TarArchiverTest {
     private static final String TEST_CONTENT       = "___TEST___";
     private static final byte[] TEST_CONTENT_BYTES = TEST_CONTENT.getBytes();
 
-    private File        testDirectory;
-    private VirtualFile vfsRoot;
+    private File            testDirectory;
+    private VirtualFile     vfsRoot;
+    private ExecutorService executor;
 
     @Before
     public void setUp() throws Exception {
@@ -72,10 +76,12 @@ public class TarArchiverTest {
         when(searcherProvider.getSearcher(eq(virtualFileSystem), eq(true))).thenReturn(searcher);
         when(searcherProvider.getSearcher(eq(virtualFileSystem))).thenReturn(searcher);
         vfsRoot = virtualFileSystem.getRoot();
+        executor = newFixedThreadPool(4);
     }
 
     @After
     public void tearDown() throws Exception {
+        executor.shutdownNow();
         IoUtil.deleteRecursive(testDirectory);
         FileCleaner.stop();
     }
@@ -169,6 +175,21 @@ public class TarArchiverTest {
         }
     }
 
+    @Test
+    public void doesNotExtractAnythingFromTruncatedArchive() throws Exception {
+        byte[] archive = createTestTarArchive();
+        // archive is cut just after content of file 'arc/a/_a.txt', such archive looks valid until its end is checked
+        byte[] truncatedArchive = Arrays.copyOf(archive, 4 * 512);
+        VirtualFile folder = vfsRoot.createFolder("folder");
+
+        try {
+            new TarArchiver(folder).extract(new ByteArrayInputStream(truncatedArchive), false, 0);
+            thrown.expect(IOException.class);
+        } catch (IOException expected) {
+            assertTrue(folder.getChildren().isEmpty());
+        }
+    }
+
     @Test
     public void failsExtractArchiveToFolderWhenItContainsLockedFile() throws Exception {
         byte[] archive = createTestTarArchive();
@@ -225,6 +246,39 @@ public class TarArchiverTest {
         return arc;
     }
 
+    @Test
+    public void extractsArchiveToFolderInParallel() throws Exception {
+        VirtualFile source = createFileTreeForArchiving();
+        for (int i = 0; i < 100; i++) {
+            source.getChild(Path.of("a")).createFile(String.format("file%d.txt", i), TEST_CONTENT + i);
+        }
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        new TarArchiver(source).compress(archive);
+        VirtualFile folder = vfsRoot.createFolder("folder");
+
+        new TarArchiver(folder, executor, 4).extract(new ByteArrayInputStream(archive.toByteArray()), false, 0);
+
+        Map<String, String> entries = getFileTreeAsList(folder).stream()
+                                                               .collect(toMap(f -> getTarEntryName(folder, f),
+                                                                              this::readContentUnchecked));
+        assertEquals(readArchiveEntries(new ByteArrayInputStream(archive.toByteArray())), entries);
+    }
+
+    @Test
+    public void failsExtractArchiveInParallelToFolderWhenItContainsItemWithSameNameAndOverwritingIsDisabled() throws Exception {
+        byte[] archive = createTestTarArchive();
+        VirtualFile folder = vfsRoot.createFolder("folder");
+        VirtualFile arc = folder.createFolder("arc");
+        VirtualFile existedFile = arc.createFolder("a").createFile("_a.txt", "xxx");
+
+        try {
+            new TarArchiver(folder, executor, 4).extract(new ByteArrayInputStream(archive), false, 0);
+            thrown.expect(ConflictException.class);
+        } catch (ConflictException expected) {
+            assertEquals("xxx", existedFile.getContentAsString());
+        }
+    }
+
     private byte[] createTestTarArchive() throws IOException {
         ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
         TarArchiveOutputStream tarOut = new TarArchiveOutputStream(byteOut);
@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs;
+
+import com.google.common.io.ByteStreams;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.impl.file.LocalVirtualFileSystem;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares throughput of zip export of large generated tree with serial {@link ZipOutputStream} and with {@link ZipArchiver} with
+ * different number of compressing threads, and throughput of extraction of the same tree with different number of extracting threads.
+ * This test is excluded from regular build, run it manually.
+ */
+public class ZipArchiverBenchmarkTest {
+    private static final Logger LOG = LoggerFactory.getLogger(ZipArchiverBenchmarkTest.class);
+
+    private static final int FOLDERS          = 100;
+    private static final int FILES_PER_FOLDER = 50;
+    private static final int BINARY_FILES     = 20;
+    private static final int BINARY_FILE_SIZE = 1024 * 1024;
+
+    private File            workDirectory;
+    private VirtualFile     folder;
+    private long            treeSize;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        workDirectory = Files.createTempDirectory("zip-").toFile();
+        File treeDirectory = new File(workDirectory, "tree");
+        Random random = new Random();
+        for (int i = 0; i < FOLDERS; i++) {
+            File sources = new File(treeDirectory, String.format("module%03d/src/main/java", i));
+            assertTrue(sources.mkdirs());
+            for (int j = 0; j < FILES_PER_FOLDER; j++) {
+                StringBuilder content = new StringBuilder();
+                content.append(String.format("public class Class%d_%d {\n", i, j));
+                for (int k = 0; k < 200; k++) {
+                    content.append(String.format("    private int field%d = %d;\n", k, random.nextInt()));
+                }
+                content.append("}\n");
+                byte[] bytes = content.toString().getBytes(UTF_8);
+                Files.write(new File(sources, String.format("Class%d.java", j)).toPath(), bytes);
+                treeSize += bytes.length;
+            }
+        }
+        File images = new File(treeDirectory, "images");
+        assertTrue(images.mkdirs());
+        for (int i = 0; i < BINARY_FILES; i++) {
+            byte[] bytes = new byte[BINARY_FILE_SIZE];
+            random.nextBytes(bytes);
+            Files.write(new File(images, String.format("image%d.png", i)).toPath(), bytes);
+            treeSize += bytes.length;
+        }
+
+        folder = new LocalVirtualFileSystem(workDirectory, null, null, null).getRoot().getChild(Path.of("tree"));
+        executor = newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        IoUtil.deleteRecursive(workDirectory);
+    }
+
+    @Test
+    public void comparesThroughput() throws Exception {
+        final int[] threads = {1, 2, Runtime.getRuntime().availableProcessors()};
+        for (int round = 0; round < 3; round++) {
+            CountingOutputStream output = new CountingOutputStream();
+            long start = System.nanoTime();
+            compressSerially(output);
+            LOG.info("ZipOutputStream: {} MB/s, archive size {}", throughput(System.nanoTime() - start), output.count);
+
+            for (int compressingThreads : threads) {
+                output = new CountingOutputStream();
+                start = System.nanoTime();
+                new ZipArchiver(folder, -1, executor, compressingThreads, 1).compress(output);
+                LOG.info("ZipArchiver with {} threads: {} MB/s, archive size {}",
+                         compressingThreads, throughput(System.nanoTime() - start), output.count);
+            }
+        }
+    }
+
+    @Test
+    public void comparesExtractionThroughput() throws Exception {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        new ZipArchiver(folder).compress(archive);
+        final int entries = FOLDERS * (FILES_PER_FOLDER + 4) + BINARY_FILES + 1;
+        final int[] threads = {1, 2, Runtime.getRuntime().availableProcessors()};
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < threads.length; i++) {
+                final int extractingThreads = threads[i];
+                VirtualFile target = folder.getParent().createFolder(String.format("extract-%d-%d", round, i));
+                long start = System.nanoTime();
+                new ZipArchiver(target, -1, executor, 1, extractingThreads).extract(new ByteArrayInputStream(archive.toByteArray()), false, 0);
+                long time = System.nanoTime() - start;
+                LOG.info("Extracted {} entries with {} threads: {} MB/s, {} entries/s",
+                         entries, extractingThreads, throughput(time), entries * 1_000_000_000L / time);
+            }
+        }
+    }
+
+    /** Compresses tree in the same way as it was done before parallel compression was introduced in {@link ZipArchiver}. */
+    private void compressSerially(OutputStream output) throws Exception {
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(output)) {
+            folder.accept(new VirtualFileVisitor() {
+                @Override
+                public void visit(VirtualFile visitedVirtualFile) throws ServerException {
+                    if (!visitedVirtualFile.equals(folder)) {
+                        String zipEntryName = visitedVirtualFile.getPath().subPath(folder.getPath()).toString();
+                        try {
+                            if (visitedVirtualFile.isFolder()) {
+                                zipOutputStream.putNextEntry(new ZipEntry(zipEntryName + '/'));
+                            } else {
+                                zipOutputStream.putNextEntry(new ZipEntry(zipEntryName));
+                                try (InputStream content = visitedVirtualFile.getContent()) {
+                                    ByteStreams.copy(content, zipOutputStream);
+                                } catch (Exception e) {
+                                    throw new ServerException(e.getMessage(), e);
+                                }
+                            }
+                            zipOutputStream.closeEntry();
+                        } catch (IOException e) {
+                            throw new ServerException(e.getMessage(), e);
+                        }
+                    }
+                    if (visitedVirtualFile.isFolder()) {
+                        for (VirtualFile child : visitedVirtualFile.getChildren()) {
+                            child.accept(this);
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    private long throughput(long nanos) {
+        return treeSize * 1000 / nanos;
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
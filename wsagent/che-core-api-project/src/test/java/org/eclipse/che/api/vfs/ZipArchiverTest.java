@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs;
 
+import com.google.common.base.Strings;
 import com.google.common.io.ByteStreams;
 
 import org.eclipse.che.api.core.ConflictException;
@@ -34,12 +35,15 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static java.util.stream.Collectors.toMap;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -54,8 +58,9 @@ public class ZipArchiverTest {
     private static final String TEST_CONTENT       = "___TEST___";
     private static final byte[] TEST_CONTENT_BYTES = TEST_CONTENT.getBytes();
 
-    private File        testDirectory;
-    private VirtualFile vfsRoot;
+    private File            testDirectory;
+    private VirtualFile     vfsRoot;
+    private ExecutorService executor;
 
     @Before
     public void setUp() throws Exception {
@@ -72,10 +77,12 @@ public class ZipArchiverTest {
         when(searcherProvider.getSearcher(eq(virtualFileSystem), eq(true))).thenReturn(searcher);
         when(searcherProvider.getSearcher(eq(virtualFileSystem))).thenReturn(searcher);
         vfsRoot = virtualFileSystem.getRoot();
+        executor = newFixedThreadPool(4);
     }
 
     @After
     public void tearDown() throws Exception {
+        executor.shutdownNow();
         IoUtil.deleteRecursive(testDirectory);
         FileCleaner.stop();
     }
@@ -88,7 +95,7 @@ public class ZipArchiverTest {
                                                                .collect(toMap(f -> getZipEntryName(folder, f),
                                                                               this::readContentUnchecked));
 
-        new ZipArchiver(folder).compress(compressedFolder);
+        new ZipArchiver(folder, Deflater.DEFAULT_COMPRESSION, executor, 4, 1).compress(compressedFolder);
         assertThatZipArchiveContainsAllEntries(new ByteArrayInputStream(compressedFolder.toByteArray()), entries);
     }
 
@@ -101,10 +108,65 @@ public class ZipArchiverTest {
                                                                .collect(toMap(f -> getZipEntryName(folder, f),
                                                                               this::readContentUnchecked));
 
-        new ZipArchiver(folder).compress(compressedFolder, f -> f.isFolder() || f.getName().equals("_a.txt"));
+        new ZipArchiver(folder, Deflater.DEFAULT_COMPRESSION, executor, 4, 1).compress(compressedFolder, f -> f.isFolder() || f.getName().equals("_a.txt"));
         assertThatZipArchiveContainsAllEntries(new ByteArrayInputStream(compressedFolder.toByteArray()), entries);
     }
 
+    @Test
+    public void compressesFolderToArchiveInCallingThread() throws Exception {
+        VirtualFile folder = createFileTreeForArchiving();
+        ByteArrayOutputStream compressedFolder = new ByteArrayOutputStream();
+        Map<String, String> entries = getFileTreeAsList(folder).stream()
+                                                               .collect(toMap(f -> getZipEntryName(folder, f),
+                                                                              this::readContentUnchecked));
+
+        new ZipArchiver(folder, Deflater.BEST_COMPRESSION).compress(compressedFolder);
+        assertThatZipArchiveContainsAllEntries(new ByteArrayInputStream(compressedFolder.toByteArray()), entries);
+    }
+
+    @Test
+    public void compressesFilesBiggerThanParallelEntryLimit() throws Exception {
+        VirtualFile folder = createFileTreeForArchiving();
+        String bigContent = Strings.repeat(TEST_CONTENT, (int)(ZipArchiver.MAX_PARALLEL_ENTRY_SIZE / TEST_CONTENT.length()) + 1);
+        folder.createFile("big.txt", bigContent);
+        folder.createFile("big.zip", bigContent);
+        ByteArrayOutputStream compressedFolder = new ByteArrayOutputStream();
+        Map<String, String> entries = getFileTreeAsList(folder).stream()
+                                                               .collect(toMap(f -> getZipEntryName(folder, f),
+                                                                              this::readContentUnchecked));
+
+        new ZipArchiver(folder, Deflater.DEFAULT_COMPRESSION, executor, 4, 1).compress(compressedFolder);
+        assertThatZipArchiveContainsAllEntries(new ByteArrayInputStream(compressedFolder.toByteArray()), entries);
+        Map<String, Integer> methods = readArchiveEntryMethods(new ByteArrayInputStream(compressedFolder.toByteArray()));
+        assertEquals(ZipEntry.DEFLATED, (int)methods.get("big.txt"));
+        // Big file that is already compressed is deflated with compression level 0, so its CRC is counted while it is written
+        assertEquals(ZipEntry.DEFLATED, (int)methods.get("big.zip"));
+        assertTrue(compressedFolder.size() > bigContent.length());
+    }
+
+    @Test
+    public void storesAlreadyCompressedFilesWithoutCompression() throws Exception {
+        VirtualFile folder = createFileTreeForArchiving();
+        folder.createFile("image.png", TEST_CONTENT);
+        folder.createFile("text.txt", Strings.repeat(TEST_CONTENT, 100));
+        ByteArrayOutputStream compressedFolder = new ByteArrayOutputStream();
+        Map<String, String> entries = getFileTreeAsList(folder).stream()
+                                                               .collect(toMap(f -> getZipEntryName(folder, f),
+                                                                              this::readContentUnchecked));
+
+        new ZipArchiver(folder, Deflater.DEFAULT_COMPRESSION, executor, 4, 1).compress(compressedFolder);
+        assertThatZipArchiveContainsAllEntries(new ByteArrayInputStream(compressedFolder.toByteArray()), entries);
+        Map<String, Integer> methods = readArchiveEntryMethods(new ByteArrayInputStream(compressedFolder.toByteArray()));
+        assertEquals(ZipEntry.STORED, (int)methods.get("image.png"));
+        assertEquals(ZipEntry.DEFLATED, (int)methods.get("text.txt"));
+    }
+
+    @Test
+    public void failsCreateArchiverWithInvalidCompressionLevel() throws Exception {
+        thrown.expect(IllegalArgumentException.class);
+        new ZipArchiver(vfsRoot, 10);
+    }
+
     @Test
     public void extractsArchiveToFolder() throws Exception {
         byte[] archive = createTestZipArchive();
@@ -199,13 +261,79 @@ public class ZipArchiverTest {
         return entries;
     }
 
+    @Test
+    public void extractsArchiveToFolderInParallel() throws Exception {
+        VirtualFile source = createFileTreeForArchiving();
+        source.createFile("big.txt", Strings.repeat(TEST_CONTENT, ArchiveExtractor.MAX_PARALLEL_ENTRY_SIZE / TEST_CONTENT.length() + 1));
+        for (int i = 0; i < 100; i++) {
+            source.getChild(Path.of("a")).createFile(String.format("file%d.txt", i), TEST_CONTENT + i);
+        }
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        new ZipArchiver(source).compress(archive);
+        VirtualFile folder = vfsRoot.createFolder("folder");
+
+        new ZipArchiver(folder, Deflater.DEFAULT_COMPRESSION, executor, 1, 4).extract(new ByteArrayInputStream(archive.toByteArray()), false, 0);
+
+        Map<String, String> entries = getFileTreeAsList(folder).stream()
+                                                               .collect(toMap(f -> getZipEntryName(folder, f),
+                                                                              this::readContentUnchecked));
+        assertEquals(readArchiveEntries(new ByteArrayInputStream(archive.toByteArray())), entries);
+    }
+
+    @Test
+    public void extractsArchiveWithDuplicatedEntriesInParallelAndKeepsLastContent() throws Exception {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (ZipOutputStream zipOut = new ZipOutputStream(archive)) {
+            for (int i = 0; i < 10; i++) {
+                ZipEntry zipEntry = new ZipEntry("arc/a/_a.txt");
+                zipOut.putNextEntry(zipEntry);
+                zipOut.write((TEST_CONTENT + i).getBytes());
+                zipOut.closeEntry();
+            }
+        }
+        VirtualFile folder = vfsRoot.createFolder("folder");
+
+        new ZipArchiver(folder, Deflater.DEFAULT_COMPRESSION, executor, 1, 4).extract(new ByteArrayInputStream(archive.toByteArray()), true, 0);
+
+        assertEquals(TEST_CONTENT + 9, folder.getChild(Path.of("arc/a/_a.txt")).getContentAsString());
+    }
+
+    @Test
+    public void failsExtractArchiveInParallelToFolderWhenItContainsLockedFile() throws Exception {
+        byte[] archive = createTestZipArchive();
+        VirtualFile folder = vfsRoot.createFolder("folder");
+        VirtualFile arc = folder.createFolder("arc");
+        VirtualFile lockedFile = arc.createFolder("a").createFile("_a.txt", "xxx");
+        lockedFile.lock(0);
+
+        try {
+            new ZipArchiver(folder, Deflater.DEFAULT_COMPRESSION, executor, 1, 4).extract(new ByteArrayInputStream(archive), true, 0);
+            thrown.expect(ForbiddenException.class);
+        } catch (ForbiddenException expected) {
+            assertEquals("xxx", lockedFile.getContentAsString());
+        }
+    }
+
+    private Map<String, Integer> readArchiveEntryMethods(InputStream archive) throws Exception {
+        Map<String, Integer> methods = newHashMap();
+        try (ZipInputStream zip = new ZipInputStream(archive)) {
+            ZipEntry zipEntry;
+            while ((zipEntry = zip.getNextEntry()) != null) {
+                methods.put(zipEntry.getName(), zipEntry.getMethod());
+                zip.closeEntry();
+            }
+        }
+        return methods;
+    }
+
     private String readContentUnchecked(VirtualFile virtualFile) {
         if (virtualFile.isFolder()) {
             return "<none>";
         }
-        try {
-            return virtualFile.getContentAsString();
-        } catch (ForbiddenException | ServerException e) {
+        // Files bigger than 200k may not be read with getContentAsString.
+        try (InputStream content = virtualFile.getContent()) {
+            return new String(ByteStreams.toByteArray(content));
+        } catch (ForbiddenException | ServerException | IOException e) {
             throw new RuntimeException(e);
         }
     }
@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import org.eclipse.che.api.vfs.impl.file.FileTreeWatcher.CompactDirectory;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CompactDirectoryTest {
+    private CompactDirectory directory;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = new CompactDirectory(null, 0);
+    }
+
+    @Test
+    public void keepsEntriesSortedByName() throws Exception {
+        directory.put("b.txt", false, 2);
+        directory.put("src", true, 3);
+        directory.put("a.txt", false, 1);
+
+        assertEquals(3, directory.size());
+        assertEquals("a.txt", directory.getName(0));
+        assertEquals("b.txt", directory.getName(1));
+        assertEquals("src", directory.getName(2));
+        assertEquals(1, directory.getLastModified(0));
+        assertTrue(directory.isDirectory(2));
+        assertFalse(directory.isDirectory(1));
+    }
+
+    @Test
+    public void replacesExistingEntry() throws Exception {
+        directory.put("a", false, 1);
+        directory.put("a", true, 5);
+
+        assertEquals(1, directory.size());
+        assertTrue(directory.isDirectory(0));
+        assertEquals(5, directory.getLastModified(0));
+    }
+
+    @Test
+    public void removesEntry() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            directory.put("file" + i, false, i);
+        }
+
+        directory.remove(directory.indexOf("file3"));
+
+        assertEquals(9, directory.size());
+        assertTrue(directory.indexOf("file3") < 0);
+        assertEquals("file4", directory.getName(3));
+        assertEquals(4, directory.getLastModified(3));
+    }
+}
@@ -12,6 +12,7 @@ package org.eclipse.che.api.vfs.impl.file;
 
 import org.eclipse.che.api.vfs.Path;
 import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.VirtualFileSystem;
 import org.eclipse.che.api.vfs.VirtualFileSystemProvider;
 import org.eclipse.che.commons.lang.NameGenerator;
 import org.junit.Before;
@@ -91,4 +92,17 @@ public class DefaultFileWatcherNotificationHandlerTest {
         verify(notificationListener).shouldBeNotifiedFor(virtualFile);
         verify(notificationListener).onFileWatcherEvent(virtualFile, MODIFIED);
     }
+
+    @Test
+    public void notifiesFileWatcherNotificationListenersWhenFileDoesNotBelongToLocalFileSystem() throws Exception {
+        VirtualFile otherVirtualFile = mock(VirtualFile.class);
+        when(otherVirtualFile.getFileSystem()).thenReturn(mock(VirtualFileSystem.class));
+        when(otherVirtualFile.getPath()).thenReturn(virtualFilePath);
+        when(virtualFileSystem.getRoot().getChild(virtualFilePath)).thenReturn(otherVirtualFile);
+        when(notificationListener.shouldBeNotifiedFor(otherVirtualFile)).thenReturn(true);
+
+        notificationHandler.handleFileWatcherEvent(MODIFIED, testDirectory, "/a/b/c", true);
+
+        verify(notificationListener).onFileWatcherEvent(otherVirtualFile, MODIFIED);
+    }
 }
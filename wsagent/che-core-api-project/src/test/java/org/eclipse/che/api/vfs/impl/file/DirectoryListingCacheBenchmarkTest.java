@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.commons.lang.NameGenerator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures latency of reading of tree with {@link VirtualFile#getChildren()} and {@link VirtualFile#getTree(int)} on cold and warm
+ * tree, without and with {@link DirectoryListingCache}. This test is excluded from regular build, run it manually.
+ */
+public class DirectoryListingCacheBenchmarkTest {
+    private static final Logger LOG = LoggerFactory.getLogger(DirectoryListingCacheBenchmarkTest.class);
+
+    private static final int FOLDERS          = 500;
+    private static final int FILES_PER_FOLDER = 100;
+    private static final int ITERATIONS       = 10;
+
+    private File testDirectory;
+
+    @Before
+    public void setUp() throws Exception {
+        File targetDir = new File(Thread.currentThread().getContextClassLoader().getResource(".").getPath()).getParentFile();
+        testDirectory = new File(targetDir, NameGenerator.generate("listing-", 4));
+        for (int i = 0; i < FOLDERS; i++) {
+            File folder = new File(testDirectory, String.format("module%03d/src/main/java", i));
+            assertTrue(folder.mkdirs());
+            for (int j = 0; j < FILES_PER_FOLDER; j++) {
+                Files.write(new File(folder, String.format("Class%d.java", j)).toPath(), "class".getBytes(UTF_8));
+            }
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        IoUtil.deleteRecursive(testDirectory);
+    }
+
+    @Test
+    public void comparesLatencyOfReadingTree() throws Exception {
+        final int items = FOLDERS * (FILES_PER_FOLDER + 4);
+        for (boolean cached : new boolean[]{false, true}) {
+            DirectoryListingCache directoryListingCache = new DirectoryListingCache(FOLDERS * 10);
+            directoryListingCache.setEnabled(cached);
+            VirtualFile root = new LocalVirtualFileSystem(testDirectory, null, null, null, directoryListingCache).getRoot();
+
+            long start = System.nanoTime();
+            assertEquals(items, countChildren(root));
+            LOG.info("Cache: {}, cold getChildren of {} items in {} ms", cached, items, (System.nanoTime() - start) / 1000000);
+
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                assertEquals(items, countChildren(root));
+            }
+            LOG.info("Cache: {}, warm getChildren of {} items in {} ms, hits: {}, misses: {}", cached, items,
+                     (System.nanoTime() - start) / 1000000 / ITERATIONS,
+                     directoryListingCache.getHitCount(), directoryListingCache.getMissCount());
+
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                root.getTree(Integer.MAX_VALUE);
+            }
+            LOG.info("Cache: {}, warm getTree of {} items in {} ms", cached, items, (System.nanoTime() - start) / 1000000 / ITERATIONS);
+        }
+    }
+
+    private int countChildren(VirtualFile folder) throws ServerException {
+        int count = 0;
+        for (VirtualFile child : folder.getChildren()) {
+            count++;
+            if (child.isFolder()) {
+                count += countChildren(child);
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,224 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.commons.lang.NameGenerator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DirectoryListingCacheTest {
+    private File                   testDirectory;
+    private DirectoryListingCache  directoryListingCache;
+    private LocalVirtualFileSystem fileSystem;
+    private VirtualFile            folder;
+
+    @Before
+    public void setUp() throws Exception {
+        File targetDir = new File(Thread.currentThread().getContextClassLoader().getResource(".").getPath()).getParentFile();
+        testDirectory = new File(targetDir, NameGenerator.generate("fs-", 4));
+        assertTrue(testDirectory.mkdir());
+        directoryListingCache = new DirectoryListingCache(100);
+        directoryListingCache.setEnabled(true);
+        fileSystem = new LocalVirtualFileSystem(testDirectory, null, null, null, directoryListingCache);
+        folder = fileSystem.getRoot().createFolder("folder");
+        folder.createFolder("b");
+        folder.createFile("a.txt", "a");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        IoUtil.deleteRecursive(testDirectory);
+    }
+
+    @Test
+    public void readsListingOfFolderOnlyOnce() throws Exception {
+        assertEquals(asList("b", "a.txt"), names(folder.getChildren()));
+        assertEquals(asList("b", "a.txt"), names(folder.getChildren()));
+
+        assertEquals(1, directoryListingCache.getMissCount());
+        assertEquals(1, directoryListingCache.getHitCount());
+    }
+
+    @Test
+    public void keepsTypesOfChildren() throws Exception {
+        folder.getChildren();
+        List<VirtualFile> children = folder.getChildren();
+
+        assertTrue(children.get(0).isFolder());
+        assertFalse(children.get(0).isFile());
+        assertTrue(children.get(1).isFile());
+        assertFalse(children.get(1).isFolder());
+        assertEquals(1, directoryListingCache.getHitCount());
+    }
+
+    @Test
+    public void invalidatesListingWhenItemIsCreated() throws Exception {
+        folder.getChildren();
+
+        folder.createFile("c.txt", "c");
+        folder.createFolder("d/e");
+
+        assertEquals(asList("b", "d", "a.txt", "c.txt"), names(folder.getChildren()));
+        assertEquals(0, directoryListingCache.getHitCount());
+    }
+
+    @Test
+    public void invalidatesListingWhenItemIsDeleted() throws Exception {
+        folder.getChildren();
+        folder.getChild(Path.of("b")).getChildren();
+
+        folder.getChild(Path.of("b")).delete();
+
+        assertEquals(asList("a.txt"), names(folder.getChildren()));
+        assertEquals(1, directoryListingCache.size());
+    }
+
+    @Test
+    public void invalidatesListingsWhenItemIsMoved() throws Exception {
+        VirtualFile target = fileSystem.getRoot().createFolder("target");
+        folder.getChildren();
+        target.getChildren();
+
+        folder.getChild(Path.of("a.txt")).moveTo(target);
+
+        assertEquals(asList("b"), names(folder.getChildren()));
+        assertEquals(asList("a.txt"), names(target.getChildren()));
+    }
+
+    @Test
+    public void invalidatesListingsOfDescendantsButNotOfFolderWithTheSamePrefix() throws Exception {
+        VirtualFile sibling = fileSystem.getRoot().createFolder("folder2");
+        sibling.createFile("c.txt", "c");
+        folder.getChild(Path.of("b")).createFolder("c");
+        folder.getChild(Path.of("b")).getChildren();
+        folder.getChild(Path.of("b/c")).getChildren();
+        sibling.getChildren();
+
+        fileSystem.invalidateDirectoryListings(Path.of("/folder"));
+
+        assertEquals(1, directoryListingCache.size());
+        assertEquals(asList("c.txt"), names(sibling.getChildren()));
+        assertEquals(1, directoryListingCache.getHitCount());
+    }
+
+    @Test
+    public void invalidatesListingByFileWatcherEvent() throws Exception {
+        File ioFolder = folder.toIoFile();
+        folder.getChildren();
+        long lastModified = ioFolder.lastModified();
+        assertTrue(new File(ioFolder, "c.txt").createNewFile());
+        // pretend that file system doesn't update modification time of folder
+        assertTrue(ioFolder.setLastModified(lastModified));
+
+        assertEquals(asList("b", "a.txt"), names(folder.getChildren()));
+
+        fileSystem.invalidateDirectoryListings(Path.of("/folder/c.txt"));
+
+        assertEquals(asList("b", "a.txt", "c.txt"), names(folder.getChildren()));
+    }
+
+    @Test
+    public void doesNotUseListingWhenFolderIsModified() throws Exception {
+        File ioFolder = folder.toIoFile();
+        folder.getChildren();
+        assertTrue(new File(ioFolder, "c.txt").createNewFile());
+        assertTrue(ioFolder.setLastModified(ioFolder.lastModified() + 10000));
+
+        assertEquals(asList("b", "a.txt", "c.txt"), names(folder.getChildren()));
+        assertEquals(0, directoryListingCache.getHitCount());
+    }
+
+    @Test
+    public void checksTypesOfReturnedChildrenOnDisk() throws Exception {
+        File ioFolder = folder.toIoFile();
+        folder.getChildren();
+        long lastModified = ioFolder.lastModified();
+        assertTrue(new File(ioFolder, "a.txt").delete());
+        assertTrue(new File(ioFolder, "a.txt").mkdir());
+        // pretend that file system doesn't update modification time of folder
+        assertTrue(ioFolder.setLastModified(lastModified));
+
+        List<VirtualFile> children = folder.getChildren();
+
+        assertEquals(1, directoryListingCache.getHitCount());
+        assertTrue(children.get(1).isFolder());
+        assertFalse(children.get(1).isFile());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedListingWhenFull() throws Exception {
+        directoryListingCache = new DirectoryListingCache(2);
+        directoryListingCache.setEnabled(true);
+        fileSystem = new LocalVirtualFileSystem(testDirectory, null, null, null, directoryListingCache);
+        VirtualFile a = fileSystem.getRoot().createFolder("a");
+        VirtualFile b = fileSystem.getRoot().createFolder("b");
+        VirtualFile c = fileSystem.getRoot().createFolder("c");
+
+        a.getChildren();
+        b.getChildren();
+        a.getChildren();
+        c.getChildren();
+        a.getChildren();
+
+        assertEquals(2, directoryListingCache.size());
+        assertEquals(2, directoryListingCache.getHitCount());
+        b.getChildren();
+        assertEquals(2, directoryListingCache.getHitCount());
+    }
+
+    @Test
+    public void doesNotCacheListingOfFolderInvalidatedWhileItIsRead() throws Exception {
+        Path folderPath = Path.of("/folder");
+        Path otherPath = Path.of("/other");
+        DirectoryListingCache.Listing listing = new DirectoryListingCache.Listing(1, new String[0], new boolean[0], new boolean[0]);
+
+        try (DirectoryListingCache.Reading folderReading = directoryListingCache.startReading(folderPath);
+             DirectoryListingCache.Reading otherReading = directoryListingCache.startReading(otherPath)) {
+            directoryListingCache.invalidate(Path.of("/folder/a.txt"));
+            folderReading.put(listing);
+            otherReading.put(listing);
+        }
+
+        assertNull(directoryListingCache.get(folderPath, 1));
+        assertSame(listing, directoryListingCache.get(otherPath, 1));
+    }
+
+    @Test
+    public void doesNotCacheListingsWhenDisabled() throws Exception {
+        directoryListingCache.setEnabled(false);
+
+        folder.getChildren();
+        folder.getChildren();
+
+        assertEquals(0, directoryListingCache.size());
+        assertEquals(0, directoryListingCache.getHitCount());
+        assertEquals(0, directoryListingCache.getMissCount());
+    }
+
+    private List<String> names(List<VirtualFile> files) {
+        return files.stream().map(VirtualFile::getName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.commons.lang.NameGenerator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+
+import static com.google.common.collect.Sets.newHashSet;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Compares memory used by {@link FileTreeWatcher} per watched file and latency of notification about modified file in default and
+ * per-entry events modes. This test is excluded from regular build, run it manually.
+ */
+public class FileTreeWatcherPerEntryEventsBenchmarkTest {
+    private static final Logger LOG = LoggerFactory.getLogger(FileTreeWatcherPerEntryEventsBenchmarkTest.class);
+
+    private static final int FOLDERS          = 200;
+    private static final int FILES_PER_FOLDER = 100;
+    private static final int LARGE_FOLDER     = 20000;
+
+    private File testDirectory;
+
+    @Before
+    public void setUp() throws Exception {
+        File targetDir = new File(Thread.currentThread().getContextClassLoader().getResource(".").getPath()).getParentFile();
+        testDirectory = new File(targetDir, NameGenerator.generate("watcher-", 4));
+        for (int i = 0; i < FOLDERS; i++) {
+            File folder = new File(testDirectory, String.format("module%03d/src/main/java", i));
+            assertTrue(folder.mkdirs());
+            for (int j = 0; j < FILES_PER_FOLDER; j++) {
+                Files.write(new File(folder, String.format("Class%d.java", j)).toPath(), "class".getBytes(UTF_8));
+            }
+        }
+        File largeFolder = new File(testDirectory, "large");
+        assertTrue(largeFolder.mkdir());
+        for (int i = 0; i < LARGE_FOLDER; i++) {
+            Files.write(new File(largeFolder, String.format("file%d.txt", i)).toPath(), "text".getBytes(UTF_8));
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        IoUtil.deleteRecursive(testDirectory);
+    }
+
+    @Test
+    public void comparesMemoryAndLatency() throws Exception {
+        final int files = FOLDERS * FILES_PER_FOLDER + LARGE_FOLDER;
+        for (boolean perEntryEvents : new boolean[]{false, true}) {
+            final CountDownLatch modified = new CountDownLatch(1);
+            FileWatcherNotificationHandler notificationHandler = mock(FileWatcherNotificationHandler.class);
+            doAnswer(invocation -> {
+                modified.countDown();
+                return null;
+            }).when(notificationHandler).handleFileWatcherEvent(eq(MODIFIED), eq(testDirectory), eq("large/file1.txt"), anyBoolean());
+
+            long usedBefore = usedMemory();
+            FileTreeWatcher fileWatcher = new FileTreeWatcher(testDirectory, newHashSet(), notificationHandler);
+            fileWatcher.setPerEntryEvents(perEntryEvents);
+            fileWatcher.startup();
+            try {
+                long usedAfter = usedMemory();
+                LOG.info("Per-entry events: {}, watched {} files, {} bytes per file",
+                         perEntryEvents, files, (usedAfter - usedBefore) / files);
+
+                Thread.sleep(1000);
+                long start = System.currentTimeMillis();
+                Files.write(new File(testDirectory, "large/file1.txt").toPath(), "modified".getBytes(UTF_8));
+                assertTrue(modified.await(30, SECONDS));
+                LOG.info("Per-entry events: {}, modification of file in folder with {} files notified in {} ms",
+                         perEntryEvents, LARGE_FOLDER, System.currentTimeMillis() - start);
+            } finally {
+                fileWatcher.shutdown();
+            }
+        }
+    }
+
+    private long usedMemory() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
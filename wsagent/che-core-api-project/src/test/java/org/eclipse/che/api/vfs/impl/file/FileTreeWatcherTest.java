@@ -268,6 +268,104 @@ public class FileTreeWatcherTest {
         verify(notificationHandler, timeout(10000)).errorOccurred(eq(testDirectory), eq(error));
     }
 
+    @Test
+    public void watchesCreateDirectoryStructureInPerEntryEventsMode() throws Exception {
+        FileWatcherNotificationHandler notificationHandler = aNotificationHandler();
+        fileWatcher = new FileTreeWatcher(testDirectory, newHashSet(), notificationHandler);
+        fileWatcher.setPerEntryEvents(true);
+        fileWatcher.startup();
+
+        Thread.sleep(500);
+
+        List<String> created = fileWatcherTestTree.createTree("", 2, 2);
+
+        Thread.sleep(5000);
+
+        verify(notificationHandler, never()).errorOccurred(eq(testDirectory), any(Throwable.class));
+        verify(notificationHandler, never()).handleFileWatcherEvent(eq(DELETED), eq(testDirectory), anyString(), anyBoolean());
+        verify(notificationHandler, never()).handleFileWatcherEvent(eq(MODIFIED), eq(testDirectory), anyString(), anyBoolean());
+
+        ArgumentCaptor<String> createdEvents = ArgumentCaptor.forClass(String.class);
+        verify(notificationHandler, times(4)).handleFileWatcherEvent(eq(CREATED), eq(testDirectory), createdEvents.capture(), anyBoolean());
+        assertEquals(newHashSet(created), newHashSet(createdEvents.getAllValues()));
+    }
+
+    @Test
+    public void watchesUpdateInPerEntryEventsMode() throws Exception {
+        fileWatcherTestTree.createDirectory("", "watched");
+        String notifiedFile1 = fileWatcherTestTree.createFile("");
+        String notifiedFile2 = fileWatcherTestTree.createFile("watched");
+        Set<String> updated = newHashSet(notifiedFile1, notifiedFile2);
+
+        FileWatcherNotificationHandler notificationHandler = aNotificationHandler();
+        fileWatcher = new FileTreeWatcher(testDirectory, newHashSet(), notificationHandler);
+        fileWatcher.setPerEntryEvents(true);
+        fileWatcher.startup();
+
+        Thread.sleep(1000);
+
+        fileWatcherTestTree.updateFile(notifiedFile1);
+        fileWatcherTestTree.updateFile(notifiedFile2);
+
+        Thread.sleep(5000);
+
+        verify(notificationHandler, never()).errorOccurred(eq(testDirectory), any(Throwable.class));
+        verify(notificationHandler, never()).handleFileWatcherEvent(eq(CREATED), eq(testDirectory), anyString(), anyBoolean());
+        verify(notificationHandler, never()).handleFileWatcherEvent(eq(DELETED), eq(testDirectory), anyString(), anyBoolean());
+
+        ArgumentCaptor<String> updatedEvents = ArgumentCaptor.forClass(String.class);
+        verify(notificationHandler, times(2)).handleFileWatcherEvent(eq(MODIFIED), eq(testDirectory), updatedEvents.capture(), anyBoolean());
+        assertEquals(updated, newHashSet(updatedEvents.getAllValues()));
+    }
+
+    @Test
+    public void watchesDeleteInPerEntryEventsMode() throws Exception {
+        fileWatcherTestTree.createDirectory("", "watched");
+        String deletedDir1 = fileWatcherTestTree.createDirectory("watched");
+        String deletedFile1 = fileWatcherTestTree.createFile("watched");
+        Set<String> deleted = newHashSet("watched", deletedDir1, deletedFile1);
+
+        FileWatcherNotificationHandler notificationHandler = aNotificationHandler();
+        fileWatcher = new FileTreeWatcher(testDirectory, newHashSet(), notificationHandler);
+        fileWatcher.setPerEntryEvents(true);
+        fileWatcher.startup();
+
+        Thread.sleep(500);
+
+        fileWatcherTestTree.delete("watched");
+
+        Thread.sleep(5000);
+
+        verify(notificationHandler, never()).errorOccurred(eq(testDirectory), any(Throwable.class));
+        verify(notificationHandler, never()).handleFileWatcherEvent(eq(CREATED), eq(testDirectory), anyString(), anyBoolean());
+        verify(notificationHandler, never()).handleFileWatcherEvent(eq(MODIFIED), eq(testDirectory), anyString(), anyBoolean());
+
+        ArgumentCaptor<String> deletedEvents = ArgumentCaptor.forClass(String.class);
+        verify(notificationHandler, times(3)).handleFileWatcherEvent(eq(DELETED), eq(testDirectory), deletedEvents.capture(), anyBoolean());
+        assertEquals(deleted, newHashSet(deletedEvents.getAllValues()));
+    }
+
+    @Test
+    public void doesNotNotifyAboutFileCreatedAndDeletedInPerEntryEventsMode() throws Exception {
+        FileWatcherNotificationHandler notificationHandler = aNotificationHandler();
+        fileWatcher = new FileTreeWatcher(testDirectory, newHashSet(), notificationHandler);
+        fileWatcher.setPerEntryEvents(true);
+        fileWatcher.startup();
+
+        Thread.sleep(500);
+
+        String file = fileWatcherTestTree.createFile("");
+        String temporaryFile = fileWatcherTestTree.createFile("");
+        fileWatcherTestTree.delete(temporaryFile);
+
+        Thread.sleep(5000);
+
+        verify(notificationHandler, never()).errorOccurred(eq(testDirectory), any(Throwable.class));
+        verify(notificationHandler, never()).handleFileWatcherEvent(eq(DELETED), eq(testDirectory), anyString(), anyBoolean());
+        verify(notificationHandler).handleFileWatcherEvent(eq(CREATED), eq(testDirectory), eq(file), eq(false));
+        verify(notificationHandler, never()).handleFileWatcherEvent(eq(CREATED), eq(testDirectory), eq(temporaryFile), anyBoolean());
+    }
+
     private FileWatcherNotificationHandler aNotificationHandler() {
         return mock(FileWatcherNotificationHandler.class);
     }
@@ -12,6 +12,7 @@ package org.eclipse.che.api.vfs.impl.file;
 
 import com.google.common.io.Files;
 
+import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.vfs.Path;
 
 import java.io.File;
@@ -19,13 +20,17 @@ import java.io.IOException;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 public class LocalVirtualFileAssertionHelper {
-    private final File testDirectory;
+    private final File                   testDirectory;
+    private final LocalVirtualFileSystem fileSystem;
 
-    public LocalVirtualFileAssertionHelper(File testDirectory) {
+    public LocalVirtualFileAssertionHelper(File testDirectory, LocalVirtualFileSystem fileSystem) {
         this.testDirectory = testDirectory;
+        this.fileSystem = fileSystem;
     }
 
     public void assertThatIoFileExists(Path virtualFilePath) {
@@ -48,29 +53,27 @@ public class LocalVirtualFileAssertionHelper {
     }
 
 
-    public void assertThatMetadataIoFileDoesNotExist(Path virtualFilePath) {
-        File metadataIoFile = getMetadataIoFile(virtualFilePath);
-        assertFalse(metadataIoFile.exists());
+    public void assertThatMetadataDoesNotExist(Path virtualFilePath) throws ServerException {
+        assertNull(getMetadataStore().get(LocalVirtualFileSystem.propertiesKey(virtualFilePath)));
     }
 
-    public void assertThatMetadataIoFilesHaveSameContent(Path fileOne, Path fileTwo) throws IOException {
-        assertArrayEquals(String.format("Same content expected for files %s and %s", fileOne, fileTwo),
-                          Files.toByteArray(getMetadataIoFile(fileOne)), Files.toByteArray(getMetadataIoFile(fileTwo)));
+    public void assertThatMetadataHaveSameContent(Path fileOne, Path fileTwo) throws ServerException {
+        assertArrayEquals(String.format("Same metadata expected for files %s and %s", fileOne, fileTwo),
+                          getMetadataStore().get(LocalVirtualFileSystem.propertiesKey(fileOne)),
+                          getMetadataStore().get(LocalVirtualFileSystem.propertiesKey(fileTwo)));
     }
 
-    public void assertThatMetadataIoFileHasContent(Path virtualFilePath, byte[] bytes) throws IOException {
-        assertArrayEquals(bytes, Files.toByteArray(getMetadataIoFile(virtualFilePath)));
+    public void assertThatMetadataHasContent(Path virtualFilePath, byte[] bytes) throws ServerException {
+        assertArrayEquals(bytes, getMetadataStore().get(LocalVirtualFileSystem.propertiesKey(virtualFilePath)));
     }
 
 
-    public void assertThatLockIoFileExists(Path virtualFilePath) {
-        File ioFile = getLockIoFile(virtualFilePath);
-        assertTrue(ioFile.exists());
+    public void assertThatLockExists(Path virtualFilePath) throws ServerException {
+        assertNotNull(getMetadataStore().get(LocalVirtualFileSystem.lockKey(virtualFilePath)));
     }
 
-    public void assertThatLockIoFileDoesNotExist(Path virtualFilePath) {
-        File lockIoFile = getLockIoFile(virtualFilePath);
-        assertFalse(lockIoFile.exists());
+    public void assertThatLockDoesNotExist(Path virtualFilePath) throws ServerException {
+        assertNull(getMetadataStore().get(LocalVirtualFileSystem.lockKey(virtualFilePath)));
     }
 
 
@@ -78,24 +81,8 @@ public class LocalVirtualFileAssertionHelper {
         return new File(testDirectory, toIoPath(virtualFilePath));
     }
 
-    private File getMetadataIoFile(Path virtualFilePath) {
-        Path metadataFilePath;
-        if (virtualFilePath.isRoot()) {
-            metadataFilePath = virtualFilePath.newPath(".vfs", "props", virtualFilePath.getName() + "_props");
-        } else {
-            metadataFilePath = virtualFilePath.getParent().newPath(".vfs", "props", virtualFilePath.getName() + "_props");
-        }
-        return new File(testDirectory, toIoPath(metadataFilePath));
-    }
-
-    private File getLockIoFile(Path virtualFilePath) {
-        Path lockFilePath;
-        if (virtualFilePath.isRoot()) {
-            lockFilePath = virtualFilePath.newPath(".vfs", "locks", virtualFilePath.getName() + "_lock");
-        } else {
-            lockFilePath = virtualFilePath.getParent().newPath(".vfs", "locks", virtualFilePath.getName() + "_lock");
-        }
-        return new File(testDirectory, toIoPath(lockFilePath));
+    private MappedKeyValueStore getMetadataStore() throws ServerException {
+        return fileSystem.getMetadataStore();
     }
 
     private String toIoPath(Path vfsPath) {
@@ -22,10 +22,13 @@ import org.eclipse.che.api.core.util.FileCleaner;
 import org.eclipse.che.api.vfs.AbstractVirtualFileSystemProvider;
 import org.eclipse.che.api.vfs.Archiver;
 import org.eclipse.che.api.vfs.ArchiverFactory;
+import org.eclipse.che.api.vfs.HashTree;
 import org.eclipse.che.api.vfs.Path;
 import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.api.vfs.VirtualFileFilter;
+import org.eclipse.che.api.vfs.VirtualFileTree;
 import org.eclipse.che.api.vfs.VirtualFileVisitor;
+import org.eclipse.che.api.vfs.ZipArchiver;
 import org.eclipse.che.api.vfs.search.Searcher;
 import org.eclipse.che.api.vfs.search.SearcherProvider;
 import org.eclipse.che.commons.lang.IoUtil;
@@ -45,17 +48,23 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Files;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Sets.newHashSet;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static java.util.stream.Collectors.toList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
@@ -63,6 +72,7 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -85,7 +95,6 @@ public class LocalVirtualFileTest {
         File targetDir = new File(Thread.currentThread().getContextClassLoader().getResource(".").getPath()).getParentFile();
         testDirectory = new File(targetDir, NameGenerator.generate("fs-", 4));
         assertTrue(testDirectory.mkdir());
-        assertionHelper = new LocalVirtualFileAssertionHelper(testDirectory);
 
         archiverFactory = mock(ArchiverFactory.class);
         SearcherProvider searcherProvider = mock(SearcherProvider.class);
@@ -93,6 +102,7 @@ public class LocalVirtualFileTest {
                                                 archiverFactory,
                                                 searcherProvider,
                                                 mock(AbstractVirtualFileSystemProvider.CloseCallback.class));
+        assertionHelper = new LocalVirtualFileAssertionHelper(testDirectory, fileSystem);
         searcher = mock(Searcher.class);
         when(searcherProvider.getSearcher(eq(fileSystem), eq(true))).thenReturn(searcher);
         when(searcherProvider.getSearcher(eq(fileSystem))).thenReturn(searcher);
@@ -216,7 +226,7 @@ public class LocalVirtualFileTest {
         VirtualFile root = getRoot();
         VirtualFile file = root.createFile(generateFileName(), DEFAULT_CONTENT);
 
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(file.getPath());
+        assertionHelper.assertThatMetadataDoesNotExist(file.getPath());
         assertTrue(file.getProperties().isEmpty());
     }
 
@@ -226,7 +236,7 @@ public class LocalVirtualFileTest {
         VirtualFile file = root.createFile(generateFileName(), "");
         Map<String, String> properties = ImmutableMap.of("property1", "value1", "property2", "value2");
         file.updateProperties(properties);
-        assertionHelper.assertThatMetadataIoFileHasContent(file.getPath(), serializeVirtualFileMetadata(properties));
+        assertionHelper.assertThatMetadataHasContent(file.getPath(), serializeVirtualFileMetadata(properties));
         assertEquals(properties, file.getProperties());
     }
 
@@ -237,7 +247,7 @@ public class LocalVirtualFileTest {
         Map<String, String> properties = ImmutableMap.of("property1", "value1");
         file.updateProperties(ImmutableMap.of("property1", "value1"));
 
-        assertionHelper.assertThatMetadataIoFileHasContent(file.getPath(), serializeVirtualFileMetadata(properties));
+        assertionHelper.assertThatMetadataHasContent(file.getPath(), serializeVirtualFileMetadata(properties));
         assertEquals("value1", file.getProperty("property1"));
     }
 
@@ -250,7 +260,7 @@ public class LocalVirtualFileTest {
 
         Map<String, String> expected = ImmutableMap.of("property1", "valueX",
                                                        "new property1", "value3");
-        assertionHelper.assertThatMetadataIoFileHasContent(file.getPath(), serializeVirtualFileMetadata(expected));
+        assertionHelper.assertThatMetadataHasContent(file.getPath(), serializeVirtualFileMetadata(expected));
         assertEquals(expected, file.getProperties());
     }
 
@@ -262,7 +272,7 @@ public class LocalVirtualFileTest {
         file.setProperty("property1", "value1");
 
         Map<String, String> expected = ImmutableMap.of("property1", "value1");
-        assertionHelper.assertThatMetadataIoFileHasContent(file.getPath(), serializeVirtualFileMetadata(expected));
+        assertionHelper.assertThatMetadataHasContent(file.getPath(), serializeVirtualFileMetadata(expected));
         assertEquals(expected, file.getProperties());
     }
 
@@ -276,7 +286,7 @@ public class LocalVirtualFileTest {
 
         file.setProperty("property1", null);
 
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(file.getPath());
+        assertionHelper.assertThatMetadataDoesNotExist(file.getPath());
         assertTrue(file.getProperties().isEmpty());
     }
 
@@ -305,6 +315,73 @@ public class LocalVirtualFileTest {
         assertEquals(expected, newHashSet(folder.countMd5Sums()));
     }
 
+    @Test
+    public void reusesMd5SumOfUnchangedFile() throws Exception {
+        VirtualFile root = getRoot();
+        VirtualFile folder = root.createFolder(generateFolderName());
+        VirtualFile file = folder.createFile(generateFileName(), DEFAULT_CONTENT);
+        File ioFile = new File(testDirectory, file.getPath().toString());
+        assertTrue(ioFile.setLastModified(1000000L));
+        String md5Sum = countMd5Sum(file);
+        assertEquals(md5Sum, folder.countMd5Sums().get(0).first);
+
+        Files.write(ioFile.toPath(), new StringBuilder(DEFAULT_CONTENT).reverse().toString().getBytes());
+        assertTrue(ioFile.setLastModified(1000000L));
+
+        assertEquals(md5Sum, folder.countMd5Sums().get(0).first);
+    }
+
+    @Test
+    public void recountsMd5SumOfFileModifiedShortlyBeforeItWasCounted() throws Exception {
+        VirtualFile root = getRoot();
+        VirtualFile folder = root.createFolder(generateFolderName());
+        VirtualFile file = folder.createFile(generateFileName(), DEFAULT_CONTENT);
+        File ioFile = new File(testDirectory, file.getPath().toString());
+        long lastModified = ioFile.lastModified();
+        folder.countMd5Sums();
+
+        Files.write(ioFile.toPath(), new StringBuilder(DEFAULT_CONTENT).reverse().toString().getBytes());
+        assertTrue(ioFile.setLastModified(lastModified));
+
+        assertEquals(countMd5Sum(file), folder.countMd5Sums().get(0).first);
+    }
+
+    @Test
+    public void recountsMd5SumOfUpdatedFile() throws Exception {
+        VirtualFile root = getRoot();
+        VirtualFile folder = root.createFolder(generateFolderName());
+        VirtualFile file = folder.createFile(generateFileName(), DEFAULT_CONTENT);
+        folder.countMd5Sums();
+
+        file.updateContent("updated content");
+
+        assertEquals(countMd5Sum(file), folder.countMd5Sums().get(0).first);
+    }
+
+    @Test
+    public void countsMd5Tree() throws Exception {
+        VirtualFile root = getRoot();
+        VirtualFile folder = root.createFolder(generateFolderName());
+        VirtualFile file = folder.createFile("a", DEFAULT_CONTENT);
+        folder.createFolder("b").createFile("c", DEFAULT_CONTENT);
+        folder.createFolder("d").createFile("c", DEFAULT_CONTENT);
+
+        HashTree tree = folder.countMd5Tree();
+
+        assertEquals(folder.getPath(), tree.getPath());
+        assertEquals(newArrayList("a", "b", "d"), tree.getChildren().stream().map(HashTree::getName).collect(toList()));
+        assertEquals(countMd5Sum(file), tree.getChildren().get(0).getHash());
+        assertEquals(tree.getChildren().get(1).getHash(), tree.getChildren().get(2).getHash());
+
+        String folderHash = tree.getHash();
+        folder.getChild(Path.of("d/c")).updateContent("updated content");
+        HashTree updatedTree = folder.countMd5Tree();
+
+        assertNotEquals(folderHash, updatedTree.getHash());
+        assertEquals(tree.getChildren().get(1).getHash(), updatedTree.getChildren().get(1).getHash());
+        assertNotEquals(tree.getChildren().get(2).getHash(), updatedTree.getChildren().get(2).getHash());
+    }
+
     @Test
     public void returnsEmptyListWhenCountMd5SumsOnFile() throws Exception {
         VirtualFile root = getRoot();
@@ -313,6 +390,43 @@ public class LocalVirtualFileTest {
         assertTrue(file.countMd5Sums().isEmpty());
     }
 
+    @Test
+    public void getsTree() throws Exception {
+        VirtualFile root = getRoot();
+        VirtualFile folder = root.createFolder(generateFolderName());
+        VirtualFile file = folder.createFile("b", DEFAULT_CONTENT);
+        VirtualFile subFolder = folder.createFolder("c");
+        VirtualFile subFile = subFolder.createFile("a", "xxx");
+
+        VirtualFileTree tree = folder.getTree(2);
+
+        assertEquals(folder.getPath(), tree.getPath());
+        assertTrue(tree.isFolder());
+        assertEquals(newArrayList(subFolder.getPath(), file.getPath()),
+                     tree.getChildren().stream().map(VirtualFileTree::getPath).collect(toList()));
+        VirtualFileTree fileTree = tree.getChildren().get(1);
+        assertTrue(fileTree.isFile());
+        assertEquals(file.getLength(), fileTree.getLength());
+        assertEquals(file.getLastModificationDate(), fileTree.getLastModificationDate());
+        VirtualFileTree subFileTree = tree.getChildren().get(0).getChildren().get(0);
+        assertEquals(subFile.getPath(), subFileTree.getPath());
+        assertEquals(3, subFileTree.getLength());
+    }
+
+    @Test
+    public void getsTreeWithLimitedDepth() throws Exception {
+        VirtualFile root = getRoot();
+        VirtualFile folder = root.createFolder(generateFolderName());
+        folder.createFolder("a/b/c");
+
+        VirtualFileTree tree = folder.getTree(2);
+
+        VirtualFileTree b = tree.getChildren().get(0).getChildren().get(0);
+        assertEquals(folder.getPath().newPath("a/b"), b.getPath());
+        assertTrue(b.isFolder());
+        assertTrue(b.getChildren().isEmpty());
+    }
+
     @Test
     public void getsChildren() throws Exception {
         VirtualFile root = getRoot();
@@ -628,7 +742,7 @@ public class LocalVirtualFileTest {
         VirtualFile copy = file.copyTo(targetFolder);
 
         assertionHelper.assertThatIoFilesHaveSameContent(file.getPath(), copy.getPath());
-        assertionHelper.assertThatMetadataIoFilesHaveSameContent(file.getPath(), copy.getPath());
+        assertionHelper.assertThatMetadataHaveSameContent(file.getPath(), copy.getPath());
     }
 
     @Test
@@ -642,7 +756,7 @@ public class LocalVirtualFileTest {
 
         assertFalse(copy.isLocked());
         assertionHelper.assertThatIoFilesHaveSameContent(file.getPath(), copy.getPath());
-        assertionHelper.assertThatLockIoFileDoesNotExist(copy.getPath());
+        assertionHelper.assertThatLockDoesNotExist(copy.getPath());
     }
 
     @Test
@@ -655,7 +769,7 @@ public class LocalVirtualFileTest {
         VirtualFile copy = file.copyTo(targetFolder, "new name", false);
 
         assertionHelper.assertThatIoFilesHaveSameContent(file.getPath(), copy.getPath());
-        assertionHelper.assertThatMetadataIoFilesHaveSameContent(file.getPath(), copy.getPath());
+        assertionHelper.assertThatMetadataHaveSameContent(file.getPath(), copy.getPath());
     }
 
     @Test
@@ -669,7 +783,7 @@ public class LocalVirtualFileTest {
         VirtualFile copy = file.copyTo(targetFolder, "existed_name", true);
 
         assertionHelper.assertThatIoFilesHaveSameContent(file.getPath(), copy.getPath());
-        assertionHelper.assertThatMetadataIoFilesHaveSameContent(file.getPath(), copy.getPath());
+        assertionHelper.assertThatMetadataHaveSameContent(file.getPath(), copy.getPath());
     }
 
     @Test
@@ -709,7 +823,7 @@ public class LocalVirtualFileTest {
             VirtualFile original = originalIterator.next();
             VirtualFile copy = copiedIterator.next();
             assertionHelper.assertThatIoFileExists(copy.getPath());
-            assertionHelper.assertThatMetadataIoFilesHaveSameContent(original.getPath(), copy.getPath());
+            assertionHelper.assertThatMetadataHaveSameContent(original.getPath(), copy.getPath());
             if (original.isFile()) {
                 assertionHelper.assertThatIoFilesHaveSameContent(original.getPath(), copy.getPath());
             }
@@ -730,7 +844,7 @@ public class LocalVirtualFileTest {
         VirtualFile copiedFile = copiedFolder.getChild(Path.of(file.getName()));
         assertionHelper.assertThatIoFileExists(copiedFolder.getPath());
         assertionHelper.assertThatIoFilesHaveSameContent(file.getPath(), copiedFile.getPath());
-        assertionHelper.assertThatLockIoFileDoesNotExist(copiedFile.getPath());
+        assertionHelper.assertThatLockDoesNotExist(copiedFile.getPath());
     }
 
     @Test
@@ -837,11 +951,11 @@ public class LocalVirtualFileTest {
 
         VirtualFile movedFile = file.moveTo(targetFolder);
 
-        assertionHelper.assertThatMetadataIoFileHasContent(movedFile.getPath(),
+        assertionHelper.assertThatMetadataHasContent(movedFile.getPath(),
                                                            serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
         assertionHelper.assertThatIoFileHasContent(movedFile.getPath(), DEFAULT_CONTENT_BYTES);
         assertionHelper.assertThatIoFileDoesNotExist(filePath);
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(filePath);
+        assertionHelper.assertThatMetadataDoesNotExist(filePath);
     }
 
     @Test
@@ -853,11 +967,11 @@ public class LocalVirtualFileTest {
 
         VirtualFile movedFile = file.moveTo(targetFolder, "new_name", false, null);
 
-        assertionHelper.assertThatMetadataIoFileHasContent(movedFile.getPath(),
+        assertionHelper.assertThatMetadataHasContent(movedFile.getPath(),
                                                            serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
         assertionHelper.assertThatIoFileHasContent(movedFile.getPath(), DEFAULT_CONTENT_BYTES);
         assertionHelper.assertThatIoFileDoesNotExist(filePath);
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(filePath);
+        assertionHelper.assertThatMetadataDoesNotExist(filePath);
     }
 
     @Test
@@ -870,11 +984,11 @@ public class LocalVirtualFileTest {
 
         VirtualFile movedFile = file.moveTo(targetFolder, "new_name", true, null);
 
-        assertionHelper.assertThatMetadataIoFileHasContent(movedFile.getPath(),
+        assertionHelper.assertThatMetadataHasContent(movedFile.getPath(),
                                                            serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
         assertionHelper.assertThatIoFileHasContent(movedFile.getPath(), DEFAULT_CONTENT_BYTES);
         assertionHelper.assertThatIoFileDoesNotExist(filePath);
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(filePath);
+        assertionHelper.assertThatMetadataDoesNotExist(filePath);
     }
 
     @Test
@@ -887,9 +1001,9 @@ public class LocalVirtualFileTest {
         VirtualFile movedFile = file.moveTo(targetFolder, null, false, lockToken);
 
         assertionHelper.assertThatIoFileHasContent(movedFile.getPath(), DEFAULT_CONTENT_BYTES);
-        assertionHelper.assertThatLockIoFileDoesNotExist(movedFile.getPath());
+        assertionHelper.assertThatLockDoesNotExist(movedFile.getPath());
         assertionHelper.assertThatIoFileDoesNotExist(filePath);
-        assertionHelper.assertThatLockIoFileDoesNotExist(filePath);
+        assertionHelper.assertThatLockDoesNotExist(filePath);
     }
 
     @Test
@@ -906,13 +1020,13 @@ public class LocalVirtualFileTest {
             thrown.expect(ForbiddenException.class);
         } catch (ForbiddenException e) {
             assertionHelper.assertThatIoFileDoesNotExist(movedFilePath);
-            assertionHelper.assertThatLockIoFileDoesNotExist(movedFilePath);
-            assertionHelper.assertThatMetadataIoFileDoesNotExist(movedFilePath);
+            assertionHelper.assertThatLockDoesNotExist(movedFilePath);
+            assertionHelper.assertThatMetadataDoesNotExist(movedFilePath);
 
             assertionHelper.assertThatIoFileHasContent(filePath, DEFAULT_CONTENT_BYTES);
             assertionHelper
-                    .assertThatMetadataIoFileHasContent(filePath, serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
-            assertionHelper.assertThatLockIoFileExists(filePath);
+                    .assertThatMetadataHasContent(filePath, serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
+            assertionHelper.assertThatLockExists(filePath);
         }
     }
 
@@ -930,13 +1044,13 @@ public class LocalVirtualFileTest {
             thrown.expect(ForbiddenException.class);
         } catch (ForbiddenException e) {
             assertionHelper.assertThatIoFileDoesNotExist(movedFilePath);
-            assertionHelper.assertThatLockIoFileDoesNotExist(movedFilePath);
-            assertionHelper.assertThatMetadataIoFileDoesNotExist(movedFilePath);
+            assertionHelper.assertThatLockDoesNotExist(movedFilePath);
+            assertionHelper.assertThatMetadataDoesNotExist(movedFilePath);
 
             assertionHelper.assertThatIoFileHasContent(filePath, DEFAULT_CONTENT_BYTES);
             assertionHelper
-                    .assertThatMetadataIoFileHasContent(filePath, serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
-            assertionHelper.assertThatLockIoFileExists(filePath);
+                    .assertThatMetadataHasContent(filePath, serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
+            assertionHelper.assertThatLockExists(filePath);
         }
     }
 
@@ -980,10 +1094,10 @@ public class LocalVirtualFileTest {
             if (moved.isFile()) {
                 assertionHelper.assertThatIoFileHasContent(moved.getPath(), DEFAULT_CONTENT_BYTES);
             }
-            assertionHelper.assertThatMetadataIoFileHasContent(moved.getPath(),
+            assertionHelper.assertThatMetadataHasContent(moved.getPath(),
                                                                serializeVirtualFileMetadata(ImmutableMap.of("property" + i, "value" + i)));
             assertionHelper.assertThatIoFileDoesNotExist(originalPath);
-            assertionHelper.assertThatMetadataIoFileDoesNotExist(originalPath);
+            assertionHelper.assertThatMetadataDoesNotExist(originalPath);
             i++;
         }
         assertFalse(originalPathIterator.hasNext() || movedIterator.hasNext());
@@ -1055,7 +1169,7 @@ public class LocalVirtualFileTest {
 
             assertionHelper.assertThatIoFileExists(folder.getPath());
             assertionHelper.assertThatIoFileExists(lockedFile.getPath());
-            assertionHelper.assertThatLockIoFileExists(lockedFile.getPath());
+            assertionHelper.assertThatLockExists(lockedFile.getPath());
         }
     }
 
@@ -1126,10 +1240,10 @@ public class LocalVirtualFileTest {
         VirtualFile renamedFile = file.rename("new name");
 
         assertionHelper.assertThatIoFileHasContent(renamedFile.getPath(), DEFAULT_CONTENT_BYTES);
-        assertionHelper.assertThatMetadataIoFileHasContent(renamedFile.getPath(),
+        assertionHelper.assertThatMetadataHasContent(renamedFile.getPath(),
                                                            serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
         assertionHelper.assertThatIoFileDoesNotExist(filePath);
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(filePath);
+        assertionHelper.assertThatMetadataDoesNotExist(filePath);
     }
 
     @Test
@@ -1142,9 +1256,9 @@ public class LocalVirtualFileTest {
         VirtualFile renamedFile = file.rename("new name", lockToken);
 
         assertionHelper.assertThatIoFileHasContent(renamedFile.getPath(), DEFAULT_CONTENT_BYTES);
-        assertionHelper.assertThatLockIoFileDoesNotExist(renamedFile.getPath());
+        assertionHelper.assertThatLockDoesNotExist(renamedFile.getPath());
         assertionHelper.assertThatIoFileDoesNotExist(filePath);
-        assertionHelper.assertThatLockIoFileDoesNotExist(filePath);
+        assertionHelper.assertThatLockDoesNotExist(filePath);
     }
 
     @Test
@@ -1162,12 +1276,12 @@ public class LocalVirtualFileTest {
         } catch (ForbiddenException e) {
             assertionHelper.assertThatIoFileHasContent(filePath, DEFAULT_CONTENT_BYTES);
             assertionHelper
-                    .assertThatMetadataIoFileHasContent(filePath, serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
-            assertionHelper.assertThatLockIoFileExists(filePath);
+                    .assertThatMetadataHasContent(filePath, serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
+            assertionHelper.assertThatLockExists(filePath);
 
             assertionHelper.assertThatIoFileDoesNotExist(newPath);
-            assertionHelper.assertThatLockIoFileDoesNotExist(newPath);
-            assertionHelper.assertThatMetadataIoFileDoesNotExist(newPath);
+            assertionHelper.assertThatLockDoesNotExist(newPath);
+            assertionHelper.assertThatMetadataDoesNotExist(newPath);
         }
     }
 
@@ -1186,12 +1300,12 @@ public class LocalVirtualFileTest {
         } catch (ForbiddenException e) {
             assertionHelper.assertThatIoFileHasContent(filePath, DEFAULT_CONTENT_BYTES);
             assertionHelper
-                    .assertThatMetadataIoFileHasContent(filePath, serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
-            assertionHelper.assertThatLockIoFileExists(filePath);
+                    .assertThatMetadataHasContent(filePath, serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
+            assertionHelper.assertThatLockExists(filePath);
 
             assertionHelper.assertThatIoFileDoesNotExist(newPath);
-            assertionHelper.assertThatLockIoFileDoesNotExist(newPath);
-            assertionHelper.assertThatMetadataIoFileDoesNotExist(newPath);
+            assertionHelper.assertThatLockDoesNotExist(newPath);
+            assertionHelper.assertThatMetadataDoesNotExist(newPath);
         }
     }
 
@@ -1210,11 +1324,11 @@ public class LocalVirtualFileTest {
             thrown.expect(ConflictException.class);
         } catch (ConflictException e) {
             assertionHelper.assertThatIoFileHasContent(conflictFilePath, "xxx".getBytes());
-            assertionHelper.assertThatMetadataIoFileHasContent(conflictFilePath,
+            assertionHelper.assertThatMetadataHasContent(conflictFilePath,
                                                                serializeVirtualFileMetadata(ImmutableMap.of("property2", "value2")));
             assertionHelper.assertThatIoFileHasContent(filePath, DEFAULT_CONTENT_BYTES);
             assertionHelper
-                    .assertThatMetadataIoFileHasContent(filePath, serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
+                    .assertThatMetadataHasContent(filePath, serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
         }
     }
 
@@ -1234,15 +1348,15 @@ public class LocalVirtualFileTest {
         assertionHelper.assertThatIoFileExists(renamed.getPath());
         assertionHelper.assertThatIoFileHasContent(newFilePath, DEFAULT_CONTENT_BYTES);
 
-        assertionHelper.assertThatMetadataIoFileHasContent(renamed.getPath(),
+        assertionHelper.assertThatMetadataHasContent(renamed.getPath(),
                                                            serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
         assertionHelper
-                .assertThatMetadataIoFileHasContent(newFilePath, serializeVirtualFileMetadata(ImmutableMap.of("property2", "value2")));
+                .assertThatMetadataHasContent(newFilePath, serializeVirtualFileMetadata(ImmutableMap.of("property2", "value2")));
 
         assertionHelper.assertThatIoFileDoesNotExist(folderPath);
         assertionHelper.assertThatIoFileDoesNotExist(folderPath.newPath(fileName));
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(folderPath);
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(folderPath.newPath(fileName));
+        assertionHelper.assertThatMetadataDoesNotExist(folderPath);
+        assertionHelper.assertThatMetadataDoesNotExist(folderPath.newPath(fileName));
     }
 
     @Test
@@ -1260,7 +1374,7 @@ public class LocalVirtualFileTest {
 
             assertionHelper.assertThatIoFileExists(folder.getPath());
             assertionHelper.assertThatIoFileHasContent(lockedFile.getPath(), DEFAULT_CONTENT_BYTES);
-            assertionHelper.assertThatLockIoFileExists(lockedFile.getPath());
+            assertionHelper.assertThatLockExists(lockedFile.getPath());
         }
     }
 
@@ -1291,7 +1405,7 @@ public class LocalVirtualFileTest {
         file.delete();
 
         assertionHelper.assertThatIoFileDoesNotExist(filePath);
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(filePath);
+        assertionHelper.assertThatMetadataDoesNotExist(filePath);
     }
 
     @Test
@@ -1305,8 +1419,8 @@ public class LocalVirtualFileTest {
         file.delete(lockToken);
 
         assertionHelper.assertThatIoFileDoesNotExist(filePath);
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(filePath);
-        assertionHelper.assertThatLockIoFileDoesNotExist(filePath);
+        assertionHelper.assertThatMetadataDoesNotExist(filePath);
+        assertionHelper.assertThatLockDoesNotExist(filePath);
     }
 
     @Test
@@ -1323,9 +1437,9 @@ public class LocalVirtualFileTest {
             thrown.expect(ForbiddenException.class);
         } catch (ForbiddenException e) {
             assertionHelper.assertThatIoFileHasContent(filePath, DEFAULT_CONTENT_BYTES);
-            assertionHelper.assertThatMetadataIoFileHasContent(file.getPath(),
+            assertionHelper.assertThatMetadataHasContent(file.getPath(),
                                                                serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
-            assertionHelper.assertThatLockIoFileExists(filePath);
+            assertionHelper.assertThatLockExists(filePath);
         }
     }
 
@@ -1343,9 +1457,9 @@ public class LocalVirtualFileTest {
             thrown.expect(ForbiddenException.class);
         } catch (ForbiddenException e) {
             assertionHelper.assertThatIoFileHasContent(filePath, DEFAULT_CONTENT_BYTES);
-            assertionHelper.assertThatMetadataIoFileHasContent(file.getPath(),
+            assertionHelper.assertThatMetadataHasContent(file.getPath(),
                                                                serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
-            assertionHelper.assertThatLockIoFileExists(filePath);
+            assertionHelper.assertThatLockExists(filePath);
         }
     }
 
@@ -1361,9 +1475,9 @@ public class LocalVirtualFileTest {
         folder.delete();
 
         assertionHelper.assertThatIoFileDoesNotExist(folderPath);
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(folderPath);
+        assertionHelper.assertThatMetadataDoesNotExist(folderPath);
         assertionHelper.assertThatIoFileDoesNotExist(filePath);
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(filePath);
+        assertionHelper.assertThatMetadataDoesNotExist(filePath);
     }
 
     @Test
@@ -1381,10 +1495,10 @@ public class LocalVirtualFileTest {
             thrown.expect(ForbiddenException.class);
         } catch (ForbiddenException e) {
             assertionHelper.assertThatIoFileExists(folderPath);
-            assertionHelper.assertThatMetadataIoFileHasContent(folder.getPath(),
+            assertionHelper.assertThatMetadataHasContent(folder.getPath(),
                                                                serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
             assertionHelper.assertThatIoFileHasContent(filePath, DEFAULT_CONTENT_BYTES);
-            assertionHelper.assertThatMetadataIoFileHasContent(file.getPath(),
+            assertionHelper.assertThatMetadataHasContent(file.getPath(),
                                                                serializeVirtualFileMetadata(ImmutableMap.of("property2", "value2")));
         }
     }
@@ -1455,7 +1569,7 @@ public class LocalVirtualFileTest {
     public void locksFile() throws Exception {
         VirtualFile file = getRoot().createFile(generateFileName(), DEFAULT_CONTENT);
         file.lock(0);
-        assertionHelper.assertThatLockIoFileExists(file.getPath());
+        assertionHelper.assertThatLockExists(file.getPath());
         assertTrue(file.isLocked());
     }
 
@@ -1463,11 +1577,11 @@ public class LocalVirtualFileTest {
     public void lockExpiredAfterTimeout() throws Exception {
         VirtualFile file = getRoot().createFile(generateFileName(), DEFAULT_CONTENT);
         file.lock(500);
-        assertionHelper.assertThatLockIoFileExists(file.getPath());
+        assertionHelper.assertThatLockExists(file.getPath());
         assertTrue(file.isLocked());
         Thread.sleep(1000);
         assertFalse(file.isLocked());
-        assertionHelper.assertThatLockIoFileDoesNotExist(file.getPath());
+        assertionHelper.assertThatLockDoesNotExist(file.getPath());
     }
 
     @Test
@@ -1477,7 +1591,7 @@ public class LocalVirtualFileTest {
             folder.lock(0);
             thrown.expect(ForbiddenException.class);
         } catch (ForbiddenException e) {
-            assertionHelper.assertThatLockIoFileDoesNotExist(folder.getPath());
+            assertionHelper.assertThatLockDoesNotExist(folder.getPath());
             assertFalse(folder.isLocked());
         }
     }
@@ -1487,10 +1601,29 @@ public class LocalVirtualFileTest {
         VirtualFile file = getRoot().createFile(generateFileName(), DEFAULT_CONTENT);
         String lockToken = file.lock(0);
         file.unlock(lockToken);
-        assertionHelper.assertThatLockIoFileDoesNotExist(file.getPath());
+        assertionHelper.assertThatLockDoesNotExist(file.getPath());
         assertFalse(file.isLocked());
     }
 
+    @Test
+    public void importsLocksAndPropertiesStoredInFilesUnderDotVfsFolders() throws Exception {
+        File folder = new File(testDirectory, "folder");
+        assertTrue(new File(folder, "a.txt").createNewFile() && new File(folder, "b.txt").createNewFile());
+        File dotVfs = new File(folder, ".vfs");
+        assertTrue(new File(dotVfs, "locks").mkdirs() && new File(dotVfs, "props").mkdirs());
+        byte[] lock = serializeLock(new FileLock("token", Long.MAX_VALUE));
+        java.nio.file.Files.write(new File(dotVfs, "locks/a.txt_lock").toPath(), lock);
+        byte[] properties = serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1"));
+        java.nio.file.Files.write(new File(dotVfs, "props/b.txt_props").toPath(), properties);
+
+        VirtualFile lockedFile = getRoot().getChild(Path.of("folder/a.txt"));
+        assertTrue(lockedFile.isLocked());
+        assertEquals(ImmutableMap.of("property1", "value1"), getRoot().getChild(Path.of("folder/b.txt")).getProperties());
+        assertionHelper.assertThatLockExists(lockedFile.getPath());
+        assertFalse(new File(dotVfs, "locks/a.txt_lock").exists());
+        assertFalse(new File(dotVfs, "props/b.txt_props").exists());
+    }
+
     @Test
     public void failsUnlockFileWhenLockTokenIsNull() throws Exception {
         VirtualFile root = getRoot();
@@ -1500,7 +1633,7 @@ public class LocalVirtualFileTest {
             file.unlock(null);
             thrown.expect(ForbiddenException.class);
         } catch (ForbiddenException e) {
-            assertionHelper.assertThatLockIoFileExists(file.getPath());
+            assertionHelper.assertThatLockExists(file.getPath());
             assertTrue(file.isLocked());
         }
     }
@@ -1514,7 +1647,7 @@ public class LocalVirtualFileTest {
             file.unlock(invalidLockToken);
             thrown.expect(ForbiddenException.class);
         } catch (ForbiddenException e) {
-            assertionHelper.assertThatLockIoFileExists(file.getPath());
+            assertionHelper.assertThatLockExists(file.getPath());
             assertTrue(file.isLocked());
         }
     }
@@ -1574,7 +1707,7 @@ public class LocalVirtualFileTest {
             thrown.expect(ConflictException.class);
         } catch (ConflictException expected) {
             assertionHelper.assertThatIoFileHasContent(file.getPath(), DEFAULT_CONTENT_BYTES);
-            assertionHelper.assertThatMetadataIoFileHasContent(file.getPath(),
+            assertionHelper.assertThatMetadataHasContent(file.getPath(),
                                                                serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
         }
     }
@@ -1768,6 +1901,31 @@ public class LocalVirtualFileTest {
         verify(searcher).add(folder);
     }
 
+    @Test
+    public void addsExtractedFilesInSearcherInOneBatch() throws Exception {
+        VirtualFile folder = getRoot().createFolder(generateFolderName());
+        Mockito.reset(searcher);
+        ExecutorService executor = newFixedThreadPool(4);
+        when(archiverFactory.createArchiver(eq(folder), eq("zip"))).thenReturn(new ZipArchiver(folder, -1, executor, 1, 4));
+        ByteArrayOutputStream zipped = new ByteArrayOutputStream();
+        try (ZipOutputStream zipOut = new ZipOutputStream(zipped)) {
+            for (int i = 0; i < 10; i++) {
+                zipOut.putNextEntry(new ZipEntry(String.format("a/b/file%d.txt", i)));
+                zipOut.write(DEFAULT_CONTENT_BYTES);
+            }
+        }
+
+        try {
+            folder.unzip(new ByteArrayInputStream(zipped.toByteArray()), false, 0);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(10, folder.getChild(Path.of("a/b")).getChildren().size());
+        verify(searcher).add(folder);
+        verify(searcher, times(1)).add(any(VirtualFile.class));
+    }
+
     private VirtualFile getRoot() {
         return fileSystem.getRoot();
     }
@@ -1788,6 +1946,14 @@ public class LocalVirtualFileTest {
         return byteOutput.toByteArray();
     }
 
+    private byte[] serializeLock(FileLock lock) throws IOException {
+        ByteArrayOutputStream byteOutput = new ByteArrayOutputStream();
+        DataOutputStream dataOutput = new DataOutputStream(byteOutput);
+        new FileLockSerializer().write(dataOutput, lock);
+        dataOutput.flush();
+        return byteOutput.toByteArray();
+    }
+
     private String countMd5Sum(VirtualFile file) throws Exception {
         return ByteSource.wrap(file.getContentAsBytes()).hash(Hashing.md5()).toString();
     }
@@ -0,0 +1,213 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.commons.lang.NameGenerator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MappedKeyValueStoreTest {
+    private File                testDirectory;
+    private File                storeFile;
+    private MappedKeyValueStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        File targetDir = new File(Thread.currentThread().getContextClassLoader().getResource(".").getPath()).getParentFile();
+        testDirectory = new File(targetDir, NameGenerator.generate("store-", 4));
+        assertTrue(testDirectory.mkdir());
+        storeFile = new File(testDirectory, "store");
+        store = new MappedKeyValueStore(storeFile);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        store.close();
+        IoUtil.deleteRecursive(testDirectory);
+    }
+
+    @Test
+    public void putsAndGetsValue() throws Exception {
+        store.put("/a/b", bytes("value"));
+        assertArrayEquals(bytes("value"), store.get("/a/b"));
+        assertNull(store.get("/a"));
+    }
+
+    @Test
+    public void replacesValue() throws Exception {
+        store.put("/a", bytes("value1"));
+        store.put("/a", bytes("value2"));
+        assertArrayEquals(bytes("value2"), store.get("/a"));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    public void removesValue() throws Exception {
+        store.put("/a", bytes("value"));
+        assertTrue(store.remove("/a"));
+        assertFalse(store.remove("/a"));
+        assertNull(store.get("/a"));
+    }
+
+    @Test
+    public void getsAndRemovesEntriesByPrefix() throws Exception {
+        store.put("/a", bytes("a"));
+        store.put("/a/b", bytes("b"));
+        store.put("/a/b/c", bytes("c"));
+        store.put("/ab", bytes("ab"));
+
+        assertEquals(newArrayList("/a/b", "/a/b/c"), newArrayList(store.getByPrefix("/a/").keySet()));
+        assertEquals(2, store.removeByPrefix("/a/"));
+        assertEquals(newArrayList("/a", "/ab"), newArrayList(store.getByPrefix("/").keySet()));
+    }
+
+    @Test
+    public void restoresEntriesWhenReopened() throws Exception {
+        store.put("/a", bytes("a"));
+        store.put("/b", bytes("b"));
+        store.put("/a", bytes("aa"));
+        store.remove("/b");
+        store.close();
+
+        store = new MappedKeyValueStore(storeFile);
+        assertArrayEquals(bytes("aa"), store.get("/a"));
+        assertNull(store.get("/b"));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    public void ignoresIncompleteRecordWhenReopened() throws Exception {
+        store.put("/a", bytes("a"));
+        store.close();
+        long length;
+        try (RandomAccessFile file = new RandomAccessFile(storeFile, "rw")) {
+            // Record of key "/a" takes 14 bytes. Write record with length that exceeds size of file after it.
+            file.seek(14);
+            file.writeInt(Integer.MAX_VALUE);
+            file.writeInt(0);
+            file.writeByte(1);
+            file.writeShort(2);
+            file.write(bytes("/b"));
+            length = file.length();
+        }
+
+        store = new MappedKeyValueStore(storeFile);
+        assertArrayEquals(bytes("a"), store.get("/a"));
+        assertEquals(1, store.size());
+        store.put("/c", bytes("c"));
+        store.close();
+
+        store = new MappedKeyValueStore(storeFile);
+        assertArrayEquals(bytes("c"), store.get("/c"));
+        assertEquals(2, store.size());
+        assertEquals(length, storeFile.length());
+    }
+
+    @Test
+    public void discardsTornRecordAndRecordsAfterItWhenReopened() throws Exception {
+        store.put("/a", bytes("a"));
+        store.put("/b", bytes("b"));
+        store.put("/c", bytes("c"));
+        store.close();
+        try (RandomAccessFile file = new RandomAccessFile(storeFile, "rw")) {
+            // Value of record of key "/b" which starts after 14 bytes of record of key "/a"
+            file.seek(14 + 13);
+            file.writeByte('x');
+        }
+
+        store = new MappedKeyValueStore(storeFile);
+        assertArrayEquals(bytes("a"), store.get("/a"));
+        assertEquals(1, store.size());
+        store.put("/d", bytes("d"));
+        store.close();
+
+        store = new MappedKeyValueStore(storeFile);
+        assertArrayEquals(bytes("d"), store.get("/d"));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    public void keepsUsingStoreWhenCompactionFails() throws Exception {
+        // Compacted file may not be created while non-empty directory with its name exists
+        File compacted = new File(testDirectory, "store.compact");
+        assertTrue(new File(compacted, "child").mkdirs());
+        byte[] value = new byte[1024];
+        for (int i = 0; i < 5000; i++) {
+            store.put("/file" + (i % 10), value);
+        }
+        store.put("/after", bytes("after"));
+        assertArrayEquals(bytes("after"), store.get("/after"));
+        store.close();
+        assertTrue(storeFile.length() > 4 * 1024 * 1024);
+
+        IoUtil.deleteRecursive(compacted);
+        store = new MappedKeyValueStore(storeFile);
+        assertEquals(11, store.size());
+        assertArrayEquals(value, store.get("/file9"));
+        assertArrayEquals(bytes("after"), store.get("/after"));
+    }
+
+    @Test
+    public void growsAndCompactsFile() throws Exception {
+        byte[] value = new byte[1024];
+        for (int i = 0; i < 5000; i++) {
+            store.put("/file" + (i % 10), value);
+        }
+        store.close();
+        assertTrue(storeFile.length() < 4 * 1024 * 1024);
+
+        store = new MappedKeyValueStore(storeFile);
+        assertEquals(10, store.size());
+        assertArrayEquals(value, store.get("/file9"));
+    }
+
+    @Test
+    public void updatesStoreAfterCompaction() throws Exception {
+        byte[] value = new byte[1024];
+        for (int i = 0; i < 5000; i++) {
+            store.put("/file" + (i % 10), value);
+        }
+        store.put("/after", bytes("after"));
+        store.remove("/file0");
+        store.force();
+        assertFalse(new File(testDirectory, "store.compact").exists());
+        store.close();
+
+        store = new MappedKeyValueStore(storeFile);
+        assertEquals(10, store.size());
+        assertArrayEquals(bytes("after"), store.get("/after"));
+        assertNull(store.get("/file0"));
+    }
+
+    @Test(expected = IOException.class)
+    public void failsToUpdateClosedStore() throws Exception {
+        store.close();
+        store.put("/a", bytes("a"));
+    }
+
+    private byte[] bytes(String string) {
+        return string.getBytes(UTF_8);
+    }
+}
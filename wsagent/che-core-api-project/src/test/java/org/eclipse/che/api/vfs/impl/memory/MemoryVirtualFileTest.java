@@ -22,6 +22,7 @@ import org.eclipse.che.api.vfs.Archiver;
 import org.eclipse.che.api.vfs.ArchiverFactory;
 import org.eclipse.che.api.vfs.Path;
 import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.VirtualFileTree;
 import org.eclipse.che.api.vfs.VirtualFileVisitor;
 import org.eclipse.che.api.vfs.search.Searcher;
 import org.eclipse.che.api.vfs.search.SearcherProvider;
@@ -277,6 +278,43 @@ public class MemoryVirtualFileTest {
         assertTrue(file.countMd5Sums().isEmpty());
     }
 
+    @Test
+    public void getsTree() throws Exception {
+        VirtualFile root = getRoot();
+        VirtualFile folder = root.createFolder(generateFolderName());
+        VirtualFile file = folder.createFile("b", DEFAULT_CONTENT);
+        VirtualFile subFolder = folder.createFolder("c");
+        VirtualFile subFile = subFolder.createFile("a", "xxx");
+
+        VirtualFileTree tree = folder.getTree(2);
+
+        assertEquals(folder.getPath(), tree.getPath());
+        assertTrue(tree.isFolder());
+        assertEquals(newArrayList(subFolder.getPath(), file.getPath()),
+                     tree.getChildren().stream().map(VirtualFileTree::getPath).collect(toList()));
+        VirtualFileTree fileTree = tree.getChildren().get(1);
+        assertTrue(fileTree.isFile());
+        assertEquals(file.getLength(), fileTree.getLength());
+        assertEquals(file.getLastModificationDate(), fileTree.getLastModificationDate());
+        VirtualFileTree subFileTree = tree.getChildren().get(0).getChildren().get(0);
+        assertEquals(subFile.getPath(), subFileTree.getPath());
+        assertEquals(3, subFileTree.getLength());
+    }
+
+    @Test
+    public void getsTreeWithLimitedDepth() throws Exception {
+        VirtualFile root = getRoot();
+        VirtualFile folder = root.createFolder(generateFolderName());
+        folder.createFolder("a/b/c");
+
+        VirtualFileTree tree = folder.getTree(2);
+
+        VirtualFileTree b = tree.getChildren().get(0).getChildren().get(0);
+        assertEquals(folder.getPath().newPath("a/b"), b.getPath());
+        assertTrue(b.isFolder());
+        assertTrue(b.getChildren().isEmpty());
+    }
+
     @Test
     public void getsChildren() throws Exception {
         VirtualFile root = getRoot();
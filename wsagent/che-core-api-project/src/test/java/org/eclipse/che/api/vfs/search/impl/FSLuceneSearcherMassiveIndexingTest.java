@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.VirtualFileFilter;
+import org.eclipse.che.api.vfs.impl.file.LocalVirtualFileSystem;
+import org.eclipse.che.api.vfs.search.QueryExpression;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.commons.lang.NameGenerator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures time of initial indexing of large generated tree on {@link LocalVirtualFileSystem} with different number of indexing threads.
+ * This test is excluded from regular build, run it manually.
+ */
+public class FSLuceneSearcherMassiveIndexingTest {
+    private static final Logger LOG = LoggerFactory.getLogger(FSLuceneSearcherMassiveIndexingTest.class);
+
+    private static final int FOLDERS          = 500;
+    private static final int FILES_PER_FOLDER = 100;
+
+    private File              workDirectory;
+    private File              treeDirectory;
+    private VirtualFileFilter filter;
+
+    @Before
+    public void setUp() throws Exception {
+        File targetDir = new File(Thread.currentThread().getContextClassLoader().getResource(".").getPath()).getParentFile();
+        workDirectory = new File(targetDir, NameGenerator.generate("indexing-", 4));
+        treeDirectory = new File(workDirectory, "tree");
+        assertTrue(treeDirectory.mkdirs());
+        for (int i = 0; i < FOLDERS; i++) {
+            File folder = new File(treeDirectory, String.format("module%03d/src/main/java", i));
+            assertTrue(folder.mkdirs());
+            for (int j = 0; j < FILES_PER_FOLDER; j++) {
+                String content = String.format("public class Class%d_%d implements common {\n}", i, j);
+                Files.write(new File(folder, String.format("Class%d.java", j)).toPath(), content.getBytes(UTF_8));
+            }
+        }
+
+        filter = mock(VirtualFileFilter.class);
+        when(filter.accept(any(VirtualFile.class))).thenReturn(true);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        IoUtil.deleteRecursive(workDirectory);
+    }
+
+    @Test
+    public void indexesLargeTree() throws Exception {
+        final int[] threads = {1, 2, Runtime.getRuntime().availableProcessors()};
+        for (int indexingThreads : threads) {
+            File indexDirectory = new File(workDirectory, NameGenerator.generate("index-", 4));
+            assertTrue(indexDirectory.mkdir());
+            FSLuceneSearcher searcher = new FSLuceneSearcher(indexDirectory, filter);
+            searcher.setIndexingThreads(indexingThreads);
+            try {
+                long start = System.currentTimeMillis();
+                searcher.init(new LocalVirtualFileSystem(treeDirectory, null, null, null));
+                long time = System.currentTimeMillis() - start;
+                LOG.info("Indexed {} files with {} threads in {} ms, {} files/s",
+                         FOLDERS * FILES_PER_FOLDER, indexingThreads, time, FOLDERS * FILES_PER_FOLDER * 1000L / Math.max(time, 1));
+
+                assertEquals(FOLDERS * FILES_PER_FOLDER, searcher.search(new QueryExpression().setText("common")).getTotalHits());
+            } finally {
+                searcher.close();
+            }
+        }
+    }
+}
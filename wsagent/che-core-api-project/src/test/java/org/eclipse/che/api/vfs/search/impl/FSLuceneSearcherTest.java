@@ -18,6 +18,7 @@ import org.eclipse.che.api.vfs.VirtualFileFilter;
 import org.eclipse.che.api.vfs.VirtualFileSystem;
 import org.eclipse.che.api.vfs.impl.memory.MemoryVirtualFileSystem;
 import org.eclipse.che.api.vfs.search.QueryExpression;
+import org.eclipse.che.api.vfs.search.SearchOccurrence;
 import org.eclipse.che.api.vfs.search.SearchResult;
 import org.eclipse.che.commons.lang.IoUtil;
 import org.eclipse.che.commons.lang.NameGenerator;
@@ -27,16 +28,19 @@ import org.junit.Test;
 import org.mockito.ArgumentMatcher;
 
 import java.io.File;
+import java.nio.file.Files;
 import java.util.Collections;
 import java.util.List;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Sets.newHashSet;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -204,6 +208,96 @@ public class FSLuceneSearcherTest {
         assertEquals(newArrayList("/folder1/a/b/xxx.txt"), paths);
     }
 
+    @Test
+    public void indexesAllFilesOfTreeWithManyFoldersAndFiles() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        for (int i = 0; i < 10; i++) {
+            VirtualFile folder = virtualFileSystem.getRoot().createFolder(String.format("folder%d/a/b", i));
+            for (int j = 0; j < 100; j++) {
+                folder.createFile(String.format("file%03d.txt", j), TEST_CONTENT[j % TEST_CONTENT.length]);
+            }
+        }
+        searcher.setIndexingThreads(4);
+        searcher.setCommitInterval(100);
+        searcher.init(virtualFileSystem);
+
+        SearchResult result = searcher.search(new QueryExpression().setText("twice"));
+        assertEquals(250, result.getTotalHits());
+        result = searcher.search(new QueryExpression().setText("be").setPath("/folder3"));
+        assertEquals(25, result.getTotalHits());
+    }
+
+    @Test
+    public void reindexesOnlyChangedFilesWhenExistedIndexIsReused() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        folder.createFile("xxx.txt", TEST_CONTENT[2]);
+        VirtualFile changed = folder.createFile("yyy.txt", TEST_CONTENT[1]);
+        VirtualFile deleted = folder.createFile("zzz.txt", TEST_CONTENT[0]);
+        searcher.init(virtualFileSystem);
+        searcher.close();
+
+        changed.updateContent(TEST_CONTENT[3]);
+        deleted.delete();
+        folder.createFile("aaa.txt", TEST_CONTENT[2]);
+
+        VirtualFileFilter newFilter = mock(VirtualFileFilter.class);
+        when(newFilter.accept(any(VirtualFile.class))).thenReturn(true);
+        searcher = new FSLuceneSearcher(indexDirectory, newFilter, closeCallback);
+        searcher.init(virtualFileSystem);
+
+        assertTrue(searcher.isIndexReused());
+        verify(newFilter, never()).accept(withName("xxx.txt"));
+        List<String> paths = searcher.search(new QueryExpression().setText("be")).getFilePaths();
+        assertEquals(newHashSet("/folder/aaa.txt", "/folder/xxx.txt"), newHashSet(paths));
+        paths = searcher.search(new QueryExpression().setText("mission")).getFilePaths();
+        assertEquals(newArrayList("/folder/yyy.txt"), paths);
+        assertTrue(searcher.search(new QueryExpression().setText("should")).getFilePaths().isEmpty());
+        assertTrue(searcher.search(new QueryExpression().setText("spaceflight")).getFilePaths().isEmpty());
+    }
+
+    @Test
+    public void rebuildsIndexWhenExistedIndexIsCorrupted() throws Exception {
+        Files.write(new File(indexDirectory, "segments_1").toPath(), "corrupted".getBytes());
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        virtualFileSystem.getRoot().createFolder("folder").createFile("xxx.txt", TEST_CONTENT[2]);
+
+        searcher.init(virtualFileSystem);
+
+        assertFalse(searcher.isIndexReused());
+        List<String> paths = searcher.search(new QueryExpression().setText("be")).getFilePaths();
+        assertEquals(newArrayList("/folder/xxx.txt"), paths);
+    }
+
+    @Test
+    public void providesOccurrencesOfSearchedTextInFoundFiles() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        folder.createFile("xxx.txt", TEST_CONTENT[0] + "\n" + TEST_CONTENT[2] + "\n" + TEST_CONTENT[2]);
+        searcher.init(virtualFileSystem);
+
+        SearchResult result = searcher.search(new QueryExpression().setText("not").setMaxOccurrences(1));
+
+        List<SearchOccurrence> occurrences = result.getResults().get(0).getOccurrences();
+        assertEquals(1, occurrences.size());
+        SearchOccurrence occurrence = occurrences.get(0);
+        assertEquals(2, occurrence.getLineNumber());
+        assertEquals(9, occurrence.getStartColumn());
+        assertEquals(12, occurrence.getEndColumn());
+        assertEquals(TEST_CONTENT[2], occurrence.getSnippet());
+    }
+
+    @Test
+    public void doesNotProvideOccurrencesWhenTheyAreNotRequested() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        virtualFileSystem.getRoot().createFolder("folder").createFile("xxx.txt", TEST_CONTENT[2]);
+        searcher.init(virtualFileSystem);
+
+        SearchResult result = searcher.search(new QueryExpression().setText("not"));
+
+        assertTrue(result.getResults().get(0).getOccurrences().isEmpty());
+    }
+
     @Test
     public void closesLuceneIndexWriterWhenSearcherClosed() throws Exception {
         VirtualFileSystem virtualFileSystem = virtualFileSystem();
@@ -294,6 +388,51 @@ public class FSLuceneSearcherTest {
         assertTrue(Collections.disjoint(firstPage.getFilePaths(), lastPage.getFilePaths()));
     }
 
+    @Test
+    public void checksEachFoundFileWithRegularExpression() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        folder.createFile("xxx.txt", TEST_CONTENT[0]);
+        folder.createFile("yyy.txt", TEST_CONTENT[3]);
+        searcher.init(virtualFileSystem);
+
+        SearchResult result = searcher.search(new QueryExpression().setRegex("\\d{4}").setMaxOccurrences(1));
+
+        assertEquals(newArrayList("/folder/yyy.txt"), result.getFilePaths());
+        assertEquals("1961", TEST_CONTENT[3].substring(result.getResults().get(0).getOccurrences().get(0).getStartColumn(),
+                                                       result.getResults().get(0).getOccurrences().get(0).getEndColumn()));
+    }
+
+    @Test
+    public void checksOnlyFilesWhichTokensContainLiteralsOfRegularExpression() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        folder.createFile("xxx.txt", TEST_CONTENT[0]);
+        folder.createFile("yyy.txt", TEST_CONTENT[3]);
+        folder.createFile("zzz.txt", "direct descent");
+        searcher.init(virtualFileSystem);
+
+        SearchResult result = searcher.search(new QueryExpression().setRegex("(?i)DIRECT\\s+ASCENT\\s+was").setMaxOccurrences(1));
+
+        assertEquals(newArrayList("/folder/yyy.txt"), result.getFilePaths());
+    }
+
+    @Test
+    public void findsLiteralOfRegularExpressionThatIsSplitBetweenTokens() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 252; i++) {
+            content.append('a');
+        }
+        content.append("needle");
+        virtualFileSystem.getRoot().createFile("long.txt", content.toString());
+        searcher.init(virtualFileSystem);
+
+        SearchResult result = searcher.search(new QueryExpression().setRegex("needle"));
+
+        assertEquals(newArrayList("/long.txt"), result.getFilePaths());
+    }
+
     private VirtualFileSystem virtualFileSystem() throws Exception {
         return new MemoryVirtualFileSystem(mock(ArchiverFactory.class), null);
     }
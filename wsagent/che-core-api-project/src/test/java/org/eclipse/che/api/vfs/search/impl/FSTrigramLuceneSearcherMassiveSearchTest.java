@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.VirtualFileFilter;
+import org.eclipse.che.api.vfs.impl.file.LocalVirtualFileSystem;
+import org.eclipse.che.api.vfs.search.QueryExpression;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.commons.lang.NameGenerator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compares time of searching with regular expressions and size of index of {@link FSLuceneSearcher} and {@link FSTrigramLuceneSearcher}
+ * on large generated tree. This test is excluded from regular build, run it manually.
+ */
+public class FSTrigramLuceneSearcherMassiveSearchTest {
+    private static final Logger LOG = LoggerFactory.getLogger(FSTrigramLuceneSearcherMassiveSearchTest.class);
+
+    private static final int      FOLDERS          = 200;
+    private static final int      FILES_PER_FOLDER = 100;
+    private static final int      SEARCH_REPEATS   = 10;
+    private static final String[] REGEXES          = {"Class17_42\\b", "implements Comparable<\\w+>", "return value\\s*\\*\\s*7;"};
+
+    private File              workDirectory;
+    private File              treeDirectory;
+    private VirtualFileFilter filter;
+
+    @Before
+    public void setUp() throws Exception {
+        File targetDir = new File(Thread.currentThread().getContextClassLoader().getResource(".").getPath()).getParentFile();
+        workDirectory = new File(targetDir, NameGenerator.generate("trigrams-", 4));
+        treeDirectory = new File(workDirectory, "tree");
+        assertTrue(treeDirectory.mkdirs());
+        for (int i = 0; i < FOLDERS; i++) {
+            File folder = new File(treeDirectory, String.format("module%03d/src/main/java", i));
+            assertTrue(folder.mkdirs());
+            for (int j = 0; j < FILES_PER_FOLDER; j++) {
+                String content = String.format("public class Class%d_%d%s {\n" +
+                                               "    public int compute(int value) {\n" +
+                                               "        return value * %d;\n" +
+                                               "    }\n" +
+                                               "}", i, j, j % 10 == 0 ? " implements Comparable<Object>" : "", j);
+                Files.write(new File(folder, String.format("Class%d.java", j)).toPath(), content.getBytes(UTF_8));
+            }
+        }
+
+        filter = mock(VirtualFileFilter.class);
+        when(filter.accept(any(VirtualFile.class))).thenReturn(true);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        IoUtil.deleteRecursive(workDirectory);
+    }
+
+    @Test
+    public void searchesWithRegularExpressions() throws Exception {
+        File plainIndex = new File(workDirectory, "plain");
+        File trigramIndex = new File(workDirectory, "trigram");
+        assertTrue(plainIndex.mkdir());
+        assertTrue(trigramIndex.mkdir());
+        measure("plain", new FSLuceneSearcher(plainIndex, filter), plainIndex);
+        measure("trigram", new FSTrigramLuceneSearcher(trigramIndex, filter), trigramIndex);
+    }
+
+    private void measure(String name, LuceneSearcher searcher, File indexDirectory) throws Exception {
+        try {
+            long start = System.currentTimeMillis();
+            searcher.init(new LocalVirtualFileSystem(treeDirectory, null, null, null));
+            LOG.info("{}: indexed {} files in {} ms, index size {} KB", name, FOLDERS * FILES_PER_FOLDER,
+                     System.currentTimeMillis() - start, sizeOf(indexDirectory) / 1024);
+
+            final int[] expectedHits = {1, FOLDERS * FILES_PER_FOLDER / 10, FOLDERS};
+            for (int i = 0; i < REGEXES.length; i++) {
+                // warm up
+                assertEquals(expectedHits[i], searcher.search(new QueryExpression().setRegex(REGEXES[i])).getTotalHits());
+                start = System.nanoTime();
+                for (int r = 0; r < SEARCH_REPEATS; r++) {
+                    searcher.search(new QueryExpression().setRegex(REGEXES[i]));
+                }
+                LOG.info("{}: searched '{}' in {} ms on average", name, REGEXES[i],
+                         (System.nanoTime() - start) / SEARCH_REPEATS / 1000000);
+            }
+        } finally {
+            searcher.close();
+        }
+    }
+
+    private static long sizeOf(File directory) {
+        long size = 0;
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                size += file.isDirectory() ? sizeOf(file) : file.length();
+            }
+        }
+        return size;
+    }
+}
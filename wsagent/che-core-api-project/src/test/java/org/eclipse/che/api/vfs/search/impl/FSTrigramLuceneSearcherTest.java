@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import org.eclipse.che.api.vfs.ArchiverFactory;
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.VirtualFileFilter;
+import org.eclipse.che.api.vfs.VirtualFileSystem;
+import org.eclipse.che.api.vfs.impl.memory.MemoryVirtualFileSystem;
+import org.eclipse.che.api.vfs.search.QueryExpression;
+import org.eclipse.che.api.vfs.search.SearchOccurrence;
+import org.eclipse.che.api.vfs.search.SearchResult;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.commons.lang.NameGenerator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class FSTrigramLuceneSearcherTest {
+    private static final String[] TEST_CONTENT = {
+            "public class Foo implements Serializable {\n}",
+            "public class Bar extends Foo {\n    private int count;\n}",
+            "public interface Baz {\n    int getCount();\n}"
+    };
+
+    private File                    indexDirectory;
+    private FSTrigramLuceneSearcher searcher;
+
+    @Before
+    public void setUp() throws Exception {
+        File targetDir = new File(Thread.currentThread().getContextClassLoader().getResource(".").getPath()).getParentFile();
+        indexDirectory = new File(targetDir, NameGenerator.generate("index-", 4));
+        assertTrue(indexDirectory.mkdir());
+
+        VirtualFileFilter filter = mock(VirtualFileFilter.class);
+        when(filter.accept(any(VirtualFile.class))).thenReturn(true);
+        searcher = new FSTrigramLuceneSearcher(indexDirectory, filter);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        searcher.close();
+        IoUtil.deleteRecursive(indexDirectory);
+    }
+
+    @Test
+    public void findsFilesWithSubstring() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystemWithTestFiles();
+        searcher.init(virtualFileSystem);
+
+        List<String> paths = searcher.search(new QueryExpression().setRegex(Pattern.quote("extends Foo {"))).getFilePaths();
+
+        assertEquals(newArrayList("/folder/Bar.java"), paths);
+    }
+
+    @Test
+    public void findsFilesWithRegularExpression() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystemWithTestFiles();
+        searcher.init(virtualFileSystem);
+
+        List<String> paths = searcher.search(new QueryExpression().setRegex("int\\s+\\w*[cC]ount")).getFilePaths();
+
+        assertEquals(2, paths.size());
+        assertTrue(paths.contains("/folder/Bar.java"));
+        assertTrue(paths.contains("/folder/Baz.java"));
+    }
+
+    @Test
+    public void checksCandidatesWithCaseSensitiveRegularExpression() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystemWithTestFiles();
+        searcher.init(virtualFileSystem);
+
+        List<String> paths = searcher.search(new QueryExpression().setRegex("getCount")).getFilePaths();
+
+        assertEquals(newArrayList("/folder/Baz.java"), paths);
+        assertTrue(searcher.search(new QueryExpression().setRegex("GETCOUNT")).getFilePaths().isEmpty());
+    }
+
+    @Test
+    public void findsFilesWithAlternatives() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystemWithTestFiles();
+        searcher.init(virtualFileSystem);
+
+        List<String> paths = searcher.search(new QueryExpression().setRegex("interface Baz|class Bar")).getFilePaths();
+
+        assertEquals(2, paths.size());
+        assertTrue(paths.contains("/folder/Bar.java"));
+        assertTrue(paths.contains("/folder/Baz.java"));
+    }
+
+    @Test
+    public void findsFilesWithRegularExpressionAfterUpdate() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystemWithTestFiles();
+        searcher.init(virtualFileSystem);
+        VirtualFile file = virtualFileSystem.getRoot().getChild(Path.of("folder/Foo.java"));
+        file.updateContent("public class Foo implements Cloneable {\n}");
+
+        searcher.update(file);
+
+        assertTrue(searcher.search(new QueryExpression().setRegex("Serializ.ble")).getFilePaths().isEmpty());
+        assertEquals(newArrayList("/folder/Foo.java"), searcher.search(new QueryExpression().setRegex("Clone.ble")).getFilePaths());
+    }
+
+    @Test
+    public void providesOccurrencesOfRegularExpression() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystemWithTestFiles();
+        searcher.init(virtualFileSystem);
+
+        SearchResult result = searcher.search(new QueryExpression().setRegex("private int \\w+").setMaxOccurrences(10));
+
+        assertEquals(1, result.getResults().size());
+        List<SearchOccurrence> occurrences = result.getResults().get(0).getOccurrences();
+        assertEquals(1, occurrences.size());
+        assertEquals(2, occurrences.get(0).getLineNumber());
+        assertEquals(4, occurrences.get(0).getStartColumn());
+        assertEquals(21, occurrences.get(0).getEndColumn());
+    }
+
+    @Test
+    public void retrievesSearchResultOfRegularExpressionWithPages() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystemWithTestFiles();
+        searcher.init(virtualFileSystem);
+
+        SearchResult firstPage = searcher.search(new QueryExpression().setRegex("public \\w+ Ba").setMaxItems(1));
+        assertEquals(2, firstPage.getTotalHits());
+        assertEquals(1, firstPage.getFilePaths().size());
+        assertNotNull(firstPage.getNextPageQueryExpression());
+
+        SearchResult secondPage = searcher.search(firstPage.getNextPageQueryExpression());
+        assertEquals(1, secondPage.getFilePaths().size());
+        assertEquals(2, newArrayList(firstPage.getFilePaths().get(0), secondPage.getFilePaths().get(0)).stream().distinct().count());
+    }
+
+    @Test
+    public void indexesWordsButNotTrigramsOfTooBigFile() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystemWithTestFiles();
+        StringBuilder content = new StringBuilder();
+        while (content.length() <= SearchOccurrencesFinder.MAX_FILE_LENGTH) {
+            content.append("hugeword ");
+        }
+        virtualFileSystem.getRoot().getChild(Path.of("folder")).createFile("huge.txt", content.toString());
+        searcher.init(virtualFileSystem);
+
+        assertEquals(newArrayList("/folder/huge.txt"), searcher.search(new QueryExpression().setText("hugeword")).getFilePaths());
+        assertTrue(searcher.search(new QueryExpression().setRegex("hugew.rd")).getFilePaths().isEmpty());
+    }
+
+    private VirtualFileSystem virtualFileSystemWithTestFiles() throws Exception {
+        VirtualFileSystem virtualFileSystem = new MemoryVirtualFileSystem(mock(ArchiverFactory.class), null);
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        folder.createFile("Foo.java", TEST_CONTENT[0]);
+        folder.createFile("Bar.java", TEST_CONTENT[1]);
+        folder.createFile("Baz.java", TEST_CONTENT[2]);
+        return virtualFileSystem;
+    }
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import org.eclipse.che.api.vfs.ArchiverFactory;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.VirtualFileSystem;
+import org.eclipse.che.api.vfs.VirtualFileSystemProvider;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
+import org.eclipse.che.api.vfs.impl.memory.MemoryVirtualFileSystem;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static java.util.Collections.emptySet;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures time of searching of files by fuzzy name in {@link FilePathIndex} of 100k files. This test is excluded from regular build, run
+ * it manually.
+ */
+public class FilePathIndexMassiveSearchTest {
+    private static final Logger LOG = LoggerFactory.getLogger(FilePathIndexMassiveSearchTest.class);
+
+    private static final int      MODULES          = 100;
+    private static final int      PACKAGES         = 50;
+    private static final int      FILES_PER_FOLDER = 20;
+    private static final int      SEARCH_REPEATS   = 100;
+    private static final String[] QUERIES          = {"MSI", "Service42Impl", "module7/pkg3/srv", "ImplTest.java", "zzz"};
+
+    private FilePathIndex index;
+
+    @Before
+    public void setUp() throws Exception {
+        VirtualFileSystem virtualFileSystem = new MemoryVirtualFileSystem(mock(ArchiverFactory.class), null);
+        for (int m = 0; m < MODULES; m++) {
+            for (int p = 0; p < PACKAGES; p++) {
+                VirtualFile folder = virtualFileSystem.getRoot().createFolder(String.format("module%d/src/main/java/org/pkg%d", m, p));
+                for (int f = 0; f < FILES_PER_FOLDER; f++) {
+                    folder.createFile(String.format(f % 2 == 0 ? "MyService%dImpl.java" : "Service%dImplTest.java", f * p), "");
+                }
+            }
+        }
+        VirtualFileSystemProvider vfsProvider = mock(VirtualFileSystemProvider.class);
+        when(vfsProvider.getVirtualFileSystem()).thenReturn(virtualFileSystem);
+        index = new FilePathIndex(vfsProvider, mock(FileWatcherNotificationHandler.class), emptySet());
+
+        long start = System.currentTimeMillis();
+        index.initialize();
+        LOG.info("Indexed {} files in {} ms", index.size(), System.currentTimeMillis() - start);
+        assertEquals(MODULES * PACKAGES * FILES_PER_FOLDER, index.size());
+    }
+
+    @Test
+    public void findsFilesByFuzzyName() throws Exception {
+        for (String query : QUERIES) {
+            // warm up
+            boolean found = !index.find(query, 50).isEmpty();
+            assertEquals(!"zzz".equals(query), found);
+            long start = System.nanoTime();
+            for (int i = 0; i < SEARCH_REPEATS; i++) {
+                index.find(query, 50);
+            }
+            LOG.info("Searched '{}' in {} us on average", query, (System.nanoTime() - start) / SEARCH_REPEATS / 1000);
+        }
+    }
+}
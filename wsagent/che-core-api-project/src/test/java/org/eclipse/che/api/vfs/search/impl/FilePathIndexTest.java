@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
+import org.eclipse.che.api.vfs.ArchiverFactory;
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.VirtualFileSystem;
+import org.eclipse.che.api.vfs.VirtualFileSystemProvider;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationListener;
+import org.eclipse.che.api.vfs.impl.memory.MemoryVirtualFileSystem;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.file.FileSystems;
+import java.nio.file.PathMatcher;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Sets.newHashSet;
+import static java.util.Collections.emptySet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class FilePathIndexTest {
+    private VirtualFileSystem              virtualFileSystem;
+    private VirtualFileSystemProvider      vfsProvider;
+    private FileWatcherNotificationHandler fileWatcherNotificationHandler;
+    private VirtualFile                    folder;
+
+    @Before
+    public void setUp() throws Exception {
+        virtualFileSystem = new MemoryVirtualFileSystem(mock(ArchiverFactory.class), null);
+        vfsProvider = mock(VirtualFileSystemProvider.class);
+        when(vfsProvider.getVirtualFileSystem()).thenReturn(virtualFileSystem);
+        fileWatcherNotificationHandler = mock(FileWatcherNotificationHandler.class);
+
+        folder = virtualFileSystem.getRoot().createFolder("project/src/main/java");
+        folder.createFile("FileTreeWatcher.java", "");
+        folder.createFile("FileWatcher.java", "");
+        folder.createFile("Fetcher.java", "");
+        virtualFileSystem.getRoot().createFolder("project/target").createFile("FileWatcher.class", "");
+    }
+
+    @Test
+    public void findsFilesByFuzzyNameWithTheBestMatchesFirst() throws Exception {
+        FilePathIndex index = new FilePathIndex(vfsProvider, fileWatcherNotificationHandler, emptySet());
+
+        assertEquals(newArrayList("/project/src/main/java/FileWatcher.java",
+                                  "/project/src/main/java/FileTreeWatcher.java"),
+                     index.find("FWatcher.java", 10));
+    }
+
+    @Test
+    public void limitsNumberOfFoundFiles() throws Exception {
+        FilePathIndex index = new FilePathIndex(vfsProvider, fileWatcherNotificationHandler, emptySet());
+
+        assertEquals(newArrayList("/project/src/main/java/FileWatcher.java"), index.find("FWatcher.java", 1));
+    }
+
+    @Test
+    public void findsFilesByDirectoryAndName() throws Exception {
+        FilePathIndex index = new FilePathIndex(vfsProvider, fileWatcherNotificationHandler, emptySet());
+
+        assertEquals(newArrayList("/project/target/FileWatcher.class"), index.find("targ/FWatch", 10));
+    }
+
+    @Test
+    public void doesNotIndexExcludedFiles() throws Exception {
+        PathMatcher targetMatcher = FileSystems.getDefault().getPathMatcher("glob:**/target");
+        FilePathIndex index = new FilePathIndex(vfsProvider, fileWatcherNotificationHandler, newHashSet(targetMatcher));
+
+        assertEquals(2, index.find("FWatch", 10).size());
+        assertTrue(index.find("FWatcher.class", 10).isEmpty());
+    }
+
+    @Test
+    public void addsAndRemovesFilesOnFileWatcherEvents() throws Exception {
+        FilePathIndex index = new FilePathIndex(vfsProvider, fileWatcherNotificationHandler, emptySet());
+        index.initialize();
+        ArgumentCaptor<FileWatcherNotificationListener> listener = ArgumentCaptor.forClass(FileWatcherNotificationListener.class);
+        verify(fileWatcherNotificationHandler).addNotificationListener(listener.capture());
+
+        VirtualFile created = folder.createFile("PathLockFactory.java", "");
+        listener.getValue().onFileWatcherEvent(created, FileWatcherEventType.CREATED);
+        assertEquals(newArrayList(created.getPath().toString()), index.find("PLF", 10));
+
+        Path createdPath = created.getPath();
+        created.delete();
+        listener.getValue().onFileWatcherEvent(deletedItem(createdPath), FileWatcherEventType.DELETED);
+        assertTrue(index.find("PLF", 10).isEmpty());
+    }
+
+    @Test
+    public void removesAllFilesOfDeletedFolder() throws Exception {
+        FilePathIndex index = new FilePathIndex(vfsProvider, fileWatcherNotificationHandler, emptySet());
+        index.initialize();
+        ArgumentCaptor<FileWatcherNotificationListener> listener = ArgumentCaptor.forClass(FileWatcherNotificationListener.class);
+        verify(fileWatcherNotificationHandler).addNotificationListener(listener.capture());
+
+        VirtualFile deleted = virtualFileSystem.getRoot().getChild(Path.of("project/src"));
+        deleted.delete();
+        listener.getValue().onFileWatcherEvent(deletedItem(Path.of("/project/src")), FileWatcherEventType.DELETED);
+
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void doesNotRemoveFilesOfFolderWithTheSamePrefixAsDeletedFolder() throws Exception {
+        virtualFileSystem.getRoot().createFolder("project/src-gen").createFile("Generated.java", "");
+        FilePathIndex index = new FilePathIndex(vfsProvider, fileWatcherNotificationHandler, emptySet());
+        index.initialize();
+        ArgumentCaptor<FileWatcherNotificationListener> listener = ArgumentCaptor.forClass(FileWatcherNotificationListener.class);
+        verify(fileWatcherNotificationHandler).addNotificationListener(listener.capture());
+
+        virtualFileSystem.getRoot().getChild(Path.of("project/src")).delete();
+        listener.getValue().onFileWatcherEvent(deletedItem(Path.of("/project/src")), FileWatcherEventType.DELETED);
+
+        assertEquals(newArrayList("/project/src-gen/Generated.java"), index.find("Generated", 10));
+        assertEquals(2, index.size());
+    }
+
+    /** Watcher reports deleted item with new instance of VirtualFile that is not bound to removed item. */
+    private VirtualFile deletedItem(Path path) {
+        VirtualFile deleted = mock(VirtualFile.class);
+        when(deleted.getPath()).thenReturn(path);
+        return deleted;
+    }
+}
@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import org.junit.Test;
+
+import static org.eclipse.che.api.vfs.search.impl.FuzzyNameMatcher.NO_MATCH;
+import static org.eclipse.che.api.vfs.search.impl.FuzzyNameMatcher.charMask;
+import static org.eclipse.che.api.vfs.search.impl.FuzzyNameMatcher.toLowerCase;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FuzzyNameMatcherTest {
+    @Test
+    public void matchesCamelHumps() {
+        assertNotEquals(NO_MATCH, score("FSLS", "FSLuceneSearcher.java"));
+        assertNotEquals(NO_MATCH, score("fsls", "FSLuceneSearcher.java"));
+        assertNotEquals(NO_MATCH, score("LucSea", "FSLuceneSearcher.java"));
+    }
+
+    @Test
+    public void matchesScatteredCharacters() {
+        assertNotEquals(NO_MATCH, score("lcnsrch", "FSLuceneSearcher.java"));
+    }
+
+    @Test
+    public void doesNotMatchWhenCharactersAreInOtherOrder() {
+        assertEquals(NO_MATCH, score("SearcherLucene", "FSLuceneSearcher.java"));
+        assertEquals(NO_MATCH, score("xml", "FSLuceneSearcher.java"));
+    }
+
+    @Test
+    public void ranksCamelHumpsHigherThanScatteredCharacters() {
+        assertTrue(score("fw", "FileWatcher.java") > score("fw", "Flower.java"));
+    }
+
+    @Test
+    public void ranksExactNameHigherThanPrefix() {
+        assertTrue(score("pom.xml", "pom.xml") > score("pom.xml", "pom.xml.versionsBackup"));
+        assertTrue(score("Path", "Path.java") > score("Path", "PathLockFactory.java"));
+    }
+
+    @Test
+    public void ranksShorterNameHigher() {
+        assertTrue(score("FWatcher", "FileWatcher.java") > score("FWatcher", "FileTreeWatcher.java"));
+    }
+
+    @Test
+    public void detectsWordStarts() {
+        assertTrue(FuzzyNameMatcher.isWordStart("FSLuceneSearcher", 0));
+        assertTrue(FuzzyNameMatcher.isWordStart("FSLuceneSearcher", 2));
+        assertTrue(FuzzyNameMatcher.isWordStart("FSLuceneSearcher", 8));
+        assertTrue(FuzzyNameMatcher.isWordStart("file_tree-watcher", 5));
+        assertTrue(FuzzyNameMatcher.isWordStart("file_tree-watcher", 10));
+        assertTrue(FuzzyNameMatcher.isWordStart("log4j", 3));
+        assertFalse(FuzzyNameMatcher.isWordStart("FSLuceneSearcher", 1));
+        assertFalse(FuzzyNameMatcher.isWordStart("FSLuceneSearcher", 3));
+    }
+
+    private static int score(String pattern, String name) {
+        char[] lowerName = toLowerCase(name);
+        return new FuzzyNameMatcher(pattern).score(name, lowerName, charMask(lowerName));
+    }
+}
@@ -0,0 +1,244 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.ArchiverFactory;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.VirtualFileSystem;
+import org.eclipse.che.api.vfs.impl.memory.MemoryVirtualFileSystem;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+public class IndexingQueueTest {
+    private VirtualFileSystem virtualFileSystem;
+    private RecordingIndexer  indexer;
+    private IndexingQueue     indexingQueue;
+
+    @Before
+    public void setUp() throws Exception {
+        virtualFileSystem = new MemoryVirtualFileSystem(mock(ArchiverFactory.class), null);
+        indexer = new RecordingIndexer();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        indexer.resume();
+        if (indexingQueue != null) {
+            indexingQueue.close();
+        }
+    }
+
+    @Test
+    public void appliesChangesAsynchronouslyAndCommitsOncePerBatch() throws Exception {
+        indexingQueue = new IndexingQueue(indexer, 100, 10);
+        VirtualFile file = virtualFileSystem.getRoot().createFile("aaa.txt", "aaa");
+        indexingQueue.start();
+
+        indexingQueue.add(file);
+        indexingQueue.delete("/bbb.txt", true);
+
+        assertTrue(indexingQueue.awaitIndexed(5000));
+        assertEquals(newArrayList("add /aaa.txt", "delete /bbb.txt file", "commit"), indexer.changes);
+        assertEquals(2, indexingQueue.getIndexedCount());
+        assertEquals(1, indexingQueue.getBatchCount());
+        assertEquals(0, indexingQueue.getDepth());
+    }
+
+    @Test
+    public void keepsOnlyTheLatestChangeOfPath() throws Exception {
+        indexingQueue = new IndexingQueue(indexer, 100, 10);
+        VirtualFile file = virtualFileSystem.getRoot().createFile("aaa.txt", "aaa");
+        VirtualFile otherFile = virtualFileSystem.getRoot().createFile("bbb.txt", "bbb");
+
+        indexingQueue.update(file);
+        indexingQueue.update(otherFile);
+        indexingQueue.update(file);
+        indexingQueue.update(file);
+        assertEquals(2, indexingQueue.getDepth());
+        assertEquals(2, indexingQueue.getMergedCount());
+
+        indexingQueue.start();
+        assertTrue(indexingQueue.awaitIndexed(5000));
+        assertEquals(newArrayList("update /bbb.txt", "update /aaa.txt", "commit"), indexer.changes);
+    }
+
+    @Test
+    public void doesNotTurnAddOfFolderIntoUpdate() throws Exception {
+        indexingQueue = new IndexingQueue(indexer, 100, 10);
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+
+        indexingQueue.add(folder);
+        indexingQueue.update(folder);
+
+        indexingQueue.start();
+        assertTrue(indexingQueue.awaitIndexed(5000));
+        assertEquals(newArrayList("add /folder", "commit"), indexer.changes);
+    }
+
+    @Test
+    public void deletesOldContentOfFolderBeforeAddingNewOne() throws Exception {
+        indexingQueue = new IndexingQueue(indexer, 100, 10);
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+
+        indexingQueue.delete("/folder", false);
+        indexingQueue.add(folder);
+
+        indexingQueue.start();
+        assertTrue(indexingQueue.awaitIndexed(5000));
+        assertEquals(newArrayList("delete /folder folder", "add /folder", "commit"), indexer.changes);
+    }
+
+    @Test
+    public void dropsPendingChangesOfItemsInsideOfDeletedFolder() throws Exception {
+        indexingQueue = new IndexingQueue(indexer, 100, 10);
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        VirtualFile file = folder.createFile("aaa.txt", "aaa");
+        VirtualFile otherFile = virtualFileSystem.getRoot().createFile("folder2", "bbb");
+
+        indexingQueue.add(file);
+        indexingQueue.add(otherFile);
+        indexingQueue.delete("/folder", false);
+
+        indexingQueue.start();
+        assertTrue(indexingQueue.awaitIndexed(5000));
+        assertEquals(newArrayList("add /folder2", "delete /folder folder", "commit"), indexer.changes);
+    }
+
+    @Test
+    public void appliesChangesInBatches() throws Exception {
+        indexingQueue = new IndexingQueue(indexer, 100, 2);
+        for (int i = 0; i < 5; i++) {
+            indexingQueue.delete("/file" + i, true);
+        }
+
+        indexingQueue.start();
+        assertTrue(indexingQueue.awaitIndexed(5000));
+        assertEquals(3, indexingQueue.getBatchCount());
+        assertEquals(5, indexingQueue.getIndexedCount());
+        assertEquals(newArrayList("delete /file0 file", "delete /file1 file", "commit",
+                                  "delete /file2 file", "delete /file3 file", "commit",
+                                  "delete /file4 file", "commit"), indexer.changes);
+    }
+
+    @Test
+    public void blocksWhenQueueIsFull() throws Exception {
+        indexingQueue = new IndexingQueue(indexer, 2, 1);
+        indexer.suspend();
+        indexingQueue.start();
+        indexingQueue.delete("/file0", true);
+        // Wait until the first change is taken by indexing thread.
+        assertTrue(indexer.applying.await(5, TimeUnit.SECONDS));
+        indexingQueue.delete("/file1", true);
+        indexingQueue.delete("/file2", true);
+        // Change of pending path does not need free space in queue.
+        indexingQueue.delete("/file2", true);
+
+        Thread producer = new Thread(() -> {
+            try {
+                indexingQueue.delete("/file3", true);
+            } catch (ServerException e) {
+                fail(e.getMessage());
+            }
+        });
+        producer.start();
+        producer.join(200);
+        assertTrue(producer.isAlive());
+        assertEquals(2, indexingQueue.getDepth());
+
+        indexer.resume();
+        producer.join(5000);
+        assertFalse(producer.isAlive());
+        assertTrue(indexingQueue.awaitIndexed(5000));
+        assertEquals(4, indexingQueue.getIndexedCount());
+    }
+
+    @Test
+    public void waitsOnlyForChangesQueuedBeforeSpecifiedOne() throws Exception {
+        indexingQueue = new IndexingQueue(indexer, 100, 1);
+        VirtualFile file = virtualFileSystem.getRoot().createFile("aaa.txt", "aaa");
+        indexer.suspend();
+        indexingQueue.start();
+
+        long sequence = indexingQueue.update(file);
+        indexingQueue.delete("/file0", true);
+
+        assertTrue(indexingQueue.awaitIndexed(sequence, 5000));
+        assertFalse(indexingQueue.awaitIndexed(100));
+        assertEquals(newArrayList("update /aaa.txt", "commit"), indexer.changes);
+    }
+
+    @Test(expected = ServerException.class)
+    public void rejectsChangesWhenQueueIsClosed() throws Exception {
+        indexingQueue = new IndexingQueue(indexer, 100, 10);
+        indexingQueue.start();
+        indexingQueue.close();
+
+        indexingQueue.delete("/file", true);
+    }
+
+    private static class RecordingIndexer implements IndexingQueue.Indexer {
+        final List<String>   changes  = new CopyOnWriteArrayList<>();
+        final CountDownLatch applying = new CountDownLatch(1);
+        CountDownLatch       suspended;
+
+        void suspend() {
+            suspended = new CountDownLatch(1);
+        }
+
+        void resume() {
+            if (suspended != null) {
+                suspended.countDown();
+            }
+        }
+
+        @Override
+        public void add(VirtualFile virtualFile) {
+            changes.add("add " + virtualFile.getPath());
+        }
+
+        @Override
+        public void update(VirtualFile virtualFile) {
+            changes.add("update " + virtualFile.getPath());
+        }
+
+        @Override
+        public void delete(String path, boolean isFile) throws ServerException {
+            applying.countDown();
+            if (suspended != null) {
+                try {
+                    suspended.await();
+                } catch (InterruptedException e) {
+                    throw new ServerException(e.getMessage());
+                }
+            }
+            changes.add("delete " + path + (isFile ? " file" : " folder"));
+        }
+
+        @Override
+        public void commit() {
+            changes.add("commit");
+        }
+    }
+}
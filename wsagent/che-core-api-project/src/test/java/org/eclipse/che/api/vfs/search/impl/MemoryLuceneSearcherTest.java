@@ -284,6 +284,60 @@ public class MemoryLuceneSearcherTest {
         assertTrue(Collections.disjoint(firstPage.getFilePaths(), lastPage.getFilePaths()));
     }
 
+    @Test
+    public void searchesAfterSpecifiedGenerationOfIndexBecomesVisible() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        searcher.setTargetStaleSec(0.01, 60);
+        searcher.init(virtualFileSystem);
+        VirtualFile file = virtualFileSystem.getRoot().createFolder("aaa").createFile("aaa.txt", TEST_CONTENT[1]);
+
+        searcher.add(file);
+        long indexGeneration = searcher.getIndexGeneration();
+
+        List<String> paths = searcher.search(new QueryExpression().setText("should"), indexGeneration).getFilePaths();
+        assertEquals(newArrayList(file.getPath().toString()), paths);
+    }
+
+    @Test
+    public void servesRepeatedSearchFromCacheUntilIndexIsChanged() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        for (int i = 0; i < 20; i++) {
+            virtualFileSystem.getRoot().createFile(String.format("file%02d", i), TEST_CONTENT[i % TEST_CONTENT.length]);
+        }
+        searcher.init(virtualFileSystem);
+
+        SearchResult firstResult = searcher.search(new QueryExpression().setText("spaceflight").setMaxItems(2));
+        firstResult.getNextPageQueryExpression().get().setMaxItems(100);
+        SearchResult cachedResult = searcher.search(new QueryExpression().setText("spaceflight").setMaxItems(2));
+
+        assertEquals(firstResult.getFilePaths(), cachedResult.getFilePaths());
+        assertEquals(2, cachedResult.getNextPageQueryExpression().get().getMaxItems());
+
+        SearchResult secondPage = searcher.search(cachedResult.getNextPageQueryExpression().get());
+        assertEquals(5, secondPage.getTotalHits());
+        assertEquals(2, secondPage.getFilePaths().size());
+        assertTrue(Collections.disjoint(firstResult.getFilePaths(), secondPage.getFilePaths()));
+
+        VirtualFile file = virtualFileSystem.getRoot().createFile("aaa", TEST_CONTENT[0]);
+        searcher.add(file);
+        SearchResult newResult = searcher.search(new QueryExpression().setText("spaceflight").setMaxItems(2));
+
+        assertEquals(6, newResult.getTotalHits());
+    }
+
+    @Test
+    public void doesNotCacheSearchResultsWhenCacheIsDisabled() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        virtualFileSystem.getRoot().createFile("aaa", TEST_CONTENT[0]);
+        searcher.setResultCacheSize(0);
+        searcher.init(virtualFileSystem);
+
+        searcher.search(new QueryExpression().setText("spaceflight"));
+        SearchResult result = searcher.search(new QueryExpression().setText("spaceflight"));
+
+        assertEquals(newArrayList("/aaa"), result.getFilePaths());
+    }
+
     private VirtualFileSystem virtualFileSystem() throws Exception {
         return new MemoryVirtualFileSystem(mock(ArchiverFactory.class), null);
     }
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import com.google.common.base.Strings;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.eclipse.che.api.vfs.search.SearchOccurrence;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SearchOccurrencesFinderTest {
+    private Analyzer analyzer;
+
+    @Before
+    public void setUp() throws Exception {
+        analyzer = new MemoryLuceneSearcher(null).makeAnalyzer();
+    }
+
+    @Test
+    public void findsLinesAndColumnsOfOccurrences() throws Exception {
+        String content = "first line\r\nsecond Line\nno match\nlast line";
+
+        List<SearchOccurrence> occurrences = finder("line").findOccurrences(content, 10);
+
+        assertEquals(newArrayList(1, 2, 4), occurrences.stream().map(SearchOccurrence::getLineNumber).collect(toList()));
+        assertEquals(newArrayList("first line", "second Line", "last line"),
+                     occurrences.stream().map(SearchOccurrence::getSnippet).collect(toList()));
+        SearchOccurrence second = occurrences.get(1);
+        assertEquals(7, second.getStartColumn());
+        assertEquals(11, second.getEndColumn());
+        assertEquals(19, second.getStartOffset());
+        assertEquals(23, second.getEndOffset());
+    }
+
+    @Test
+    public void limitsNumberOfOccurrences() throws Exception {
+        List<SearchOccurrence> occurrences = finder("a").findOccurrences("a a a a a", 3);
+
+        assertEquals(3, occurrences.size());
+    }
+
+    @Test
+    public void findsOccurrencesOfWildcardAndPrefixTerms() throws Exception {
+        List<SearchOccurrence> occurrences = finder("sp?ce* OR mile*").findOccurrences("Apollo set several major human spaceflight milestones",
+                                                                                      10);
+
+        assertEquals(newArrayList("spaceflight", "milestones"),
+                     occurrences.stream()
+                                .map(o -> o.getSnippet().substring(o.getStartColumn(), o.getEndColumn()))
+                                .collect(toList()));
+    }
+
+    @Test
+    public void ignoresProhibitedTerms() throws Exception {
+        List<SearchOccurrence> occurrences = finder("be -not").findOccurrences("to be or not to be", 10);
+
+        assertEquals(2, occurrences.size());
+    }
+
+    @Test
+    public void cutsLongLinesAroundOccurrence() throws Exception {
+        String line = Strings.repeat("x ", 100) + "match" + Strings.repeat(" y", 100);
+
+        SearchOccurrence occurrence = finder("match").findOccurrences(line, 1).get(0);
+
+        assertEquals(SearchOccurrencesFinder.SNIPPET_LENGTH, occurrence.getSnippet().length());
+        int startInSnippet = occurrence.getStartColumn() - occurrence.getSnippetStartColumn();
+        assertEquals("match", occurrence.getSnippet().substring(startInSnippet, startInSnippet + 5));
+    }
+
+    @Test
+    public void findsNothingWhenQueryHasNoTermsOfContentField() throws Exception {
+        SearchOccurrencesFinder finder = new SearchOccurrencesFinder(analyzer, new QueryParser("name", analyzer).parse("line"), "text");
+
+        assertTrue(finder.findOccurrences("line", 10).isEmpty());
+    }
+
+    private SearchOccurrencesFinder finder(String query) throws Exception {
+        return new SearchOccurrencesFinder(analyzer, new QueryParser("text", analyzer).parse(query), "text");
+    }
+}
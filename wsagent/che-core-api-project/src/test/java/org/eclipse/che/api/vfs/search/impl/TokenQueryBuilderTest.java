@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.WildcardQuery;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static com.google.common.collect.Sets.newHashSet;
+import static com.google.common.collect.Sets.newLinkedHashSet;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class TokenQueryBuilderTest {
+    private final TokenQueryBuilder builder = new TokenQueryBuilder("text");
+
+    @Test
+    public void splitsLiteralByWhitespacesAndConvertsItToLowerCase() {
+        assertEquals(newLinkedHashSet(asList("new", "foo(bar")), TokenQueryBuilder.tokenParts(" New\tFoo(Bar "));
+    }
+
+    @Test
+    public void buildsConjunctionOfTokenPartsOfAllLiterals() {
+        Query query = builder.build(Pattern.compile("new\\s+Foo\\(bar"));
+
+        assertEquals(newHashSet("*new*", "*foo(bar*"), mandatoryWildcards(query));
+    }
+
+    @Test
+    public void escapesWildcardCharactersOfLiterals() {
+        Query query = builder.build(Pattern.compile("a\\*b\\?c"));
+
+        assertEquals(newHashSet("*a\\*b\\?c*"), mandatoryWildcards(query));
+    }
+
+    @Test
+    public void doesNotBuildQueryWhenAnyAlternativeHasNoLiterals() {
+        assertNull(builder.build(Pattern.compile("\\d{4}")));
+        assertNull(builder.build(Pattern.compile("Foo|\\s+")));
+    }
+
+    private static Set<String> mandatoryWildcards(Query query) {
+        Set<String> wildcards = newHashSet();
+        for (BooleanClause clause : ((BooleanQuery)query).clauses()) {
+            assertEquals(BooleanClause.Occur.MUST, clause.getOccur());
+            for (BooleanClause partClause : ((BooleanQuery)clause.getQuery()).clauses()) {
+                if (partClause.getQuery() instanceof WildcardQuery) {
+                    wildcards.add(((WildcardQuery)partClause.getQuery()).getTerm().text());
+                }
+            }
+        }
+        return wildcards;
+    }
+}
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Sets.newHashSet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TrigramQueryBuilderTest {
+    private final TrigramQueryBuilder builder = new TrigramQueryBuilder("trigrams");
+
+    @Test
+    public void extractsWholeExpressionWithoutMetaCharactersAsLiteral() {
+        assertEquals(newArrayList("implements Serializable"), TrigramQueryBuilder.requiredLiterals("implements Serializable"));
+    }
+
+    @Test
+    public void breaksLiteralsOnCharacterClassesAndGroups() {
+        assertEquals(newArrayList("class", "Foo", "Bar"), TrigramQueryBuilder.requiredLiterals("class\\s+Foo[A-Z](x|y)Bar"));
+    }
+
+    @Test
+    public void dropsOptionalCharacters() {
+        assertEquals(newArrayList("colo", "r"), TrigramQueryBuilder.requiredLiterals("colou?r"));
+        assertEquals(newArrayList("ab", "d"), TrigramQueryBuilder.requiredLiterals("abc*d"));
+        assertEquals(newArrayList("ab", "d"), TrigramQueryBuilder.requiredLiterals("abc{0,3}d"));
+    }
+
+    @Test
+    public void keepsCharactersThatAreRepeatedAtLeastOnce() {
+        assertEquals(newArrayList("abc", "cd"), TrigramQueryBuilder.requiredLiterals("abc+d"));
+        assertEquals(newArrayList("abc", "cd"), TrigramQueryBuilder.requiredLiterals("abc{2,}d"));
+    }
+
+    @Test
+    public void treatsEscapedAndQuotedCharactersAsLiterals() {
+        assertEquals(newArrayList("foo.bar()"), TrigramQueryBuilder.requiredLiterals("foo\\.bar\\(\\)"));
+        assertEquals(newArrayList("foo.bar(*)"), TrigramQueryBuilder.requiredLiterals(Pattern.quote("foo.bar(*)")));
+    }
+
+    @Test
+    public void skipsArgumentsOfEscapeSequences() {
+        assertEquals(newArrayList("abc", "def"), TrigramQueryBuilder.requiredLiterals("abc\\p{Alpha}def"));
+        assertEquals(newArrayList("abc", "def"), TrigramQueryBuilder.requiredLiterals("abc\\x41def"));
+        assertEquals(newArrayList("abc", "def"), TrigramQueryBuilder.requiredLiterals("abc\\u0041def"));
+    }
+
+    @Test
+    public void splitsTopLevelAlternativesOnly() {
+        assertEquals(newArrayList("foo", "ba(r|z)", "[|]"), TrigramQueryBuilder.splitAlternatives("foo|ba(r|z)|[|]"));
+    }
+
+    @Test
+    public void generatesLowerCasedTrigrams() {
+        assertEquals(newHashSet("foo", "oob", "oba", "bar"), TrigramQueryBuilder.trigrams("FooBar"));
+        assertTrue(TrigramQueryBuilder.trigrams("ab").isEmpty());
+    }
+
+    @Test
+    public void buildsConjunctionOfTrigramsOfAllLiterals() {
+        Query query = builder.build(Pattern.compile("Foo.*Bar"));
+
+        assertEquals(newHashSet("foo", "bar"), mandatoryTrigrams(query));
+    }
+
+    @Test
+    public void buildsDisjunctionOfAlternatives() {
+        BooleanQuery query = (BooleanQuery)builder.build(Pattern.compile("Foo|Bar"));
+
+        assertEquals(2, query.clauses().size());
+        for (BooleanClause clause : query.clauses()) {
+            assertEquals(BooleanClause.Occur.SHOULD, clause.getOccur());
+        }
+    }
+
+    @Test
+    public void doesNotBuildQueryWhenAnyAlternativeHasNoTrigrams() {
+        assertNull(builder.build(Pattern.compile("Foo|B.r")));
+    }
+
+    @Test
+    public void doesNotBuildQueryWhenLiteralsAreTooShort() {
+        assertNull(builder.build(Pattern.compile("a.b\\d+cd")));
+    }
+
+    @Test
+    public void doesNotBuildQueryForExpressionWithComments() {
+        assertNull(builder.build(Pattern.compile("(?x) foo bar")));
+        assertNull(builder.build(Pattern.compile("foo bar", Pattern.COMMENTS)));
+    }
+
+    private static Set<String> mandatoryTrigrams(Query query) {
+        Set<String> trigrams = newHashSet();
+        for (BooleanClause clause : ((BooleanQuery)query).clauses()) {
+            assertEquals(BooleanClause.Occur.MUST, clause.getOccur());
+            trigrams.add(((TermQuery)clause.getQuery()).getTerm().text());
+        }
+        return trigrams;
+    }
+}
@@ -622,6 +622,48 @@ public class WorkspaceService extends Service {
         return linksInjector.injectLinks(asDto(workspaceManager.updateWorkspace(id, workspace)), getServiceContext());
     }
 
+    @PUT
+    @Path("/{id}/project")
+    @Consumes(APPLICATION_JSON)
+    @Produces(APPLICATION_JSON)
+    @RolesAllowed("user")
+    @ApiOperation(value = "Update the workspace projects in one request",
+                  notes = "Each project replaces the project with the same path or is added if there is no such project, " +
+                          "projects with paths listed in 'remove' parameter are removed. Request may be safely repeated. " +
+                          "This operation can be performed only by the workspace owner")
+    @ApiResponses({@ApiResponse(code = 200, message = "The projects successfully updated"),
+                   @ApiResponse(code = 400, message = "Missed required parameters, parameters are not valid"),
+                   @ApiResponse(code = 403, message = "The user does not have access to update the projects"),
+                   @ApiResponse(code = 404, message = "The workspace not found"),
+                   @ApiResponse(code = 409, message = "Any conflict error occurs"),
+                   @ApiResponse(code = 500, message = "Internal server error occurred")})
+    public WorkspaceDto updateProjects(@ApiParam("The workspace id")
+                                       @PathParam("id")
+                                       String id,
+                                       @ApiParam("The paths of the projects to remove")
+                                       @QueryParam("remove")
+                                       List<String> removedPaths,
+                                       @ApiParam(value = "The projects to add or update", required = true)
+                                       List<ProjectConfigDto> updates) throws ServerException,
+                                                                              BadRequestException,
+                                                                              NotFoundException,
+                                                                              ConflictException,
+                                                                              ForbiddenException {
+        requiredNotNull(updates, "Project configs");
+        final WorkspaceImpl workspace = workspaceManager.getWorkspace(id);
+        final List<ProjectConfigImpl> projects = workspace.getConfig().getProjects();
+        for (String path : removedPaths) {
+            final String normalizedPath = path.startsWith("/") ? path : '/' + path;
+            projects.removeIf(project -> project.getPath().equals(normalizedPath));
+        }
+        for (ProjectConfigDto update : updates) {
+            projects.removeIf(project -> project.getPath().equals(update.getPath()));
+            projects.add(new ProjectConfigImpl(update));
+        }
+        validator.validateConfig(workspace.getConfig());
+        return linksInjector.injectLinks(asDto(workspaceManager.updateWorkspace(id, workspace)), getServiceContext());
+    }
+
     @PUT
     @Path("/{id}/project/{path:.*}")
     @Consumes(APPLICATION_JSON)
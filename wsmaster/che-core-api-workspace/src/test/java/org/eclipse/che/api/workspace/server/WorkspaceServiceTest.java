@@ -33,6 +33,7 @@ import org.eclipse.che.api.machine.server.model.impl.ServerImpl;
 import org.eclipse.che.api.machine.server.model.impl.SnapshotImpl;
 import org.eclipse.che.api.machine.shared.dto.CommandDto;
 import org.eclipse.che.api.workspace.server.model.impl.EnvironmentImpl;
+import org.eclipse.che.api.workspace.server.model.impl.ProjectConfigImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceConfigImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceRuntimeImpl;
@@ -65,6 +66,7 @@ import java.util.Set;
 import static com.jayway.restassured.RestAssured.given;
 import static java.lang.String.format;
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.singleton;
 import static java.util.Collections.singletonList;
@@ -598,6 +600,48 @@ public class WorkspaceServiceTest {
         verify(wsManager, never()).updateWorkspace(any(), any());
     }
 
+    @Test
+    public void shouldUpdateProjectsInOneRequest() throws Exception {
+        final WorkspaceImpl workspace = createWorkspace(createConfigDto());
+        when(wsManager.getWorkspace(workspace.getId())).thenReturn(workspace);
+        when(wsManager.updateWorkspace(any(), any())).thenReturn(workspace);
+        final ProjectConfigDto updated = createProjectDto().withDescription("Updated project");
+        final ProjectConfigDto added = createProjectDto().withPath("/project/new");
+
+        final Response response = given().auth()
+                                         .basic(ADMIN_USER_NAME, ADMIN_USER_PASSWORD)
+                                         .contentType("application/json")
+                                         .body(asList(updated, added))
+                                         .when()
+                                         .put(SECURE_PATH + "/workspace/" + workspace.getId() + "/project?remove=/project/removed");
+
+        assertEquals(response.getStatusCode(), 200);
+        final List<ProjectConfigImpl> projects = workspace.getConfig().getProjects();
+        assertEquals(projects.size(), 2);
+        assertEquals(projects.get(0).getDescription(), "Updated project");
+        assertEquals(projects.get(1).getPath(), "/project/new");
+        verify(validator).validateConfig(workspace.getConfig());
+        verify(wsManager).updateWorkspace(any(), any());
+    }
+
+    @Test
+    public void shouldRemoveProjectsWhenUpdatingProjectsInOneRequest() throws Exception {
+        final WorkspaceImpl workspace = createWorkspace(createConfigDto());
+        when(wsManager.getWorkspace(workspace.getId())).thenReturn(workspace);
+        when(wsManager.updateWorkspace(any(), any())).thenReturn(workspace);
+
+        final Response response = given().auth()
+                                         .basic(ADMIN_USER_NAME, ADMIN_USER_PASSWORD)
+                                         .contentType("application/json")
+                                         .body(emptyList())
+                                         .when()
+                                         .put(SECURE_PATH + "/workspace/" + workspace.getId() + "/project?remove=/project/path");
+
+        assertEquals(response.getStatusCode(), 200);
+        assertTrue(workspace.getConfig().getProjects().isEmpty());
+        verify(wsManager).updateWorkspace(any(), any());
+    }
+
     @Test
     public void shouldDeleteProject() throws Exception {
         final WorkspaceImpl workspace = createWorkspace(createConfigDto());